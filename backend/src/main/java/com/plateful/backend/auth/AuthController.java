@@ -2,13 +2,23 @@ package com.plateful.backend.auth;
 
 import com.plateful.backend.auth.dto.LoginRequest;
 import com.plateful.backend.auth.dto.LoginResponse;
+import com.plateful.backend.auth.dto.LogoutRequest;
+import com.plateful.backend.auth.dto.RefreshRequest;
 import com.plateful.backend.auth.dto.SignupRequest;
 import com.plateful.backend.auth.dto.SignupResponse;
 import com.plateful.backend.model.AppUser;
 import com.plateful.backend.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.validation.Valid;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,12 +29,20 @@ public class AuthController {
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
   private final JwtService jwtService;
+  private final RevocationService revocationService;
+  private final long refreshRecheckSec;
 
   public AuthController(
-      UserRepository userRepository, PasswordEncoder passwordEncoder, JwtService jwtService) {
+      UserRepository userRepository,
+      PasswordEncoder passwordEncoder,
+      JwtService jwtService,
+      RevocationService revocationService,
+      @Value("${auth.refreshRecheckSec:86400}") long refreshRecheckSec) {
     this.userRepository = userRepository;
     this.passwordEncoder = passwordEncoder;
     this.jwtService = jwtService;
+    this.revocationService = revocationService;
+    this.refreshRecheckSec = refreshRecheckSec;
   }
 
   @PostMapping("/signup")
@@ -57,7 +75,7 @@ public class AuthController {
                     new org.springframework.security.authentication.BadCredentialsException(
                         "Invalid credentials"));
 
-    if (!passwordEncoder.matches(req.password(), user.getPasswordHash())) {
+    if (!passwordEncoder.matches(req.password(), user.getPasswordHash()) || !user.isEnabled()) {
       throw new org.springframework.security.authentication.BadCredentialsException(
           "Invalid credentials");
     }
@@ -67,4 +85,106 @@ public class AuthController {
 
     return ResponseEntity.ok(new LoginResponse(access, refresh, jwtService.getAccessTtlSec()));
   }
+
+  /**
+   * Exchanges a refresh token for a new access token and a new (rotated) refresh token.
+   *
+   * <p>Refresh tokens carry the user's ID, email and roles, so this normally needs no password
+   * hash and no user lookup. The account is looked up again (to pick up role changes and disabled
+   * accounts) only once every {@code auth.refreshRecheckSec}.
+   *
+   * <p>Revocation is checked against the database, not the in-memory filter, so a logout
+   * everywhere on another instance counts at once. Before anything is minted, the presented token
+   * is claimed by inserting its revocation, which succeeds only once. A token presented again
+   * after it was rotated or revoked is taken as stolen: the request fails and every token of the
+   * user is revoked, signing out both the thief and the legitimate client. Refresh tokens issued
+   * before tokens had a {@code jti} cannot be claimed or revoked, so they are rejected and those
+   * users log in again.
+   */
+  @PostMapping("/refresh")
+  public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshRequest req) {
+    JwtService.RefreshToken token;
+    try {
+      token = jwtService.parseRefreshToken(req.refreshToken());
+    } catch (JwtException e) {
+      throw new BadCredentialsException("Invalid refresh token");
+    }
+    if (token.tokenId() == null) {
+      throw new BadCredentialsException("Invalid refresh token");
+    }
+    if (revocationService.isSubjectRevokedInDatabase(token.subject(), token.issuedAt())) {
+      throw new BadCredentialsException("Invalid refresh token");
+    }
+    if (!revocationService.claimToken(token.tokenId(), token.expiresAt())) {
+      revocationService.revokeSubject(token.subject());
+      throw new BadCredentialsException("Invalid refresh token");
+    }
+
+    Instant now = Instant.now();
+    String subject = token.subject();
+    String email = token.email();
+    List<String> roles = token.roles();
+    Instant authTime = token.authTime();
+    if (!token.isSelfContained() || authTime.plusSeconds(refreshRecheckSec).isBefore(now)) {
+      AppUser user =
+          findForRefresh(token)
+              .filter(AppUser::isEnabled)
+              .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+      subject = user.getId() != null ? user.getId() : user.getEmail();
+      email = user.getEmail();
+      roles = user.getRoles() != null ? List.copyOf(user.getRoles()) : List.of();
+      authTime = now;
+    }
+
+    var access = jwtService.generateAccessToken(subject, email, roles);
+    var refresh = jwtService.generateRefreshToken(subject, email, roles, authTime);
+    return ResponseEntity.ok(new LoginResponse(access, refresh, jwtService.getAccessTtlSec()));
+  }
+
+  /**
+   * Signs out by revoking the bearer access token and, if given, the refresh token. With {@code
+   * all=true}, revokes every token issued to the user so far, which signs out all devices. Invalid
+   * or expired tokens are ignored, so signing out always succeeds.
+   */
+  @PostMapping("/logout")
+  public ResponseEntity<Void> logout(
+      @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+      @RequestBody(required = false) LogoutRequest req,
+      @RequestParam(defaultValue = "false") boolean all) {
+    String subject = null;
+    if (authorization != null && authorization.startsWith("Bearer ")) {
+      Claims access = claimsOrNull(authorization.substring(7));
+      if (access != null) {
+        revocationService.revokeToken(access.getId(), access.getExpiration().toInstant());
+        subject = access.getSubject();
+      }
+    }
+    if (req != null && req.refreshToken() != null) {
+      Claims refresh = claimsOrNull(req.refreshToken());
+      if (refresh != null) {
+        revocationService.revokeToken(refresh.getId(), refresh.getExpiration().toInstant());
+        subject = subject != null ? subject : refresh.getSubject();
+      }
+    }
+    if (all && subject != null) {
+      revocationService.revokeSubject(subject);
+    }
+    return ResponseEntity.noContent().build();
+  }
+
+  private Claims claimsOrNull(String token) {
+    try {
+      return jwtService.parseClaims(token);
+    } catch (JwtException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /** Older refresh tokens use the email as subject; current ones use the user ID. */
+  private Optional<AppUser> findForRefresh(JwtService.RefreshToken token) {
+    if (token.subject().contains("@")) {
+      return userRepository.findByEmail(token.subject());
+    }
+    return userRepository.findById(token.subject());
+  }
 }
@@ -0,0 +1,80 @@
+package com.plateful.backend.auth;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over strings: a set membership test that can return false positives but never
+ * false negatives, in a fixed amount of memory. Sized for an expected number of insertions and a
+ * target false positive rate. {@link #add} and {@link #mightContain} are lock-free and safe from
+ * any thread.
+ */
+public final class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashes;
+
+  /**
+   * @param expectedInsertions number of keys the filter is sized for
+   * @param falsePositiveRate target false positive rate at that size, in (0, 1)
+   */
+  public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+    if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("invalid Bloom filter parameters");
+    }
+    double ln2 = Math.log(2);
+    long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+    long words = Math.max(1, (m + 63) / 64);
+    this.bits = new AtomicLongArray(Math.toIntExact(words));
+    this.bitCount = words * 64;
+    this.hashes = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+  }
+
+  public void add(String key) {
+    long hash = hash(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashes; i++) {
+      long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current;
+      do {
+        current = bits.get(word);
+      } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+    }
+  }
+
+  /** False if the key was definitely never added; true if it probably was. */
+  public boolean mightContain(String key) {
+    long hash = hash(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashes; i++) {
+      long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  int hashes() {
+    return hashes;
+  }
+
+  /** 64-bit FNV-1a over the chars (no allocation), finished with a murmur3 mix. */
+  private static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      h ^= key.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -10,6 +10,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -18,19 +19,25 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
+import java.time.Instant;
+import java.util.List;
 
 /**
  * JWT Authentication Filter that extracts and validates JWT tokens from the Authorization header.
- * If valid, populates the SecurityContext with an Authentication object containing the userId.
+ * If valid, populates the SecurityContext with an Authentication object containing the userId
+ * and one {@code ROLE_*} authority per entry of the token's {@code roles} claim. Refresh tokens
+ * and tokens revoked through {@link RevocationService} are ignored here.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final byte[] secret;
+    private final RevocationService revocationService;
 
-    public JwtAuthenticationFilter(@Value("${jwt.secret}") String secret) {
+    public JwtAuthenticationFilter(@Value("${jwt.secret}") String secret,
+                                   RevocationService revocationService) {
         this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.revocationService = revocationService;
     }
 
     @Override
@@ -55,13 +62,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // Extract userId from subject claim
                 String userId = claims.getSubject();
 
-                if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Refresh tokens are only accepted by /auth/refresh, never as access tokens
+                boolean refreshToken = JwtService.REFRESH_TYPE.equals(claims.get("type"));
+
+                if (userId != null && !refreshToken
+                        && SecurityContextHolder.getContext().getAuthentication() == null
+                        && !isRevoked(claims, userId)) {
                     // Create authentication object with userId as the principal
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(
                                     userId,  // Principal (userId)
                                     null,    // Credentials (not needed)
-                                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+                                    authorities(claims)
                             );
 
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -79,4 +91,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Continue filter chain
         filterChain.doFilter(request, response);
     }
+
+    /** In-memory Bloom filter check; reaches the database only for likely revoked tokens. */
+    private boolean isRevoked(Claims claims, String userId) {
+        Instant issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+        return revocationService.isRevoked(claims.getId(), userId, issuedAt);
+    }
+
+    /**
+     * Maps the token's roles claim to authorities. Tokens issued before roles were added carry
+     * no claim and are treated as ordinary users.
+     */
+    private static List<GrantedAuthority> authorities(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof List<?> list) || list.isEmpty()) {
+            return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        }
+        return list.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
+                .toList();
+    }
 }
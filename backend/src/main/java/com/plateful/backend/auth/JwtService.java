@@ -1,6 +1,8 @@
 package com.plateful.backend.auth;
 
 import com.plateful.backend.model.AppUser;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -8,10 +10,42 @@ import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Service
 public class JwtService {
+    /** Value of the {@code type} claim that marks refresh tokens. */
+    public static final String REFRESH_TYPE = "refresh";
+
+    /**
+     * The verified contents of a refresh token.
+     *
+     * @param subject user ID, or the email for refresh tokens issued before IDs were used
+     * @param email the user's email
+     * @param roles the user's roles; null for tokens issued before roles were carried
+     * @param tokenId the token's unique ID ({@code jti})
+     * @param issuedAt when the token was issued
+     * @param authTime when the account was last checked against the database; null for older tokens
+     * @param expiresAt when the token expires
+     */
+    public record RefreshToken(
+            String subject,
+            String email,
+            List<String> roles,
+            String tokenId,
+            Instant issuedAt,
+            Instant authTime,
+            Instant expiresAt
+    ) {
+        /** Whether the token carries everything needed to mint new tokens without a user lookup. */
+        public boolean isSelfContained() {
+            return roles != null && authTime != null;
+        }
+    }
+
     private final byte[] secret;
     private final long accessTtlSec;
     private final long refreshTtlSec;
@@ -27,26 +61,97 @@ public class JwtService {
     }
 
     public String generateAccessToken(AppUser user) {
+        return generateAccessToken(subjectOf(user), user.getEmail(), rolesOf(user));
+    }
+
+    public String generateAccessToken(String subject, String email, Collection<String> roles) {
         Instant now = Instant.now();
         return Jwts.builder()
-                .subject(user.getId() != null ? user.getId() : user.getEmail())
-                .claim("email", user.getEmail())
+                .subject(subject)
+                .id(UUID.randomUUID().toString())
+                .claim("email", email)
+                .claim("roles", List.copyOf(roles))
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plusSeconds(accessTtlSec)))
                 .signWith(Keys.hmacShaKeyFor(secret))
                 .compact();
     }
 
+    /** A refresh token for a user whose account was just checked, e.g. at login. */
     public String generateRefreshToken(AppUser user) {
+        return generateRefreshToken(subjectOf(user), user.getEmail(), rolesOf(user), Instant.now());
+    }
+
+    /**
+     * A refresh token carrying the user's identity and roles, so that refreshing it needs no
+     * database lookup. Each token gets a new {@code jti}.
+     *
+     * @param authTime when the account was last checked against the database
+     */
+    public String generateRefreshToken(String subject, String email, Collection<String> roles,
+                                       Instant authTime) {
         Instant now = Instant.now();
         return Jwts.builder()
-                .subject(user.getEmail())
-                .claim("type", "refresh")
+                .subject(subject)
+                .id(UUID.randomUUID().toString())
+                .claim("type", REFRESH_TYPE)
+                .claim("email", email)
+                .claim("roles", List.copyOf(roles))
+                .claim("auth_time", authTime.getEpochSecond())
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plusSeconds(refreshTtlSec)))
                 .signWith(Keys.hmacShaKeyFor(secret))
                 .compact();
     }
 
+    /**
+     * Verifies a refresh token's signature, expiry and {@code type} claim.
+     *
+     * @throws JwtException if the token is invalid, expired or not a refresh token
+     */
+    public RefreshToken parseRefreshToken(String token) {
+        Claims claims = parseClaims(token);
+        if (!REFRESH_TYPE.equals(claims.get("type")) || claims.getSubject() == null) {
+            throw new JwtException("Not a refresh token");
+        }
+        List<String> roles = null;
+        if (claims.get("roles") instanceof List<?> list) {
+            roles = list.stream().map(String::valueOf).toList();
+        }
+        Instant authTime = claims.get("auth_time") instanceof Number n
+                ? Instant.ofEpochSecond(n.longValue())
+                : null;
+        String email = claims.get("email", String.class);
+        return new RefreshToken(
+                claims.getSubject(),
+                email != null ? email : claims.getSubject(),
+                roles,
+                claims.getId(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                authTime,
+                claims.getExpiration().toInstant());
+    }
+
+    /**
+     * Verifies any token issued here (access or refresh) and returns its claims.
+     *
+     * @throws JwtException if the token is invalid or expired
+     */
+    public Claims parseClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(secret))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
     public long getAccessTtlSec() { return accessTtlSec; }
+
+    private static String subjectOf(AppUser user) {
+        return user.getId() != null ? user.getId() : user.getEmail();
+    }
+
+    private static List<String> rolesOf(AppUser user) {
+        return user.getRoles() != null ? List.copyOf(user.getRoles()) : List.of();
+    }
 }
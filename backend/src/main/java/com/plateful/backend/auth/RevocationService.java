@@ -0,0 +1,256 @@
+package com.plateful.backend.auth;
+
+import com.plateful.backend.model.TokenRevocation;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Revoked JWTs: single tokens by ID ({@code jti}), and all tokens of a user issued up to a point
+ * in time.
+ *
+ * <p>Revocations are persisted in {@code token_revocations}. Checking a token, which happens on
+ * every authenticated request, starts with an in-memory {@link BloomFilter} of all revocation
+ * keys. Almost every token is not revoked, and for those the check is a few hashes with no
+ * database call. Only when the filter reports a possible match is the revocation read from the
+ * database to confirm it. Confirmed results are cached. If that read fails, the token is treated as
+ * revoked. The filter is rebuilt from the database every {@code app.auth.revocation.refresh-ms},
+ * which picks up revocations made by other instances and drops expired ones.
+ */
+@Service
+public class RevocationService {
+
+  private static final Logger log = LoggerFactory.getLogger(RevocationService.class);
+
+  /** Cached "not revoked" result for keys that were Bloom filter false positives. */
+  private static final TokenRevocation NOT_REVOKED = new TokenRevocation();
+
+  private final MongoTemplate mongoTemplate;
+  private final long expectedInsertions;
+  private final double falsePositiveRate;
+  private final long maxTokenTtlSec;
+  private final Map<String, TokenRevocation> confirmed;
+  // revocations made here since shortly before the last rebuild started; re-added after a rebuild
+  private final Map<String, Instant> recent = new ConcurrentHashMap<>();
+
+  private volatile BloomFilter bloom;
+
+  public RevocationService(
+      MongoTemplate mongoTemplate,
+      @Value("${app.auth.revocation.expected-insertions:100000}") long expectedInsertions,
+      @Value("${app.auth.revocation.false-positive-rate:0.001}") double falsePositiveRate,
+      @Value("${app.auth.revocation.cache-size:10000}") int cacheSize,
+      @Value("${auth.refreshTtlSec}") long maxTokenTtlSec) {
+    this.mongoTemplate = mongoTemplate;
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveRate = falsePositiveRate;
+    this.maxTokenTtlSec = maxTokenTtlSec;
+    this.bloom = new BloomFilter(expectedInsertions, falsePositiveRate);
+    this.confirmed =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, TokenRevocation> eldest) {
+                return size() > cacheSize;
+              }
+            });
+  }
+
+  /**
+   * Whether a token has been revoked, either by its ID or because all of its subject's tokens
+   * issued by then were.
+   *
+   * @param tokenId the token's {@code jti}, or null for tokens without one
+   * @param subject the token's subject
+   * @param issuedAt the token's {@code iat}, or null if unknown
+   */
+  public boolean isRevoked(String tokenId, String subject, Instant issuedAt) {
+    BloomFilter filter = bloom;
+    if (tokenId != null) {
+      String key = TokenRevocation.tokenKey(tokenId);
+      if (filter.mightContain(key) && lookup(key) != NOT_REVOKED) {
+        return true;
+      }
+    }
+    if (subject != null) {
+      String key = TokenRevocation.subjectKey(subject);
+      if (filter.mightContain(key)) {
+        TokenRevocation revocation = lookup(key);
+        return revocation != NOT_REVOKED
+            && (issuedAt == null || !issuedAt.isAfter(revocation.getRevokedBefore()));
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Revokes a single token, e.g. on logout.
+   *
+   * @param tokenId the token's {@code jti}; tokens without one cannot be revoked individually
+   * @param expiresAt the token's expiry, after which the revocation is no longer needed
+   */
+  public void revokeToken(String tokenId, Instant expiresAt) {
+    if (tokenId == null) {
+      return;
+    }
+    String key = TokenRevocation.tokenKey(tokenId);
+    TokenRevocation revocation = new TokenRevocation(key, null, expiresAt);
+    mongoTemplate.save(revocation);
+    remember(key);
+    confirmed.put(key, revocation);
+  }
+
+  /**
+   * Marks a refresh token as used by inserting its revocation. The insert is atomic, so only one
+   * caller on any instance can claim a token; it fails for every later one, and for a token that
+   * was revoked on logout.
+   *
+   * @param tokenId the token's {@code jti}; tokens without one cannot be claimed
+   * @param expiresAt the token's expiry, after which the revocation is no longer needed
+   * @return true if this call claimed the token, false if it was already used or revoked, or has
+   *     no {@code jti}
+   */
+  public boolean claimToken(String tokenId, Instant expiresAt) {
+    if (tokenId == null) {
+      return false;
+    }
+    String key = TokenRevocation.tokenKey(tokenId);
+    TokenRevocation revocation = new TokenRevocation(key, null, expiresAt);
+    try {
+      mongoTemplate.insert(revocation);
+    } catch (DuplicateKeyException e) {
+      return false;
+    }
+    remember(key);
+    confirmed.put(key, revocation);
+    return true;
+  }
+
+  /**
+   * Whether all of a subject's tokens issued by {@code issuedAt} were revoked, read from the
+   * database. Unlike {@link #isRevoked}, this sees revocations made by other instances before the
+   * next filter rebuild. If the read fails, the tokens are treated as revoked.
+   *
+   * @param issuedAt the token's {@code iat}, or null if unknown
+   */
+  public boolean isSubjectRevokedInDatabase(String subject, Instant issuedAt) {
+    TokenRevocation stored;
+    try {
+      stored = mongoTemplate.findById(TokenRevocation.subjectKey(subject), TokenRevocation.class);
+    } catch (RuntimeException e) {
+      log.warn(
+          "Could not read revocations of {}; treating as revoked: {}", subject, e.getMessage());
+      return true;
+    }
+    return stored != null
+        && !expired(stored)
+        && (issuedAt == null || !issuedAt.isAfter(stored.getRevokedBefore()));
+  }
+
+  /**
+   * Revokes every token of a user issued up to now, e.g. on logout everywhere or account disable.
+   * Token issue times have one-second resolution, so tokens issued later in the same second are
+   * revoked too.
+   */
+  public void revokeSubject(String subject) {
+    Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    String key = TokenRevocation.subjectKey(subject);
+    // $max, so a concurrent earlier revocation cannot move the cut-off back
+    mongoTemplate.upsert(
+        new Query(Criteria.where("_id").is(key)),
+        new Update()
+            .max("revokedBefore", before)
+            .max("expiresAt", before.plusSeconds(maxTokenTtlSec)),
+        TokenRevocation.class);
+    remember(key);
+    confirmed.remove(key);
+  }
+
+  /** Rebuilds the Bloom filter from the persisted, unexpired revocations. */
+  @Scheduled(
+      initialDelayString = "${app.auth.revocation.refresh-ms:30000}",
+      fixedDelayString = "${app.auth.revocation.refresh-ms:30000}")
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    Instant started = Instant.now();
+    try {
+      Query query = new Query(Criteria.where("expiresAt").gt(started));
+      query.fields().include("_id");
+      List<String> keys = new ArrayList<>();
+      try (Stream<TokenRevocation> revocations =
+          mongoTemplate.stream(query, TokenRevocation.class)) {
+        revocations.forEach(r -> keys.add(r.getId()));
+      }
+      BloomFilter rebuilt =
+          new BloomFilter(Math.max(expectedInsertions, 2L * keys.size()), falsePositiveRate);
+      keys.forEach(rebuilt::add);
+      recent.keySet().forEach(rebuilt::add);
+      bloom = rebuilt;
+      // again, for revocations that went into the old filter while this one was built
+      recent.keySet().forEach(rebuilt::add);
+      // other instances may have changed revocations that were confirmed here
+      confirmed.clear();
+      // anything revoked here before the query started is in the database snapshot now
+      Iterator<Map.Entry<String, Instant>> it = recent.entrySet().iterator();
+      while (it.hasNext()) {
+        if (it.next().getValue().isBefore(started.minusSeconds(1))) {
+          it.remove();
+        }
+      }
+      if (keys.size() > expectedInsertions) {
+        log.warn(
+            "{} token revocations exceed app.auth.revocation.expected-insertions={}",
+            keys.size(),
+            expectedInsertions);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Could not rebuild token revocation filter: {}", e.getMessage());
+    }
+  }
+
+  private void remember(String key) {
+    recent.put(key, Instant.now());
+    bloom.add(key);
+  }
+
+  /** Reads a possible revocation, from the cache or the database. */
+  private TokenRevocation lookup(String key) {
+    TokenRevocation cached = confirmed.get(key);
+    if (cached != null && (cached == NOT_REVOKED || !expired(cached))) {
+      return cached;
+    }
+    TokenRevocation stored;
+    try {
+      stored = mongoTemplate.findById(key, TokenRevocation.class);
+    } catch (RuntimeException e) {
+      log.warn("Could not confirm revocation {}; treating as revoked: {}", key, e.getMessage());
+      return new TokenRevocation(key, Instant.MAX, null);
+    }
+    TokenRevocation result = stored == null || expired(stored) ? NOT_REVOKED : stored;
+    confirmed.put(key, result);
+    return result;
+  }
+
+  private static boolean expired(TokenRevocation revocation) {
+    return revocation.getExpiresAt() != null && revocation.getExpiresAt().isBefore(Instant.now());
+  }
+}
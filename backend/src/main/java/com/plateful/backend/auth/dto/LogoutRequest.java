@@ -0,0 +1,5 @@
+package com.plateful.backend.auth.dto;
+
+public record LogoutRequest(
+        String refreshToken // optional; revoked along with the access token
+) {}
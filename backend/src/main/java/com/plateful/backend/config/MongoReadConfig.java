@@ -0,0 +1,78 @@
+package com.plateful.backend.config;
+
+import com.mongodb.ReadPreference;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+/**
+ * Routes reads between replica set members.
+ *
+ * <p>The primary {@link MongoTemplate}, used by repositories and by every service that is not
+ * qualified otherwise, reads from the primary. Auth, voting and user state therefore always read
+ * their own writes. The {@value #CATALOG} template is for anonymous catalog browsing, which
+ * tolerates slightly stale data. It reads with {@code app.mongodb.catalog.read-preference}
+ * (secondaryPreferred by default) and skips secondaries lagging more than {@code
+ * app.mongodb.catalog.max-staleness-seconds} behind the primary, so browse traffic spreads over
+ * the secondaries instead of competing with writes. Without a secondary, for example on a
+ * single-host replica set or a standalone server, those reads go to the primary.
+ */
+@Configuration
+public class MongoReadConfig {
+
+  /** Qualifier of the template for catalog reads. */
+  public static final String CATALOG = "catalogMongoTemplate";
+
+  /** The smallest maxStalenessSeconds the server accepts. */
+  static final long MIN_MAX_STALENESS_SECONDS = 90;
+
+  @Bean
+  @Primary
+  public MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter) {
+    MongoTemplate template = new MongoTemplate(factory, converter);
+    template.setReadPreference(ReadPreference.primary());
+    return template;
+  }
+
+  @Bean
+  @Qualifier(CATALOG)
+  public MongoTemplate catalogMongoTemplate(
+      MongoDatabaseFactory factory,
+      MongoConverter converter,
+      @Value("${app.mongodb.catalog.read-preference:secondaryPreferred}") String mode,
+      @Value("${app.mongodb.catalog.max-staleness-seconds:90}") long maxStalenessSeconds) {
+    MongoTemplate template = new MongoTemplate(factory, converter);
+    template.setReadPreference(catalogReadPreference(mode, maxStalenessSeconds));
+    return template;
+  }
+
+  /**
+   * Builds the catalog read preference.
+   *
+   * @param mode a read preference name such as {@code secondaryPreferred} or {@code nearest}
+   * @param maxStalenessSeconds the staleness bound; ignored for {@code primary}
+   * @throws IllegalArgumentException if the mode is unknown or the bound is below 90 seconds
+   */
+  static ReadPreference catalogReadPreference(String mode, long maxStalenessSeconds) {
+    ReadPreference base = ReadPreference.valueOf(mode.trim());
+    if (base.equals(ReadPreference.primary())) {
+      return base;
+    }
+    if (maxStalenessSeconds < MIN_MAX_STALENESS_SECONDS) {
+      throw new IllegalArgumentException(
+          "app.mongodb.catalog.max-staleness-seconds must be at least "
+              + MIN_MAX_STALENESS_SECONDS
+              + ": "
+              + maxStalenessSeconds);
+    }
+    return ReadPreference.valueOf(
+        base.getName(), List.of(), maxStalenessSeconds, TimeUnit.SECONDS);
+  }
+}
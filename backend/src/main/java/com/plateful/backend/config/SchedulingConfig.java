@@ -0,0 +1,9 @@
+package com.plateful.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Enables {@code @Scheduled} background tasks such as the coalesced vote stream flush. */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {}
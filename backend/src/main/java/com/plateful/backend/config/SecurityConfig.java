@@ -41,9 +41,11 @@ public class SecurityConfig {
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/public/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/restaurants/**").permitAll()   // ← public GET for browsing and vote-status
+                .requestMatchers(HttpMethod.POST, "/api/restaurants/vote-status").permitAll()   // ← public bulk vote-status for list views
                 .requestMatchers("/api/restaurants/*/upvote").authenticated()   // ← require auth
                 .requestMatchers("/api/restaurants/*/downvote").authenticated()   // ← require auth
                 .requestMatchers(HttpMethod.DELETE, "/api/restaurants/*/vote").authenticated()   // ← require auth
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")   // ← catalog imports and other admin tools
                 .requestMatchers("/api/user/**").permitAll()   // ← temporary: make user endpoints public for testing
                 .anyRequest().authenticated()
             )
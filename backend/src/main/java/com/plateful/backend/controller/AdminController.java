@@ -0,0 +1,171 @@
+package com.plateful.backend.controller;
+
+import com.mongodb.client.result.UpdateResult;
+import com.plateful.backend.auth.RevocationService;
+import com.plateful.backend.importer.ImportRecordReader;
+import com.plateful.backend.importer.ImportReport;
+import com.plateful.backend.model.AppUser;
+import com.plateful.backend.service.FilterResultCache;
+import com.plateful.backend.service.HistoryIngestService;
+import com.plateful.backend.service.RestaurantExportService;
+import com.plateful.backend.service.RestaurantFilter;
+import com.plateful.backend.service.RestaurantImportService;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Administrative endpoints for maintaining the restaurant catalog and user accounts, and for
+ * monitoring background work. Requires the ADMIN role.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+  /** Upper bound for the import batch size. */
+  private static final int MAX_BATCH_SIZE = 10_000;
+
+  private final RestaurantImportService importService;
+  private final RestaurantExportService exportService;
+  private final HistoryIngestService historyIngestService;
+  private final MongoTemplate mongoTemplate;
+  private final RevocationService revocationService;
+  private final FilterResultCache filterResultCache;
+
+  public AdminController(
+      RestaurantImportService importService,
+      RestaurantExportService exportService,
+      HistoryIngestService historyIngestService,
+      MongoTemplate mongoTemplate,
+      RevocationService revocationService,
+      FilterResultCache filterResultCache) {
+    this.importService = importService;
+    this.exportService = exportService;
+    this.historyIngestService = historyIngestService;
+    this.mongoTemplate = mongoTemplate;
+    this.revocationService = revocationService;
+    this.filterResultCache = filterResultCache;
+  }
+
+  /**
+   * Imports a restaurant feed from the request body, creating new restaurants and updating
+   * existing ones. The body is streamed, so feeds of any size can be uploaded. Invalid entries are
+   * skipped and reported; they do not abort the import.
+   *
+   * @param body The feed, UTF-8 encoded
+   * @param format Feed format: {@code ndjson} (default) or {@code csv}
+   * @param batchSize Restaurants per bulk write (default from {@code app.import.batch-size}, at
+   *     most 10000)
+   * @return Counts of inserted, updated and rejected restaurants, with the first errors
+   */
+  @PostMapping("/restaurants/import")
+  public ImportReport importRestaurants(
+      InputStream body,
+      @RequestParam(defaultValue = "ndjson") String format,
+      @RequestParam(required = false) Integer batchSize) {
+    if (batchSize != null && (batchSize < 1 || batchSize > MAX_BATCH_SIZE)) {
+      throw new IllegalArgumentException("batchSize must be between 1 and " + MAX_BATCH_SIZE);
+    }
+    return importService.importFeed(body, ImportRecordReader.Format.from(format), batchSize);
+  }
+
+  /**
+   * Downloads the catalog as gzip-compressed NDJSON ({@code restaurants.ndjson.gz}), one
+   * restaurant per line in {@code id} order. The response is streamed straight from the database,
+   * so catalogs of any size can be exported.
+   *
+   * <p>Byte ranges are not supported because the compressed output is produced on the fly. To
+   * resume an interrupted download, pass the {@code id} of the last complete line as {@code
+   * after}; the new download continues with the next restaurant.
+   *
+   * @param cuisine Cuisine filter (partial match)
+   * @param priceMin Minimum price level
+   * @param priceMax Maximum price level
+   * @param reservation Reservation requirement filter
+   * @param city Cities to include (exact match, case-insensitive)
+   * @param minVotes Minimum net votes
+   * @param after Resume after this restaurant ID
+   * @param fields Fields to include, e.g. {@code name,cuisine,address}; all fields by default
+   * @param response The response the export is written to
+   */
+  @GetMapping("/restaurants/export")
+  public void exportRestaurants(
+      @RequestParam(required = false) String cuisine,
+      @RequestParam(required = false) Integer priceMin,
+      @RequestParam(required = false) Integer priceMax,
+      @RequestParam(required = false) Boolean reservation,
+      @RequestParam(required = false) List<String> city,
+      @RequestParam(required = false) Integer minVotes,
+      @RequestParam(required = false) String after,
+      @RequestParam(required = false) List<String> fields,
+      HttpServletResponse response)
+      throws IOException {
+    RestaurantExportService.Export export =
+        exportService.prepare(
+            new RestaurantFilter(
+                null, false, cuisine, priceMin, priceMax, reservation, null, null, city, null,
+                minVotes, null),
+            after,
+            fields);
+
+    response.setContentType("application/gzip");
+    response.setHeader(
+        HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"restaurants.ndjson.gz\"");
+    response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+    export.writeTo(response.getOutputStream());
+  }
+
+  /**
+   * Browse history ingestion: queue depth and capacity, and how many views have been accepted,
+   * dropped on overflow, coalesced, written and lost to failed writes since startup.
+   *
+   * @return Current history queue and writer statistics
+   */
+  @GetMapping("/history/stats")
+  public HistoryIngestService.Stats historyStats() {
+    return historyIngestService.stats();
+  }
+
+  /**
+   * {@code /filter} result cache: entries held, hits, misses and hit rate, evictions, catalog
+   * invalidations and the mean time to load an entry since startup.
+   *
+   * @return Current filter result cache statistics
+   */
+  @GetMapping("/filter-cache/stats")
+  public FilterResultCache.Stats filterCacheStats() {
+    return filterResultCache.stats();
+  }
+
+  /**
+   * Disables a user account and revokes every token issued to it, so the user is signed out
+   * everywhere at once and can neither sign in nor refresh. Only the {@code enabled} flag is
+   * written, so favorites and history saved at the same time are kept.
+   *
+   * @param id The user ID
+   */
+  @PostMapping("/users/{id}/disable")
+  public void disableUser(@PathVariable String id) {
+    UpdateResult result =
+        mongoTemplate.updateFirst(
+            new Query(Criteria.where("_id").is(id)),
+            new Update().set("enabled", false),
+            AppUser.class);
+    if (result.getMatchedCount() == 0) {
+      throw new RuntimeException("User not found");
+    }
+    revocationService.revokeSubject(id);
+  }
+}
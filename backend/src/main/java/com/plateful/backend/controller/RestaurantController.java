@@ -1,9 +1,22 @@
 package com.plateful.backend.controller;
 
 import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.search.SuggestionTrie;
+import com.plateful.backend.service.PersonalizationService;
+import com.plateful.backend.service.RankedSearchService;
+import com.plateful.backend.service.RankedSearchService.RankedRestaurant;
+import com.plateful.backend.service.RestaurantFilter;
 import com.plateful.backend.service.RestaurantSearchService;
 import com.plateful.backend.service.RestaurantService;
+import com.plateful.backend.service.SimilarityService;
+import com.plateful.backend.service.SimilarityService.SimilarRestaurant;
+import com.plateful.backend.service.SuggestionService;
+import com.plateful.backend.service.TrendingService;
+import com.plateful.backend.service.TrendingService.TrendingRestaurant;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -23,11 +36,27 @@ public class RestaurantController {
 
   private final RestaurantService restaurantService;
   private final RestaurantSearchService searchService;
+  private final SuggestionService suggestionService;
+  private final RankedSearchService rankedSearchService;
+  private final SimilarityService similarityService;
+  private final PersonalizationService personalizationService;
+  private final TrendingService trendingService;
 
   public RestaurantController(
-      RestaurantService restaurantService, RestaurantSearchService searchService) {
+      RestaurantService restaurantService,
+      RestaurantSearchService searchService,
+      SuggestionService suggestionService,
+      RankedSearchService rankedSearchService,
+      SimilarityService similarityService,
+      PersonalizationService personalizationService,
+      TrendingService trendingService) {
     this.restaurantService = restaurantService;
     this.searchService = searchService;
+    this.suggestionService = suggestionService;
+    this.rankedSearchService = rankedSearchService;
+    this.similarityService = similarityService;
+    this.personalizationService = personalizationService;
+    this.trendingService = trendingService;
   }
 
   /** Get all restaurants (no filters) */
@@ -44,22 +73,105 @@ public class RestaurantController {
         .orElseThrow(() -> new RuntimeException("Not found: " + id));
   }
 
+  /**
+   * "People also liked": restaurants most similar to this one, based on which restaurants users
+   * favorite together and on shared cuisine and tags. Precomputed hourly, so this is a lookup.
+   *
+   * @param id The restaurant ID
+   * @param limit Maximum number of results (default 10, at most 20)
+   * @return Similar restaurants with their similarity scores, most similar first; empty when none
+   *     have been computed yet
+   */
+  @GetMapping("/{id}/similar")
+  public List<SimilarRestaurant> similar(
+      @PathVariable String id, @RequestParam(defaultValue = "10") int limit) {
+    if (limit < 1 || limit > 20) {
+      throw new IllegalArgumentException("limit must be between 1 and 20");
+    }
+    return similarityService.similar(id, limit);
+  }
+
+  /**
+   * Trending restaurants: the most viewed over a recent window, counted from detail views across
+   * all instances. Answered from memory; rankings refresh every few seconds.
+   *
+   * @param window Window length such as {@code 15m}, {@code 1h} or {@code 24h} (default 1h, at
+   *     most 24h)
+   * @param city Only restaurants in this city (optional, case-insensitive)
+   * @param limit Maximum number of results (default 10, at most 50)
+   * @return Trending restaurants with their estimated view counts, most viewed first
+   */
+  @GetMapping("/trending")
+  public List<TrendingRestaurant> trending(
+      @RequestParam(defaultValue = "1h") String window,
+      @RequestParam(required = false) String city,
+      @RequestParam(defaultValue = "10") int limit) {
+    if (limit < 1 || limit > 50) {
+      throw new IllegalArgumentException("limit must be between 1 and 50");
+    }
+    return trendingService.trending(window, city, limit);
+  }
+
   /**
    * Basic search endpoint that performs a case-insensitive partial match across restaurant names,
-   * descriptions, and cuisines.
+   * descriptions, and cuisines. With {@code fuzzy=true}, matches restaurant and cuisine names
+   * within a small edit distance instead, so misspellings such as "sushu" still return results.
    *
    * @param query The search term to match against multiple fields
+   * @param fuzzy Whether to tolerate typos (default false)
    * @return List of restaurants matching the search criteria, or all restaurants if query is empty
    */
   @GetMapping("/search")
-  public List<Restaurant> search(@RequestParam String query) {
-    return restaurantService.searchRestaurants(query);
+  public List<Restaurant> search(
+      @RequestParam String query, @RequestParam(defaultValue = "false") boolean fuzzy) {
+    return fuzzy
+        ? restaurantService.fuzzySearchRestaurants(query)
+        : restaurantService.searchRestaurants(query);
+  }
+
+  /**
+   * Relevance-ranked search across restaurant names, descriptions, cuisines and tags. Matches in
+   * the name weigh most, and rarer words weigh more than common ones. Selected with {@code
+   * ranked=true}.
+   *
+   * @param query Free text to rank restaurants against
+   * @param limit Maximum number of results (default 20, at most 100)
+   * @return Restaurants with their relevance scores, best match first
+   */
+  @GetMapping(value = "/search", params = "ranked=true")
+  public List<RankedRestaurant> rankedSearch(
+      @RequestParam String query, @RequestParam(defaultValue = "20") int limit) {
+    if (limit < 1 || limit > 100) {
+      throw new IllegalArgumentException("limit must be between 1 and 100");
+    }
+    return rankedSearchService.search(query, limit);
+  }
+
+  /**
+   * Typeahead endpoint returning the most popular restaurant names, cuisines, cities and tags that
+   * start with the given prefix (at any word). Served from an in-memory index, so it is cheap
+   * enough to call on every keystroke.
+   *
+   * @param prefix The text typed so far
+   * @param limit Maximum number of suggestions (default 8)
+   * @return Suggestions, most popular first
+   */
+  @GetMapping("/suggest")
+  public List<SuggestionTrie.Suggestion> suggest(
+      @RequestParam String prefix, @RequestParam(defaultValue = "8") int limit) {
+    if (limit < 1 || limit > suggestionService.getTopK()) {
+      throw new IllegalArgumentException(
+          "limit must be between 1 and " + suggestionService.getTopK());
+    }
+    return suggestionService.suggest(prefix, limit);
   }
 
   /**
    * Advanced filtering endpoint that combines multiple search criteria. Supports filtering by text
-   * search, cuisine type, price range, reservation availability, current operating status, and city
-   * location. All parameters are optional.
+   * search, cuisine type, price range, reservation availability, current operating status, city
+   * location and tags. All parameters are optional. Cuisine, price, reservation, opening hours,
+   * city and tags are resolved by an in-memory bitmap index, and the rest by a single MongoDB
+   * query.
    *
    * @param query Free text search across name, description, and cuisine
    * @param cuisine Specific cuisine type to filter by
@@ -67,7 +179,16 @@ public class RestaurantController {
    * @param priceMax Maximum price range (inclusive)
    * @param reservation Filter for restaurants that accept reservations
    * @param openNow Filter for currently open restaurants
+   * @param openAt Filter for restaurants open at a New Zealand local date-time, e.g. {@code
+   *     2025-06-06T19:30}; takes precedence over openNow
    * @param city List of cities to include in search
+   * @param tags Tags that restaurants must all have, e.g. {@code vegan}
+   * @param minVotes Minimum net votes (upvotes - downvotes)
+   * @param sort Optional sort order; {@code votes} returns the highest-voted restaurants first
+   * @param fuzzy Whether the text query tolerates typos in restaurant and cuisine names
+   * @param personalize Whether to move restaurants matching the signed-in user's favorites and
+   *     browsing (cuisine, city, price) up the list; ignored for anonymous requests
+   * @param authentication The signed-in user, if any
    * @return Filtered list of restaurants matching all specified criteria
    */
   @GetMapping("/filter")
@@ -78,11 +199,34 @@ public class RestaurantController {
       @RequestParam(required = false) Integer priceMax,
       @RequestParam(required = false) Boolean reservation,
       @RequestParam(required = false) Boolean openNow,
-      @RequestParam(required = false) List<String> city) {
-    List<Restaurant> base =
-        searchService.filter(cuisine, priceMin, priceMax, reservation, openNow, city);
-
-    return searchService.filterByTextQuery(base, query);
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime openAt,
+      @RequestParam(required = false) List<String> city,
+      @RequestParam(required = false) List<String> tags,
+      @RequestParam(required = false) Integer minVotes,
+      @RequestParam(required = false) String sort,
+      @RequestParam(defaultValue = "false") boolean fuzzy,
+      @RequestParam(defaultValue = "false") boolean personalize,
+      Authentication authentication) {
+    List<Restaurant> results =
+        searchService.filter(
+            new RestaurantFilter(
+                query,
+                fuzzy,
+                cuisine,
+                priceMin,
+                priceMax,
+                reservation,
+                openNow,
+                openAt,
+                city,
+                tags,
+                minVotes,
+                sort));
+    if (personalize && authentication != null) {
+      return personalizationService.rerank(authentication.getName(), results);
+    }
+    return results;
   }
 
   /**
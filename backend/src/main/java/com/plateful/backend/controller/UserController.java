@@ -1,10 +1,17 @@
 package com.plateful.backend.controller;
 
 import com.plateful.backend.model.AppUser;
+import com.plateful.backend.service.HistoryIngestService;
+import com.plateful.backend.service.HistoryIngestService.HistoryEvent;
 import com.plateful.backend.service.UserService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -17,10 +24,15 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
 public class UserController {
 
+    /** Most history events accepted in one request. */
+    private static final int MAX_HISTORY_EVENTS = 100;
+
     private final UserService userService;
+    private final HistoryIngestService historyIngestService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, HistoryIngestService historyIngestService) {
         this.userService = userService;
+        this.historyIngestService = historyIngestService;
     }
 
     /**
@@ -84,28 +96,79 @@ public class UserController {
     }
 
     /**
-     * Add an entry to browse history
+     * Add entries to browse history. The views are queued and written in the background, so
+     * this returns 202 Accepted straight away; they show up in the history shortly after.
      * Request body: { "userId": "123", "restaurantId": "12345", "restaurantName": "Restaurant Name", "viewType": "Details viewed" }
+     * or, for clients that buffer views offline, up to 100 at once:
+     * { "userId": "123", "events": [ { "restaurantId": "12345", "restaurantName": "Restaurant Name", "viewedAt": "2025-01-31T18:30:00" } ] }
+     * Responds 503 with Retry-After when the queue is full and nothing could be accepted.
      */
     @PostMapping("/history")
-    public ResponseEntity<Map<String, Object>> addToHistory(@RequestBody Map<String, String> request) {
-        String userId = request.get("userId");
-        String restaurantId = request.get("restaurantId");
-        String restaurantName = request.get("restaurantName");
-        String viewType = request.getOrDefault("viewType", "Details viewed");
-
+    public ResponseEntity<Map<String, Object>> addToHistory(@RequestBody Map<String, Object> request) {
+        Object userIdValue = request.get("userId");
+        String userId = userIdValue instanceof String ? (String) userIdValue : null;
         if (userId == null || userId.trim().isEmpty()) {
             return ResponseEntity.badRequest().body(Map.of("error", "userId is required"));
         }
-        if (restaurantId == null || restaurantId.trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "restaurantId is required"));
+
+        List<?> rawEvents = request.containsKey("events")
+                ? (request.get("events") instanceof List<?> list ? list : null)
+                : List.of(request);
+        if (rawEvents == null || rawEvents.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "events must be a non-empty list"));
         }
-        if (restaurantName == null || restaurantName.trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "restaurantName is required"));
+        if (rawEvents.size() > MAX_HISTORY_EVENTS) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At most " + MAX_HISTORY_EVENTS + " events per request"));
         }
 
-        userService.addToHistory(userId, restaurantId, restaurantName, viewType);
-        return ResponseEntity.ok(Map.of("message", "Added to history"));
+        LocalDateTime now = LocalDateTime.now();
+        List<HistoryEvent> events = new ArrayList<>(rawEvents.size());
+        for (Object raw : rawEvents) {
+            if (!(raw instanceof Map<?, ?> event)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Each event must be an object"));
+            }
+            String restaurantId = stringValue(event.get("restaurantId"));
+            String restaurantName = stringValue(event.get("restaurantName"));
+            String viewType = stringValue(event.get("viewType"));
+            if (restaurantId == null || restaurantId.trim().isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "restaurantId is required"));
+            }
+            if (restaurantName == null || restaurantName.trim().isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "restaurantName is required"));
+            }
+            LocalDateTime viewedAt = now;
+            String viewedAtValue = stringValue(event.get("viewedAt"));
+            if (viewedAtValue != null) {
+                try {
+                    viewedAt = LocalDateTime.parse(viewedAtValue);
+                } catch (DateTimeParseException e) {
+                    return ResponseEntity.badRequest().body(Map.of("error", "viewedAt must be an ISO date-time"));
+                }
+                // a skewed client clock must not pin an entry to the top of the history
+                if (viewedAt.isAfter(now)) {
+                    viewedAt = now;
+                }
+            }
+            events.add(new HistoryEvent(userId, restaurantId, restaurantName,
+                    viewType != null ? viewType : "Details viewed", viewedAt));
+        }
+
+        int accepted = 0;
+        for (HistoryEvent event : events) {
+            if (historyIngestService.enqueue(event)) {
+                accepted++;
+            }
+        }
+        if (accepted == 0) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "History is busy, try again shortly"));
+        }
+        return ResponseEntity.accepted().body(Map.of(
+                "message", "Added to history",
+                "accepted", accepted,
+                "dropped", events.size() - accepted));
     }
 
     /**
@@ -123,4 +186,8 @@ public class UserController {
         userService.clearHistory(userId);
         return ResponseEntity.ok(Map.of("message", "History cleared"));
     }
+
+    private static String stringValue(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
 }
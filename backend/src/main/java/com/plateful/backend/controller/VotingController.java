@@ -1,13 +1,18 @@
 package com.plateful.backend.controller;
 
 import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.service.LeaderboardService;
+import com.plateful.backend.service.VoteStreamService;
 import com.plateful.backend.service.VotingService;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /** REST controller for handling restaurant voting operations. */
 @RestController
@@ -15,8 +20,18 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class VotingController {
 
+  /** Upper bound for the leaderboard page size. */
+  private static final int MAX_TOP_LIMIT = 100;
+
+  /** Upper bound for the number of restaurants in one bulk vote-status request. */
+  private static final int MAX_BULK_STATUS_IDS = 200;
+
   @Autowired private VotingService votingService;
 
+  @Autowired private LeaderboardService leaderboardService;
+
+  @Autowired private VoteStreamService voteStreamService;
+
   /**
    * Upvote a restaurant. User is identified via JWT token.
    *
@@ -104,4 +119,90 @@ public class VotingController {
 
     return ResponseEntity.ok(status);
   }
+
+  /**
+   * Stream live vote counts for a restaurant as Server-Sent Events. The current counts are sent
+   * immediately as a {@code votes} event, followed by a new event whenever the counts change
+   * (coalesced over a short window). Public, like vote-status.
+   *
+   * @param restaurantId the restaurant ID
+   * @return the event stream
+   */
+  @GetMapping(value = "/{restaurantId}/votes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamVotes(@PathVariable String restaurantId) {
+    Map<String, Object> status = votingService.getVoteStatus(restaurantId, null);
+
+    Map<String, Object> counts = new HashMap<>();
+    counts.put("upvoteCount", status.get("upvoteCount"));
+    counts.put("downvoteCount", status.get("downvoteCount"));
+    counts.put("voteCount", status.get("voteCount"));
+
+    return voteStreamService.subscribe(restaurantId, counts);
+  }
+
+  /**
+   * Get the vote status for many restaurants in one call, for list and card views. User is
+   * identified via JWT token if present; anonymous callers get counts with hasUpvoted/hasDownvoted
+   * as false. Request body: { "restaurantIds": ["id1", "id2", ...] }
+   *
+   * @param request the request body containing the restaurant IDs
+   * @param authentication the authenticated user (optional)
+   * @return vote status keyed by restaurant ID; unknown IDs are omitted
+   */
+  @PostMapping("/vote-status")
+  public ResponseEntity<Map<String, Map<String, Object>>> getVoteStatuses(
+      @RequestBody Map<String, List<String>> request, Authentication authentication) {
+    List<String> restaurantIds = request.get("restaurantIds");
+    if (restaurantIds == null || restaurantIds.isEmpty()) {
+      throw new IllegalArgumentException("restaurantIds is required");
+    }
+    if (restaurantIds.size() > MAX_BULK_STATUS_IDS) {
+      throw new IllegalArgumentException(
+          "At most " + MAX_BULK_STATUS_IDS + " restaurantIds are allowed per request");
+    }
+    String userId = (authentication != null) ? authentication.getName() : null;
+
+    return ResponseEntity.ok(votingService.getVoteStatuses(restaurantIds, userId));
+  }
+
+  /**
+   * Get the top-voted restaurants, optionally restricted to a city and/or cuisine. Served from the
+   * in-memory leaderboard, so the cost depends only on {@code limit}.
+   *
+   * @param city optional city to rank within (case-insensitive)
+   * @param cuisine optional cuisine to rank within (case-insensitive)
+   * @param limit number of restaurants to return (1-100, default 10)
+   * @param rank ranking strategy: {@code votes} (net votes) or {@code wilson} (confidence score)
+   * @return the ranked standings with their vote counts and score
+   */
+  @GetMapping("/top")
+  public ResponseEntity<List<Map<String, Object>>> getTop(
+      @RequestParam(required = false) String city,
+      @RequestParam(required = false) String cuisine,
+      @RequestParam(defaultValue = "10") int limit,
+      @RequestParam(required = false) String rank) {
+    if (limit < 1 || limit > MAX_TOP_LIMIT) {
+      throw new IllegalArgumentException("limit must be between 1 and " + MAX_TOP_LIMIT);
+    }
+    LeaderboardService.Ranking ranking = LeaderboardService.Ranking.from(rank);
+
+    List<Map<String, Object>> body =
+        leaderboardService.top(city, cuisine, limit, ranking).stream()
+            .map(
+                standing -> {
+                  Map<String, Object> entry = new HashMap<>();
+                  entry.put("restaurantId", standing.restaurantId());
+                  entry.put("name", standing.name());
+                  entry.put("cuisine", standing.cuisine());
+                  entry.put("city", standing.city());
+                  entry.put("upvoteCount", standing.upvoteCount());
+                  entry.put("downvoteCount", standing.downvoteCount());
+                  entry.put("voteCount", standing.voteCount());
+                  entry.put("score", standing.score(ranking));
+                  return entry;
+                })
+            .toList();
+
+    return ResponseEntity.ok(body);
+  }
 }
@@ -0,0 +1,45 @@
+package com.plateful.backend.importer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One raw restaurant from an import feed, before validation. NDJSON lines map onto these fields by
+ * name; CSV columns use the snake_case names listed in {@link ImportRecordReader}.
+ *
+ * @param id Optional catalog ID; when absent, restaurants are matched on name and city
+ * @param name Restaurant name (required)
+ * @param description Free-text description
+ * @param cuisine Cuisine type
+ * @param priceLevel Price level from 1 to 4
+ * @param street Street address
+ * @param city City
+ * @param postcode Postcode
+ * @param country Country
+ * @param phone Phone number
+ * @param website Website URL
+ * @param lat Latitude in degrees
+ * @param lng Longitude in degrees
+ * @param tags Tags
+ * @param images Image URLs
+ * @param hours Day name to {@code HH:mm-HH:mm} span
+ * @param reservationRequired Whether a reservation is required
+ */
+public record ImportRecord(
+    String id,
+    String name,
+    String description,
+    String cuisine,
+    Integer priceLevel,
+    String street,
+    String city,
+    String postcode,
+    String country,
+    String phone,
+    String website,
+    Double lat,
+    Double lng,
+    List<String> tags,
+    List<String> images,
+    Map<String, String> hours,
+    Boolean reservationRequired) {}
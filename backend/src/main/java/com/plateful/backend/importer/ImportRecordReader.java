@@ -0,0 +1,267 @@
+package com.plateful.backend.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams {@link ImportRecord}s out of an import feed one entry at a time, so a feed of any size
+ * is read with constant memory.
+ *
+ * <p>Two formats are supported:
+ *
+ * <ul>
+ *   <li>{@link Format#NDJSON}: one JSON object per line, with the {@link ImportRecord} field names.
+ *       Blank lines are skipped.
+ *   <li>{@link Format#CSV}: RFC 4180 CSV with a header row. Recognised columns are {@code id, name,
+ *       description, cuisine, price_level, street, city, postcode, country, phone, website, lat,
+ *       lng, tags, images, reservation_required} and one column per day ({@code monday} ... {@code
+ *       sunday}) holding that day's {@code HH:mm-HH:mm} span. {@code tags} and {@code images} are
+ *       separated by {@code |}. Unknown columns are ignored.
+ * </ul>
+ *
+ * <p>Entries that cannot be parsed are returned as {@link Entry#error()} rather than thrown, so one
+ * bad line does not abort an import.
+ */
+public final class ImportRecordReader {
+
+  /** Supported feed formats. */
+  public enum Format {
+    NDJSON,
+    CSV;
+
+    /**
+     * Parses a format name from a request parameter.
+     *
+     * @param value {@code ndjson} or {@code csv}, case-insensitive
+     * @return the matching format
+     */
+    public static Format from(String value) {
+      try {
+        return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unsupported import format: " + value);
+      }
+    }
+  }
+
+  /**
+   * A parsed entry, or the reason it could not be parsed.
+   *
+   * @param line 1-based line number where the entry starts
+   * @param record the parsed record, or null on error
+   * @param error parse error, or null on success
+   */
+  public record Entry(int line, ImportRecord record, String error) {}
+
+  private final Format format;
+  private final BufferedReader reader;
+  private final ObjectMapper objectMapper;
+  private int lineNumber;
+  private Map<String, Integer> columns;
+
+  public ImportRecordReader(Format format, Reader reader, ObjectMapper objectMapper) {
+    this.format = format;
+    this.reader = reader instanceof BufferedReader b ? b : new BufferedReader(reader);
+    this.objectMapper =
+        objectMapper.copy().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  }
+
+  /**
+   * Reads the next entry.
+   *
+   * @return the next entry, or null at the end of the feed
+   * @throws UncheckedIOException if the underlying stream fails
+   */
+  public Entry next() {
+    try {
+      return format == Format.NDJSON ? nextJson() : nextCsv();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Entry nextJson() throws IOException {
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      try {
+        return new Entry(lineNumber, objectMapper.readValue(line, ImportRecord.class), null);
+      } catch (JsonProcessingException e) {
+        return new Entry(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+      }
+    }
+    return null;
+  }
+
+  private Entry nextCsv() throws IOException {
+    if (columns == null) {
+      List<String> header = readCsvRow();
+      if (header == null) {
+        return null;
+      }
+      columns = new HashMap<>();
+      for (int i = 0; i < header.size(); i++) {
+        columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+      }
+    }
+    List<String> row;
+    int start;
+    do {
+      start = lineNumber + 1;
+      row = readCsvRow();
+      if (row == null) {
+        return null;
+      }
+    } while (row.size() == 1 && row.get(0).isBlank());
+
+    try {
+      return new Entry(start, toRecord(row), null);
+    } catch (IllegalArgumentException e) {
+      return new Entry(start, null, e.getMessage());
+    }
+  }
+
+  private ImportRecord toRecord(List<String> row) {
+    Map<String, String> hours = new LinkedHashMap<>();
+    for (DayOfWeek day : DayOfWeek.values()) {
+      String name = day.name().toLowerCase(Locale.ROOT);
+      String span = cell(row, name);
+      if (span != null) {
+        hours.put(name, span);
+      }
+    }
+    return new ImportRecord(
+        cell(row, "id"),
+        cell(row, "name"),
+        cell(row, "description"),
+        cell(row, "cuisine"),
+        integerCell(row, "price_level"),
+        cell(row, "street"),
+        cell(row, "city"),
+        cell(row, "postcode"),
+        cell(row, "country"),
+        cell(row, "phone"),
+        cell(row, "website"),
+        doubleCell(row, "lat"),
+        doubleCell(row, "lng"),
+        listCell(row, "tags"),
+        listCell(row, "images"),
+        hours.isEmpty() ? null : hours,
+        booleanCell(row, "reservation_required"));
+  }
+
+  private String cell(List<String> row, String column) {
+    Integer i = columns.get(column);
+    if (i == null || i >= row.size()) {
+      return null;
+    }
+    String value = row.get(i).trim();
+    return value.isEmpty() ? null : value;
+  }
+
+  private Integer integerCell(List<String> row, String column) {
+    String value = cell(row, column);
+    try {
+      return value == null ? null : Integer.valueOf(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid " + column + ": " + value);
+    }
+  }
+
+  private Double doubleCell(List<String> row, String column) {
+    String value = cell(row, column);
+    try {
+      return value == null ? null : Double.valueOf(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid " + column + ": " + value);
+    }
+  }
+
+  private Boolean booleanCell(List<String> row, String column) {
+    String value = cell(row, column);
+    if (value == null) {
+      return null;
+    }
+    return switch (value.toLowerCase(Locale.ROOT)) {
+      case "true", "yes", "1" -> true;
+      case "false", "no", "0" -> false;
+      default -> throw new IllegalArgumentException("Invalid " + column + ": " + value);
+    };
+  }
+
+  private List<String> listCell(List<String> row, String column) {
+    String value = cell(row, column);
+    if (value == null) {
+      return null;
+    }
+    return Arrays.stream(value.split("\\|")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+  }
+
+  /** Reads one CSV row, following quoted fields across line breaks. Null at end of input. */
+  private List<String> readCsvRow() throws IOException {
+    String line = reader.readLine();
+    if (line == null) {
+      return null;
+    }
+    lineNumber++;
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    int i = 0;
+    while (true) {
+      if (i == line.length()) {
+        if (!quoted) {
+          break;
+        }
+        // newline inside a quoted field
+        String more = reader.readLine();
+        if (more == null) {
+          break;
+        }
+        lineNumber++;
+        field.append('\n');
+        line = more;
+        i = 0;
+        continue;
+      }
+      char c = line.charAt(i++);
+      if (quoted) {
+        if (c == '"') {
+          if (i < line.length() && line.charAt(i) == '"') {
+            field.append('"');
+            i++;
+          } else {
+            quoted = false;
+          }
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+}
@@ -0,0 +1,24 @@
+package com.plateful.backend.importer;
+
+import java.util.List;
+
+/**
+ * Outcome of an import run.
+ *
+ * @param read entries read from the feed
+ * @param inserted restaurants created
+ * @param updated existing restaurants matched and rewritten
+ * @param rejected entries that failed parsing or validation
+ * @param failed valid restaurants that could not be written: a permanent write error such as a
+ *     duplicate key, or a transient one that outlasted all retries
+ * @param errors the first problems encountered, with feed line numbers
+ * @param durationMs wall-clock time of the import
+ */
+public record ImportReport(
+    int read,
+    int inserted,
+    int updated,
+    int rejected,
+    int failed,
+    List<String> errors,
+    long durationMs) {}
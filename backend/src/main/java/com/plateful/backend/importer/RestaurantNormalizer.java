@@ -0,0 +1,173 @@
+package com.plateful.backend.importer;
+
+import com.plateful.backend.model.OpeningHours;
+import com.plateful.backend.model.Restaurant;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+/**
+ * Validates an {@link ImportRecord} and turns it into a {@link Restaurant} with consistent
+ * formatting and derived fields filled in. Stateless, so records can be normalized in parallel.
+ *
+ * <ul>
+ *   <li>Text is trimmed and runs of whitespace collapsed; empty values become null.
+ *   <li>City and cuisine written entirely in lower or upper case are title-cased, so "auckland" and
+ *       "AUCKLAND" both become "Auckland"; mixed-case values such as "BBQ" are kept.
+ *   <li>Hours must use day names and {@code HH:mm-HH:mm} spans ("closed" or blank means closed);
+ *       the structured {@code open_ranges} are derived from them.
+ *   <li>Coordinates must be given together, lie within valid ranges, and not be (0, 0).
+ *   <li>Tags are de-duplicated case-insensitively.
+ * </ul>
+ */
+public final class RestaurantNormalizer {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private static final Set<String> DAYS = new LinkedHashSet<>();
+
+  static {
+    for (DayOfWeek day : DayOfWeek.values()) {
+      DAYS.add(day.name().toLowerCase(Locale.ROOT));
+    }
+  }
+
+  /**
+   * Normalizes a record.
+   *
+   * @param record the raw record
+   * @return a restaurant ready to upsert (its ID is the record's ID, possibly null)
+   * @throws IllegalArgumentException if the record is invalid; the message says why
+   */
+  public Restaurant normalize(ImportRecord record) {
+    String name = clean(record.name());
+    if (name == null) {
+      throw new IllegalArgumentException("name is required");
+    }
+    Integer priceLevel = record.priceLevel();
+    if (priceLevel != null && (priceLevel < 1 || priceLevel > 4)) {
+      throw new IllegalArgumentException("price level must be between 1 and 4: " + priceLevel);
+    }
+
+    Restaurant r = new Restaurant();
+    r.setId(clean(record.id()));
+    r.setName(name);
+    r.setDescription(clean(record.description()));
+    r.setCuisine(titleCaseIfUniform(clean(record.cuisine())));
+    r.setPriceLevel(priceLevel);
+    r.setPhone(clean(record.phone()));
+    r.setWebsite(clean(record.website()));
+    r.setReservationRequired(record.reservationRequired());
+    r.setTags(distinctIgnoreCase(record.tags()));
+    r.setImages(cleanList(record.images()));
+    r.setLocation(point(record.lat(), record.lng()));
+    r.setHours(hours(record.hours()));
+
+    Restaurant.Address address = new Restaurant.Address();
+    address.setStreet(clean(record.street()));
+    address.setCity(titleCaseIfUniform(clean(record.city())));
+    address.setPostcode(clean(record.postcode()));
+    address.setCountry(clean(record.country()));
+    r.setAddress(address);
+    return r;
+  }
+
+  private static GeoJsonPoint point(Double lat, Double lng) {
+    if (lat == null && lng == null) {
+      return null;
+    }
+    if (lat == null || lng == null) {
+      throw new IllegalArgumentException("lat and lng must be given together");
+    }
+    if (lat.isNaN() || lng.isNaN() || lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+      throw new IllegalArgumentException("coordinates out of range: " + lat + ", " + lng);
+    }
+    if (lat == 0 && lng == 0) {
+      throw new IllegalArgumentException("coordinates (0, 0) are a placeholder, not a location");
+    }
+    // GeoJSON order is longitude, latitude
+    return new GeoJsonPoint(lng, lat);
+  }
+
+  private static Map<String, String> hours(Map<String, String> raw) {
+    if (raw == null || raw.isEmpty()) {
+      return null;
+    }
+    Map<String, String> hours = new LinkedHashMap<>();
+    for (Map.Entry<String, String> entry : raw.entrySet()) {
+      String day = entry.getKey() == null ? "" : entry.getKey().trim().toLowerCase(Locale.ROOT);
+      if (!DAYS.contains(day)) {
+        throw new IllegalArgumentException("unknown day in hours: " + entry.getKey());
+      }
+      String span = clean(entry.getValue());
+      if (span == null || span.equalsIgnoreCase("closed")) {
+        continue;
+      }
+      span = span.replace(" ", "");
+      if (!OpeningHours.isValidSpan(span)) {
+        throw new IllegalArgumentException("invalid hours for " + day + ": " + entry.getValue());
+      }
+      hours.put(day, span);
+    }
+    return hours;
+  }
+
+  private static String clean(String value) {
+    if (value == null) {
+      return null;
+    }
+    String cleaned = WHITESPACE.matcher(value.trim()).replaceAll(" ");
+    return cleaned.isEmpty() ? null : cleaned;
+  }
+
+  private static List<String> cleanList(List<String> values) {
+    if (values == null) {
+      return null;
+    }
+    List<String> cleaned = new ArrayList<>(values.size());
+    for (String value : values) {
+      String c = clean(value);
+      if (c != null) {
+        cleaned.add(c);
+      }
+    }
+    return cleaned;
+  }
+
+  private static List<String> distinctIgnoreCase(List<String> values) {
+    List<String> cleaned = cleanList(values);
+    if (cleaned == null) {
+      return null;
+    }
+    Set<String> seen = new LinkedHashSet<>();
+    List<String> distinct = new ArrayList<>(cleaned.size());
+    for (String value : cleaned) {
+      if (seen.add(value.toLowerCase(Locale.ROOT))) {
+        distinct.add(value);
+      }
+    }
+    return distinct;
+  }
+
+  static String titleCaseIfUniform(String value) {
+    if (value == null
+        || (!value.equals(value.toLowerCase(Locale.ROOT))
+            && !value.equals(value.toUpperCase(Locale.ROOT)))) {
+      return value;
+    }
+    StringBuilder out = new StringBuilder(value.length());
+    boolean startOfWord = true;
+    for (char c : value.toLowerCase(Locale.ROOT).toCharArray()) {
+      out.append(startOfWord ? Character.toUpperCase(c) : c);
+      startOfWord = c == ' ' || c == '-';
+    }
+    return out.toString();
+  }
+}
@@ -0,0 +1,20 @@
+package com.plateful.backend.migration;
+
+/**
+ * Execution order of the startup index setup and data migrations. Indexes are ensured first so
+ * that migrations which upsert or look up documents can use them.
+ */
+public final class MigrationOrder {
+
+  public static final int INDEXES = 0;
+
+  public static final int VOTE_COUNTERS = 100;
+
+  public static final int VOTE_COLLECTION = 200;
+
+  public static final int OPEN_RANGES = 300;
+
+  public static final int VOTER_IDS = 400;
+
+  private MigrationOrder() {}
+}
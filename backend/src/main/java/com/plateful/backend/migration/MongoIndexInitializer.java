@@ -0,0 +1,125 @@
+package com.plateful.backend.migration;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.TokenRevocation;
+import com.plateful.backend.model.TrendingSnapshot;
+import com.plateful.backend.model.Vote;
+import com.plateful.backend.service.RestaurantService.SearchBackend;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes the application's queries rely on. Automatic index creation is disabled
+ * ({@code spring.data.mongodb.auto-index-creation=false}), so the indexes declared on the model
+ * are ensured here explicitly. {@code createIndex} is idempotent, so this is safe on every start.
+ *
+ * <p>If the text index cannot be created while {@code app.search.backend=text}, startup fails:
+ * every search would otherwise fail at query time. With the regex backend it is only logged.
+ */
+@Component
+@Order(MigrationOrder.INDEXES)
+@ConditionalOnProperty(name = "app.migrations.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoIndexInitializer implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+  private final MongoTemplate mongoTemplate;
+  private final SearchBackend searchBackend;
+
+  public MongoIndexInitializer(
+      MongoTemplate mongoTemplate, @Value("${app.search.backend:text}") String searchBackend) {
+    this.mongoTemplate = mongoTemplate;
+    this.searchBackend = SearchBackend.from(searchBackend);
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    IndexOperations restaurants = mongoTemplate.indexOps(Restaurant.class);
+
+    // Vote-sorted listings and minVotes filters
+    restaurants.createIndex(new Index().on("net_votes", Sort.Direction.DESC).named("net_votes"));
+
+    // openNow/openAt: $elemMatch on the minute-of-week ranges
+    restaurants.createIndex(
+        new Index()
+            .on("open_ranges.open", Sort.Direction.ASC)
+            .on("open_ranges.close", Sort.Direction.ASC)
+            .named("open_ranges"));
+
+    // Import upserts match restaurants without a feed ID on name and city
+    restaurants.createIndex(
+        new Index()
+            .on("name", Sort.Direction.ASC)
+            .on("address.city", Sort.Direction.ASC)
+            .named("name_city"));
+
+    // $text search (the default app.search.backend=text); weights and language mirror the @TextIndexed fields
+    try {
+      restaurants.createIndex(
+          TextIndexDefinition.builder()
+              .named(Restaurant.TEXT_INDEX)
+              .onField("name", Restaurant.NAME_TEXT_WEIGHT)
+              .onField("cuisine", Restaurant.CUISINE_TEXT_WEIGHT)
+              .onField("description", Restaurant.DESCRIPTION_TEXT_WEIGHT)
+              .withDefaultLanguage(Restaurant.TEXT_LANGUAGE)
+              .build());
+    } catch (RuntimeException e) {
+      // A collection holds one text index; an older definition has to be dropped by hand.
+      if (searchBackend == SearchBackend.TEXT) {
+        throw new IllegalStateException(
+            "Could not create text index "
+                + Restaurant.TEXT_INDEX
+                + ", which app.search.backend=text requires; drop the conflicting text index or"
+                + " set app.search.backend=regex",
+            e);
+      }
+      log.warn("Could not create text index {}: {}", Restaurant.TEXT_INDEX, e.getMessage());
+    }
+
+    // One vote per user and restaurant; also serves "has this user voted" lookups
+    mongoTemplate
+        .indexOps(Vote.class)
+        .createIndex(
+            new Index()
+                .on("restaurantId", Sort.Direction.ASC)
+                .on("userId", Sort.Direction.ASC)
+                .unique()
+                .named("restaurant_user"));
+
+    // Loading a restaurant's voter bitmaps reads only this index
+    mongoTemplate
+        .indexOps(Vote.class)
+        .createIndex(
+            new Index()
+                .on("restaurantId", Sort.Direction.ASC)
+                .on("voter", Sort.Direction.ASC)
+                .on("direction", Sort.Direction.ASC)
+                .named("restaurant_voter"));
+
+    // Trending snapshots expire once their bucket has left the longest window
+    mongoTemplate
+        .indexOps(TrendingSnapshot.class)
+        .createIndex(
+            new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO).named("ttl"));
+
+    // Token revocations expire once the tokens they cover have expired
+    mongoTemplate
+        .indexOps(TokenRevocation.class)
+        .createIndex(
+            new Index().on("expiresAt", Sort.Direction.ASC).expire(Duration.ZERO).named("ttl"));
+
+    log.info("MongoDB indexes ensured");
+  }
+}
@@ -0,0 +1,77 @@
+package com.plateful.backend.migration;
+
+import com.plateful.backend.model.OpeningHours;
+import com.plateful.backend.model.Restaurant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills {@code open_ranges} from the free-text {@code hours} map on restaurants that do not
+ * have it yet, so that openNow/openAt filters can run in MongoDB. Documents are streamed with only
+ * their hours projected and updated in unordered bulk batches; re-running it is a no-op.
+ */
+@Component
+@Order(MigrationOrder.OPEN_RANGES)
+@ConditionalOnProperty(name = "app.migrations.enabled", havingValue = "true", matchIfMissing = true)
+public class OpenRangesMigration implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(OpenRangesMigration.class);
+
+  private static final int BATCH_SIZE = 500;
+
+  private final MongoTemplate mongoTemplate;
+
+  public OpenRangesMigration(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Query pending = new Query(Criteria.where("open_ranges").exists(false));
+    pending.fields().include("hours");
+
+    long migrated = 0;
+    BulkOperations bulk = null;
+    int batched = 0;
+    try (Stream<Restaurant> restaurants = mongoTemplate.stream(pending, Restaurant.class)) {
+      Iterator<Restaurant> it = restaurants.iterator();
+      while (it.hasNext()) {
+        Restaurant r = it.next();
+        Map<String, String> hours = r.getHours();
+        if (bulk == null) {
+          bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Restaurant.class);
+        }
+        bulk.updateOne(
+            new Query(Criteria.where("_id").is(r.getId())),
+            new Update().set("open_ranges", OpeningHours.toRanges(hours)));
+        if (++batched == BATCH_SIZE) {
+          bulk.execute();
+          migrated += batched;
+          bulk = null;
+          batched = 0;
+        }
+      }
+    }
+    if (batched > 0) {
+      bulk.execute();
+      migrated += batched;
+    }
+
+    if (migrated > 0) {
+      log.info("Backfilled opening-hour ranges on {} restaurants", migrated);
+    }
+  }
+}
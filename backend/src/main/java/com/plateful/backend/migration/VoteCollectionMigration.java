@@ -0,0 +1,116 @@
+package com.plateful.backend.migration;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.Vote;
+import com.plateful.backend.model.VoteDirection;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the legacy {@code upvote_user_ids}/{@code downvote_user_ids} sets out of restaurant
+ * documents into the 'votes' collection. For each restaurant that still carries the sets, one vote
+ * document is upserted per voter and the sets are then removed from the restaurant. Upserts make
+ * the migration safe to re-run if it is interrupted part way.
+ *
+ * <p>The counters backfilled by {@link VoteCounterMigration} already reflect these sets, so they
+ * are left unchanged.
+ */
+@Component
+@Order(MigrationOrder.VOTE_COLLECTION)
+@ConditionalOnProperty(name = "app.migrations.enabled", havingValue = "true", matchIfMissing = true)
+public class VoteCollectionMigration implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(VoteCollectionMigration.class);
+
+  private static final String UPVOTERS = "upvote_user_ids";
+  private static final String DOWNVOTERS = "downvote_user_ids";
+
+  private final MongoTemplate mongoTemplate;
+
+  public VoteCollectionMigration(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Document legacy =
+        new Document(
+            "$or",
+            List.of(
+                new Document(UPVOTERS, new Document("$exists", true)),
+                new Document(DOWNVOTERS, new Document("$exists", true))));
+    Document projection = new Document(UPVOTERS, 1).append(DOWNVOTERS, 1);
+
+    int restaurants = 0;
+    long votes = 0;
+    Instant now = Instant.now();
+    MongoCollection<Document> collection =
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Restaurant.class));
+    try (MongoCursor<Document> cursor = collection.find(legacy).projection(projection).iterator()) {
+      while (cursor.hasNext()) {
+        Document doc = cursor.next();
+        Object id = doc.get("_id");
+        String restaurantId = id.toString();
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class);
+        int pending = 0;
+        pending += addVotes(bulk, restaurantId, doc.get(UPVOTERS), VoteDirection.UP, now);
+        pending += addVotes(bulk, restaurantId, doc.get(DOWNVOTERS), VoteDirection.DOWN, now);
+        if (pending > 0) {
+          bulk.execute();
+        }
+
+        collection.updateOne(
+            new Document("_id", id),
+            new Document("$unset", new Document(UPVOTERS, "").append(DOWNVOTERS, "")));
+
+        restaurants++;
+        votes += pending;
+      }
+    }
+
+    if (restaurants > 0) {
+      log.info("Moved {} votes from {} restaurants into the votes collection", votes, restaurants);
+    }
+  }
+
+  /** Queues an upsert per voter; existing vote documents are left untouched. */
+  private static int addVotes(
+      BulkOperations bulk,
+      String restaurantId,
+      Object voters,
+      VoteDirection direction,
+      Instant at) {
+    if (!(voters instanceof Collection<?> userIds)) {
+      return 0;
+    }
+    int count = 0;
+    for (Object userId : userIds) {
+      if (userId == null) {
+        continue;
+      }
+      Query query =
+          new Query(
+              Criteria.where("restaurantId").is(restaurantId).and("userId").is(userId.toString()));
+      bulk.upsert(query, new Update().setOnInsert("direction", direction).setOnInsert("at", at));
+      count++;
+    }
+    return count;
+  }
+}
@@ -0,0 +1,65 @@
+package com.plateful.backend.migration;
+
+import com.plateful.backend.model.Restaurant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-time backfill of the denormalized vote counters ({@code upvote_count}, {@code
+ * downvote_count}, {@code net_votes}) from the voter sets. Runs at startup before traffic is
+ * served and only touches documents that have no counters yet, so it is a no-op once the
+ * collection has been migrated. The whole backfill is a single server-side pipeline update.
+ */
+@Component
+@Order(MigrationOrder.VOTE_COUNTERS)
+@ConditionalOnProperty(name = "app.migrations.enabled", havingValue = "true", matchIfMissing = true)
+public class VoteCounterMigration implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(VoteCounterMigration.class);
+
+  private final MongoTemplate mongoTemplate;
+
+  public VoteCounterMigration(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Query pending = new Query(Criteria.where("net_votes").exists(false));
+
+    ArrayOperators.Size upvotes =
+        ArrayOperators.Size.lengthOfArray(
+            ConditionalOperators.ifNull("upvote_user_ids").then(List.of()));
+    ArrayOperators.Size downvotes =
+        ArrayOperators.Size.lengthOfArray(
+            ConditionalOperators.ifNull("downvote_user_ids").then(List.of()));
+
+    AggregationUpdate backfill =
+        AggregationUpdate.update()
+            .set("upvote_count")
+            .toValue(upvotes)
+            .set("downvote_count")
+            .toValue(downvotes)
+            .set("net_votes")
+            .toValue(ArithmeticOperators.Subtract.valueOf(upvotes).subtract(downvotes));
+
+    long migrated =
+        mongoTemplate.updateMulti(pending, backfill, Restaurant.class).getModifiedCount();
+    if (migrated > 0) {
+      log.info("Backfilled vote counters on {} restaurants", migrated);
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.plateful.backend.migration;
+
+import com.plateful.backend.model.Vote;
+import com.plateful.backend.service.VoterIdService;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfills {@code voter} on votes cast before users had voter numbers, assigning numbers to their
+ * users as needed, so that voter bitmaps can be loaded for every restaurant. Votes are streamed
+ * with only their user projected and updated in unordered bulk batches; re-running it is a no-op.
+ */
+@Component
+@Order(MigrationOrder.VOTER_IDS)
+@ConditionalOnProperty(name = "app.migrations.enabled", havingValue = "true", matchIfMissing = true)
+public class VoterIdMigration implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(VoterIdMigration.class);
+
+  private static final int BATCH_SIZE = 500;
+
+  private final MongoTemplate mongoTemplate;
+  private final VoterIdService voterIdService;
+
+  public VoterIdMigration(MongoTemplate mongoTemplate, VoterIdService voterIdService) {
+    this.mongoTemplate = mongoTemplate;
+    this.voterIdService = voterIdService;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Query pending = new Query(Criteria.where("voter").exists(false));
+    pending.fields().include("userId");
+
+    long migrated = 0;
+    BulkOperations bulk = null;
+    int batched = 0;
+    try (Stream<Vote> votes = mongoTemplate.stream(pending, Vote.class)) {
+      Iterator<Vote> it = votes.iterator();
+      while (it.hasNext()) {
+        Vote vote = it.next();
+        if (bulk == null) {
+          bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Vote.class);
+        }
+        bulk.updateOne(
+            new Query(Criteria.where("_id").is(vote.getId())),
+            new Update().set("voter", voterIdService.assign(vote.getUserId())));
+        if (++batched == BATCH_SIZE) {
+          bulk.execute();
+          migrated += batched;
+          bulk = null;
+          batched = 0;
+        }
+      }
+    }
+    if (batched > 0) {
+      bulk.execute();
+      migrated += batched;
+    }
+
+    if (migrated > 0) {
+      log.info("Backfilled voter numbers on {} votes", migrated);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package com.plateful.backend.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converts the free-text {@code hours} map ({@code "monday" -> "09:00-17:00"}) into minute-of-week
+ * ranges that MongoDB can index and query. Minute 0 is Monday 00:00 and the week has {@value
+ * #MINUTES_PER_WEEK} minutes; both ends of a range are inclusive.
+ *
+ * <p>Overnight spans such as {@code "22:00-02:00"} on Friday are split into Friday 22:00-23:59 and
+ * Saturday 00:00-02:00, with Sunday night wrapping around to Monday morning. Unparseable or blank
+ * entries mean the restaurant is closed that day.
+ */
+public final class OpeningHours {
+
+  public static final int MINUTES_PER_DAY = 24 * 60;
+  public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+  private static final DateTimeFormatter HH_MM = DateTimeFormatter.ofPattern("HH:mm");
+
+  private OpeningHours() {}
+
+  /**
+   * Builds the minute-of-week ranges for a restaurant's opening hours.
+   *
+   * @param hours day name (e.g. {@code monday}) to {@code HH:mm-HH:mm} span; may be null
+   * @return ranges ordered by opening minute; empty when no day parses
+   */
+  public static List<Restaurant.OpenRange> toRanges(Map<String, String> hours) {
+    List<Restaurant.OpenRange> ranges = new ArrayList<>();
+    if (hours == null) {
+      return ranges;
+    }
+    for (DayOfWeek day : DayOfWeek.values()) {
+      String span = hours.get(day.name().toLowerCase(Locale.ROOT));
+      if (span == null || span.isBlank()) {
+        continue;
+      }
+      int[] parsed = parseSpan(span);
+      if (parsed == null) {
+        continue;
+      }
+      int start = parsed[0];
+      int end = parsed[1];
+
+      int dayStart = (day.getValue() - 1) * MINUTES_PER_DAY;
+      if (end >= start) {
+        ranges.add(new Restaurant.OpenRange(dayStart + start, dayStart + end));
+      } else {
+        // overnight window: the early hours belong to the following day
+        int nextDayStart = (dayStart + MINUTES_PER_DAY) % MINUTES_PER_WEEK;
+        ranges.add(new Restaurant.OpenRange(dayStart + start, dayStart + MINUTES_PER_DAY - 1));
+        ranges.add(new Restaurant.OpenRange(nextDayStart, nextDayStart + end));
+      }
+    }
+    ranges.sort((a, b) -> Integer.compare(a.getOpen(), b.getOpen()));
+    return ranges;
+  }
+
+  /**
+   * Checks whether a day's span is in the {@code HH:mm-HH:mm} form this class understands.
+   *
+   * @param span the span text
+   * @return true if the span parses
+   */
+  public static boolean isValidSpan(String span) {
+    return span != null && parseSpan(span) != null;
+  }
+
+  /** Parses {@code HH:mm-HH:mm} into start and end minutes of the day, or null if malformed. */
+  private static int[] parseSpan(String span) {
+    String[] parts = span.split("-");
+    if (parts.length != 2) {
+      return null;
+    }
+    try {
+      return new int[] {
+        minuteOfDay(LocalTime.parse(parts[0].trim(), HH_MM)),
+        minuteOfDay(LocalTime.parse(parts[1].trim(), HH_MM))
+      };
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Minute of the week for a point in time, in that time's own zone.
+   *
+   * @param time the instant to convert, already in the restaurant's time zone
+   * @return minutes since Monday 00:00
+   */
+  public static int minuteOfWeek(ZonedDateTime time) {
+    return (time.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY
+        + minuteOfDay(time.toLocalTime());
+  }
+
+  private static int minuteOfDay(LocalTime time) {
+    return time.getHour() * 60 + time.getMinute();
+  }
+}
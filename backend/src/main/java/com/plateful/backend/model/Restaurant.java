@@ -1,9 +1,8 @@
 package com.plateful.backend.model;
 
-import java.util.HashSet;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
@@ -20,12 +19,25 @@ import org.springframework.data.mongodb.core.mapping.Field;
  * indexing (@TextIndexed) for efficient text search - Geospatial indexing (@GeoSpatialIndexed) for
  * location-based queries
  */
-@Document(collection = "restaurants")
+@Document(collection = "restaurants", language = Restaurant.TEXT_LANGUAGE)
 public class Restaurant {
+
+  // Text index definition, shared by the annotations below and MongoIndexInitializer.
+  public static final String TEXT_INDEX = "restaurant_text";
+  public static final String TEXT_LANGUAGE = "english";
+  public static final float NAME_TEXT_WEIGHT = 10F;
+  public static final float CUISINE_TEXT_WEIGHT = 5F;
+  public static final float DESCRIPTION_TEXT_WEIGHT = 2F;
+
   @Id private String id;
 
-  @TextIndexed private String name;
-  @TextIndexed private String description;
+  @TextIndexed(weight = NAME_TEXT_WEIGHT)
+  private String name;
+
+  @TextIndexed(weight = DESCRIPTION_TEXT_WEIGHT)
+  private String description;
+
+  @TextIndexed(weight = CUISINE_TEXT_WEIGHT)
   private String cuisine;
 
   @Field("price_level")
@@ -41,15 +53,29 @@ public class Restaurant {
   private List<String> tags;
   private Map<String, String> hours;
 
+  // Structured form of 'hours' for database-side open-now queries; derived in setHours.
+  @Field("open_ranges")
+  private List<OpenRange> openRanges;
+
   @Field("reservation_required")
   private Boolean reservationRequired;
 
-  // Voting system - stores user IDs who have upvoted/downvoted
-  @Field("upvote_user_ids")
-  private Set<String> upvoteUserIds = new HashSet<>();
+  // Voting system - individual votes live in the 'votes' collection (see Vote); these
+  // denormalized counters are kept in step by VotingService so the document size stays constant
+  // and MongoDB can filter and sort by votes.
+  @Field("upvote_count")
+  private int upvoteCount;
+
+  @Field("downvote_count")
+  private int downvoteCount;
 
-  @Field("downvote_user_ids")
-  private Set<String> downvoteUserIds = new HashSet<>();
+  @Field("net_votes")
+  private int netVotes;
+
+  // Incremented with the counters on every vote change, so cached voter sets can tell whether
+  // they have missed a vote
+  @Field("vote_seq")
+  private long voteSequence;
 
   public static class Address {
     private String street;
@@ -90,6 +116,38 @@ public class Restaurant {
     }
   }
 
+  /**
+   * A span of opening time in minutes since Monday 00:00, both ends inclusive. See {@link
+   * OpeningHours}.
+   */
+  public static class OpenRange {
+    private int open;
+    private int close;
+
+    public OpenRange() {}
+
+    public OpenRange(int open, int close) {
+      this.open = open;
+      this.close = close;
+    }
+
+    public int getOpen() {
+      return open;
+    }
+
+    public void setOpen(int open) {
+      this.open = open;
+    }
+
+    public int getClose() {
+      return close;
+    }
+
+    public void setClose(int close) {
+      this.close = close;
+    }
+  }
+
   // getters & setters
   public String getId() {
     return id;
@@ -176,7 +234,18 @@ public class Restaurant {
   }
 
   public void setHours(Map<String, String> hours) {
-    this.hours = hours;
+    this.hours = WeeklyHours.compact(hours);
+    this.openRanges = OpeningHours.toRanges(hours);
+  }
+
+  /** Swaps in the compact form of the hours, keeping the stored opening ranges. */
+  void compactHours() {
+    this.hours = WeeklyHours.compact(hours);
+  }
+
+  @JsonIgnore
+  public List<OpenRange> getOpenRanges() {
+    return openRanges;
   }
 
   public List<String> getTags() {
@@ -195,30 +264,13 @@ public class Restaurant {
     this.reservationRequired = reservationRequired;
   }
 
-  public Set<String> getUpvoteUserIds() {
-    return upvoteUserIds;
-  }
-
-  public void setUpvoteUserIds(Set<String> upvoteUserIds) {
-    this.upvoteUserIds = upvoteUserIds;
-  }
-
-  public Set<String> getDownvoteUserIds() {
-    return downvoteUserIds;
-  }
-
-  public void setDownvoteUserIds(Set<String> downvoteUserIds) {
-    this.downvoteUserIds = downvoteUserIds;
-  }
-
   /**
    * Get the net vote count (upvotes - downvotes).
    *
    * @return the net vote count
    */
   public int getVoteCount() {
-    return (upvoteUserIds != null ? upvoteUserIds.size() : 0)
-        - (downvoteUserIds != null ? downvoteUserIds.size() : 0);
+    return netVotes;
   }
 
   /**
@@ -227,7 +279,11 @@ public class Restaurant {
    * @return the upvote count
    */
   public int getUpvoteCount() {
-    return upvoteUserIds != null ? upvoteUserIds.size() : 0;
+    return upvoteCount;
+  }
+
+  public void setUpvoteCount(int upvoteCount) {
+    this.upvoteCount = upvoteCount;
   }
 
   /**
@@ -236,26 +292,27 @@ public class Restaurant {
    * @return the downvote count
    */
   public int getDownvoteCount() {
-    return downvoteUserIds != null ? downvoteUserIds.size() : 0;
+    return downvoteCount;
   }
 
-  /**
-   * Check if a user has upvoted this restaurant.
-   *
-   * @param userId the user ID to check
-   * @return true if the user has upvoted, false otherwise
-   */
-  public boolean hasUserUpvoted(String userId) {
-    return upvoteUserIds != null && upvoteUserIds.contains(userId);
+  public void setDownvoteCount(int downvoteCount) {
+    this.downvoteCount = downvoteCount;
+  }
+
+  public void setVoteCount(int netVotes) {
+    this.netVotes = netVotes;
   }
 
   /**
-   * Check if a user has downvoted this restaurant.
+   * Get the number of vote changes applied to the counters so far.
    *
-   * @param userId the user ID to check
-   * @return true if the user has downvoted, false otherwise
+   * @return the vote sequence
    */
-  public boolean hasUserDownvoted(String userId) {
-    return downvoteUserIds != null && downvoteUserIds.contains(userId);
+  public long getVoteSequence() {
+    return voteSequence;
+  }
+
+  public void setVoteSequence(long voteSequence) {
+    this.voteSequence = voteSequence;
   }
 }
@@ -0,0 +1,50 @@
+package com.plateful.backend.model;
+
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AfterConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shrinks every {@link Restaurant} read from MongoDB, through any template or repository, before it
+ * is handed out. The repetitive strings (cuisine, city, postcode, country, tags and opening spans)
+ * are replaced by shared instances from a {@link StringDictionary} of at most {@code
+ * app.intern.max-size} values, and the hours map by its {@link WeeklyHours} form.
+ */
+@Component
+public class RestaurantInterner implements AfterConvertCallback<Restaurant> {
+
+  private final StringDictionary dictionary;
+
+  public RestaurantInterner(@Value("${app.intern.max-size:50000}") int maxSize) {
+    this.dictionary = new StringDictionary(maxSize);
+  }
+
+  @Override
+  public Restaurant onAfterConvert(Restaurant restaurant, Document document, String collection) {
+    restaurant.setCuisine(dictionary.canonical(restaurant.getCuisine()));
+    Restaurant.Address address = restaurant.getAddress();
+    if (address != null) {
+      address.setCity(dictionary.canonical(address.getCity()));
+      address.setPostcode(dictionary.canonical(address.getPostcode()));
+      address.setCountry(dictionary.canonical(address.getCountry()));
+    }
+    List<String> tags = restaurant.getTags();
+    if (tags != null) {
+      tags.replaceAll(dictionary::canonical);
+    }
+    Map<String, String> hours = restaurant.getHours();
+    if (hours != null) {
+      hours.replaceAll((day, span) -> dictionary.canonical(span));
+      restaurant.compactHours();
+    }
+    return restaurant;
+  }
+
+  /** Number of distinct strings shared so far. */
+  public int dictionarySize() {
+    return dictionary.size();
+  }
+}
@@ -0,0 +1,84 @@
+package com.plateful.backend.model;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Precomputed "people also liked" neighbours of one restaurant, stored in the MongoDB
+ * 'restaurant_similarities' collection keyed by the restaurant's ID, so serving them is a point
+ * lookup. Written by the periodic similarity job; never edited by hand.
+ */
+@Document(collection = "restaurant_similarities")
+public class RestaurantSimilarity {
+  /** The restaurant these neighbours belong to. */
+  @Id private String restaurantId;
+
+  /** Most similar first. */
+  private List<Neighbor> neighbors;
+
+  private Instant computedAt;
+
+  /** A similar restaurant and how similar it is, in (0, 1]. */
+  public static class Neighbor {
+    private String restaurantId;
+    private double score;
+
+    public Neighbor() {}
+
+    public Neighbor(String restaurantId, double score) {
+      this.restaurantId = restaurantId;
+      this.score = score;
+    }
+
+    public String getRestaurantId() {
+      return restaurantId;
+    }
+
+    public void setRestaurantId(String restaurantId) {
+      this.restaurantId = restaurantId;
+    }
+
+    public double getScore() {
+      return score;
+    }
+
+    public void setScore(double score) {
+      this.score = score;
+    }
+  }
+
+  public RestaurantSimilarity() {}
+
+  public RestaurantSimilarity(String restaurantId, List<Neighbor> neighbors, Instant computedAt) {
+    this.restaurantId = restaurantId;
+    this.neighbors = neighbors;
+    this.computedAt = computedAt;
+  }
+
+  // getters & setters
+  public String getRestaurantId() {
+    return restaurantId;
+  }
+
+  public void setRestaurantId(String restaurantId) {
+    this.restaurantId = restaurantId;
+  }
+
+  public List<Neighbor> getNeighbors() {
+    return neighbors;
+  }
+
+  public void setNeighbors(List<Neighbor> neighbors) {
+    this.neighbors = neighbors;
+  }
+
+  public Instant getComputedAt() {
+    return computedAt;
+  }
+
+  public void setComputedAt(Instant computedAt) {
+    this.computedAt = computedAt;
+  }
+}
@@ -0,0 +1,45 @@
+package com.plateful.backend.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, thread-safe canonicalizing map for repetitive strings: equal values resolve to one
+ * shared instance, so thousands of restaurants with cuisine "Thai" hold one string between them.
+ * Unlike {@link String#intern}, the dictionary is capped: once it holds {@code maxSize} values, new
+ * ones are returned as they are instead of being added.
+ */
+public final class StringDictionary {
+
+  private final int maxSize;
+  private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+  public StringDictionary(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * The shared instance equal to a value.
+   *
+   * @param value any string; may be null
+   * @return the canonical instance, or {@code value} itself if it is new and the dictionary is full
+   */
+  public String canonical(String value) {
+    if (value == null) {
+      return null;
+    }
+    String shared = values.get(value);
+    if (shared != null) {
+      return shared;
+    }
+    if (values.size() >= maxSize) {
+      return value;
+    }
+    shared = values.putIfAbsent(value, value);
+    return shared != null ? shared : value;
+  }
+
+  /** Number of distinct values held. */
+  public int size() {
+    return values.size();
+  }
+}
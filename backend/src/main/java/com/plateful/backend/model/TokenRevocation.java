@@ -0,0 +1,66 @@
+package com.plateful.backend.model;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A revoked JWT, or all JWTs of one user issued up to a point in time, stored in the MongoDB
+ * 'token_revocations' collection. The ID is the revocation key: {@code jti:<token ID>} for a
+ * single token (logout, refresh token rotation) or {@code sub:<user ID>} for every token of a user
+ * issued at or before {@code revokedBefore} (logout everywhere, account disable). Documents expire
+ * through a TTL index on {@code expiresAt} once the tokens they cover have expired anyway.
+ */
+@Document(collection = "token_revocations")
+public class TokenRevocation {
+  public static final String TOKEN_PREFIX = "jti:";
+  public static final String SUBJECT_PREFIX = "sub:";
+
+  @Id private String id;
+
+  /** For subject revocations, tokens issued at or before this time are revoked. */
+  private Instant revokedBefore;
+
+  private Instant expiresAt;
+
+  public TokenRevocation() {}
+
+  public TokenRevocation(String id, Instant revokedBefore, Instant expiresAt) {
+    this.id = id;
+    this.revokedBefore = revokedBefore;
+    this.expiresAt = expiresAt;
+  }
+
+  public static String tokenKey(String tokenId) {
+    return TOKEN_PREFIX + tokenId;
+  }
+
+  public static String subjectKey(String subject) {
+    return SUBJECT_PREFIX + subject;
+  }
+
+  // getters & setters
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public Instant getRevokedBefore() {
+    return revokedBefore;
+  }
+
+  public void setRevokedBefore(Instant revokedBefore) {
+    this.revokedBefore = revokedBefore;
+  }
+
+  public Instant getExpiresAt() {
+    return expiresAt;
+  }
+
+  public void setExpiresAt(Instant expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+}
@@ -0,0 +1,133 @@
+package com.plateful.backend.model;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One application instance's view counts for one time bucket, stored in the MongoDB
+ * 'trending_snapshots' collection. Each instance counts views in memory and periodically persists
+ * its buckets here; other instances load and add them (count-min sketches merge by addition), so
+ * trending reflects views served by every instance. Documents expire through a TTL index on
+ * {@code expiresAt} once their bucket has left the longest window.
+ */
+@Document(collection = "trending_snapshots")
+public class TrendingSnapshot {
+  /** {@code instanceId:granularity:bucket}, so re-persisting a bucket overwrites it. */
+  @Id private String id;
+
+  private String instanceId;
+
+  /** {@code minute} or {@code hour}. */
+  private String granularity;
+
+  /** The bucket's period, as epoch millis divided by the bucket length. */
+  private long bucket;
+
+  private int depth;
+  private int width;
+
+  /** Sketch counters, row by row. */
+  private int[] counters;
+
+  /** Restaurant IDs seen in the bucket, the ranking candidates. */
+  private List<String> keys;
+
+  private Instant expiresAt;
+
+  public TrendingSnapshot() {}
+
+  public TrendingSnapshot(
+      String instanceId,
+      String granularity,
+      long bucket,
+      int depth,
+      int width,
+      int[] counters,
+      List<String> keys,
+      Instant expiresAt) {
+    this.id = instanceId + ":" + granularity + ":" + bucket;
+    this.instanceId = instanceId;
+    this.granularity = granularity;
+    this.bucket = bucket;
+    this.depth = depth;
+    this.width = width;
+    this.counters = counters;
+    this.keys = keys;
+    this.expiresAt = expiresAt;
+  }
+
+  // getters & setters
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  public void setInstanceId(String instanceId) {
+    this.instanceId = instanceId;
+  }
+
+  public String getGranularity() {
+    return granularity;
+  }
+
+  public void setGranularity(String granularity) {
+    this.granularity = granularity;
+  }
+
+  public long getBucket() {
+    return bucket;
+  }
+
+  public void setBucket(long bucket) {
+    this.bucket = bucket;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public void setDepth(int depth) {
+    this.depth = depth;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public void setWidth(int width) {
+    this.width = width;
+  }
+
+  public int[] getCounters() {
+    return counters;
+  }
+
+  public void setCounters(int[] counters) {
+    this.counters = counters;
+  }
+
+  public List<String> getKeys() {
+    return keys;
+  }
+
+  public void setKeys(List<String> keys) {
+    this.keys = keys;
+  }
+
+  public Instant getExpiresAt() {
+    return expiresAt;
+  }
+
+  public void setExpiresAt(Instant expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+}
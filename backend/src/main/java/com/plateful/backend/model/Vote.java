@@ -0,0 +1,92 @@
+package com.plateful.backend.model;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A single user's vote on a restaurant, stored in the MongoDB 'votes' collection. Keeping votes in
+ * their own collection (instead of voter sets on the restaurant document) keeps restaurant
+ * documents a constant size however many people vote.
+ *
+ * <p>The unique (restaurantId, userId) index guarantees at most one vote per user and restaurant
+ * and makes "has this user voted" an indexed point lookup. {@code voter} is the user's dense
+ * {@link VoterId} number; the (restaurantId, voter, direction) index lets a restaurant's voter
+ * bitmaps be loaded from the index alone.
+ */
+@Document(collection = "votes")
+@CompoundIndexes({
+  @CompoundIndex(name = "restaurant_user", def = "{'restaurantId': 1, 'userId': 1}", unique = true),
+  @CompoundIndex(
+      name = "restaurant_voter",
+      def = "{'restaurantId': 1, 'voter': 1, 'direction': 1}")
+})
+public class Vote {
+  @Id private String id;
+
+  private String restaurantId;
+  private String userId;
+  private Integer voter;
+  private VoteDirection direction;
+  private Instant at;
+
+  public Vote() {}
+
+  public Vote(String restaurantId, String userId, VoteDirection direction, Instant at) {
+    this.restaurantId = restaurantId;
+    this.userId = userId;
+    this.direction = direction;
+    this.at = at;
+  }
+
+  // getters & setters
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getRestaurantId() {
+    return restaurantId;
+  }
+
+  public void setRestaurantId(String restaurantId) {
+    this.restaurantId = restaurantId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public void setUserId(String userId) {
+    this.userId = userId;
+  }
+
+  public Integer getVoter() {
+    return voter;
+  }
+
+  public void setVoter(Integer voter) {
+    this.voter = voter;
+  }
+
+  public VoteDirection getDirection() {
+    return direction;
+  }
+
+  public void setDirection(VoteDirection direction) {
+    this.direction = direction;
+  }
+
+  public Instant getAt() {
+    return at;
+  }
+
+  public void setAt(Instant at) {
+    this.at = at;
+  }
+}
@@ -0,0 +1,7 @@
+package com.plateful.backend.model;
+
+/** Direction of a user's vote on a restaurant. */
+public enum VoteDirection {
+  UP,
+  DOWN
+}
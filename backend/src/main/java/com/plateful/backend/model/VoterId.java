@@ -0,0 +1,43 @@
+package com.plateful.backend.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A user's dense voter number, stored in the MongoDB 'voter_ids' collection with the user ID as
+ * document ID. Numbers are handed out from a counter in the 'counters' collection the first time a
+ * user votes and never change, so voter sets can be kept as integer bitmaps. They are kept apart
+ * from {@link AppUser} so that saving a user document can never lose or change one.
+ */
+@Document(collection = "voter_ids")
+public class VoterId {
+  /** ID of the counter document in the 'counters' collection. */
+  public static final String SEQUENCE = "voter_id";
+
+  @Id private String userId;
+
+  private int voter;
+
+  public VoterId() {}
+
+  public VoterId(String userId, int voter) {
+    this.userId = userId;
+    this.voter = voter;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public void setUserId(String userId) {
+    this.userId = userId;
+  }
+
+  public int getVoter() {
+    return voter;
+  }
+
+  public void setVoter(int voter) {
+    this.voter = voter;
+  }
+}
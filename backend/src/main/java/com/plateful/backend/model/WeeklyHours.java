@@ -0,0 +1,180 @@
+package com.plateful.backend.model;
+
+import java.time.DayOfWeek;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Compact form of a restaurant's {@code hours} map: one slot per day of the week instead of a hash
+ * table, with the shared day names as keys. It is a {@link Map} with the same contents, so JSON and
+ * MongoDB see no difference. Iteration is in day order, Monday first.
+ *
+ * <p>Only maps keyed by lower-case day names can be compacted; see {@link #compact}.
+ */
+public final class WeeklyHours extends AbstractMap<String, String> {
+
+  private static final String[] DAYS = new String[7];
+
+  static {
+    for (DayOfWeek day : DayOfWeek.values()) {
+      DAYS[day.ordinal()] = day.name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  private final String[] spans = new String[7];
+  private int size;
+
+  private WeeklyHours() {}
+
+  /**
+   * The compact form of an hours map.
+   *
+   * @param hours day name to opening span; may be null
+   * @return an equal {@code WeeklyHours}, or {@code hours} itself if it is null, already compact,
+   *     or has a key that is not a lower-case day name or a null span
+   */
+  public static Map<String, String> compact(Map<String, String> hours) {
+    if (hours == null || hours instanceof WeeklyHours) {
+      return hours;
+    }
+    WeeklyHours compact = new WeeklyHours();
+    for (Map.Entry<String, String> entry : hours.entrySet()) {
+      int day = indexOf(entry.getKey());
+      if (day < 0 || entry.getValue() == null) {
+        return hours;
+      }
+      compact.spans[day] = entry.getValue();
+      compact.size++;
+    }
+    return compact;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    int day = indexOf(key);
+    return day >= 0 && spans[day] != null;
+  }
+
+  @Override
+  public String get(Object key) {
+    int day = indexOf(key);
+    return day >= 0 ? spans[day] : null;
+  }
+
+  /**
+   * Sets a day's span.
+   *
+   * @throws IllegalArgumentException if the key is not a lower-case day name
+   * @throws NullPointerException if the span is null
+   */
+  @Override
+  public String put(String key, String value) {
+    int day = indexOf(key);
+    if (day < 0) {
+      throw new IllegalArgumentException("not a day of the week: " + key);
+    }
+    if (value == null) {
+      throw new NullPointerException("span");
+    }
+    String previous = spans[day];
+    spans[day] = value;
+    if (previous == null) {
+      size++;
+    }
+    return previous;
+  }
+
+  @Override
+  public String remove(Object key) {
+    int day = indexOf(key);
+    if (day < 0 || spans[day] == null) {
+      return null;
+    }
+    String previous = spans[day];
+    spans[day] = null;
+    size--;
+    return previous;
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super String, ? super String, ? extends String> function) {
+    for (int day = 0; day < 7; day++) {
+      if (spans[day] != null) {
+        spans[day] = Objects.requireNonNull(function.apply(DAYS[day], spans[day]), "span");
+      }
+    }
+  }
+
+  @Override
+  public Set<Map.Entry<String, String>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public Iterator<Map.Entry<String, String>> iterator() {
+        return new Iterator<>() {
+          private int next = advance(0);
+          private int last = -1;
+
+          @Override
+          public boolean hasNext() {
+            return next < 7;
+          }
+
+          @Override
+          public Map.Entry<String, String> next() {
+            if (next >= 7) {
+              throw new NoSuchElementException();
+            }
+            last = next;
+            next = advance(next + 1);
+            return new SimpleImmutableEntry<>(DAYS[last], spans[last]);
+          }
+
+          @Override
+          public void remove() {
+            if (last < 0) {
+              throw new IllegalStateException();
+            }
+            WeeklyHours.this.remove(DAYS[last]);
+            last = -1;
+          }
+        };
+      }
+    };
+  }
+
+  private int advance(int from) {
+    int day = from;
+    while (day < 7 && spans[day] == null) {
+      day++;
+    }
+    return day;
+  }
+
+  private static int indexOf(Object key) {
+    if (key instanceof String s) {
+      for (int i = 0; i < 7; i++) {
+        if (DAYS[i].equals(s)) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+}
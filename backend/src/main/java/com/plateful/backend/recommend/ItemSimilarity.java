@@ -0,0 +1,326 @@
+package com.plateful.backend.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the most similar items for every item from two signals:
+ *
+ * <ul>
+ *   <li>Co-occurrence: how often two items appear in the same user's basket (favorites),
+ *       normalized by cosine, {@code c(a,b) / sqrt(n(a) * n(b))}, so popular items do not dominate.
+ *   <li>Content: 0.5 for a shared cuisine plus 0.5 times the Jaccard similarity of the tag sets.
+ *       This gives new or rarely favorited items neighbours too.
+ * </ul>
+ *
+ * The two are blended as {@code w * cooccurrence + (1 - w) * content}.
+ *
+ * <p>Items are dense indexes {@code 0..n-1}. Pair counts are kept in primitive {@link
+ * LongIntHashMap}s keyed by {@code (a << 32) | b}, counted over chunks of baskets in parallel and
+ * then merged. Scoring also runs in parallel, one item at a time, keeping the best {@code k} in a
+ * bounded min-heap. Two bounds keep the cost predictable on large data:
+ *
+ * <ul>
+ *   <li>Baskets are cut to {@value #MAX_BASKET_SIZE} items, since pairs grow quadratically.
+ *   <li>Each cuisine or tag contributes at most {@value #MAX_CONTENT_CANDIDATES} content
+ *       candidates, taken from the lowest indexes. Callers should number items most popular first.
+ * </ul>
+ */
+public final class ItemSimilarity {
+
+  /** Items per basket that are paired; the rest of a very large basket is ignored. */
+  static final int MAX_BASKET_SIZE = 200;
+
+  /** Content candidates taken from each cuisine or tag. */
+  static final int MAX_CONTENT_CANDIDATES = 500;
+
+  /** Baskets counted per parallel task. */
+  private static final int BASKETS_PER_TASK = 4096;
+
+  /**
+   * A similar item.
+   *
+   * @param item the neighbour's index
+   * @param score blended similarity in {@code (0, 1]}
+   */
+  public record Neighbor(int item, double score) {}
+
+  private final int topK;
+  private final double cooccurrenceWeight;
+
+  /**
+   * @param topK neighbours kept per item
+   * @param cooccurrenceWeight weight {@code w} of co-occurrence against content, in {@code [0, 1]}
+   */
+  public ItemSimilarity(int topK, double cooccurrenceWeight) {
+    if (topK < 1) {
+      throw new IllegalArgumentException("topK must be positive");
+    }
+    if (cooccurrenceWeight < 0 || cooccurrenceWeight > 1) {
+      throw new IllegalArgumentException("cooccurrenceWeight must be between 0 and 1");
+    }
+    this.topK = topK;
+    this.cooccurrenceWeight = cooccurrenceWeight;
+  }
+
+  /**
+   * Computes neighbours for every item.
+   *
+   * @param cuisines cuisine ID of each item, or -1 when unknown
+   * @param tags tag IDs of each item, sorted and distinct (empty when none)
+   * @param baskets item indexes favorited together by one user; duplicates are ignored
+   * @return for each item, its best neighbours, most similar first
+   */
+  public List<List<Neighbor>> compute(int[] cuisines, int[][] tags, List<int[]> baskets) {
+    int n = cuisines.length;
+    if (tags.length != n) {
+      throw new IllegalArgumentException("cuisines and tags must cover the same items");
+    }
+
+    List<int[]> cleaned = baskets.stream().map(ItemSimilarity::clean).toList();
+    int[] itemCounts = new int[n];
+    for (int[] basket : cleaned) {
+      for (int item : basket) {
+        itemCounts[item]++;
+      }
+    }
+    CoGraph graph = CoGraph.of(n, countPairs(cleaned));
+    int[][] cuisineSets =
+        Arrays.stream(cuisines)
+            .mapToObj(c -> c >= 0 ? new int[] {c} : new int[0])
+            .toArray(int[][]::new);
+    int[][] cuisinePostings = postings(cuisineSets);
+    int[][] tagPostings = postings(tags);
+
+    ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n));
+    return IntStream.range(0, n)
+        .parallel()
+        .mapToObj(
+            item ->
+                neighbours(
+                    item,
+                    cuisines,
+                    tags,
+                    itemCounts,
+                    graph,
+                    cuisinePostings,
+                    tagPostings,
+                    scratch.get()))
+        .toList();
+  }
+
+  /** Sorted, distinct and capped copy of a basket. */
+  private static int[] clean(int[] basket) {
+    int[] sorted = Arrays.stream(basket).distinct().sorted().toArray();
+    return sorted.length > MAX_BASKET_SIZE ? Arrays.copyOf(sorted, MAX_BASKET_SIZE) : sorted;
+  }
+
+  /** Counts every co-occurring pair, chunks of baskets in parallel. */
+  static LongIntHashMap countPairs(List<int[]> baskets) {
+    int tasks = (baskets.size() + BASKETS_PER_TASK - 1) / BASKETS_PER_TASK;
+    return IntStream.range(0, tasks)
+        .parallel()
+        .mapToObj(
+            task -> {
+              LongIntHashMap counts = new LongIntHashMap();
+              int end = Math.min(baskets.size(), (task + 1) * BASKETS_PER_TASK);
+              for (int i = task * BASKETS_PER_TASK; i < end; i++) {
+                int[] basket = baskets.get(i);
+                for (int x = 0; x < basket.length; x++) {
+                  for (int y = x + 1; y < basket.length; y++) {
+                    counts.addTo(pairKey(basket[x], basket[y]), 1);
+                  }
+                }
+              }
+              return counts;
+            })
+        .reduce(
+            (left, right) -> {
+              if (left.size() < right.size()) {
+                right.addAll(left);
+                return right;
+              }
+              left.addAll(right);
+              return left;
+            })
+        .orElseGet(LongIntHashMap::new);
+  }
+
+  /** Key of an unordered pair; never 0 because the larger index is at least 1. */
+  static long pairKey(int a, int b) {
+    int lo = Math.min(a, b);
+    int hi = Math.max(a, b);
+    return ((long) lo << 32) | hi;
+  }
+
+  private List<Neighbor> neighbours(
+      int item,
+      int[] cuisines,
+      int[][] tags,
+      int[] itemCounts,
+      CoGraph graph,
+      int[][] cuisinePostings,
+      int[][] tagPostings,
+      Scratch scratch) {
+    scratch.reset();
+    for (int e = graph.offsets[item]; e < graph.offsets[item + 1]; e++) {
+      int other = graph.targets[e];
+      scratch.add(
+          other, graph.counts[e] / Math.sqrt((double) itemCounts[item] * itemCounts[other]));
+    }
+    if (cuisines[item] >= 0) {
+      for (int other : cuisinePostings[cuisines[item]]) {
+        scratch.add(other, 0);
+      }
+    }
+    for (int tag : tags[item]) {
+      for (int other : tagPostings[tag]) {
+        scratch.add(other, 0);
+      }
+    }
+
+    PriorityQueue<Neighbor> best =
+        new PriorityQueue<>(topK + 1, (a, b) -> Double.compare(a.score(), b.score()));
+    for (int i = 0; i < scratch.size; i++) {
+      int other = scratch.candidates[i];
+      if (other == item) {
+        continue;
+      }
+      double content =
+          (cuisines[item] >= 0 && cuisines[item] == cuisines[other] ? 0.5 : 0)
+              + 0.5 * jaccard(tags[item], tags[other]);
+      double score =
+          cooccurrenceWeight * scratch.cooccurrence[other] + (1 - cooccurrenceWeight) * content;
+      if (score <= 0) {
+        continue;
+      }
+      if (best.size() < topK) {
+        best.add(new Neighbor(other, score));
+      } else if (score > best.peek().score()) {
+        best.poll();
+        best.add(new Neighbor(other, score));
+      }
+    }
+
+    List<Neighbor> sorted = new ArrayList<>(best);
+    sorted.sort(
+        Comparator.comparingDouble(Neighbor::score).reversed().thenComparingInt(Neighbor::item));
+    return sorted;
+  }
+
+  /** Jaccard similarity of two sorted, distinct arrays. */
+  static double jaccard(int[] a, int[] b) {
+    if (a.length == 0 || b.length == 0) {
+      return 0;
+    }
+    int shared = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        shared++;
+        i++;
+        j++;
+      } else if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return (double) shared / (a.length + b.length - shared);
+  }
+
+  /** Items per category value (cuisine or tag), lowest indexes first, capped. */
+  private static int[][] postings(int[][] values) {
+    Map<Integer, List<Integer>> lists = new HashMap<>();
+    int max = -1;
+    for (int item = 0; item < values.length; item++) {
+      for (int value : values[item]) {
+        List<Integer> list = lists.computeIfAbsent(value, v -> new ArrayList<>());
+        if (list.size() < MAX_CONTENT_CANDIDATES) {
+          list.add(item);
+        }
+        max = Math.max(max, value);
+      }
+    }
+    int[][] postings = new int[max + 1][];
+    for (int v = 0; v <= max; v++) {
+      postings[v] = lists.getOrDefault(v, List.of()).stream().mapToInt(Integer::intValue).toArray();
+    }
+    return postings;
+  }
+
+  /** Co-occurrence counts as a compressed adjacency list (both directions of every pair). */
+  private static final class CoGraph {
+    final int[] offsets;
+    final int[] targets;
+    final int[] counts;
+
+    private CoGraph(int[] offsets, int[] targets, int[] counts) {
+      this.offsets = offsets;
+      this.targets = targets;
+      this.counts = counts;
+    }
+
+    static CoGraph of(int n, LongIntHashMap pairs) {
+      int[] offsets = new int[n + 1];
+      pairs.forEach(
+          (key, count) -> {
+            offsets[(int) (key >>> 32) + 1]++;
+            offsets[(int) key + 1]++;
+          });
+      for (int i = 0; i < n; i++) {
+        offsets[i + 1] += offsets[i];
+      }
+      int[] targets = new int[offsets[n]];
+      int[] counts = new int[offsets[n]];
+      int[] next = Arrays.copyOf(offsets, n);
+      pairs.forEach(
+          (key, count) -> {
+            int a = (int) (key >>> 32);
+            int b = (int) key;
+            targets[next[a]] = b;
+            counts[next[a]++] = count;
+            targets[next[b]] = a;
+            counts[next[b]++] = count;
+          });
+      return new CoGraph(offsets, targets, counts);
+    }
+  }
+
+  /** Per-thread candidate set for one item, reset between items without reallocating. */
+  private static final class Scratch {
+    final double[] cooccurrence;
+    final boolean[] seen;
+    final int[] candidates;
+    int size;
+
+    Scratch(int n) {
+      cooccurrence = new double[n];
+      seen = new boolean[n];
+      candidates = new int[n];
+    }
+
+    void add(int item, double cooccurrenceScore) {
+      if (!seen[item]) {
+        seen[item] = true;
+        candidates[size++] = item;
+      }
+      cooccurrence[item] += cooccurrenceScore;
+    }
+
+    void reset() {
+      for (int i = 0; i < size; i++) {
+        seen[candidates[i]] = false;
+        cooccurrence[candidates[i]] = 0;
+      }
+      size = 0;
+    }
+  }
+}
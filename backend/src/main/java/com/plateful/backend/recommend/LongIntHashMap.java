@@ -0,0 +1,109 @@
+package com.plateful.backend.recommend;
+
+/**
+ * Open-addressing hash map from {@code long} keys to {@code int} counts, used for item-pair
+ * co-occurrence counting. Keys and values live in two flat arrays, so counting millions of pairs
+ * allocates no per-entry objects the way a {@code HashMap<Long, Integer>} would.
+ *
+ * <p>Key {@code 0} marks an empty slot and cannot be stored. Not thread-safe.
+ */
+final class LongIntHashMap {
+
+  /** Receives the entries of a map. */
+  @FunctionalInterface
+  interface EntryConsumer {
+    void accept(long key, int value);
+  }
+
+  private static final long EMPTY = 0L;
+
+  private long[] keys;
+  private int[] values;
+  private int size;
+  private int mask;
+
+  LongIntHashMap() {
+    this(16);
+  }
+
+  LongIntHashMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+    keys = new long[capacity];
+    values = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /** Value stored for {@code key}, or 0 if absent. */
+  int get(long key) {
+    int slot = slot(key);
+    return keys[slot] == key ? values[slot] : 0;
+  }
+
+  /** Adds {@code delta} to the value for {@code key}, starting from 0 if absent. */
+  void addTo(long key, int delta) {
+    if (key == EMPTY) {
+      throw new IllegalArgumentException("key 0 is reserved");
+    }
+    int slot = slot(key);
+    if (keys[slot] == key) {
+      values[slot] += delta;
+      return;
+    }
+    keys[slot] = key;
+    values[slot] = delta;
+    if (++size * 2 > keys.length) {
+      grow();
+    }
+  }
+
+  /** Adds every entry of {@code other} into this map. */
+  void addAll(LongIntHashMap other) {
+    other.forEach(this::addTo);
+  }
+
+  void forEach(EntryConsumer consumer) {
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != EMPTY) {
+        consumer.accept(keys[i], values[i]);
+      }
+    }
+  }
+
+  /** Slot holding {@code key}, or the empty slot where it would go (linear probing). */
+  private int slot(long key) {
+    int slot = mix(key) & mask;
+    while (keys[slot] != EMPTY && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    keys = new long[oldKeys.length * 2];
+    values = new int[oldValues.length * 2];
+    mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        int slot = slot(oldKeys[i]);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+
+  /** Spreads the key bits so sequential pair keys do not cluster (MurmurHash3 finalizer). */
+  private static int mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+}
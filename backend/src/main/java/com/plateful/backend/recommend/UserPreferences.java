@@ -0,0 +1,185 @@
+package com.plateful.backend.recommend;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One user's taste, as affinity for cuisines, cities and price levels, learned from their
+ * favorites and recently viewed restaurants. Favorites count {@value #FAVORITE_WEIGHT} times as
+ * much as views.
+ *
+ * <p>The vector is updated incrementally as the user favorites, unfavorites and views restaurants.
+ * Each update is a handful of map operations, and {@link #score} is two map lookups and an array
+ * read. Views mirror the stored browse history: a restaurant counts once however often it is
+ * viewed, and only the most recent {@code maxViews} count. All methods are thread-safe.
+ */
+public final class UserPreferences {
+
+  /** Weight of a favorite relative to a view. */
+  static final double FAVORITE_WEIGHT = 3.0;
+
+  static final double VIEW_WEIGHT = 1.0;
+
+  /** Share of the score from cuisine, city and price affinity; they sum to 1. */
+  static final double CUISINE_SHARE = 0.5;
+
+  static final double CITY_SHARE = 0.3;
+  static final double PRICE_SHARE = 0.2;
+
+  /**
+   * The attributes of a restaurant that preferences are learned over.
+   *
+   * @param cuisine cuisine, or null
+   * @param city city, or null
+   * @param priceLevel price level 1-4, or null
+   */
+  public record Attributes(String cuisine, String city, Integer priceLevel) {}
+
+  private final int maxViews;
+  private final Set<String> favorites = new HashSet<>();
+  // oldest first, so the first entry is the one that falls out of the history
+  private final LinkedHashSet<String> views = new LinkedHashSet<>();
+  private final Map<String, Attributes> attributes = new HashMap<>();
+
+  private final Map<String, Double> cuisines = new HashMap<>();
+  private final Map<String, Double> cities = new HashMap<>();
+  private final double[] prices = new double[5];
+  private double total;
+
+  /**
+   * @param maxViews number of most recent views that count, matching the stored history length
+   */
+  public UserPreferences(int maxViews) {
+    this.maxViews = maxViews;
+  }
+
+  /** Whether nothing is known about the user yet. */
+  public synchronized boolean isEmpty() {
+    return total <= 0;
+  }
+
+  /**
+   * Records a favorite.
+   *
+   * @param restaurantId the restaurant
+   * @param restaurant its attributes, or null if the restaurant no longer exists
+   */
+  public synchronized void favoriteAdded(String restaurantId, Attributes restaurant) {
+    if (restaurant != null && favorites.add(restaurantId)) {
+      attributes.put(restaurantId, restaurant);
+      apply(restaurant, FAVORITE_WEIGHT);
+    }
+  }
+
+  public synchronized void favoriteRemoved(String restaurantId) {
+    if (favorites.remove(restaurantId)) {
+      apply(attributes.get(restaurantId), -FAVORITE_WEIGHT);
+      forgetIfUnused(restaurantId);
+    }
+  }
+
+  /**
+   * Records a view. Viewing a restaurant again only moves it to the front of the history.
+   *
+   * @param restaurantId the restaurant
+   * @param restaurant its attributes, or null if the restaurant no longer exists
+   */
+  public synchronized void viewed(String restaurantId, Attributes restaurant) {
+    if (views.remove(restaurantId)) {
+      views.add(restaurantId);
+      return;
+    }
+    if (restaurant == null) {
+      return;
+    }
+    views.add(restaurantId);
+    attributes.put(restaurantId, restaurant);
+    apply(restaurant, VIEW_WEIGHT);
+    if (views.size() > maxViews) {
+      Iterator<String> oldest = views.iterator();
+      String dropped = oldest.next();
+      oldest.remove();
+      apply(attributes.get(dropped), -VIEW_WEIGHT);
+      forgetIfUnused(dropped);
+    }
+  }
+
+  public synchronized void historyCleared() {
+    for (String restaurantId : views) {
+      apply(attributes.get(restaurantId), -VIEW_WEIGHT);
+    }
+    Set<String> cleared = new HashSet<>(views);
+    views.clear();
+    cleared.forEach(this::forgetIfUnused);
+  }
+
+  /**
+   * How well a restaurant matches this user's taste.
+   *
+   * @param restaurant the restaurant's attributes
+   * @return affinity in {@code [0, 1]}; 0 when nothing is known about the user
+   */
+  public synchronized double score(Attributes restaurant) {
+    if (total <= 0) {
+      return 0;
+    }
+    double score = 0;
+    String cuisine = key(restaurant.cuisine());
+    if (cuisine != null) {
+      score += CUISINE_SHARE * cuisines.getOrDefault(cuisine, 0.0);
+    }
+    String city = key(restaurant.city());
+    if (city != null) {
+      score += CITY_SHARE * cities.getOrDefault(city, 0.0);
+    }
+    Integer price = restaurant.priceLevel();
+    if (price != null && price >= 1 && price < prices.length) {
+      score += PRICE_SHARE * prices[price];
+    }
+    return score / total;
+  }
+
+  private void apply(Attributes restaurant, double weight) {
+    if (restaurant == null) {
+      return;
+    }
+    total += weight;
+    add(cuisines, key(restaurant.cuisine()), weight);
+    add(cities, key(restaurant.city()), weight);
+    Integer price = restaurant.priceLevel();
+    if (price != null && price >= 1 && price < prices.length) {
+      prices[price] += weight;
+    }
+  }
+
+  private static void add(Map<String, Double> weights, String key, double weight) {
+    if (key == null) {
+      return;
+    }
+    double updated = weights.getOrDefault(key, 0.0) + weight;
+    // drop entries that cancel out, so the maps do not grow with every past preference
+    if (updated <= 1e-9) {
+      weights.remove(key);
+    } else {
+      weights.put(key, updated);
+    }
+  }
+
+  private void forgetIfUnused(String restaurantId) {
+    if (!favorites.contains(restaurantId) && !views.contains(restaurantId)) {
+      attributes.remove(restaurantId);
+    }
+  }
+
+  private static String key(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return value.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,14 @@
+package com.plateful.backend.repository;
+
+import com.plateful.backend.model.Vote;
+import java.util.Optional;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * MongoDB repository interface for Vote entities. Lookups by restaurant and user are served by the
+ * unique (restaurantId, userId) index.
+ */
+public interface VoteRepository extends MongoRepository<Vote, String> {
+  /** Finds the vote a user has cast on a restaurant, if any. */
+  Optional<Vote> findByRestaurantIdAndUserId(String restaurantId, String userId);
+}
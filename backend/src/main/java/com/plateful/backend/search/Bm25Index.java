@@ -0,0 +1,200 @@
+package com.plateful.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable inverted index with BM25F-style relevance scoring over several weighted fields.
+ *
+ * <p>Each document is a fixed list of fields (for example name, description, cuisine and tags),
+ * each with a boost. A term's frequency in each field is length-normalized against that field's
+ * average length, weighted by the field boost and summed, then saturated with the usual BM25 {@code
+ * k1} curve and multiplied by the term's IDF. Because none of that depends on the query, the
+ * per-document contribution of every term is computed once at build time and stored in the
+ * postings; a query only adds up postings and keeps the best {@code k} documents in a bounded
+ * min-heap, so the candidate set is never sorted as a whole.
+ */
+public final class Bm25Index {
+
+  /** Term frequency saturation. */
+  static final double K1 = 1.2;
+
+  /** Strength of field length normalization. */
+  static final double B = 0.75;
+
+  /**
+   * A scored document.
+   *
+   * @param docId the document ID given to the builder
+   * @param score BM25 relevance, higher is better
+   */
+  public record Hit(String docId, double score) {}
+
+  private final String[] docIds;
+  private final Map<String, Postings> postings;
+
+  private Bm25Index(String[] docIds, Map<String, Postings> postings) {
+    this.docIds = docIds;
+    this.postings = postings;
+  }
+
+  /** An empty index, used before the first build completes. */
+  public static Bm25Index empty() {
+    return new Builder(1.0).build();
+  }
+
+  /** Number of indexed documents. */
+  public int size() {
+    return docIds.length;
+  }
+
+  /**
+   * Returns the {@code k} most relevant documents for the query. Documents match if they contain
+   * any query word; more matching words and rarer words score higher.
+   *
+   * @param query raw query text, normalized with {@link TextNormalizer}
+   * @param k maximum number of hits
+   * @return hits, most relevant first
+   */
+  public List<Hit> search(String query, int k) {
+    if (k <= 0) {
+      return List.of();
+    }
+    Map<Integer, Double> scores = new HashMap<>();
+    for (String term : new LinkedHashSet<>(TextNormalizer.tokenize(query))) {
+      Postings p = postings.get(term);
+      if (p == null) {
+        continue;
+      }
+      for (int i = 0; i < p.docs.length; i++) {
+        scores.merge(p.docs[i], (double) p.weights[i], Double::sum);
+      }
+    }
+    if (scores.isEmpty()) {
+      return List.of();
+    }
+
+    // Min-heap of the best k so far: the root is the weakest hit and is evicted first.
+    PriorityQueue<Map.Entry<Integer, Double>> heap =
+        new PriorityQueue<>(
+            Math.min(k, scores.size()) + 1,
+            Map.Entry.<Integer, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Integer, Double>comparingByKey().reversed()));
+    for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+      heap.offer(entry);
+      if (heap.size() > k) {
+        heap.poll();
+      }
+    }
+
+    Hit[] hits = new Hit[heap.size()];
+    for (int i = hits.length - 1; i >= 0; i--) {
+      Map.Entry<Integer, Double> entry = heap.poll();
+      hits[i] = new Hit(docIds[entry.getKey()], entry.getValue());
+    }
+    return Arrays.asList(hits);
+  }
+
+  /** Documents containing a term and the term's precomputed score contribution in each. */
+  private record Postings(int[] docs, float[] weights) {}
+
+  /** Collects documents field by field and freezes them into a {@link Bm25Index}. */
+  public static final class Builder {
+    private final double[] boosts;
+    private final List<String> docIds = new ArrayList<>();
+    private final List<Map<String, int[]>> termFrequencies = new ArrayList<>();
+    private final List<int[]> fieldLengths = new ArrayList<>();
+
+    /**
+     * @param boosts weight of each field, in the order fields are passed to {@link #add}
+     */
+    public Builder(double... boosts) {
+      this.boosts = boosts.clone();
+    }
+
+    /**
+     * Adds a document.
+     *
+     * @param docId the document ID returned in hits
+     * @param fields field texts, in the same order as the boosts (null fields are empty)
+     * @return this builder
+     */
+    public Builder add(String docId, String... fields) {
+      if (fields.length != boosts.length) {
+        throw new IllegalArgumentException(
+            "Expected " + boosts.length + " fields but got " + fields.length);
+      }
+      Map<String, int[]> tf = new HashMap<>();
+      int[] lengths = new int[fields.length];
+      for (int f = 0; f < fields.length; f++) {
+        List<String> tokens = TextNormalizer.tokenize(fields[f]);
+        lengths[f] = tokens.size();
+        for (String token : tokens) {
+          tf.computeIfAbsent(token, t -> new int[boosts.length])[f]++;
+        }
+      }
+      docIds.add(docId);
+      termFrequencies.add(tf);
+      fieldLengths.add(lengths);
+      return this;
+    }
+
+    public Bm25Index build() {
+      int n = docIds.size();
+      double[] avgLength = new double[boosts.length];
+      for (int[] lengths : fieldLengths) {
+        for (int f = 0; f < lengths.length; f++) {
+          avgLength[f] += lengths[f];
+        }
+      }
+      for (int f = 0; f < avgLength.length; f++) {
+        avgLength[f] = n == 0 ? 0 : avgLength[f] / n;
+      }
+
+      Map<String, Integer> documentFrequency = new HashMap<>();
+      for (Map<String, int[]> tf : termFrequencies) {
+        tf.keySet().forEach(term -> documentFrequency.merge(term, 1, Integer::sum));
+      }
+
+      Map<String, List<Integer>> docsByTerm = new HashMap<>();
+      Map<String, List<Float>> weightsByTerm = new HashMap<>();
+      for (int doc = 0; doc < n; doc++) {
+        int[] lengths = fieldLengths.get(doc);
+        for (Map.Entry<String, int[]> entry : termFrequencies.get(doc).entrySet()) {
+          double weightedTf = 0;
+          for (int f = 0; f < boosts.length; f++) {
+            int tf = entry.getValue()[f];
+            if (tf > 0) {
+              double norm = avgLength[f] > 0 ? 1 - B + B * lengths[f] / avgLength[f] : 1;
+              weightedTf += boosts[f] * tf / norm;
+            }
+          }
+          int df = documentFrequency.get(entry.getKey());
+          double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+          double weight = idf * weightedTf * (K1 + 1) / (weightedTf + K1);
+          docsByTerm.computeIfAbsent(entry.getKey(), t -> new ArrayList<>()).add(doc);
+          weightsByTerm.computeIfAbsent(entry.getKey(), t -> new ArrayList<>()).add((float) weight);
+        }
+      }
+
+      Map<String, Postings> postings = new HashMap<>(docsByTerm.size() * 2);
+      docsByTerm.forEach(
+          (term, docs) -> {
+            List<Float> weights = weightsByTerm.get(term);
+            int[] docArray = new int[docs.size()];
+            float[] weightArray = new float[docs.size()];
+            for (int i = 0; i < docArray.length; i++) {
+              docArray[i] = docs.get(i);
+              weightArray[i] = weights.get(i);
+            }
+            postings.put(term, new Postings(docArray, weightArray));
+          });
+      return new Bm25Index(docIds.toArray(String[]::new), postings);
+    }
+  }
+}
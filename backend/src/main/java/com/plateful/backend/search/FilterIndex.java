@@ -0,0 +1,301 @@
+package com.plateful.backend.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable columnar index of the structured restaurant attributes used by {@code /filter}:
+ * cuisine, city, tags, price level, reservation requirement and opening hours.
+ *
+ * <p>Restaurants are numbered by row. Cuisine, city and tags are dictionary-encoded: each distinct
+ * value (lower-cased) maps to a bitmap of the rows having it, and so does each price level and
+ * each reservation value. A query turns every criterion into an OR of value bitmaps, ANDs the
+ * criteria together, and then checks opening hours only for the rows left. Bitmaps are plain
+ * {@code long[]} words, one bit per row, which is compact at catalog sizes. Catalogs of at least
+ * {@value #PARALLEL_MIN_ROWS} rows are evaluated in word ranges in parallel.
+ */
+public final class FilterIndex {
+
+  /** Rows from which queries are evaluated on several cores. */
+  static final int PARALLEL_MIN_ROWS = 1 << 16;
+
+  /** Words (64 rows each) evaluated together by one task. */
+  private static final int SEGMENT_WORDS = 256;
+
+  private static final Pattern REGEX_META = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+
+  private final String[] ids;
+  private final int words;
+  private final Map<String, long[]> cuisines;
+  private final Map<String, long[]> cities;
+  private final Map<String, long[]> tags;
+  private final NavigableMap<Integer, long[]> prices;
+  private final long[] reservationRequired;
+  private final long[] reservationNotRequired;
+  private final int[][] openRanges;
+
+  private FilterIndex(Builder b) {
+    this.ids = b.ids.toArray(String[]::new);
+    this.words = Math.max(1, (ids.length + 63) / 64);
+    this.cuisines = words(b.cuisines, words);
+    this.cities = words(b.cities, words);
+    this.tags = words(b.tags, words);
+    this.prices = new TreeMap<>(words(b.prices, words));
+    this.reservationRequired = words(b.reservationRequired, words);
+    this.reservationNotRequired = words(b.reservationNotRequired, words);
+    this.openRanges = b.openRanges.toArray(int[][]::new);
+  }
+
+  /** An empty index, used before the first build completes. */
+  public static FilterIndex empty() {
+    return new Builder().build();
+  }
+
+  /** Number of indexed restaurants. */
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * Finds restaurants matching every given criterion. Null or empty arguments are ignored.
+   *
+   * @param cuisine case-insensitive pattern found anywhere in the cuisine, as in the MongoDB query
+   * @param priceMin lowest price level (inclusive); swapped with priceMax if greater
+   * @param priceMax highest price level (inclusive)
+   * @param reservation required reservation flag
+   * @param cityNames cities, any of which matches (case-insensitive, exact)
+   * @param tagNames tags, all of which must be present (case-insensitive, exact)
+   * @param minuteOfWeek minute of the week the restaurant must be open at, see {@code
+   *     OpeningHours}
+   * @return matching restaurant IDs in row order
+   */
+  public List<String> match(
+      String cuisine,
+      Integer priceMin,
+      Integer priceMax,
+      Boolean reservation,
+      List<String> cityNames,
+      List<String> tagNames,
+      Integer minuteOfWeek) {
+    // each clause is an OR of bitmaps; the clauses are ANDed
+    List<List<long[]>> clauses = new ArrayList<>();
+    if (cuisine != null && !cuisine.isBlank()) {
+      clauses.add(cuisineBitmaps(cuisine));
+    }
+    if (priceMin != null || priceMax != null) {
+      int lo = priceMin != null ? priceMin : Integer.MIN_VALUE;
+      int hi = priceMax != null ? priceMax : Integer.MAX_VALUE;
+      if (priceMin != null && priceMax != null && lo > hi) {
+        int tmp = lo;
+        lo = hi;
+        hi = tmp;
+      }
+      clauses.add(List.copyOf(prices.subMap(lo, true, hi, true).values()));
+    }
+    if (reservation != null) {
+      clauses.add(List.of(reservation ? reservationRequired : reservationNotRequired));
+    }
+    List<long[]> cityClause = new ArrayList<>();
+    boolean anyCity = false;
+    if (cityNames != null) {
+      for (String city : cityNames) {
+        if (city != null && !city.isBlank()) {
+          anyCity = true;
+          long[] bitmap = cities.get(key(city.trim()));
+          if (bitmap != null) {
+            cityClause.add(bitmap);
+          }
+        }
+      }
+    }
+    if (anyCity) {
+      clauses.add(cityClause);
+    }
+    if (tagNames != null) {
+      for (String tag : tagNames) {
+        if (tag != null && !tag.isBlank()) {
+          long[] bitmap = tags.get(key(tag.trim()));
+          clauses.add(bitmap != null ? List.of(bitmap) : List.of());
+        }
+      }
+    }
+    for (List<long[]> clause : clauses) {
+      if (clause.isEmpty()) {
+        return List.of();
+      }
+    }
+
+    long[] result = new long[words];
+    int segments = (words + SEGMENT_WORDS - 1) / SEGMENT_WORDS;
+    IntStream tasks = IntStream.range(0, segments);
+    if (ids.length >= PARALLEL_MIN_ROWS) {
+      tasks = tasks.parallel();
+    }
+    // segments write disjoint word ranges of result
+    tasks.forEach(
+        s ->
+            evaluate(
+                clauses,
+                minuteOfWeek,
+                result,
+                s * SEGMENT_WORDS,
+                Math.min(words, (s + 1) * SEGMENT_WORDS)));
+
+    List<String> matched = new ArrayList<>();
+    BitSet bits = BitSet.valueOf(result);
+    for (int row = bits.nextSetBit(0); row >= 0; row = bits.nextSetBit(row + 1)) {
+      matched.add(ids[row]);
+    }
+    return matched;
+  }
+
+  private void evaluate(
+      List<List<long[]>> clauses, Integer minuteOfWeek, long[] result, int from, int to) {
+    for (int w = from; w < to; w++) {
+      long word = w == words - 1 ? lastWordMask() : -1L;
+      for (List<long[]> clause : clauses) {
+        if (word == 0) {
+          break;
+        }
+        long any = 0;
+        for (long[] bitmap : clause) {
+          any |= bitmap[w];
+        }
+        word &= any;
+      }
+      if (minuteOfWeek != null) {
+        for (long rest = word; rest != 0; rest &= rest - 1) {
+          int bit = Long.numberOfTrailingZeros(rest);
+          if (!isOpen(openRanges[w * 64 + bit], minuteOfWeek)) {
+            word &= ~(1L << bit);
+          }
+        }
+      }
+      result[w] = word;
+    }
+  }
+
+  private long lastWordMask() {
+    int used = ids.length - (words - 1) * 64;
+    return used >= 64 ? -1L : (1L << used) - 1;
+  }
+
+  /** Cuisines containing the pattern; patterns with regex syntax are matched as regexes. */
+  private List<long[]> cuisineBitmaps(String cuisine) {
+    List<long[]> matches = new ArrayList<>();
+    if (REGEX_META.matcher(cuisine).find()) {
+      Pattern pattern =
+          Pattern.compile(cuisine, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+      cuisines.forEach(
+          (value, bitmap) -> {
+            if (pattern.matcher(value).find()) {
+              matches.add(bitmap);
+            }
+          });
+    } else {
+      String needle = key(cuisine);
+      cuisines.forEach(
+          (value, bitmap) -> {
+            if (value.contains(needle)) {
+              matches.add(bitmap);
+            }
+          });
+    }
+    return matches;
+  }
+
+  private static boolean isOpen(int[] ranges, int minute) {
+    for (int i = 0; i < ranges.length; i += 2) {
+      if (ranges[i] <= minute && minute <= ranges[i + 1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String key(String value) {
+    return value.toLowerCase(Locale.ROOT);
+  }
+
+  private static <K> Map<K, long[]> words(Map<K, BitSet> bitmaps, int words) {
+    Map<K, long[]> out = new HashMap<>();
+    bitmaps.forEach((k, bits) -> out.put(k, words(bits, words)));
+    return out;
+  }
+
+  private static long[] words(BitSet bits, int words) {
+    long[] out = new long[words];
+    long[] set = bits.toLongArray();
+    System.arraycopy(set, 0, out, 0, set.length);
+    return out;
+  }
+
+  /** Collects restaurants row by row. */
+  public static final class Builder {
+    private final List<String> ids = new ArrayList<>();
+    private final Map<String, BitSet> cuisines = new HashMap<>();
+    private final Map<String, BitSet> cities = new HashMap<>();
+    private final Map<String, BitSet> tags = new HashMap<>();
+    private final Map<Integer, BitSet> prices = new HashMap<>();
+    private final BitSet reservationRequired = new BitSet();
+    private final BitSet reservationNotRequired = new BitSet();
+    private final List<int[]> openRanges = new ArrayList<>();
+
+    /**
+     * Adds a restaurant. Null attributes never match a criterion on that attribute.
+     *
+     * @param id restaurant ID
+     * @param cuisine cuisine
+     * @param city address city
+     * @param tagValues tags
+     * @param priceLevel price level
+     * @param reservation whether a reservation is required
+     * @param ranges opening ranges as minute-of-week {@code open, close} pairs
+     * @return this builder
+     */
+    public Builder add(
+        String id,
+        String cuisine,
+        String city,
+        List<String> tagValues,
+        Integer priceLevel,
+        Boolean reservation,
+        int[] ranges) {
+      int row = ids.size();
+      ids.add(id);
+      if (cuisine != null) {
+        cuisines.computeIfAbsent(key(cuisine), k -> new BitSet()).set(row);
+      }
+      if (city != null) {
+        cities.computeIfAbsent(key(city), k -> new BitSet()).set(row);
+      }
+      if (tagValues != null) {
+        for (String tag : tagValues) {
+          if (tag != null) {
+            tags.computeIfAbsent(key(tag), k -> new BitSet()).set(row);
+          }
+        }
+      }
+      if (priceLevel != null) {
+        prices.computeIfAbsent(priceLevel, k -> new BitSet()).set(row);
+      }
+      if (reservation != null) {
+        (reservation ? reservationRequired : reservationNotRequired).set(row);
+      }
+      openRanges.add(ranges != null ? ranges : new int[0]);
+      return this;
+    }
+
+    public FilterIndex build() {
+      return new FilterIndex(this);
+    }
+  }
+}
@@ -0,0 +1,247 @@
+package com.plateful.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable index for typo-tolerant term matching. Candidate generation uses trigrams over the
+ * distinct vocabulary (not over documents), and candidates are then verified with a bounded
+ * optimal-string-alignment edit distance (Levenshtein plus adjacent transpositions, so "thia"
+ * matches "thai" with one edit). Only terms that share enough trigrams with the query are ever
+ * compared, so the cost depends on the vocabulary neighbourhood, not on the catalog size.
+ *
+ * <p>Allowed edits scale with word length: none up to 2 characters, one up to 5, two beyond.
+ */
+public final class FuzzyIndex {
+
+  private final String[] docIds;
+  private final String[] terms;
+  private final int[][] postings;
+  private final Map<String, int[]> trigrams;
+
+  private FuzzyIndex(
+      String[] docIds, String[] terms, int[][] postings, Map<String, int[]> trigrams) {
+    this.docIds = docIds;
+    this.terms = terms;
+    this.postings = postings;
+    this.trigrams = trigrams;
+  }
+
+  /** An empty index, used before the first build completes. */
+  public static FuzzyIndex empty() {
+    return new Builder().build();
+  }
+
+  /** Number of distinct terms in the vocabulary. */
+  public int vocabularySize() {
+    return terms.length;
+  }
+
+  /**
+   * Finds documents in which every query word matches some indexed term within the allowed edit
+   * distance.
+   *
+   * @param query raw query text
+   * @param limit maximum number of documents
+   * @return the {@code limit} closest matching document IDs, closest (smallest total edit
+   *     distance) first
+   */
+  public List<String> search(String query, int limit) {
+    List<String> tokens = TextNormalizer.tokenize(query);
+    if (tokens.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+
+    Map<Integer, Integer> distances = null;
+    for (String token : tokens) {
+      Map<Integer, Integer> tokenDocs = new HashMap<>();
+      for (Map.Entry<Integer, Integer> match : matchTerms(token).entrySet()) {
+        for (int doc : postings[match.getKey()]) {
+          tokenDocs.merge(doc, match.getValue(), Math::min);
+        }
+      }
+      if (distances == null) {
+        distances = tokenDocs;
+      } else {
+        Map<Integer, Integer> both = new HashMap<>();
+        for (Map.Entry<Integer, Integer> e : distances.entrySet()) {
+          Integer d = tokenDocs.get(e.getKey());
+          if (d != null) {
+            both.put(e.getKey(), e.getValue() + d);
+          }
+        }
+        distances = both;
+      }
+      if (distances.isEmpty()) {
+        return List.of();
+      }
+    }
+
+    // Max-heap of the best limit so far: the root is the furthest match and is evicted first.
+    Comparator<Map.Entry<Integer, Integer>> closestFirst =
+        Map.Entry.<Integer, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey());
+    PriorityQueue<Map.Entry<Integer, Integer>> heap =
+        new PriorityQueue<>(Math.min(limit, distances.size()) + 1, closestFirst.reversed());
+    for (Map.Entry<Integer, Integer> entry : distances.entrySet()) {
+      heap.offer(entry);
+      if (heap.size() > limit) {
+        heap.poll();
+      }
+    }
+
+    String[] ids = new String[heap.size()];
+    for (int i = ids.length - 1; i >= 0; i--) {
+      ids[i] = docIds[heap.poll().getKey()];
+    }
+    return Arrays.asList(ids);
+  }
+
+  /** Returns vocabulary terms within the allowed distance of {@code token}, with distances. */
+  private Map<Integer, Integer> matchTerms(String token) {
+    int maxEdits = maxEdits(token.length());
+    List<String> grams = trigramsOf(token);
+    int required = Math.max(1, grams.size() - 4 * maxEdits);
+
+    Map<Integer, Integer> shared = new HashMap<>();
+    for (String gram : grams) {
+      int[] termIds = trigrams.get(gram);
+      if (termIds != null) {
+        for (int termId : termIds) {
+          shared.merge(termId, 1, Integer::sum);
+        }
+      }
+    }
+
+    Map<Integer, Integer> matches = new LinkedHashMap<>();
+    for (Map.Entry<Integer, Integer> candidate : shared.entrySet()) {
+      if (candidate.getValue() < required) {
+        continue;
+      }
+      String term = terms[candidate.getKey()];
+      if (Math.abs(term.length() - token.length()) > maxEdits) {
+        continue;
+      }
+      int distance = boundedDistance(token, term, maxEdits);
+      if (distance <= maxEdits) {
+        matches.put(candidate.getKey(), distance);
+      }
+    }
+    return matches;
+  }
+
+  static int maxEdits(int length) {
+    if (length <= 2) return 0;
+    if (length <= 5) return 1;
+    return 2;
+  }
+
+  /**
+   * Optimal string alignment distance, abandoned early once every cell in a row exceeds {@code
+   * max}. Returns {@code max + 1} when the distance is larger than {@code max}.
+   */
+  static int boundedDistance(String a, String b, int max) {
+    int n = a.length();
+    int m = b.length();
+    int[] prevPrev = new int[m + 1];
+    int[] prev = new int[m + 1];
+    int[] curr = new int[m + 1];
+    for (int j = 0; j <= m; j++) {
+      prev[j] = j;
+    }
+    for (int i = 1; i <= n; i++) {
+      curr[0] = i;
+      int rowMin = curr[0];
+      for (int j = 1; j <= m; j++) {
+        int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+        int value = Math.min(Math.min(prev[j] + 1, curr[j - 1] + 1), prev[j - 1] + cost);
+        if (i > 1
+            && j > 1
+            && a.charAt(i - 1) == b.charAt(j - 2)
+            && a.charAt(i - 2) == b.charAt(j - 1)) {
+          value = Math.min(value, prevPrev[j - 2] + 1);
+        }
+        curr[j] = value;
+        rowMin = Math.min(rowMin, value);
+      }
+      if (rowMin > max) {
+        return max + 1;
+      }
+      int[] recycled = prevPrev;
+      prevPrev = prev;
+      prev = curr;
+      curr = recycled;
+    }
+    return Math.min(prev[m], max + 1);
+  }
+
+  /**
+   * Trigrams of the word padded with two boundary markers on each side. A word of length n then has
+   * n + 2 trigrams and one edit touches at most three of them, so even a three-letter word keeps a
+   * shared trigram with its one-edit neighbours.
+   */
+  static List<String> trigramsOf(String word) {
+    String padded = "^^" + word + "$$";
+    List<String> grams = new ArrayList<>(Math.max(0, padded.length() - 2));
+    for (int i = 0; i + 3 <= padded.length(); i++) {
+      grams.add(padded.substring(i, i + 3));
+    }
+    return grams;
+  }
+
+  /** Collects (document, text) pairs and freezes them into a {@link FuzzyIndex}. */
+  public static final class Builder {
+    private final List<String> docIds = new ArrayList<>();
+    private final Map<String, List<Integer>> termDocs = new LinkedHashMap<>();
+
+    /**
+     * Indexes the words of the given texts for a document.
+     *
+     * @param docId the document ID returned by searches
+     * @param texts texts to tokenize (null entries are ignored)
+     * @return this builder
+     */
+    public Builder add(String docId, String... texts) {
+      int doc = docIds.size();
+      docIds.add(docId);
+      for (String text : texts) {
+        for (String token : TextNormalizer.tokenize(text)) {
+          List<Integer> docs = termDocs.computeIfAbsent(token, t -> new ArrayList<>());
+          if (docs.isEmpty() || docs.get(docs.size() - 1) != doc) {
+            docs.add(doc);
+          }
+        }
+      }
+      return this;
+    }
+
+    public FuzzyIndex build() {
+      String[] terms = termDocs.keySet().toArray(String[]::new);
+      int[][] postings = new int[terms.length][];
+      Map<String, List<Integer>> gramTerms = new HashMap<>();
+      for (int t = 0; t < terms.length; t++) {
+        postings[t] = termDocs.get(terms[t]).stream().mapToInt(Integer::intValue).toArray();
+        for (String gram : trigramsOf(terms[t])) {
+          List<Integer> ids = gramTerms.computeIfAbsent(gram, g -> new ArrayList<>());
+          if (ids.isEmpty() || ids.get(ids.size() - 1) != t) {
+            ids.add(t);
+          }
+        }
+      }
+      Map<String, int[]> trigrams = new HashMap<>(gramTerms.size() * 2);
+      gramTerms.forEach(
+          (gram, ids) -> trigrams.put(gram, ids.stream().mapToInt(Integer::intValue).toArray()));
+      return new FuzzyIndex(docIds.toArray(String[]::new), terms, postings, trigrams);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "FuzzyIndex[docs=" + docIds.length + ", terms=" + terms.length + "]";
+  }
+}
@@ -0,0 +1,191 @@
+package com.plateful.backend.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable prefix trie for typeahead suggestions. Every node stores the ids of its top-k
+ * suggestions, precomputed at build time, so a lookup walks the prefix and copies at most k
+ * entries: the cost depends on the prefix length and k, never on the number of matches.
+ *
+ * <p>Children are kept in sorted {@code char} arrays and found by binary search, which keeps each
+ * node small compared to a map per node. Build with {@link Builder}; instances are safe to share
+ * between threads.
+ */
+public final class SuggestionTrie {
+
+  /**
+   * A suggestion returned to the client.
+   *
+   * @param text display text
+   * @param type what the suggestion is: {@code restaurant}, {@code cuisine}, {@code city} or {@code
+   *     tag}
+   * @param restaurantId restaurant ID for restaurant suggestions, otherwise null
+   * @param score popularity used for ranking (higher first)
+   */
+  public record Suggestion(String text, String type, String restaurantId, long score) {}
+
+  private static final int[] NONE = new int[0];
+
+  private final Suggestion[] suggestions;
+  private final Node root;
+  private final int topK;
+
+  private SuggestionTrie(Suggestion[] suggestions, Node root, int topK) {
+    this.suggestions = suggestions;
+    this.root = root;
+    this.topK = topK;
+  }
+
+  /** An empty trie, used before the first build completes. */
+  public static SuggestionTrie empty() {
+    return new Builder(1).build();
+  }
+
+  /**
+   * Returns the most popular suggestions whose keys start with {@code prefix}.
+   *
+   * @param prefix raw user input; normalized with {@link TextNormalizer}
+   * @param limit maximum number of suggestions (capped at the trie's k)
+   * @return suggestions, most popular first
+   */
+  public List<Suggestion> suggest(String prefix, int limit) {
+    String key = TextNormalizer.normalize(prefix);
+    if (key.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    Node node = root;
+    for (int i = 0; i < key.length() && node != null; i++) {
+      node = node.child(key.charAt(i));
+    }
+    if (node == null) {
+      return List.of();
+    }
+    int n = Math.min(Math.min(limit, topK), node.top.length);
+    List<Suggestion> result = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      result.add(suggestions[node.top[i]]);
+    }
+    return result;
+  }
+
+  /** Number of distinct suggestions indexed. */
+  public int size() {
+    return suggestions.length;
+  }
+
+  private static final class Node {
+    private char[] labels = new char[0];
+    private Node[] children = new Node[0];
+    private int[] terminal = NONE;
+    private int[] top = NONE;
+
+    Node child(char c) {
+      int i = Arrays.binarySearch(labels, c);
+      return i >= 0 ? children[i] : null;
+    }
+
+    Node childOrCreate(char c) {
+      int i = Arrays.binarySearch(labels, c);
+      if (i >= 0) {
+        return children[i];
+      }
+      int at = -i - 1;
+      Node created = new Node();
+      char[] newLabels = new char[labels.length + 1];
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(labels, 0, newLabels, 0, at);
+      System.arraycopy(children, 0, newChildren, 0, at);
+      newLabels[at] = c;
+      newChildren[at] = created;
+      System.arraycopy(labels, at, newLabels, at + 1, labels.length - at);
+      System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+      labels = newLabels;
+      children = newChildren;
+      return created;
+    }
+
+    void addTerminal(int id) {
+      for (int existing : terminal) {
+        if (existing == id) {
+          return;
+        }
+      }
+      terminal = Arrays.copyOf(terminal, terminal.length + 1);
+      terminal[terminal.length - 1] = id;
+    }
+  }
+
+  /** Collects keys and suggestions, then freezes them into a {@link SuggestionTrie}. */
+  public static final class Builder {
+    private final int topK;
+    private final List<Suggestion> suggestions = new ArrayList<>();
+    private final Node root = new Node();
+
+    /**
+     * @param topK number of suggestions precomputed per node
+     */
+    public Builder(int topK) {
+      this.topK = topK;
+    }
+
+    /**
+     * Adds a suggestion reachable under each of the given keys.
+     *
+     * @param suggestion the suggestion
+     * @param keys raw keys (normalized here); blank keys are ignored
+     * @return this builder
+     */
+    public Builder add(Suggestion suggestion, Iterable<String> keys) {
+      int id = suggestions.size();
+      suggestions.add(suggestion);
+      for (String raw : keys) {
+        String key = TextNormalizer.normalize(raw);
+        if (key.isEmpty()) {
+          continue;
+        }
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+          node = node.childOrCreate(key.charAt(i));
+        }
+        node.addTerminal(id);
+      }
+      return this;
+    }
+
+    /** Precomputes the top-k lists bottom-up and returns the immutable trie. */
+    public SuggestionTrie build() {
+      Suggestion[] frozen = suggestions.toArray(Suggestion[]::new);
+      Comparator<Integer> byPopularity =
+          Comparator.<Integer>comparingLong(id -> frozen[id].score())
+              .reversed()
+              .thenComparing(id -> frozen[id].text());
+      computeTop(root, byPopularity);
+      return new SuggestionTrie(frozen, root, topK);
+    }
+
+    private int[] computeTop(Node node, Comparator<Integer> byPopularity) {
+      Set<Integer> candidates = new LinkedHashSet<>();
+      for (int id : node.terminal) {
+        candidates.add(id);
+      }
+      for (Node child : node.children) {
+        for (int id : computeTop(child, byPopularity)) {
+          candidates.add(id);
+        }
+      }
+      node.terminal = NONE;
+      node.top =
+          candidates.stream()
+              .sorted(byPopularity)
+              .limit(topK)
+              .mapToInt(Integer::intValue)
+              .toArray();
+      return node.top;
+    }
+  }
+}
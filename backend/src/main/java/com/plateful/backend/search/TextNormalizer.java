@@ -0,0 +1,54 @@
+package com.plateful.backend.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalization shared by the in-memory search indexes: lowercases, strips diacritics (so "Café"
+ * matches "cafe") and splits on anything that is not a letter or digit.
+ */
+public final class TextNormalizer {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private TextNormalizer() {}
+
+  /**
+   * Normalizes a string to lowercase, diacritic-free words separated by single spaces.
+   *
+   * @param text the raw text (may be null)
+   * @return the normalized text, empty if there is nothing searchable
+   */
+  public static String normalize(String text) {
+    if (text == null || text.isEmpty()) {
+      return "";
+    }
+    String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+    String folded = DIACRITICS.matcher(decomposed).replaceAll("");
+    return SEPARATORS.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+  }
+
+  /**
+   * Splits text into normalized tokens.
+   *
+   * @param text the raw text (may be null)
+   * @return the tokens in order of appearance
+   */
+  public static List<String> tokenize(String text) {
+    String normalized = normalize(text);
+    if (normalized.isEmpty()) {
+      return List.of();
+    }
+    List<String> tokens = new ArrayList<>();
+    for (String token : normalized.split(" ")) {
+      if (!token.isEmpty()) {
+        tokens.add(token);
+      }
+    }
+    return tokens;
+  }
+}
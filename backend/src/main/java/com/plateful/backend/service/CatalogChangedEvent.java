@@ -0,0 +1,9 @@
+package com.plateful.backend.service;
+
+/**
+ * Published whenever restaurant documents are created, updated or removed in bulk, so that
+ * in-memory catalog indexes and caches can rebuild or invalidate themselves.
+ *
+ * @param reason short description of what changed, for logging
+ */
+public record CatalogChangedEvent(String reason) {}
@@ -0,0 +1,148 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.OpeningHours;
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.search.FilterIndex;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves the structured {@code /filter} criteria (cuisine, price, reservation, city, tags and
+ * opening hours) against an in-memory {@link FilterIndex} instead of regexes in MongoDB.
+ *
+ * <p>{@link RestaurantSearchService} then only asks MongoDB for the matched IDs, together with the
+ * criteria the index does not cover (text query, votes) and the sort. When more than {@code
+ * app.filter-index.max-ids} restaurants match, the ID list would cost more than it saves, and the
+ * query runs entirely in MongoDB as before.
+ *
+ * <p>The index is rebuilt on startup and whenever a {@link CatalogChangedEvent} is published.
+ * Vote changes do not affect it, so there is no periodic refresh.
+ */
+@Service
+public class FilterIndexService {
+
+  private static final Logger log = LoggerFactory.getLogger(FilterIndexService.class);
+
+  /** Time zone for openNow/openAt; all restaurants are in New Zealand. */
+  private static final ZoneId NZ = ZoneId.of("Pacific/Auckland");
+
+  private final MongoTemplate mongoTemplate;
+  private final boolean enabled;
+  private final int maxIds;
+
+  private volatile FilterIndex index = FilterIndex.empty();
+
+  public FilterIndexService(
+      MongoTemplate mongoTemplate,
+      @Value("${app.filter-index.enabled:true}") boolean enabled,
+      @Value("${app.filter-index.max-ids:5000}") int maxIds) {
+    this.mongoTemplate = mongoTemplate;
+    this.enabled = enabled;
+    this.maxIds = maxIds;
+  }
+
+  /**
+   * IDs of the restaurants matching the filter's structured criteria.
+   *
+   * @param filter the criteria; text query, fuzzy, minVotes and sort are ignored here
+   * @return the matching IDs, possibly none; empty if the filter has no structured criteria, the
+   *     index is disabled or not built yet, or too many restaurants match
+   */
+  public Optional<List<String>> match(RestaurantFilter filter) {
+    FilterIndex current = index;
+    if (!enabled || current.size() == 0 || !hasStructuredCriteria(filter)) {
+      return Optional.empty();
+    }
+    Integer minute = null;
+    if (filter.openAt() != null) {
+      minute = OpeningHours.minuteOfWeek(filter.openAt().atZone(NZ));
+    } else if (Boolean.TRUE.equals(filter.openNow())) {
+      minute = OpeningHours.minuteOfWeek(ZonedDateTime.now(NZ));
+    }
+    List<String> ids =
+        current.match(
+            filter.cuisine(),
+            filter.priceMin(),
+            filter.priceMax(),
+            filter.reservation(),
+            filter.cities(),
+            filter.tags(),
+            minute);
+    return ids.size() > maxIds ? Optional.empty() : Optional.of(ids);
+  }
+
+  static boolean hasStructuredCriteria(RestaurantFilter filter) {
+    return (filter.cuisine() != null && !filter.cuisine().isBlank())
+        || filter.priceMin() != null
+        || filter.priceMax() != null
+        || filter.reservation() != null
+        || Boolean.TRUE.equals(filter.openNow())
+        || filter.openAt() != null
+        || (filter.cities() != null && !filter.cities().isEmpty())
+        || (filter.tags() != null && !filter.tags().isEmpty());
+  }
+
+  // Before FilterResultCache invalidates, so nothing loaded against the old index stays cached
+  @EventListener({ApplicationReadyEvent.class, CatalogChangedEvent.class})
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  public void onCatalogChanged() {
+    try {
+      rebuild();
+    } catch (RuntimeException e) {
+      log.warn("Could not rebuild filter index: {}", e.getMessage());
+    }
+  }
+
+  /** Streams the filterable columns from MongoDB and swaps in a freshly built index. */
+  public void rebuild() {
+    Query query = new Query();
+    query
+        .fields()
+        .include("cuisine", "address.city", "tags", "price_level", "reservation_required")
+        .include("open_ranges");
+    FilterIndex.Builder builder = new FilterIndex.Builder();
+    try (Stream<Restaurant> restaurants = mongoTemplate.stream(query, Restaurant.class)) {
+      Iterator<Restaurant> it = restaurants.iterator();
+      while (it.hasNext()) {
+        Restaurant r = it.next();
+        builder.add(
+            r.getId(),
+            r.getCuisine(),
+            r.getAddress() != null ? r.getAddress().getCity() : null,
+            r.getTags(),
+            r.getPriceLevel(),
+            r.getReservationRequired(),
+            ranges(r.getOpenRanges()));
+      }
+    }
+    FilterIndex built = builder.build();
+    index = built;
+    log.info("Filter index built over {} restaurants", built.size());
+  }
+
+  private static int[] ranges(List<Restaurant.OpenRange> openRanges) {
+    if (openRanges == null) {
+      return new int[0];
+    }
+    int[] flat = new int[openRanges.size() * 2];
+    for (int i = 0; i < openRanges.size(); i++) {
+      flat[2 * i] = openRanges.get(i).getOpen();
+      flat[2 * i + 1] = openRanges.get(i).getClose();
+    }
+    return flat;
+  }
+}
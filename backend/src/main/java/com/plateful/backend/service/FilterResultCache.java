@@ -0,0 +1,263 @@
+package com.plateful.backend.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-process cache of {@code /filter} results for {@link RestaurantSearchService}, keyed by
+ * the canonical form of the criteria (see {@link #key}). It holds the IDs of the matching
+ * restaurants in result order, not the restaurants: votes change all the time, so minVotes, the
+ * vote sort and the vote counters are applied when the cached IDs are read back.
+ *
+ * <p>Entries are evicted least recently used beyond {@code app.filter-cache.size}. Every {@link
+ * CatalogChangedEvent} starts a new catalog version, and entries loaded under an older version
+ * are never served. The event only reaches this instance, and results are loaded from secondaries
+ * that may lag the import by up to {@code app.mongodb.catalog.max-staleness-seconds}, so an entry
+ * can still be stale under the new version; entries therefore also expire {@code
+ * app.filter-cache.ttl-ms} after they were loaded. Results with more than {@code
+ * app.filter-cache.max-ids} restaurants are not kept; only the fact that they are too large is,
+ * so those filters go straight to MongoDB.
+ *
+ * <p>openNow is resolved to the start of the current time bucket of {@code
+ * app.filter-cache.open-now-bucket-minutes}, so all openNow requests in a bucket share one result.
+ */
+@Component
+public class FilterResultCache {
+
+  /** Time zone for openNow; all restaurants are in New Zealand. */
+  private static final ZoneId NZ = ZoneId.of("Pacific/Auckland");
+
+  /**
+   * Cache statistics since startup.
+   *
+   * @param size entries held
+   * @param hits lookups served from the cache
+   * @param misses lookups that had to load
+   * @param hitRate hits over all lookups, or 0 before the first lookup
+   * @param evictions entries evicted to stay within the size bound
+   * @param invalidations catalog changes that invalidated the cache
+   * @param averageLoadMillis mean time to load an entry on a miss
+   * @param version current catalog version
+   */
+  public record Stats(
+      int size,
+      long hits,
+      long misses,
+      double hitRate,
+      long evictions,
+      long invalidations,
+      double averageLoadMillis,
+      long version) {}
+
+  /**
+   * A cached result.
+   *
+   * @param ids IDs of the matching restaurants in result order, or null if more matched than
+   *     {@code app.filter-cache.max-ids}
+   */
+  public record Cached(List<String> ids) {}
+
+  private record Entry(Cached result, long version, long loadedAt) {}
+
+  private final boolean enabled;
+  private final int maxIds;
+  private final int bucketMinutes;
+  private final long ttlMs;
+  private final Map<RestaurantFilter, Entry> entries;
+
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+  private final AtomicLong loads = new AtomicLong();
+  private final AtomicLong loadNanos = new AtomicLong();
+
+  public FilterResultCache(
+      @Value("${app.filter-cache.enabled:true}") boolean enabled,
+      @Value("${app.filter-cache.size:1000}") int size,
+      @Value("${app.filter-cache.max-ids:2000}") int maxIds,
+      @Value("${app.filter-cache.open-now-bucket-minutes:5}") int bucketMinutes,
+      @Value("${app.filter-cache.ttl-ms:120000}") long ttlMs) {
+    if (bucketMinutes < 1 || 60 % bucketMinutes != 0) {
+      throw new IllegalArgumentException(
+          "app.filter-cache.open-now-bucket-minutes must divide 60: " + bucketMinutes);
+    }
+    this.enabled = enabled;
+    this.maxIds = maxIds;
+    this.bucketMinutes = bucketMinutes;
+    this.ttlMs = ttlMs;
+    this.entries =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<RestaurantFilter, Entry> eldest) {
+                if (size() > size) {
+                  evictions.incrementAndGet();
+                  return true;
+                }
+                return false;
+              }
+            });
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Largest result whose IDs are kept. */
+  public int maxIds() {
+    return maxIds;
+  }
+
+  /** The current catalog version; read it before loading an entry and pass it to {@link #put}. */
+  public long version() {
+    return version.get();
+  }
+
+  /**
+   * The canonical form of a filter, which is both the cache key and what is run on a miss.
+   * Filters that always match the same restaurants have the same key.
+   *
+   * @return the filter without minVotes and sort, with the text query, cuisine, cities and tags
+   *     trimmed and lower-cased (cities and tags also sorted and deduplicated), blank values
+   *     dropped, the price bounds in order, and openNow resolved to an openAt at the start of the
+   *     current bucket
+   */
+  public RestaurantFilter key(RestaurantFilter filter) {
+    return key(filter, ZonedDateTime.now(NZ), bucketMinutes);
+  }
+
+  static RestaurantFilter key(RestaurantFilter filter, ZonedDateTime now, int bucketMinutes) {
+    String query = lower(filter.query());
+    String cuisine = blankToNull(filter.cuisine());
+    // lower-casing would change regex escapes such as \W
+    if (cuisine != null && cuisine.indexOf('\\') < 0) {
+      cuisine = cuisine.toLowerCase(Locale.ROOT);
+    }
+    Integer priceMin = filter.priceMin();
+    Integer priceMax = filter.priceMax();
+    if (priceMin != null && priceMax != null && priceMin > priceMax) {
+      priceMin = filter.priceMax();
+      priceMax = filter.priceMin();
+    }
+    LocalDateTime openAt = null;
+    if (filter.openAt() != null) {
+      openAt = filter.openAt().truncatedTo(ChronoUnit.MINUTES);
+    } else if (Boolean.TRUE.equals(filter.openNow())) {
+      ZonedDateTime minute = now.withZoneSameInstant(NZ).truncatedTo(ChronoUnit.MINUTES);
+      openAt = minute.minusMinutes(minute.getMinute() % bucketMinutes).toLocalDateTime();
+    }
+    return new RestaurantFilter(
+        query,
+        query != null && filter.fuzzy(),
+        cuisine,
+        priceMin,
+        priceMax,
+        filter.reservation(),
+        null,
+        openAt,
+        lowerSet(filter.cities()),
+        lowerSet(filter.tags()),
+        null,
+        null);
+  }
+
+  /**
+   * The cached result for a key, counting a hit or a miss.
+   *
+   * @return the result, or null if it has to be loaded
+   */
+  public Cached get(RestaurantFilter key) {
+    Entry entry = entries.get(key);
+    if (entry != null && System.currentTimeMillis() - entry.loadedAt() >= ttlMs) {
+      entries.remove(key, entry);
+      entry = null;
+    }
+    if (entry == null || entry.version() != version.get()) {
+      misses.incrementAndGet();
+      return null;
+    }
+    hits.incrementAndGet();
+    return entry.result();
+  }
+
+  /**
+   * Caches a result just loaded, unless the catalog has changed since the load started.
+   *
+   * @param loadedVersion {@link #version()} read before the load
+   * @param result the result
+   * @param elapsedNanos how long the load took
+   */
+  public void put(RestaurantFilter key, long loadedVersion, Cached result, long elapsedNanos) {
+    loads.incrementAndGet();
+    loadNanos.addAndGet(elapsedNanos);
+    if (loadedVersion == version.get()) {
+      entries.put(key, new Entry(result, loadedVersion, System.currentTimeMillis()));
+    }
+  }
+
+  /**
+   * Starts a new catalog version. Runs after {@link FilterIndexService} has rebuilt its index, so
+   * results loaded against the old index are invalidated too.
+   */
+  @EventListener(CatalogChangedEvent.class)
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  public void onCatalogChanged() {
+    version.incrementAndGet();
+    invalidations.incrementAndGet();
+    entries.clear();
+  }
+
+  public Stats stats() {
+    long h = hits.get();
+    long m = misses.get();
+    long l = loads.get();
+    return new Stats(
+        entries.size(),
+        h,
+        m,
+        h + m == 0 ? 0 : (double) h / (h + m),
+        evictions.get(),
+        invalidations.get(),
+        l == 0 ? 0 : loadNanos.get() / 1e6 / l,
+        version.get());
+  }
+
+  private static String blankToNull(String value) {
+    return value == null || value.isBlank() ? null : value.trim();
+  }
+
+  private static String lower(String value) {
+    String trimmed = blankToNull(value);
+    return trimmed != null ? trimmed.toLowerCase(Locale.ROOT) : null;
+  }
+
+  private static List<String> lowerSet(List<String> values) {
+    if (values == null) {
+      return null;
+    }
+    TreeSet<String> set = new TreeSet<>();
+    for (String value : values) {
+      String v = lower(value);
+      if (v != null) {
+        set.add(v);
+      }
+    }
+    return set.isEmpty() ? null : List.copyOf(set);
+  }
+}
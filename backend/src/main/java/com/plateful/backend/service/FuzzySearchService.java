@@ -0,0 +1,73 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.search.FuzzyIndex;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Typo-tolerant matching of restaurant and cuisine names, served from an in-memory {@link
+ * FuzzyIndex} so that "sushu" or "thia" still find "Sushi" and "Thai" without scanning the catalog.
+ *
+ * <p>The index is rebuilt on startup and whenever a {@link CatalogChangedEvent} is published.
+ * Vote changes do not affect it, so there is no periodic refresh.
+ */
+@Service
+public class FuzzySearchService {
+
+  private static final Logger log = LoggerFactory.getLogger(FuzzySearchService.class);
+
+  private final MongoTemplate mongoTemplate;
+
+  private volatile FuzzyIndex index = FuzzyIndex.empty();
+
+  public FuzzySearchService(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Finds restaurants whose name or cuisine matches every word of the query, allowing a few typos
+   * per word.
+   *
+   * @param query raw query text
+   * @param limit maximum number of restaurants
+   * @return the {@code limit} closest matching restaurant IDs, closest matches first
+   */
+  public List<String> search(String query, int limit) {
+    return index.search(query, limit);
+  }
+
+  @EventListener({ApplicationReadyEvent.class, CatalogChangedEvent.class})
+  public void onCatalogChanged() {
+    try {
+      rebuild();
+    } catch (RuntimeException e) {
+      log.warn("Could not rebuild fuzzy index: {}", e.getMessage());
+    }
+  }
+
+  /** Loads names and cuisines from MongoDB and swaps in a freshly built index. */
+  public void rebuild() {
+    Query query = new Query();
+    query.fields().include("name", "cuisine");
+    List<Restaurant> restaurants = mongoTemplate.find(query, Restaurant.class);
+
+    FuzzyIndex.Builder builder = new FuzzyIndex.Builder();
+    for (Restaurant r : restaurants) {
+      builder.add(r.getId(), r.getName(), r.getCuisine());
+    }
+
+    FuzzyIndex built = builder.build();
+    index = built;
+    log.info(
+        "Fuzzy index built over {} restaurants and {} terms",
+        restaurants.size(),
+        built.vocabularySize());
+  }
+}
@@ -0,0 +1,305 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.AppUser;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Records browse history off the request thread.
+ *
+ * <p>{@link #enqueue} puts views on a bounded in-memory queue and returns immediately. A single
+ * background writer takes up to {@code app.history.batch-size} views at a time, waiting at most
+ * {@code app.history.linger-ms} for a batch to fill. Repeat views of the same restaurant by the same
+ * user within a batch are coalesced into the latest one. Each user's views are then written with
+ * two updates in one {@code bulkWrite}: a {@code $pull} of the restaurants' old entries, then a
+ * {@code $push} that keeps the history sorted newest first and capped at {@link
+ * UserService#MAX_HISTORY}. Cached users in {@link UserCache} get the same change, and one {@link
+ * HistoryWrittenEvent} is published for the whole batch. The updates only touch {@code
+ * browseHistory}, and {@link UserService} only makes targeted updates too, so neither overwrites
+ * the other. {@link UserCache#historyWritten} also keeps a read that missed the cache while the
+ * batch was written from caching what it read before the write.
+ *
+ * <p>When the queue is full, new views are rejected, not blocked on, and counted as dropped; the
+ * caller decides how to answer. On shutdown the service stops accepting views and the writer
+ * drains the queue, for at most {@code app.history.shutdown-timeout-ms}. {@link #stats} reports
+ * queue depth and the counters.
+ */
+@Service
+public class HistoryIngestService {
+
+  private static final Logger log = LoggerFactory.getLogger(HistoryIngestService.class);
+
+  static final String DEFAULT_VIEW_TYPE = "Details viewed";
+
+  /**
+   * A restaurant view to record.
+   *
+   * @param userId the viewing user
+   * @param restaurantId the viewed restaurant
+   * @param restaurantName its name, shown in the history
+   * @param viewType how it was viewed; defaults to "Details viewed"
+   * @param viewedAt when it was viewed; clients buffering offline send the original time
+   */
+  public record HistoryEvent(
+      String userId,
+      String restaurantId,
+      String restaurantName,
+      String viewType,
+      LocalDateTime viewedAt) {}
+
+  /**
+   * Queue and writer counters since startup.
+   *
+   * @param queued views waiting to be written
+   * @param capacity queue capacity
+   * @param accepted views accepted onto the queue
+   * @param dropped views rejected because the queue was full or the service was shutting down
+   * @param coalesced views merged into a later view of the same restaurant by the same user
+   * @param written views written to the database
+   * @param failed views lost to failed writes
+   * @param batches bulk writes performed
+   */
+  public record Stats(
+      int queued,
+      int capacity,
+      long accepted,
+      long dropped,
+      long coalesced,
+      long written,
+      long failed,
+      long batches) {}
+
+  private final MongoTemplate mongoTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final UserCache userCache;
+  private final int capacity;
+  private final int batchSize;
+  private final long lingerMs;
+  private final long shutdownTimeoutMs;
+  private final BlockingQueue<HistoryEvent> queue;
+
+  private final AtomicLong accepted = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong written = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong batches = new AtomicLong();
+
+  private volatile boolean accepting = true;
+  private volatile boolean running;
+  private Thread writer;
+
+  public HistoryIngestService(
+      MongoTemplate mongoTemplate,
+      ApplicationEventPublisher eventPublisher,
+      UserCache userCache,
+      @Value("${app.history.queue-capacity:10000}") int capacity,
+      @Value("${app.history.batch-size:500}") int batchSize,
+      @Value("${app.history.linger-ms:200}") long lingerMs,
+      @Value("${app.history.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+    if (capacity < 1 || batchSize < 1) {
+      throw new IllegalArgumentException("app.history queue capacity and batch size must be > 0");
+    }
+    this.mongoTemplate = mongoTemplate;
+    this.eventPublisher = eventPublisher;
+    this.userCache = userCache;
+    this.capacity = capacity;
+    this.batchSize = batchSize;
+    this.lingerMs = lingerMs;
+    this.shutdownTimeoutMs = shutdownTimeoutMs;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+  }
+
+  @PostConstruct
+  void start() {
+    running = true;
+    writer = new Thread(this::run, "history-writer");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Queues a view for writing. Never blocks.
+   *
+   * @param event the view
+   * @return false if the view was dropped because the queue is full or the service is stopping
+   */
+  public boolean enqueue(HistoryEvent event) {
+    if (accepting && queue.offer(event)) {
+      accepted.incrementAndGet();
+      return true;
+    }
+    long total = dropped.incrementAndGet();
+    if (total == 1 || total % 1000 == 0) {
+      log.warn("History queue full or closed; {} views dropped so far", total);
+    }
+    return false;
+  }
+
+  public Stats stats() {
+    return new Stats(
+        queue.size(),
+        capacity,
+        accepted.get(),
+        dropped.get(),
+        coalesced.get(),
+        written.get(),
+        failed.get(),
+        batches.get());
+  }
+
+  /** Stops accepting views and waits for the writer to drain what is already queued. */
+  @PreDestroy
+  void shutdown() {
+    accepting = false;
+    running = false;
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.join(shutdownTimeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (writer.isAlive() || !queue.isEmpty()) {
+      log.warn("History writer did not drain in time; {} views not written", queue.size());
+    } else {
+      log.info("History writer drained; {} views written since startup", written.get());
+    }
+  }
+
+  private void run() {
+    List<HistoryEvent> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        HistoryEvent first = queue.poll(Math.max(lingerMs, 50), TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        // linger briefly so repeat views can be coalesced and writes batched
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (running && batch.size() < batchSize) {
+          queue.drainTo(batch, batchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || remaining <= 0) {
+            break;
+          }
+          HistoryEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        queue.drainTo(batch, batchSize - batch.size());
+        write(batch);
+      } catch (InterruptedException e) {
+        running = false;
+      } catch (RuntimeException e) {
+        failed.addAndGet(batch.size());
+        log.warn("Could not write {} history views: {}", batch.size(), e.getMessage());
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  /** Coalesces a batch per user and restaurant and writes it in one bulk operation. */
+  void write(List<HistoryEvent> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    // userId -> restaurantId -> latest view
+    Map<String, Map<String, HistoryEvent>> byUser = new LinkedHashMap<>();
+    for (HistoryEvent e : batch) {
+      Map<String, HistoryEvent> latest =
+          byUser.computeIfAbsent(e.userId(), u -> new LinkedHashMap<>());
+      HistoryEvent previous = latest.get(e.restaurantId());
+      if (previous != null) {
+        coalesced.incrementAndGet();
+        if (previous.viewedAt().isAfter(e.viewedAt())) {
+          continue;
+        }
+      }
+      latest.put(e.restaurantId(), e);
+    }
+
+    BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, AppUser.class);
+    Map<String, List<AppUser.HistoryEntry>> entriesByUser = new LinkedHashMap<>();
+    int views = 0;
+    for (Map.Entry<String, Map<String, HistoryEvent>> user : byUser.entrySet()) {
+      Query query = new Query(Criteria.where("_id").is(user.getKey()));
+      List<AppUser.HistoryEntry> entries =
+          user.getValue().values().stream()
+              .sorted(Comparator.comparing(HistoryEvent::viewedAt).reversed())
+              .map(HistoryIngestService::entry)
+              .toList();
+      entriesByUser.put(user.getKey(), entries);
+      // $pull and $push cannot touch the same array in one update, hence two
+      bulk.updateOne(
+          query,
+          new Update()
+              .pull(
+                  "browseHistory",
+                  new Document("restaurantId", new Document("$in", user.getValue().keySet()))));
+      bulk.updateOne(
+          query,
+          new Update()
+              .push("browseHistory")
+              .sort(Sort.by(Sort.Direction.DESC, "viewedAt"))
+              .slice(UserService.MAX_HISTORY)
+              .each(entries.toArray()));
+      views += entries.size();
+    }
+    bulk.execute();
+    batches.incrementAndGet();
+    written.addAndGet(views);
+    entriesByUser.forEach(userCache::historyWritten);
+
+    Map<String, List<String>> viewsByUser = new LinkedHashMap<>();
+    entriesByUser.forEach(
+        (userId, entries) -> {
+          // entries are newest first
+          List<String> viewed = new ArrayList<>(entries.size());
+          for (int i = entries.size() - 1; i >= 0; i--) {
+            viewed.add(entries.get(i).getRestaurantId());
+          }
+          viewsByUser.put(userId, viewed);
+        });
+    try {
+      eventPublisher.publishEvent(new HistoryWrittenEvent(viewsByUser));
+    } catch (RuntimeException e) {
+      log.warn("History view listener failed: {}", e.getMessage());
+    }
+  }
+
+  private static AppUser.HistoryEntry entry(HistoryEvent e) {
+    return new AppUser.HistoryEntry(
+        e.restaurantId(),
+        e.restaurantName(),
+        e.viewedAt(),
+        e.viewType() != null ? e.viewType() : DEFAULT_VIEW_TYPE);
+  }
+}
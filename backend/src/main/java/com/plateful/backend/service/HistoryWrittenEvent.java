@@ -0,0 +1,13 @@
+package com.plateful.backend.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published by {@link HistoryIngestService} once per stored batch of restaurant views. Listeners
+ * run on the single history writer thread, so they get the whole batch at once and can handle it
+ * with one database query instead of one per view.
+ *
+ * @param viewsByUser IDs of the restaurants each user viewed in the batch, oldest view first
+ */
+public record HistoryWrittenEvent(Map<String, List<String>> viewsByUser) {}
@@ -0,0 +1,333 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory leaderboard of the best-voted restaurants. Standings are kept in ordered sets per
+ * partition (overall, per city, per cuisine and per city + cuisine), so a top-N query walks the
+ * first N entries of one set instead of loading and sorting the whole catalog.
+ *
+ * <p>The board is rebuilt from MongoDB when the application starts and is then maintained
+ * incrementally by {@link VotingService} on every vote change. Moving a restaurant takes a
+ * remove and an insert in several sets, so writes hold the write lock of a read-write lock and
+ * reads hold its read lock: a reader never sees a restaurant half moved or missing.
+ *
+ * <p>Concurrent votes can report their counters out of order, so each standing remembers the
+ * restaurant's {@code vote_seq} and an update older than that is dropped. A rebuild reads outside
+ * the lock; updates that arrive meanwhile are applied to the live board and also replayed on top
+ * of the rebuilt one, under the same sequence check, so the swap cannot undo them.
+ */
+@Service
+public class LeaderboardService {
+
+  private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+  /** z-score for a 95% confidence interval, used by the Wilson lower bound. */
+  private static final double Z = 1.96;
+
+  private static final String ALL = "all";
+
+  /** Supported ranking strategies for the leaderboard. */
+  public enum Ranking {
+    /** Raw net votes (upvotes - downvotes). */
+    VOTES,
+    /** Lower bound of the Wilson score interval for the share of upvotes. */
+    WILSON;
+
+    /**
+     * Parses a ranking name from a request parameter, defaulting to {@link #VOTES}.
+     *
+     * @param value the raw parameter value (may be null)
+     * @return the matching ranking
+     */
+    public static Ranking from(String value) {
+      if (value == null || value.isBlank()) {
+        return VOTES;
+      }
+      try {
+        return Ranking.valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown ranking: " + value);
+      }
+    }
+  }
+
+  /** A restaurant's position on the board. Immutable so it can live inside ordered sets. */
+  public record Standing(
+      String restaurantId,
+      String name,
+      String cuisine,
+      String city,
+      int upvoteCount,
+      int downvoteCount) {
+
+    public int voteCount() {
+      return upvoteCount - downvoteCount;
+    }
+
+    /**
+     * Lower bound of the Wilson score confidence interval for the proportion of upvotes. Ranks a
+     * restaurant with 40 up / 2 down above one with 3 up / 0 down, unlike raw net votes.
+     */
+    public double wilsonScore() {
+      int n = upvoteCount + downvoteCount;
+      if (n <= 0) {
+        return 0.0;
+      }
+      double p = (double) upvoteCount / n;
+      double z2 = Z * Z;
+      double centre = p + z2 / (2.0 * n);
+      double margin = Z * Math.sqrt((p * (1 - p) + z2 / (4.0 * n)) / n);
+      return (centre - margin) / (1 + z2 / n);
+    }
+
+    public double score(Ranking ranking) {
+      return ranking == Ranking.WILSON ? wilsonScore() : voteCount();
+    }
+  }
+
+  private static final Comparator<Standing> BY_VOTES =
+      Comparator.comparingInt(Standing::voteCount)
+          .reversed()
+          .thenComparing(Standing::restaurantId);
+
+  private static final Comparator<Standing> BY_WILSON =
+      Comparator.comparingDouble(Standing::wilsonScore)
+          .reversed()
+          .thenComparing(Standing::restaurantId);
+
+  private final MongoTemplate mongoTemplate;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  // guarded by lock
+  private final Map<String, Standing> standings = new HashMap<>();
+  private final Map<String, NavigableSet<Standing>> byVotes = new HashMap<>();
+  private final Map<String, NavigableSet<Standing>> byWilson = new HashMap<>();
+  private final Map<String, Long> sequences = new HashMap<>();
+
+  /** Updates received while a rebuild is reading, or null if none is; guarded by lock. */
+  private List<Restaurant> duringRebuild;
+
+  /** Serializes rebuilds, so only one at a time collects updates. */
+  private final Object rebuildLock = new Object();
+
+  public LeaderboardService(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Rebuilds the board from MongoDB once the application is ready to serve traffic, and again
+   * whenever the catalog is reloaded (e.g. after an import adds restaurants).
+   */
+  @EventListener({ApplicationReadyEvent.class, CatalogChangedEvent.class})
+  public void onCatalogChanged() {
+    try {
+      rebuild();
+    } catch (RuntimeException e) {
+      // Keep the application up; the board fills in as votes arrive.
+      log.warn("Could not build vote leaderboard: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Reloads every standing from MongoDB. Only the fields the board needs are projected, using the
+   * denormalized vote counters so voter sets never leave the database.
+   */
+  public void rebuild() {
+    synchronized (rebuildLock) {
+      lock.writeLock().lock();
+      try {
+        duringRebuild = new ArrayList<>();
+      } finally {
+        lock.writeLock().unlock();
+      }
+
+      List<Restaurant> rows;
+      try {
+        Query query = new Query();
+        query
+            .fields()
+            .include(
+                "name", "cuisine", "address.city", "upvote_count", "downvote_count", "vote_seq");
+        rows = mongoTemplate.find(query, Restaurant.class);
+      } catch (RuntimeException e) {
+        lock.writeLock().lock();
+        try {
+          duringRebuild = null;
+        } finally {
+          lock.writeLock().unlock();
+        }
+        throw e;
+      }
+
+      int size;
+      lock.writeLock().lock();
+      try {
+        standings.clear();
+        byVotes.clear();
+        byWilson.clear();
+        sequences.clear();
+        for (Restaurant row : rows) {
+          apply(row);
+        }
+        for (Restaurant update : duringRebuild) {
+          apply(update);
+        }
+        duringRebuild = null;
+        size = standings.size();
+      } finally {
+        lock.writeLock().unlock();
+      }
+      log.info("Vote leaderboard built with {} restaurants", size);
+    }
+  }
+
+  /**
+   * Records the latest vote counts for a restaurant, moving it to its new position in every
+   * partition it belongs to. Counts older than the ones on the board are ignored.
+   *
+   * @param restaurant the restaurant after the vote change, with its {@code vote_seq}
+   */
+  public void update(Restaurant restaurant) {
+    if (restaurant == null || restaurant.getId() == null) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      if (duringRebuild != null) {
+        duringRebuild.add(restaurant);
+      }
+      apply(restaurant);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Moves a restaurant to its new counts unless the board has newer ones; needs the lock. */
+  private void apply(Restaurant restaurant) {
+    Long current = sequences.get(restaurant.getId());
+    if (current != null && restaurant.getVoteSequence() < current) {
+      return;
+    }
+    Standing previous = standings.get(restaurant.getId());
+    if (previous != null) {
+      remove(previous);
+    }
+    insert(standingOf(restaurant));
+    sequences.put(restaurant.getId(), restaurant.getVoteSequence());
+  }
+
+  /**
+   * Returns the top-ranked restaurants for a partition. Cost is proportional to {@code limit},
+   * independent of catalog size.
+   *
+   * @param city optional city (case-insensitive, exact)
+   * @param cuisine optional cuisine (case-insensitive, exact)
+   * @param limit maximum number of entries to return
+   * @param ranking ranking strategy
+   * @return standings in rank order
+   */
+  public List<Standing> top(String city, String cuisine, int limit, Ranking ranking) {
+    if (limit <= 0) {
+      return List.of();
+    }
+    lock.readLock().lock();
+    try {
+      Map<String, NavigableSet<Standing>> index = ranking == Ranking.WILSON ? byWilson : byVotes;
+      NavigableSet<Standing> partition = index.get(partitionKey(city, cuisine));
+      if (partition == null) {
+        return List.of();
+      }
+      List<Standing> result = new ArrayList<>(Math.min(limit, 64));
+      for (Standing standing : partition) {
+        if (result.size() >= limit) {
+          break;
+        }
+        result.add(standing);
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static Standing standingOf(Restaurant restaurant) {
+    return new Standing(
+        restaurant.getId(),
+        restaurant.getName(),
+        restaurant.getCuisine(),
+        restaurant.getAddress() != null ? restaurant.getAddress().getCity() : null,
+        restaurant.getUpvoteCount(),
+        restaurant.getDownvoteCount());
+  }
+
+  private void insert(Standing standing) {
+    standings.put(standing.restaurantId(), standing);
+    for (String key : partitionsOf(standing)) {
+      byVotes.computeIfAbsent(key, k -> new TreeSet<>(BY_VOTES)).add(standing);
+      byWilson.computeIfAbsent(key, k -> new TreeSet<>(BY_WILSON)).add(standing);
+    }
+  }
+
+  private void remove(Standing standing) {
+    standings.remove(standing.restaurantId());
+    for (String key : partitionsOf(standing)) {
+      NavigableSet<Standing> votes = byVotes.get(key);
+      if (votes != null) {
+        votes.remove(standing);
+      }
+      NavigableSet<Standing> wilson = byWilson.get(key);
+      if (wilson != null) {
+        wilson.remove(standing);
+      }
+    }
+  }
+
+  private static List<String> partitionsOf(Standing standing) {
+    List<String> keys = new ArrayList<>(4);
+    keys.add(ALL);
+    String city = normalize(standing.city());
+    String cuisine = normalize(standing.cuisine());
+    if (city != null) {
+      keys.add(partitionKey(city, null));
+    }
+    if (cuisine != null) {
+      keys.add(partitionKey(null, cuisine));
+    }
+    if (city != null && cuisine != null) {
+      keys.add(partitionKey(city, cuisine));
+    }
+    return keys;
+  }
+
+  private static String partitionKey(String city, String cuisine) {
+    String c = normalize(city);
+    String k = normalize(cuisine);
+    if (c == null && k == null) {
+      return ALL;
+    }
+    return "city=" + (c != null ? c : "*") + "|cuisine=" + (k != null ? k : "*");
+  }
+
+  private static String normalize(String value) {
+    return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,206 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.AppUser;
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.recommend.UserPreferences;
+import com.plateful.backend.recommend.UserPreferences.Attributes;
+import com.plateful.backend.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Re-ranks restaurant lists for a signed-in user according to their {@link UserPreferences}.
+ *
+ * <p>Preferences are built from the user's favorites and browse history the first time they are
+ * needed and then kept in a bounded LRU cache. After that, {@link UserActivityEvent}s from {@link
+ * UserService} keep cached preferences up to date one restaurant at a time, and each {@link
+ * HistoryWrittenEvent} applies a batch of views with one restaurant query, so the user is never
+ * reloaded. Re-ranking itself is a few map lookups per restaurant and makes no database calls.
+ */
+@Service
+public class PersonalizationService {
+
+  private final UserRepository userRepository;
+  private final MongoTemplate mongoTemplate;
+  private final double weight;
+  private final Map<String, UserPreferences> cache;
+
+  public PersonalizationService(
+      UserRepository userRepository,
+      MongoTemplate mongoTemplate,
+      @Value("${app.personalize.weight:0.5}") double weight,
+      @Value("${app.personalize.cache-size:10000}") int cacheSize) {
+    if (weight < 0 || weight > 1) {
+      throw new IllegalArgumentException("app.personalize.weight must be between 0 and 1");
+    }
+    this.userRepository = userRepository;
+    this.mongoTemplate = mongoTemplate;
+    this.weight = weight;
+    this.cache =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, UserPreferences> eldest) {
+                return size() > cacheSize;
+              }
+            });
+  }
+
+  /**
+   * Re-orders restaurants so that those matching the user's taste move up. Each restaurant's
+   * position in the incoming list (its relevance or sort order) is kept as a prior and blended
+   * with the user's affinity, {@code weight * affinity + (1 - weight) * (1 - position / size)}.
+   * Unknown users and users with no favorites or history get the list unchanged.
+   *
+   * @param userId the signed-in user
+   * @param restaurants restaurants in their original order
+   * @return a re-ordered copy
+   */
+  public List<Restaurant> rerank(String userId, List<Restaurant> restaurants) {
+    if (restaurants.size() < 2) {
+      return restaurants;
+    }
+    UserPreferences preferences = preferences(userId);
+    if (preferences.isEmpty()) {
+      return restaurants;
+    }
+    int n = restaurants.size();
+    double[] scores = new double[n];
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      scores[i] =
+          weight * preferences.score(attributes(restaurants.get(i)))
+              + (1 - weight) * (1 - (double) i / n);
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(scores[b], scores[a]));
+    List<Restaurant> reranked = new ArrayList<>(n);
+    for (Integer i : order) {
+      reranked.add(restaurants.get(i));
+    }
+    return reranked;
+  }
+
+  /** Applies a change to the user's cached preferences; uncached users load fresh later. */
+  @EventListener
+  public void onUserActivity(UserActivityEvent event) {
+    UserPreferences preferences = cache.get(event.userId());
+    if (preferences == null) {
+      return;
+    }
+    switch (event.type()) {
+      case FAVORITE_ADDED ->
+          preferences.favoriteAdded(event.restaurantId(), lookup(event.restaurantId()));
+      case FAVORITE_REMOVED -> preferences.favoriteRemoved(event.restaurantId());
+      case HISTORY_CLEARED -> preferences.historyCleared();
+    }
+  }
+
+  /**
+   * Applies a batch of stored views to the cached preferences of the users in it, looking up the
+   * viewed restaurants of all of them with one query. Runs on the history writer thread.
+   */
+  @EventListener
+  public void onHistoryWritten(HistoryWrittenEvent event) {
+    Map<String, UserPreferences> cachedUsers = new HashMap<>();
+    Set<String> restaurantIds = new HashSet<>();
+    event
+        .viewsByUser()
+        .forEach(
+            (userId, viewed) -> {
+              UserPreferences preferences = cache.get(userId);
+              if (preferences != null) {
+                cachedUsers.put(userId, preferences);
+                restaurantIds.addAll(viewed);
+              }
+            });
+    if (cachedUsers.isEmpty()) {
+      return;
+    }
+    Map<String, Attributes> attributes = lookup(restaurantIds);
+    cachedUsers.forEach(
+        (userId, preferences) -> {
+          for (String restaurantId : event.viewsByUser().get(userId)) {
+            preferences.viewed(restaurantId, attributes.get(restaurantId));
+          }
+        });
+  }
+
+  /** Cached preferences for the user, built from their stored favorites and history on a miss. */
+  UserPreferences preferences(String userId) {
+    UserPreferences cached = cache.get(userId);
+    if (cached != null) {
+      return cached;
+    }
+    UserPreferences built = load(userId);
+    UserPreferences raced = cache.putIfAbsent(userId, built);
+    return raced != null ? raced : built;
+  }
+
+  private UserPreferences load(String userId) {
+    UserPreferences preferences = new UserPreferences(UserService.MAX_HISTORY);
+    Optional<AppUser> found = userRepository.findById(userId);
+    if (found.isEmpty()) {
+      return preferences;
+    }
+    AppUser user = found.get();
+    List<String> favorites = nonNull(user.getFavoriteRestaurantIds());
+    List<String> viewed =
+        nonNull(user.getBrowseHistory()).stream()
+            .map(AppUser.HistoryEntry::getRestaurantId)
+            .toList();
+
+    Set<String> ids = new HashSet<>(favorites);
+    ids.addAll(viewed);
+    Map<String, Attributes> attributes = lookup(ids);
+
+    for (String id : favorites) {
+      preferences.favoriteAdded(id, attributes.get(id));
+    }
+    // history is stored most recent first; replay oldest first
+    for (int i = viewed.size() - 1; i >= 0; i--) {
+      preferences.viewed(viewed.get(i), attributes.get(viewed.get(i)));
+    }
+    return preferences;
+  }
+
+  private Attributes lookup(String restaurantId) {
+    return restaurantId == null ? null : lookup(List.of(restaurantId)).get(restaurantId);
+  }
+
+  private Map<String, Attributes> lookup(Collection<String> restaurantIds) {
+    if (restaurantIds.isEmpty()) {
+      return Map.of();
+    }
+    Query query = new Query(Criteria.where("_id").in(restaurantIds));
+    query.fields().include("cuisine", "address.city", "price_level");
+    return mongoTemplate.find(query, Restaurant.class).stream()
+        .collect(
+            Collectors.toMap(Restaurant::getId, PersonalizationService::attributes, (a, b) -> a));
+  }
+
+  private static Attributes attributes(Restaurant r) {
+    String city = r.getAddress() != null ? r.getAddress().getCity() : null;
+    return new Attributes(r.getCuisine(), city, r.getPriceLevel());
+  }
+
+  private static <T> List<T> nonNull(List<T> list) {
+    return list != null ? list : List.of();
+  }
+}
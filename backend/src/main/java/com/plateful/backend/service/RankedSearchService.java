@@ -0,0 +1,101 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.repository.RestaurantRepository;
+import com.plateful.backend.search.Bm25Index;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Relevance-ranked restaurant search over name, description, cuisine and tags, served from an
+ * in-memory {@link Bm25Index}.
+ *
+ * <p>A word in the name counts three times as much as one in the description, with cuisine and tags
+ * in between. Only the top hits are loaded from MongoDB. The index is rebuilt on startup and
+ * whenever a {@link CatalogChangedEvent} is published.
+ */
+@Service
+public class RankedSearchService {
+
+  private static final Logger log = LoggerFactory.getLogger(RankedSearchService.class);
+
+  static final double NAME_BOOST = 3.0;
+  static final double DESCRIPTION_BOOST = 1.0;
+  static final double CUISINE_BOOST = 2.0;
+  static final double TAGS_BOOST = 1.5;
+
+  /**
+   * A search result with its relevance score.
+   *
+   * @param restaurant the matching restaurant
+   * @param score BM25 relevance, higher is better
+   */
+  public record RankedRestaurant(Restaurant restaurant, double score) {}
+
+  private final MongoTemplate mongoTemplate;
+  private final RestaurantRepository repository;
+
+  private volatile Bm25Index index = Bm25Index.empty();
+
+  public RankedSearchService(MongoTemplate mongoTemplate, RestaurantRepository repository) {
+    this.mongoTemplate = mongoTemplate;
+    this.repository = repository;
+  }
+
+  /**
+   * Returns the most relevant restaurants for the query.
+   *
+   * @param query free text
+   * @param limit maximum number of results
+   * @return restaurants with scores, most relevant first
+   */
+  public List<RankedRestaurant> search(String query, int limit) {
+    List<Bm25Index.Hit> hits = index.search(query, limit);
+    if (hits.isEmpty()) {
+      return List.of();
+    }
+    Map<String, Restaurant> byId =
+        repository.findAllById(hits.stream().map(Bm25Index.Hit::docId).toList()).stream()
+            .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+    return hits.stream()
+        .filter(hit -> byId.containsKey(hit.docId()))
+        .map(hit -> new RankedRestaurant(byId.get(hit.docId()), hit.score()))
+        .toList();
+  }
+
+  @EventListener({ApplicationReadyEvent.class, CatalogChangedEvent.class})
+  public void onCatalogChanged() {
+    try {
+      rebuild();
+    } catch (RuntimeException e) {
+      log.warn("Could not rebuild ranked search index: {}", e.getMessage());
+    }
+  }
+
+  /** Loads the searchable fields from MongoDB and swaps in a freshly built index. */
+  public void rebuild() {
+    Query query = new Query();
+    query.fields().include("name", "description", "cuisine", "tags");
+    List<Restaurant> restaurants = mongoTemplate.find(query, Restaurant.class);
+
+    Bm25Index.Builder builder =
+        new Bm25Index.Builder(NAME_BOOST, DESCRIPTION_BOOST, CUISINE_BOOST, TAGS_BOOST);
+    for (Restaurant r : restaurants) {
+      String tags = r.getTags() != null ? String.join(" ", r.getTags()) : null;
+      builder.add(r.getId(), r.getName(), r.getDescription(), r.getCuisine(), tags);
+    }
+
+    Bm25Index built = builder.build();
+    index = built;
+    log.info("Ranked search index built over {} restaurants", built.size());
+  }
+}
@@ -0,0 +1,174 @@
+package com.plateful.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.plateful.backend.model.Restaurant;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes the restaurant catalog as gzip-compressed NDJSON: one restaurant per line, in the same
+ * JSON shape as the REST API.
+ *
+ * <p>Documents come from a MongoDB cursor and are written as they arrive, so memory use does not
+ * grow with the catalog. Restaurants are exported in {@code _id} order. An interrupted download
+ * resumes by passing the {@code id} of the last complete line as {@code afterId}.
+ */
+@Service
+public class RestaurantExportService {
+
+  /** Documents fetched per cursor round trip. */
+  private static final int CURSOR_BATCH_SIZE = 500;
+
+  /** JSON field names that can be exported, mapped to the entity property each one reads. */
+  static final Map<String, String> EXPORTABLE_FIELDS =
+      Map.ofEntries(
+          Map.entry("id", "id"),
+          Map.entry("name", "name"),
+          Map.entry("description", "description"),
+          Map.entry("cuisine", "cuisine"),
+          Map.entry("priceLevel", "priceLevel"),
+          Map.entry("address", "address"),
+          Map.entry("phone", "phone"),
+          Map.entry("website", "website"),
+          Map.entry("location", "location"),
+          Map.entry("images", "images"),
+          Map.entry("tags", "tags"),
+          Map.entry("hours", "hours"),
+          Map.entry("reservationRequired", "reservationRequired"),
+          Map.entry("voteCount", "netVotes"),
+          Map.entry("upvoteCount", "upvoteCount"),
+          Map.entry("downvoteCount", "downvoteCount"));
+
+  private final MongoTemplate mongoTemplate;
+  private final RestaurantSearchService searchService;
+  private final ObjectMapper objectMapper;
+
+  public RestaurantExportService(
+      MongoTemplate mongoTemplate,
+      RestaurantSearchService searchService,
+      ObjectMapper objectMapper) {
+    this.mongoTemplate = mongoTemplate;
+    this.searchService = searchService;
+    this.objectMapper = objectMapper;
+  }
+
+  /** A validated export, ready to be written. */
+  @FunctionalInterface
+  public interface Export {
+
+    /**
+     * Streams the restaurants to {@code out} as gzip NDJSON. The gzip stream is finished but
+     * {@code out} is left open.
+     *
+     * @param out Destination of the compressed stream
+     * @return number of restaurants written
+     */
+    long writeTo(OutputStream out) throws IOException;
+  }
+
+  /**
+   * Prepares an export. Arguments are validated here, before anything is written, so that errors
+   * can still be reported as a normal error response.
+   *
+   * @param filter Filters to apply; its text query and sort are ignored
+   * @param afterId Only export restaurants whose ID sorts after this one; null to start at the
+   *     beginning
+   * @param fields JSON fields to include (the {@code id} is always included); null or empty for
+   *     all fields
+   * @return the export
+   * @throws IllegalArgumentException if a requested field cannot be exported
+   */
+  public Export prepare(RestaurantFilter filter, String afterId, List<String> fields) {
+    Set<String> selected = selectFields(fields);
+    Query query = buildQuery(filter, afterId, selected);
+    return out -> write(query, selected, out);
+  }
+
+  private long write(Query query, Set<String> selected, OutputStream out) throws IOException {
+    GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+    JsonGenerator json =
+        objectMapper
+            .getFactory()
+            .createGenerator(gzip)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    long written = 0;
+    try (Stream<Restaurant> restaurants = mongoTemplate.stream(query, Restaurant.class)) {
+      Iterator<Restaurant> it = restaurants.iterator();
+      while (it.hasNext()) {
+        ObjectNode node = objectMapper.valueToTree(it.next());
+        if (selected != null) {
+          node.retain(selected);
+        }
+        json.writeTree(node);
+        json.writeRaw('\n');
+        written++;
+      }
+    }
+    json.flush();
+    gzip.finish();
+    return written;
+  }
+
+  private Query buildQuery(RestaurantFilter filter, String afterId, Set<String> selected) {
+    Query query =
+        searchService.buildFilterQuery(
+            new RestaurantFilter(
+                null,
+                false,
+                filter.cuisine(),
+                filter.priceMin(),
+                filter.priceMax(),
+                filter.reservation(),
+                filter.openNow(),
+                filter.openAt(),
+                filter.cities(),
+                filter.tags(),
+                filter.minVotes(),
+                null));
+    if (afterId != null && !afterId.isBlank()) {
+      query.addCriteria(Criteria.where("id").gt(afterId.trim()));
+    }
+    query.with(Sort.by(Sort.Direction.ASC, "id"));
+    query.cursorBatchSize(CURSOR_BATCH_SIZE);
+    if (selected != null) {
+      for (String field : selected) {
+        query.fields().include(EXPORTABLE_FIELDS.get(field));
+      }
+    }
+    return query;
+  }
+
+  /** Validates the requested fields; null means export everything. */
+  private static Set<String> selectFields(List<String> fields) {
+    if (fields == null || fields.stream().allMatch(String::isBlank)) {
+      return null;
+    }
+    Set<String> selected = new LinkedHashSet<>();
+    selected.add("id");
+    for (String field : fields) {
+      String name = field.trim();
+      if (name.isEmpty()) {
+        continue;
+      }
+      if (!EXPORTABLE_FIELDS.containsKey(name)) {
+        throw new IllegalArgumentException("Unknown export field: " + name);
+      }
+      selected.add(name);
+    }
+    return selected;
+  }
+}
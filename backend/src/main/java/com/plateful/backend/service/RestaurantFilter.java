@@ -0,0 +1,35 @@
+package com.plateful.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Criteria accepted by {@link RestaurantSearchService#filter(RestaurantFilter)}. Every component is
+ * optional; null (or false) means "do not filter on this".
+ *
+ * @param query Free text matched against name, description and cuisine
+ * @param fuzzy Whether the text query tolerates typos in restaurant and cuisine names
+ * @param cuisine Case-insensitive partial match for cuisine type
+ * @param priceMin Lower bound for price level (inclusive)
+ * @param priceMax Upper bound for price level (inclusive)
+ * @param reservation Filter for reservation requirement
+ * @param openNow Filter for currently operating restaurants
+ * @param openAt Filter for restaurants open at this New Zealand local time; overrides openNow
+ * @param cities Cities to match (case-insensitive, exact match)
+ * @param tags Tags that must all be present (case-insensitive, exact match)
+ * @param minVotes Lower bound for net votes (inclusive)
+ * @param sort Optional sort order; {@code votes} sorts by net votes descending
+ */
+public record RestaurantFilter(
+    String query,
+    boolean fuzzy,
+    String cuisine,
+    Integer priceMin,
+    Integer priceMax,
+    Boolean reservation,
+    Boolean openNow,
+    LocalDateTime openAt,
+    List<String> cities,
+    List<String> tags,
+    Integer minVotes,
+    String sort) {}
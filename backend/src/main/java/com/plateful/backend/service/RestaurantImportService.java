@@ -0,0 +1,302 @@
+package com.plateful.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.plateful.backend.importer.ImportRecordReader;
+import com.plateful.backend.importer.ImportReport;
+import com.plateful.backend.importer.RestaurantNormalizer;
+import com.plateful.backend.model.Restaurant;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Bulk import of restaurant feeds (NDJSON or CSV) into the catalog.
+ *
+ * <p>The feed is streamed in batches. Each batch is validated and normalized in parallel by
+ * {@link RestaurantNormalizer} and then upserted with a single unordered {@link BulkOperations}
+ * call. Restaurants are matched on {@code _id} when the feed supplies one, otherwise on name and
+ * city. Catalog fields are overwritten, while vote counters are only initialised on insert, so
+ * re-importing a feed never resets votes.
+ *
+ * <p>Writes that fail transiently (operations of a partially failed batch that hit a network
+ * error or a primary that stepped down, or the whole batch on a connection failure) are retried
+ * with exponential backoff. Any other write error, such as a duplicate key, would fail again, so
+ * its line is reported as failed straight away. When anything was written, a {@link
+ * CatalogChangedEvent} is published so in-memory indexes rebuild.
+ */
+@Service
+public class RestaurantImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(RestaurantImportService.class);
+
+  /** Maximum number of error messages kept in the report. */
+  static final int MAX_REPORTED_ERRORS = 100;
+
+  /** Label the server puts on errors that a retried write can recover from. */
+  private static final String RETRYABLE_WRITE_LABEL = "RetryableWriteError";
+
+  /**
+   * Write error codes that a retry can recover from: host unreachable or not found, network
+   * timeouts and socket errors, shutdown in progress, and a primary that stepped down or is not
+   * (yet) available. These are the retryable codes of the MongoDB retryable writes specification.
+   */
+  static final Set<Integer> TRANSIENT_ERROR_CODES =
+      Set.of(6, 7, 89, 91, 189, 262, 9001, 10107, 11600, 11602, 13435, 13436);
+
+  private final MongoTemplate mongoTemplate;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final RestaurantNormalizer normalizer = new RestaurantNormalizer();
+  private final int defaultBatchSize;
+  private final int maxRetries;
+  private final long retryBackoffMs;
+
+  public RestaurantImportService(
+      MongoTemplate mongoTemplate,
+      ObjectMapper objectMapper,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${app.import.batch-size:1000}") int defaultBatchSize,
+      @Value("${app.import.max-retries:3}") int maxRetries,
+      @Value("${app.import.retry-backoff-ms:200}") long retryBackoffMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.objectMapper = objectMapper;
+    this.eventPublisher = eventPublisher;
+    this.defaultBatchSize = defaultBatchSize;
+    this.maxRetries = maxRetries;
+    this.retryBackoffMs = retryBackoffMs;
+  }
+
+  /**
+   * Imports a feed.
+   *
+   * @param feed the feed content, UTF-8 encoded; read to the end but not closed
+   * @param format the feed format
+   * @param batchSize restaurants per bulk write, or null for the configured default
+   * @return counts and the first errors encountered
+   */
+  public ImportReport importFeed(
+      InputStream feed, ImportRecordReader.Format format, Integer batchSize) {
+    long started = System.currentTimeMillis();
+    int size = batchSize != null ? batchSize : defaultBatchSize;
+    ImportRecordReader reader =
+        new ImportRecordReader(
+            format, new InputStreamReader(feed, StandardCharsets.UTF_8), objectMapper);
+    Progress progress = new Progress();
+
+    List<ImportRecordReader.Entry> batch = new ArrayList<>(size);
+    ImportRecordReader.Entry entry;
+    while ((entry = reader.next()) != null) {
+      progress.read++;
+      batch.add(entry);
+      if (batch.size() == size) {
+        process(batch, progress);
+        batch = new ArrayList<>(size);
+      }
+    }
+    if (!batch.isEmpty()) {
+      process(batch, progress);
+    }
+
+    if (progress.inserted + progress.updated > 0) {
+      eventPublisher.publishEvent(new CatalogChangedEvent("import"));
+    }
+
+    ImportReport report =
+        new ImportReport(
+            progress.read,
+            progress.inserted,
+            progress.updated,
+            progress.rejected,
+            progress.failed,
+            List.copyOf(progress.errors),
+            System.currentTimeMillis() - started);
+    log.info(
+        "Imported {} feed: {} read, {} inserted, {} updated, {} rejected, {} failed in {} ms",
+        format,
+        report.read(),
+        report.inserted(),
+        report.updated(),
+        report.rejected(),
+        report.failed(),
+        report.durationMs());
+    return report;
+  }
+
+  /** Normalizes a batch in parallel, then writes the valid restaurants. */
+  private void process(List<ImportRecordReader.Entry> batch, Progress progress) {
+    List<Normalized> normalized = batch.parallelStream().map(this::normalize).toList();
+
+    List<Restaurant> valid = new ArrayList<>(normalized.size());
+    List<Integer> lines = new ArrayList<>(normalized.size());
+    for (Normalized n : normalized) {
+      if (n.restaurant() != null) {
+        valid.add(n.restaurant());
+        lines.add(n.line());
+      } else {
+        progress.rejected++;
+        progress.error(n.line(), n.error());
+      }
+    }
+    if (!valid.isEmpty()) {
+      write(valid, lines, progress);
+    }
+  }
+
+  private Normalized normalize(ImportRecordReader.Entry entry) {
+    if (entry.error() != null) {
+      return new Normalized(entry.line(), null, entry.error());
+    }
+    try {
+      return new Normalized(entry.line(), normalizer.normalize(entry.record()), null);
+    } catch (IllegalArgumentException e) {
+      return new Normalized(entry.line(), null, e.getMessage());
+    }
+  }
+
+  /**
+   * Upserts restaurants with one unordered bulk write, retrying whatever failed transiently.
+   * {@code lines} holds the feed line of each restaurant, for error reporting.
+   */
+  private void write(List<Restaurant> restaurants, List<Integer> lines, Progress progress) {
+    List<Restaurant> pending = restaurants;
+    List<Integer> pendingLines = lines;
+    for (int attempt = 0; ; attempt++) {
+      BulkOperations bulk =
+          mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Restaurant.class);
+      for (Restaurant r : pending) {
+        bulk.upsert(matchQuery(r), catalogUpdate(r));
+      }
+
+      String lastError;
+      try {
+        progress.count(bulk.execute());
+        return;
+      } catch (BulkOperationException e) {
+        progress.count(e.getResult());
+        List<Restaurant> retry = new ArrayList<>();
+        List<Integer> retryLines = new ArrayList<>();
+        boolean retryable = hasRetryableLabel(e);
+        lastError = e.getMessage();
+        for (BulkWriteError error : e.getErrors()) {
+          if (retryable || TRANSIENT_ERROR_CODES.contains(error.getCode())) {
+            retry.add(pending.get(error.getIndex()));
+            retryLines.add(pendingLines.get(error.getIndex()));
+            lastError = error.getMessage();
+          } else {
+            progress.failed++;
+            progress.error(
+                pendingLines.get(error.getIndex()), "write failed: " + error.getMessage());
+          }
+        }
+        pending = retry;
+        pendingLines = retryLines;
+      } catch (DataAccessResourceFailureException | TransientDataAccessException e) {
+        lastError = e.getMessage();
+      }
+
+      if (pending.isEmpty()) {
+        return;
+      }
+      if (attempt >= maxRetries) {
+        progress.failed += pending.size();
+        for (Integer line : pendingLines) {
+          progress.error(line, "write failed: " + lastError);
+        }
+        return;
+      }
+      log.warn(
+          "Import batch write failed for {} restaurants (attempt {}), retrying: {}",
+          pending.size(),
+          attempt + 1,
+          lastError);
+      backoff(attempt);
+    }
+  }
+
+  /** Whether the server labelled the whole failed bulk write as retryable. */
+  private static boolean hasRetryableLabel(BulkOperationException e) {
+    return e.getCause() instanceof MongoException cause
+        && cause.hasErrorLabel(RETRYABLE_WRITE_LABEL);
+  }
+
+  private void backoff(int attempt) {
+    try {
+      Thread.sleep(retryBackoffMs << Math.min(attempt, 10));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Import interrupted", e);
+    }
+  }
+
+  /** Matches on the feed's ID when given, otherwise on name and city. */
+  private static Query matchQuery(Restaurant r) {
+    if (r.getId() != null) {
+      return new Query(Criteria.where("_id").is(r.getId()));
+    }
+    return new Query(
+        Criteria.where("name").is(r.getName()).and("address.city").is(r.getAddress().getCity()));
+  }
+
+  /** Overwrites catalog fields; vote counters are only set when the restaurant is new. */
+  private static Update catalogUpdate(Restaurant r) {
+    return new Update()
+        .set("name", r.getName())
+        .set("description", r.getDescription())
+        .set("cuisine", r.getCuisine())
+        .set("price_level", r.getPriceLevel())
+        .set("address", r.getAddress())
+        .set("phone", r.getPhone())
+        .set("website", r.getWebsite())
+        .set("location", r.getLocation())
+        .set("images", r.getImages())
+        .set("tags", r.getTags())
+        .set("hours", r.getHours())
+        .set("open_ranges", r.getOpenRanges())
+        .set("reservation_required", r.getReservationRequired())
+        .setOnInsert("upvote_count", 0)
+        .setOnInsert("downvote_count", 0)
+        .setOnInsert("net_votes", 0);
+  }
+
+  private record Normalized(int line, Restaurant restaurant, String error) {}
+
+  /** Running totals for one import. Only touched from the importing thread. */
+  private static final class Progress {
+    int read;
+    int inserted;
+    int updated;
+    int rejected;
+    int failed;
+    final List<String> errors = new ArrayList<>();
+
+    void count(BulkWriteResult result) {
+      inserted += result.getUpserts().size();
+      updated += result.getMatchedCount();
+    }
+
+    void error(int line, String message) {
+      if (errors.size() < MAX_REPORTED_ERRORS) {
+        errors.add("line " + line + ": " + message);
+      }
+    }
+  }
+}
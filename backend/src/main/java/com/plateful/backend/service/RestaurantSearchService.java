@@ -1,80 +1,269 @@
 package com.plateful.backend.service;
 
+import com.plateful.backend.config.MongoReadConfig;
+import com.plateful.backend.model.OpeningHours;
 import com.plateful.backend.model.Restaurant;
-import java.time.LocalTime;
+import com.plateful.backend.service.RestaurantService.SearchBackend;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
 import org.springframework.stereotype.Service;
 
 /**
  * Service responsible for advanced restaurant filtering operations. Uses MongoTemplate for complex
- * queries and post-processing for time-based filtering. Supports filtering by cuisine, price range,
- * reservation requirements, current operating status, and location.
+ * queries. Supports filtering by cuisine, price range, reservation requirements, current operating
+ * status, and location. Queries go through the {@link MongoReadConfig#CATALOG} template, so they
+ * may be served by a secondary.
  */
 @Service
 public class RestaurantSearchService {
 
+  /** Time zone for openNow/openAt; all restaurants are in New Zealand. */
+  private static final ZoneId NZ = ZoneId.of("Pacific/Auckland");
+
+  /** Sort option ordering results by net votes, highest first. */
+  public static final String SORT_VOTES = "votes";
+
   private final MongoTemplate mongoTemplate;
+  private final FuzzySearchService fuzzySearchService;
+  private final FilterIndexService filterIndexService;
+  private final FilterResultCache resultCache;
+  private final SearchBackend searchBackend;
+  private final int fuzzyLimit;
 
-  public RestaurantSearchService(MongoTemplate mongoTemplate) {
+  public RestaurantSearchService(
+      @Qualifier(MongoReadConfig.CATALOG) MongoTemplate mongoTemplate,
+      FuzzySearchService fuzzySearchService,
+      FilterIndexService filterIndexService,
+      FilterResultCache resultCache,
+      @Value("${app.search.backend:text}") String searchBackend,
+      @Value("${app.search.fuzzy-limit:100}") int fuzzyLimit) {
     this.mongoTemplate = mongoTemplate;
+    this.fuzzySearchService = fuzzySearchService;
+    this.filterIndexService = filterIndexService;
+    this.resultCache = resultCache;
+    this.searchBackend = SearchBackend.from(searchBackend);
+    this.fuzzyLimit = fuzzyLimit;
   }
 
   /**
-   * Performs complex filtering of restaurants using both MongoDB queries and in-memory processing.
-   * Builds a dynamic MongoDB query for static criteria (cuisine, price, reservation, city) and
-   * applies post-processing for time-based filtering (openNow).
+   * Performs complex filtering of restaurants with a single MongoDB query covering the text query
+   * and every criterion (cuisine, price, reservation, opening hours, city, tags, votes), so only
+   * matching documents leave the database.
+   *
+   * <p>The structured criteria (cuisine, price, reservation, opening hours, city, tags) are first
+   * resolved by {@link FilterIndexService} against the in-memory bitmap index. The MongoDB query
+   * then selects the matched IDs instead of repeating those criteria; if nothing matches, MongoDB
+   * is not queried at all. When the index cannot answer, every criterion goes into the query.
+   *
+   * <p>The text query is compiled according to {@code app.search.backend}: a {@code $text} search
+   * on the text index (results ordered by text score unless another sort is requested), or a
+   * case-insensitive substring match on name, description and cuisine. A fuzzy query is resolved
+   * against the in-memory fuzzy index first and becomes an {@code _id} filter on the {@code
+   * app.search.fuzzy-limit} closest matches; without another sort, results keep the fuzzy order.
+   *
+   * <p>The IDs matching a filter are cached in {@link FilterResultCache} under the filter's
+   * canonical form, without minVotes and sort. A cached result is read back with one query by
+   * {@code _id} that applies minVotes and the sort, so vote counts are always current. With the
+   * cache, openNow is evaluated at the start of the current cache time bucket.
    *
-   * <p>Price range is automatically normalized if min > max. City matching is case-insensitive and
-   * exact (no partial matches). Time-based filtering uses New Zealand timezone for all
-   * calculations.
+   * <p>Price range is automatically normalized if min > max. City and tag matching is
+   * case-insensitive and exact (no partial matches). openNow and openAt are evaluated in the New
+   * Zealand timezone against the {@code open_ranges} minute-of-week ranges derived from the
+   * opening hours.
    *
-   * @param cuisine Case-insensitive partial match for cuisine type
-   * @param priceMin Lower bound for price level (inclusive)
-   * @param priceMax Upper bound for price level (inclusive)
-   * @param reservation Filter for reservation requirement
-   * @param openNow Filter for currently operating restaurants
-   * @param cities List of cities to match (case-insensitive, exact match)
+   * @param filter The criteria to apply; null components are ignored
    * @return Filtered list of restaurants matching all criteria
    */
-  public List<Restaurant> filter(
-      String cuisine,
-      Integer priceMin,
-      Integer priceMax,
-      Boolean reservation,
-      Boolean openNow,
-      List<String> cities) {
-    Query query = buildFilterQuery(cuisine, priceMin, priceMax, reservation, cities);
-    List<Restaurant> results = mongoTemplate.find(query, Restaurant.class);
+  public List<Restaurant> filter(RestaurantFilter filter) {
+    if (!resultCache.isEnabled()) {
+      return find(filter);
+    }
+    RestaurantFilter key = resultCache.key(filter);
+    FilterResultCache.Cached cached = resultCache.get(key);
+    if (cached == null) {
+      long version = resultCache.version();
+      long start = System.nanoTime();
+      cached = new FilterResultCache.Cached(matchingIds(key, resultCache.maxIds()));
+      resultCache.put(key, version, cached, System.nanoTime() - start);
+    }
+    if (cached.ids() == null) {
+      return find(filter);
+    }
+    return findByIds(cached.ids(), filter.minVotes(), filter.sort());
+  }
 
-    if (Boolean.TRUE.equals(openNow)) {
-      results = filterByOpenStatus(results);
+  /** Runs a filter entirely against the filter index and MongoDB. */
+  private List<Restaurant> find(RestaurantFilter filter) {
+    Optional<List<String>> indexed = filterIndexService.match(filter);
+    if (indexed.isPresent() && indexed.get().isEmpty()) {
+      return List.of();
+    }
+    List<String> ranked = fuzzyIds(filter);
+    Query query = buildFilterQuery(filter, indexed.orElse(null), ranked);
+    if (query == null) {
+      return List.of();
     }
+    applySort(query, filter.sort());
+    List<Restaurant> restaurants = mongoTemplate.find(query, Restaurant.class);
+    if (ranked == null || (filter.sort() != null && !filter.sort().isBlank())) {
+      return restaurants;
+    }
+    return inOrder(restaurants, ranked);
+  }
 
-    return results;
+  /**
+   * IDs of the restaurants matching a filter, in result order.
+   *
+   * @param filter a canonical filter, without minVotes and sort
+   * @return the IDs, or null if more than {@code max} restaurants match
+   */
+  private List<String> matchingIds(RestaurantFilter filter, int max) {
+    Optional<List<String>> indexed = filterIndexService.match(filter);
+    boolean hasText = filter.query() != null;
+    if (indexed.isPresent() && (indexed.get().isEmpty() || !hasText)) {
+      // the index has already resolved every criterion
+      return indexed.get().size() > max ? null : List.copyOf(indexed.get());
+    }
+    List<String> ranked = fuzzyIds(filter);
+    Query query = buildFilterQuery(filter, indexed.orElse(null), ranked);
+    if (query == null) {
+      return List.of();
+    }
+    query.fields().include("_id");
+    query.limit(max + 1);
+    List<Restaurant> restaurants = mongoTemplate.find(query, Restaurant.class);
+    if (restaurants.size() > max) {
+      return null;
+    }
+    if (ranked != null) {
+      restaurants = inOrder(restaurants, ranked);
+    }
+    List<String> ids = new ArrayList<>();
+    for (Restaurant restaurant : restaurants) {
+      ids.add(restaurant.getId());
+    }
+    return ids;
+  }
+
+  /**
+   * Reads restaurants by ID with one query, applying minVotes and the sort. Without a sort, the
+   * restaurants keep the order of {@code ids}.
+   */
+  private List<Restaurant> findByIds(List<String> ids, Integer minVotes, String sort) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    Query query = new Query(Criteria.where("_id").in(ids));
+    if (minVotes != null) {
+      query.addCriteria(Criteria.where("net_votes").gte(minVotes));
+    }
+    applySort(query, sort);
+    List<Restaurant> restaurants = mongoTemplate.find(query, Restaurant.class);
+    if (sort != null && !sort.isBlank()) {
+      return restaurants;
+    }
+    return inOrder(restaurants, ids);
   }
 
-  /** Builds MongoDB query based on filter criteria. */
+  /** Restaurants sorted by the position of their ID in {@code ids}, which must contain them all. */
+  private static List<Restaurant> inOrder(List<Restaurant> restaurants, List<String> ids) {
+    Map<String, Integer> positions = new HashMap<>();
+    for (int i = 0; i < ids.size(); i++) {
+      positions.put(ids.get(i), i);
+    }
+    List<Restaurant> ordered = new ArrayList<>(restaurants);
+    ordered.sort(Comparator.comparingInt(r -> positions.get(r.getId())));
+    return ordered;
+  }
+
+  /**
+   * Resolves a fuzzy text query against the fuzzy index.
+   *
+   * @return the {@code app.search.fuzzy-limit} closest matching IDs, closest first, or null if the
+   *     filter has no fuzzy text query
+   */
+  private List<String> fuzzyIds(RestaurantFilter filter) {
+    String text = filter.query() == null ? "" : filter.query().trim();
+    if (!filter.fuzzy() || text.isEmpty()) {
+      return null;
+    }
+    return fuzzySearchService.search(text, fuzzyLimit);
+  }
+
+  /**
+   * Builds MongoDB query based on filter criteria.
+   *
+   * @return the query, or null when the criteria cannot match anything
+   */
+  Query buildFilterQuery(RestaurantFilter filter) {
+    return buildFilterQuery(filter, null, fuzzyIds(filter));
+  }
+
+  /**
+   * Builds MongoDB query based on filter criteria.
+   *
+   * @param indexedIds IDs already matching the structured criteria, which are then left out of
+   *     the query; null to put every criterion in the query
+   * @param fuzzyIds IDs matching the fuzzy text query (see {@link #fuzzyIds}), or null
+   * @return the query, or null when the criteria cannot match anything
+   */
   private Query buildFilterQuery(
-      String cuisine,
-      Integer priceMin,
-      Integer priceMax,
-      Boolean reservation,
-      List<String> cities) {
+      RestaurantFilter filter, List<String> indexedIds, List<String> fuzzyIds) {
     List<Criteria> ands = new ArrayList<>();
 
-    addCuisineCriteria(ands, cuisine);
-    addPriceCriteria(ands, priceMin, priceMax);
-    addReservationCriteria(ands, reservation);
-    addCityCriteria(ands, cities);
+    TextCriteria textCriteria = null;
+    String text = filter.query() == null ? "" : filter.query().trim();
+    if (!text.isEmpty()) {
+      if (fuzzyIds != null) {
+        if (fuzzyIds.isEmpty()) {
+          return null;
+        }
+        ands.add(Criteria.where("_id").in(fuzzyIds));
+      } else if (searchBackend == SearchBackend.TEXT) {
+        textCriteria = TextCriteria.forLanguage(Restaurant.TEXT_LANGUAGE).matching(text);
+      } else {
+        addKeywordCriteria(ands, text);
+      }
+    }
+
+    if (indexedIds != null) {
+      ands.add(Criteria.where("_id").in(indexedIds));
+    } else {
+      addCuisineCriteria(ands, filter.cuisine());
+      addPriceCriteria(ands, filter.priceMin(), filter.priceMax());
+      addReservationCriteria(ands, filter.reservation());
+      addCityCriteria(ands, filter.cities());
+      addTagCriteria(ands, filter.tags());
+      addOpenCriteria(ands, filter.openNow(), filter.openAt());
+    }
+    addMinVotesCriteria(ands, filter.minVotes());
 
-    Query query = new Query();
+    Query query;
+    if (textCriteria != null) {
+      TextQuery textQuery = TextQuery.queryText(textCriteria);
+      if (filter.sort() == null || filter.sort().isBlank()) {
+        textQuery.sortByScore();
+      }
+      query = textQuery;
+    } else {
+      query = new Query();
+    }
     if (!ands.isEmpty()) {
       query.addCriteria(new Criteria().andOperator(ands.toArray(Criteria[]::new)));
     }
@@ -82,6 +271,22 @@ public class RestaurantSearchService {
     return query;
   }
 
+  /**
+   * Adds a case-insensitive substring match of the query on name, description or cuisine. The
+   * query is quoted, so it is matched literally. An unanchored regex cannot use an index, so this
+   * scans the collection; it is only used with {@code app.search.backend=regex}, as a fallback
+   * where the text index is unavailable.
+   */
+  private void addKeywordCriteria(List<Criteria> ands, String text) {
+    String pattern = Pattern.quote(text);
+    ands.add(
+        new Criteria()
+            .orOperator(
+                Criteria.where("name").regex(pattern, "i"),
+                Criteria.where("description").regex(pattern, "i"),
+                Criteria.where("cuisine").regex(pattern, "i")));
+  }
+
   /** Adds cuisine filtering criteria if specified. */
   private void addCuisineCriteria(List<Criteria> ands, String cuisine) {
     if (cuisine != null && !cuisine.isBlank()) {
@@ -119,7 +324,7 @@ public class RestaurantSearchService {
         if (city != null && !city.isBlank()) {
           cityOr.add(
               Criteria.where("address.city")
-                  .regex("^" + java.util.regex.Pattern.quote(city.trim()) + "$", "i"));
+                  .regex("^" + Pattern.quote(city.trim()) + "$", "i"));
         }
       }
       if (!cityOr.isEmpty()) {
@@ -128,89 +333,56 @@ public class RestaurantSearchService {
     }
   }
 
-  /** Filters restaurants by current open status using New Zealand timezone. */
-  private List<Restaurant> filterByOpenStatus(List<Restaurant> restaurants) {
-    ZoneId nz = ZoneId.of("Pacific/Auckland");
-    LocalTime now = LocalTime.now(nz);
-    String dayKey = dayKeyNZ(nz);
-
-    return restaurants.stream().filter(r -> isOpenNow(r, dayKey, now)).toList();
-  }
-
-  /**
-   * Filters restaurants by text query across name, description, and cuisine.
-   *
-   * @param restaurants List of restaurants to filter
-   * @param query Search query (case-insensitive)
-   * @return Filtered list of restaurants
-   */
-  public List<Restaurant> filterByTextQuery(List<Restaurant> restaurants, String query) {
-    if (query == null || query.isBlank()) {
-      return restaurants;
+  /** Adds one case-insensitive exact match per tag if specified; all tags must be present. */
+  private void addTagCriteria(List<Criteria> ands, List<String> tags) {
+    if (tags != null) {
+      for (String tag : tags) {
+        if (tag != null && !tag.isBlank()) {
+          ands.add(Criteria.where("tags").regex("^" + Pattern.quote(tag.trim()) + "$", "i"));
+        }
+      }
     }
-
-    String q = query.trim().toLowerCase();
-    return restaurants.stream()
-        .filter(
-            r ->
-                containsIgnoreCase(r.getName(), q)
-                    || containsIgnoreCase(r.getDescription(), q)
-                    || containsIgnoreCase(r.getCuisine(), q))
-        .toList();
   }
 
-  /**
-   * Helper method for case-insensitive string matching. Assumes the needle (search term) is already
-   * lowercase.
-   *
-   * @param s The source string to search within (may be null)
-   * @param needleLower The lowercase search term
-   * @return true if the lowercase version of s contains needleLower
-   */
-  private static boolean containsIgnoreCase(String s, String needleLower) {
-    return s != null && s.toLowerCase().contains(needleLower);
+  /** Adds a lower bound on net votes if specified. Served by the {@code net_votes} index. */
+  private void addMinVotesCriteria(List<Criteria> ands, Integer minVotes) {
+    if (minVotes != null) {
+      ands.add(Criteria.where("net_votes").gte(minVotes));
+    }
   }
 
   /**
-   * Converts current NZ day to the corresponding key in restaurant hours data. Maps ISO day-of-week
-   * (1-7) to lowercase day names used in the database.
-   *
-   * @param nz New Zealand timezone for accurate day determination
-   * @return Lowercase day name (monday, tuesday, etc.)
+   * Adds an opening-hours constraint if openNow or openAt is specified. Matches restaurants with an
+   * {@code open_ranges} entry containing the requested minute of the week, served by the {@code
+   * open_ranges} index.
    */
-  private static String dayKeyNZ(ZoneId nz) {
-    String[] keys = {"monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"};
-    int idx = java.time.ZonedDateTime.now(nz).getDayOfWeek().getValue();
-    return keys[idx - 1];
+  private void addOpenCriteria(List<Criteria> ands, Boolean openNow, LocalDateTime openAt) {
+    ZonedDateTime at;
+    if (openAt != null) {
+      at = openAt.atZone(NZ);
+    } else if (Boolean.TRUE.equals(openNow)) {
+      at = ZonedDateTime.now(NZ);
+    } else {
+      return;
+    }
+    int minute = OpeningHours.minuteOfWeek(at);
+    ands.add(
+        Criteria.where("open_ranges")
+            .elemMatch(Criteria.where("open").lte(minute).and("close").gte(minute)));
   }
 
   /**
-   * Determines if a restaurant is currently open based on its operating hours. Handles both regular
-   * time windows (e.g., 9:00-17:00) and overnight windows (e.g., 22:00-02:00). Time comparisons use
-   * New Zealand timezone.
+   * Applies the requested sort order. Sorting by votes uses the {@code net_votes} index, so MongoDB
+   * returns documents in order instead of the application sorting them.
    */
-  private static boolean isOpenNow(Restaurant r, String dayKey, LocalTime now) {
-    Map<String, String> hours = r.getHours();
-    if (hours == null) return false;
-    String span = hours.get(dayKey);
-    if (span == null || span.isBlank()) return false;
-
-    String[] parts = span.split("-");
-    if (parts.length != 2) return false;
-
-    DateTimeFormatter fmt = DateTimeFormatter.ofPattern("HH:mm");
-    try {
-      LocalTime start = LocalTime.parse(parts[0].trim(), fmt);
-      LocalTime end = LocalTime.parse(parts[1].trim(), fmt);
-
-      if (end.isAfter(start) || end.equals(start)) {
-        return !now.isBefore(start) && !now.isAfter(end);
-      } else {
-        // overnight window
-        return !now.isBefore(start) || !now.isAfter(end);
-      }
-    } catch (Exception e) {
-      return false;
+  private void applySort(Query query, String sort) {
+    if (sort == null || sort.isBlank()) {
+      return;
+    }
+    if (SORT_VOTES.equalsIgnoreCase(sort.trim())) {
+      query.with(Sort.by(Sort.Order.desc("net_votes"), Sort.Order.asc("_id")));
+    } else {
+      throw new IllegalArgumentException("Unsupported sort: " + sort);
     }
   }
 }
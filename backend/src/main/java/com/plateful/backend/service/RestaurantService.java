@@ -1,22 +1,73 @@
 package com.plateful.backend.service;
 
+import com.plateful.backend.config.MongoReadConfig;
 import com.plateful.backend.model.Restaurant;
-import com.plateful.backend.repository.RestaurantRepository;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
 import org.springframework.stereotype.Service;
 
 /**
  * Service responsible for basic restaurant operations. Handles CRUD operations, basic search, and
  * cuisine retrieval.
+ *
+ * <p>All reads go through the {@link MongoReadConfig#CATALOG} template, so they may be served by a
+ * secondary and lag writes by up to {@code app.mongodb.catalog.max-staleness-seconds}.
  */
 @Service
 public class RestaurantService {
 
-  private final RestaurantRepository repository;
+  /** How {@link #searchRestaurants(String)} matches the query against the catalog. */
+  public enum SearchBackend {
+    /**
+     * Case-insensitive substring match on name, description and cuisine. The regex cannot use an
+     * index and scans the collection, so this is only a fallback for when the text index is
+     * unavailable.
+     */
+    REGEX,
+    /** MongoDB {@code $text} search on the text index, ordered by text score. The default. */
+    TEXT;
 
-  public RestaurantService(RestaurantRepository repository) {
-    this.repository = repository;
+    /**
+     * Parses the configured backend name.
+     *
+     * @param value the property value, e.g. {@code regex} or {@code text}
+     * @return the matching backend
+     */
+    public static SearchBackend from(String value) {
+      try {
+        return SearchBackend.valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Unknown search backend: " + value);
+      }
+    }
+  }
+
+  private final FuzzySearchService fuzzySearchService;
+  private final MongoTemplate mongoTemplate;
+  private final SearchBackend searchBackend;
+  private final int fuzzyLimit;
+
+  public RestaurantService(
+      FuzzySearchService fuzzySearchService,
+      @Qualifier(MongoReadConfig.CATALOG) MongoTemplate mongoTemplate,
+      @Value("${app.search.backend:text}") String searchBackend,
+      @Value("${app.search.fuzzy-limit:100}") int fuzzyLimit) {
+    this.fuzzySearchService = fuzzySearchService;
+    this.mongoTemplate = mongoTemplate;
+    this.searchBackend = SearchBackend.from(searchBackend);
+    this.fuzzyLimit = fuzzyLimit;
   }
 
   /**
@@ -25,7 +76,7 @@ public class RestaurantService {
    * @return List of all restaurants
    */
   public List<Restaurant> getAllRestaurants() {
-    return repository.findAll();
+    return mongoTemplate.findAll(Restaurant.class);
   }
 
   /**
@@ -35,22 +86,60 @@ public class RestaurantService {
    * @return Optional containing the restaurant if found
    */
   public Optional<Restaurant> getRestaurantById(String id) {
-    return repository.findById(id);
+    return Optional.ofNullable(mongoTemplate.findById(id, Restaurant.class));
   }
 
   /**
-   * Performs a basic search across restaurant name, description, and cuisine.
+   * Performs a basic search across restaurant name, description, and cuisine. With the {@code
+   * text} backend ({@code app.search.backend=text}) the query runs against the MongoDB text index
+   * and results come back best match first; whole words are matched (with stemming) rather than
+   * substrings.
    *
    * @param query The search term to match against multiple fields
    * @return List of restaurants matching the search criteria
    */
   public List<Restaurant> searchRestaurants(String query) {
     if (query == null || query.trim().isEmpty()) {
-      return repository.findAll();
+      return mongoTemplate.findAll(Restaurant.class);
+    }
+    if (searchBackend == SearchBackend.TEXT) {
+      TextQuery textQuery =
+          TextQuery.queryText(
+                  TextCriteria.forLanguage(Restaurant.TEXT_LANGUAGE).matching(query.trim()))
+              .sortByScore();
+      return mongoTemplate.find(textQuery, Restaurant.class);
+    }
+    String pattern = Pattern.quote(query);
+    return mongoTemplate.find(
+        new Query(
+            new Criteria()
+                .orOperator(
+                    Criteria.where("name").regex(pattern, "i"),
+                    Criteria.where("description").regex(pattern, "i"),
+                    Criteria.where("cuisine").regex(pattern, "i"))),
+        Restaurant.class);
+  }
+
+  /**
+   * Typo-tolerant search across restaurant name and cuisine. Each query word may be a few edits
+   * away from a word in the name or cuisine, so "sushu" finds sushi restaurants.
+   *
+   * @param query The possibly misspelled search term
+   * @return The {@code app.search.fuzzy-limit} closest matching restaurants, closest matches
+   *     first, or all restaurants if query is empty
+   */
+  public List<Restaurant> fuzzySearchRestaurants(String query) {
+    if (query == null || query.trim().isEmpty()) {
+      return mongoTemplate.findAll(Restaurant.class);
+    }
+    List<String> ids = fuzzySearchService.search(query, fuzzyLimit);
+    if (ids.isEmpty()) {
+      return List.of();
     }
-    return repository
-        .findByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseOrCuisineContainingIgnoreCase(
-            query, query, query);
+    Map<String, Restaurant> byId =
+        mongoTemplate.find(new Query(Criteria.where("_id").in(ids)), Restaurant.class).stream()
+            .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+    return ids.stream().map(byId::get).filter(r -> r != null).toList();
   }
 
   /**
@@ -60,7 +149,9 @@ public class RestaurantService {
    * @return Alphabetically sorted list of unique cuisine types
    */
   public List<String> getAllCuisines() {
-    return repository.findAllCuisines().stream()
+    Query query = new Query();
+    query.fields().include("cuisine").exclude("_id");
+    return mongoTemplate.find(query, Restaurant.class).stream()
         .map(Restaurant::getCuisine)
         .filter(cuisine -> cuisine != null && !cuisine.trim().isEmpty())
         .distinct()
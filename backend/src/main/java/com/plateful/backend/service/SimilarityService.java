@@ -0,0 +1,230 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.AppUser;
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.RestaurantSimilarity;
+import com.plateful.backend.recommend.ItemSimilarity;
+import com.plateful.backend.repository.RestaurantRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serves and periodically recomputes "people also liked" restaurants.
+ *
+ * <p>The job streams every user's favorites and runs {@link ItemSimilarity} over them, blended with
+ * cuisine and tag similarity. It stores each restaurant's top neighbours in {@code
+ * restaurant_similarities}. Reading them back is a single lookup by restaurant ID. Results left
+ * from an earlier run for restaurants that no longer have neighbours are removed at the end of
+ * each run.
+ */
+@Service
+public class SimilarityService {
+
+  private static final Logger log = LoggerFactory.getLogger(SimilarityService.class);
+
+  /** Documents per bulk write when storing results. */
+  private static final int WRITE_BATCH_SIZE = 500;
+
+  /**
+   * A similar restaurant with its similarity.
+   *
+   * @param restaurant the restaurant
+   * @param score blended similarity in (0, 1], higher is more similar
+   */
+  public record SimilarRestaurant(Restaurant restaurant, double score) {}
+
+  private final MongoTemplate mongoTemplate;
+  private final RestaurantRepository repository;
+  private final ItemSimilarity similarity;
+
+  public SimilarityService(
+      MongoTemplate mongoTemplate,
+      RestaurantRepository repository,
+      @Value("${app.similar.top-k:20}") int topK,
+      @Value("${app.similar.cooccurrence-weight:0.7}") double cooccurrenceWeight) {
+    this.mongoTemplate = mongoTemplate;
+    this.repository = repository;
+    this.similarity = new ItemSimilarity(topK, cooccurrenceWeight);
+  }
+
+  /**
+   * Restaurants most similar to the given one, from the last completed run.
+   *
+   * @param restaurantId the restaurant to find neighbours for
+   * @param limit maximum number of results
+   * @return similar restaurants, most similar first; empty if none have been computed
+   */
+  public List<SimilarRestaurant> similar(String restaurantId, int limit) {
+    RestaurantSimilarity stored = mongoTemplate.findById(restaurantId, RestaurantSimilarity.class);
+    if (stored == null || stored.getNeighbors() == null || stored.getNeighbors().isEmpty()) {
+      return List.of();
+    }
+    List<RestaurantSimilarity.Neighbor> neighbors =
+        stored.getNeighbors().subList(0, Math.min(limit, stored.getNeighbors().size()));
+    List<String> neighborIds =
+        neighbors.stream().map(RestaurantSimilarity.Neighbor::getRestaurantId).toList();
+    Map<String, Restaurant> byId =
+        repository.findAllById(neighborIds).stream()
+            .collect(Collectors.toMap(Restaurant::getId, Function.identity()));
+    return neighbors.stream()
+        .filter(n -> byId.containsKey(n.getRestaurantId()))
+        .map(n -> new SimilarRestaurant(byId.get(n.getRestaurantId()), n.getScore()))
+        .toList();
+  }
+
+  /** Hourly recomputation; results persist, so a restart serves the previous run meanwhile. */
+  @Scheduled(
+      initialDelayString = "${app.similar.initial-delay-ms:60000}",
+      fixedDelayString = "${app.similar.refresh-ms:3600000}")
+  public void refresh() {
+    try {
+      recompute();
+    } catch (RuntimeException e) {
+      log.warn("Could not recompute similar restaurants: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Recomputes and stores neighbours for every restaurant.
+   *
+   * @return number of restaurants that have neighbours
+   */
+  public int recompute() {
+    long started = System.currentTimeMillis();
+    Instant runAt = Instant.now();
+
+    // Most popular first, so capped content candidates favour well-known restaurants
+    Query catalog = new Query().with(Sort.by(Sort.Order.desc("net_votes"), Sort.Order.asc("_id")));
+    catalog.fields().include("cuisine", "tags");
+    List<String> ids = new ArrayList<>();
+    List<Integer> cuisines = new ArrayList<>();
+    List<int[]> tags = new ArrayList<>();
+    Map<String, Integer> cuisineIds = new HashMap<>();
+    Map<String, Integer> tagIds = new HashMap<>();
+    try (Stream<Restaurant> restaurants = mongoTemplate.stream(catalog, Restaurant.class)) {
+      Iterator<Restaurant> it = restaurants.iterator();
+      while (it.hasNext()) {
+        Restaurant r = it.next();
+        ids.add(r.getId());
+        String cuisine = key(r.getCuisine());
+        cuisines.add(
+            cuisine == null ? -1 : cuisineIds.computeIfAbsent(cuisine, c -> cuisineIds.size()));
+        TreeSet<Integer> tagSet = new TreeSet<>();
+        if (r.getTags() != null) {
+          for (String tag : r.getTags()) {
+            String k = key(tag);
+            if (k != null) {
+              tagSet.add(tagIds.computeIfAbsent(k, t -> tagIds.size()));
+            }
+          }
+        }
+        tags.add(tagSet.stream().mapToInt(Integer::intValue).toArray());
+      }
+    }
+    Map<String, Integer> index = new HashMap<>(ids.size() * 2);
+    for (int i = 0; i < ids.size(); i++) {
+      index.put(ids.get(i), i);
+    }
+
+    Query favorites = new Query(Criteria.where("favoriteRestaurantIds.0").exists(true));
+    favorites.fields().include("favoriteRestaurantIds");
+    List<int[]> baskets = new ArrayList<>();
+    long favoriteCount = 0;
+    try (Stream<AppUser> users = mongoTemplate.stream(favorites, AppUser.class)) {
+      Iterator<AppUser> it = users.iterator();
+      while (it.hasNext()) {
+        int[] basket =
+            it.next().getFavoriteRestaurantIds().stream()
+                .map(index::get)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        if (basket.length > 0) {
+          baskets.add(basket);
+          favoriteCount += basket.length;
+        }
+      }
+    }
+
+    List<List<ItemSimilarity.Neighbor>> neighbours =
+        similarity.compute(
+            cuisines.stream().mapToInt(Integer::intValue).toArray(),
+            tags.toArray(int[][]::new),
+            baskets);
+
+    int stored = store(ids, neighbours, runAt);
+    mongoTemplate.remove(
+        new Query(Criteria.where("computedAt").lt(runAt)), RestaurantSimilarity.class);
+    log.info(
+        "Computed similar restaurants for {} of {} restaurants from {} favorites in {} ms",
+        stored,
+        ids.size(),
+        favoriteCount,
+        System.currentTimeMillis() - started);
+    return stored;
+  }
+
+  private int store(
+      List<String> ids, List<List<ItemSimilarity.Neighbor>> neighbours, Instant runAt) {
+    int stored = 0;
+    BulkOperations bulk = null;
+    int batched = 0;
+    for (int item = 0; item < ids.size(); item++) {
+      List<ItemSimilarity.Neighbor> list = neighbours.get(item);
+      if (list.isEmpty()) {
+        continue;
+      }
+      List<RestaurantSimilarity.Neighbor> rows =
+          list.stream()
+              .map(n -> new RestaurantSimilarity.Neighbor(ids.get(n.item()), n.score()))
+              .toList();
+      if (bulk == null) {
+        bulk =
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RestaurantSimilarity.class);
+      }
+      bulk.replaceOne(
+          new Query(Criteria.where("_id").is(ids.get(item))),
+          new RestaurantSimilarity(ids.get(item), rows, runAt),
+          FindAndReplaceOptions.options().upsert());
+      stored++;
+      if (++batched == WRITE_BATCH_SIZE) {
+        bulk.execute();
+        bulk = null;
+        batched = 0;
+      }
+    }
+    if (bulk != null) {
+      bulk.execute();
+    }
+    return stored;
+  }
+
+  /** Case-insensitive grouping key for cuisines and tags. */
+  private static String key(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return value.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,144 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.search.SuggestionTrie;
+import com.plateful.backend.search.SuggestionTrie.Suggestion;
+import com.plateful.backend.search.TextNormalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Typeahead suggestions over restaurant names, cuisines, cities and tags, served from an in-memory
+ * {@link SuggestionTrie} so that as-you-type lookups never touch MongoDB.
+ *
+ * <p>Restaurants are ranked by net votes; cuisines, cities and tags by how many restaurants carry
+ * them. Restaurant names are indexed under every word so "sushi" also finds "Tokyo Sushi Bar". The
+ * trie is rebuilt on startup, whenever a {@link CatalogChangedEvent} is published, and
+ * periodically so popularity follows voting.
+ */
+@Service
+public class SuggestionService {
+
+  private static final Logger log = LoggerFactory.getLogger(SuggestionService.class);
+
+  private final MongoTemplate mongoTemplate;
+  private final int topK;
+
+  private volatile SuggestionTrie trie = SuggestionTrie.empty();
+
+  public SuggestionService(
+      MongoTemplate mongoTemplate, @Value("${app.search.suggest.top-k:10}") int topK) {
+    this.mongoTemplate = mongoTemplate;
+    this.topK = topK;
+  }
+
+  /**
+   * Returns the most popular suggestions starting with the given prefix.
+   *
+   * @param prefix the text typed so far
+   * @param limit maximum number of suggestions
+   * @return suggestions, most popular first
+   */
+  public List<Suggestion> suggest(String prefix, int limit) {
+    return trie.suggest(prefix, limit);
+  }
+
+  /** Maximum number of suggestions a single lookup can return. */
+  public int getTopK() {
+    return topK;
+  }
+
+  @EventListener({ApplicationReadyEvent.class, CatalogChangedEvent.class})
+  public void onCatalogChanged() {
+    try {
+      rebuild();
+    } catch (RuntimeException e) {
+      log.warn("Could not rebuild suggestion index: {}", e.getMessage());
+    }
+  }
+
+  /** Periodic refresh so restaurant rankings follow vote changes. */
+  @Scheduled(
+      initialDelayString = "${app.search.suggest.refresh-ms:600000}",
+      fixedDelayString = "${app.search.suggest.refresh-ms:600000}")
+  public void refresh() {
+    onCatalogChanged();
+  }
+
+  /** Loads the searchable fields from MongoDB and swaps in a freshly built trie. */
+  public void rebuild() {
+    Query query = new Query();
+    query.fields().include("name", "cuisine", "address.city", "tags", "net_votes");
+    List<Restaurant> restaurants = mongoTemplate.find(query, Restaurant.class);
+
+    SuggestionTrie.Builder builder = new SuggestionTrie.Builder(topK);
+    Map<String, Map<String, long[]>> categories = new HashMap<>();
+    Map<String, String> displayNames = new HashMap<>();
+
+    for (Restaurant r : restaurants) {
+      if (r.getName() != null && !r.getName().isBlank()) {
+        builder.add(
+            new Suggestion(
+                r.getName(), "restaurant", r.getId(), 1L + Math.max(0, r.getVoteCount())),
+            wordStarts(r.getName()));
+      }
+      count(categories, displayNames, "cuisine", r.getCuisine());
+      String city = r.getAddress() != null ? r.getAddress().getCity() : null;
+      count(categories, displayNames, "city", city);
+      if (r.getTags() != null) {
+        for (String tag : r.getTags()) {
+          count(categories, displayNames, "tag", tag);
+        }
+      }
+    }
+
+    categories.forEach(
+        (type, counts) ->
+            counts.forEach(
+                (key, count) -> {
+                  String text = displayNames.get(type + ":" + key);
+                  builder.add(new Suggestion(text, type, null, count[0]), wordStarts(text));
+                }));
+
+    SuggestionTrie built = builder.build();
+    trie = built;
+    log.info("Suggestion index built with {} entries", built.size());
+  }
+
+  /** Counts restaurants per category value, remembering the first spelling seen for display. */
+  private static void count(
+      Map<String, Map<String, long[]>> categories,
+      Map<String, String> displayNames,
+      String type,
+      String value) {
+    String key = TextNormalizer.normalize(value);
+    if (key.isEmpty()) {
+      return;
+    }
+    categories
+        .computeIfAbsent(type, t -> new HashMap<>())
+        .computeIfAbsent(key, k -> new long[1])[0]++;
+    displayNames.putIfAbsent(type + ":" + key, value.trim());
+  }
+
+  /** All suffixes of the text that start at a word boundary. */
+  private static List<String> wordStarts(String text) {
+    List<String> words = TextNormalizer.tokenize(text);
+    List<String> keys = new ArrayList<>(words.size());
+    for (int i = 0; i < words.size(); i++) {
+      keys.add(String.join(" ", words.subList(i, words.size())));
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,278 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.TrendingSnapshot;
+import com.plateful.backend.trending.CountMinSketch;
+import com.plateful.backend.trending.TimeBucketedCounter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Trending restaurants: the most viewed restaurants over a recent window, overall or per city.
+ *
+ * <p>Every stored restaurant detail view ({@link HistoryWrittenEvent}) is counted in two
+ * lock-free {@link TimeBucketedCounter}s. One has 60 one-minute buckets, for windows up to an
+ * hour. The other has 24 one-hour buckets, for windows up to a day. A window's ranking is computed
+ * by adding up its buckets' count-min sketches and estimating each candidate restaurant. It is then
+ * cached for {@code app.trending.refresh-ms}, so requests are answered from memory. Restaurant
+ * names and cities also come from an in-memory catalog summary.
+ *
+ * <p>Each instance periodically persists its buckets to {@code trending_snapshots} and loads the
+ * other instances' buckets from there. Those are added in when ranking, so every instance sees
+ * views from all of them, up to one snapshot interval late.
+ */
+@Service
+public class TrendingService {
+
+  private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+  /** Restaurants kept per cached ranking, enough to fill city-filtered requests. */
+  static final int MAX_RANKED = 1000;
+
+  private static final long MINUTE_MILLIS = 60_000L;
+  private static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+  private static final String MINUTE = "minute";
+  private static final String HOUR = "hour";
+  private static final int SKETCH_DEPTH = 4;
+  private static final int SKETCH_WIDTH = 2048;
+  private static final int MAX_KEYS_PER_BUCKET = 2000;
+  private static final Pattern WINDOW = Pattern.compile("(\\d{1,4})([mh])");
+
+  /**
+   * A trending restaurant.
+   *
+   * @param restaurantId restaurant ID
+   * @param name restaurant name
+   * @param cuisine cuisine
+   * @param city city
+   * @param views estimated views in the window
+   */
+  public record TrendingRestaurant(
+      String restaurantId, String name, String cuisine, String city, long views) {}
+
+  private record Summary(String name, String cuisine, String city) {}
+
+  private record Ranked(String restaurantId, long views) {}
+
+  private record Ranking(long computedAt, List<Ranked> entries) {}
+
+  private final MongoTemplate mongoTemplate;
+  private final String instanceId;
+  private final long refreshMs;
+  private final TimeBucketedCounter minutes =
+      new TimeBucketedCounter(60, MINUTE_MILLIS, SKETCH_DEPTH, SKETCH_WIDTH, MAX_KEYS_PER_BUCKET);
+  private final TimeBucketedCounter hours =
+      new TimeBucketedCounter(24, HOUR_MILLIS, SKETCH_DEPTH, SKETCH_WIDTH, MAX_KEYS_PER_BUCKET);
+  private final Map<Integer, Ranking> rankings = new ConcurrentHashMap<>();
+
+  private volatile Map<String, Summary> catalog = Map.of();
+  private volatile List<TrendingSnapshot> otherInstances = List.of();
+
+  public TrendingService(
+      MongoTemplate mongoTemplate,
+      @Value("${app.trending.instance-id:}") String instanceId,
+      @Value("${app.trending.refresh-ms:5000}") long refreshMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.instanceId = instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+    this.refreshMs = refreshMs;
+  }
+
+  /** Counts restaurant detail views. */
+  @EventListener
+  public void onHistoryWritten(HistoryWrittenEvent event) {
+    long now = System.currentTimeMillis();
+    for (List<String> restaurantIds : event.viewsByUser().values()) {
+      for (String restaurantId : restaurantIds) {
+        record(restaurantId, now);
+      }
+    }
+  }
+
+  void record(String restaurantId, long epochMillis) {
+    minutes.record(restaurantId, epochMillis);
+    hours.record(restaurantId, epochMillis);
+  }
+
+  /**
+   * The most viewed restaurants over a recent window.
+   *
+   * @param window window length such as {@code 15m}, {@code 1h} or {@code 24h}, at most 24 hours.
+   *     Windows over an hour are counted in whole clock hours, including the current one.
+   * @param city only restaurants in this city (case-insensitive); null or blank for all
+   * @param limit maximum number of results
+   * @return trending restaurants, most viewed first
+   * @throws IllegalArgumentException if the window cannot be parsed or is out of range
+   */
+  public List<TrendingRestaurant> trending(String window, String city, int limit) {
+    return trending(parseWindow(window), city, limit, System.currentTimeMillis());
+  }
+
+  List<TrendingRestaurant> trending(int windowMinutes, String city, int limit, long now) {
+    Ranking ranking = rankings.get(windowMinutes);
+    if (ranking == null || now - ranking.computedAt() >= refreshMs) {
+      ranking = new Ranking(now, rank(windowMinutes, now));
+      rankings.put(windowMinutes, ranking);
+    }
+    String cityKey = key(city);
+    Map<String, Summary> summaries = catalog;
+    List<TrendingRestaurant> result = new ArrayList<>(limit);
+    for (Ranked r : ranking.entries()) {
+      Summary s = summaries.get(r.restaurantId());
+      if (s == null || (cityKey != null && !cityKey.equals(key(s.city())))) {
+        continue;
+      }
+      result.add(
+          new TrendingRestaurant(r.restaurantId(), s.name(), s.cuisine(), s.city(), r.views()));
+      if (result.size() == limit) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  /** Parses {@code <n>m} or {@code <n>h} into minutes, between 1 minute and 24 hours. */
+  static int parseWindow(String window) {
+    Matcher m = WINDOW.matcher(window == null ? "" : window.trim().toLowerCase(Locale.ROOT));
+    if (!m.matches()) {
+      throw new IllegalArgumentException("window must look like 15m or 1h: " + window);
+    }
+    int minutes = Integer.parseInt(m.group(1)) * (m.group(2).equals("h") ? 60 : 1);
+    if (minutes < 1 || minutes > 24 * 60) {
+      throw new IllegalArgumentException("window must be between 1m and 24h: " + window);
+    }
+    return minutes;
+  }
+
+  /** Adds up the window's buckets from this and other instances and ranks the candidates. */
+  private List<Ranked> rank(int windowMinutes, long now) {
+    boolean byMinute = windowMinutes <= 60;
+    TimeBucketedCounter counter = byMinute ? minutes : hours;
+    int buckets = byMinute ? windowMinutes : (windowMinutes + 59) / 60;
+    String granularity = byMinute ? MINUTE : HOUR;
+    long oldest = counter.bucketOf(now) - buckets + 1;
+
+    int[] merged = new int[counter.depth() * counter.width()];
+    Set<String> candidates = new HashSet<>();
+    for (TimeBucketedCounter.Snapshot s : counter.window(now, buckets)) {
+      add(merged, s.counters());
+      candidates.addAll(s.keys());
+    }
+    for (TrendingSnapshot s : otherInstances) {
+      if (granularity.equals(s.getGranularity())
+          && s.getBucket() >= oldest
+          && s.getDepth() == counter.depth()
+          && s.getWidth() == counter.width()) {
+        add(merged, s.getCounters());
+        candidates.addAll(s.getKeys());
+      }
+    }
+
+    List<Ranked> ranked = new ArrayList<>(candidates.size());
+    for (String id : candidates) {
+      int views = CountMinSketch.estimate(merged, counter.depth(), counter.width(), id);
+      if (views > 0) {
+        ranked.add(new Ranked(id, views));
+      }
+    }
+    ranked.sort(
+        Comparator.comparingLong(Ranked::views).reversed().thenComparing(Ranked::restaurantId));
+    return ranked.size() > MAX_RANKED ? List.copyOf(ranked.subList(0, MAX_RANKED)) : ranked;
+  }
+
+  private static void add(int[] into, int[] counters) {
+    if (counters == null || counters.length != into.length) {
+      return;
+    }
+    for (int i = 0; i < into.length; i++) {
+      into[i] += counters[i];
+    }
+  }
+
+  /** Persists this instance's changed buckets and loads the other instances' buckets. */
+  @Scheduled(
+      initialDelayString = "${app.trending.snapshot-ms:60000}",
+      fixedDelayString = "${app.trending.snapshot-ms:60000}")
+  public void syncSnapshots() {
+    syncSnapshots(System.currentTimeMillis());
+  }
+
+  void syncSnapshots(long now) {
+    try {
+      persist(MINUTE, minutes, MINUTE_MILLIS, now);
+      persist(HOUR, hours, HOUR_MILLIS, now);
+      Query others =
+          new Query(
+              Criteria.where("instanceId")
+                  .ne(instanceId)
+                  .and("expiresAt")
+                  .gt(Instant.ofEpochMilli(now)));
+      otherInstances = mongoTemplate.find(others, TrendingSnapshot.class);
+    } catch (RuntimeException e) {
+      log.warn("Could not sync trending snapshots: {}", e.getMessage());
+    }
+  }
+
+  private void persist(
+      String granularity, TimeBucketedCounter counter, long bucketMillis, long now) {
+    for (TimeBucketedCounter.Snapshot s : counter.drainDirty(now)) {
+      // keep a bucket until it has fully left the longest window
+      Instant expiresAt =
+          Instant.ofEpochMilli((s.bucket() + 1 + counter.capacity()) * bucketMillis);
+      mongoTemplate.save(
+          new TrendingSnapshot(
+              instanceId,
+              granularity,
+              s.bucket(),
+              counter.depth(),
+              counter.width(),
+              s.counters(),
+              List.copyOf(s.keys()),
+              expiresAt));
+    }
+  }
+
+  /** Reloads restaurant names and cities used to label and filter results. */
+  @EventListener({ApplicationReadyEvent.class, CatalogChangedEvent.class})
+  public void onCatalogChanged() {
+    try {
+      Query query = new Query();
+      query.fields().include("name", "cuisine", "address.city");
+      Map<String, Summary> summaries = new HashMap<>();
+      for (Restaurant r : mongoTemplate.find(query, Restaurant.class)) {
+        String city = r.getAddress() != null ? r.getAddress().getCity() : null;
+        summaries.put(r.getId(), new Summary(r.getName(), r.getCuisine(), city));
+      }
+      catalog = summaries;
+    } catch (RuntimeException e) {
+      log.warn("Could not load catalog for trending: {}", e.getMessage());
+    }
+  }
+
+  private static String key(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return value.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,20 @@
+package com.plateful.backend.service;
+
+/**
+ * Published by {@link UserService} after a user's favorites or browse history change, so that
+ * per-user read models such as preference vectors can update incrementally instead of reloading
+ * the user.
+ *
+ * @param userId the user whose data changed
+ * @param type what changed
+ * @param restaurantId the restaurant involved, or null for {@link Type#HISTORY_CLEARED}
+ */
+public record UserActivityEvent(String userId, Type type, String restaurantId) {
+
+  /** Kinds of user activity. */
+  public enum Type {
+    FAVORITE_ADDED,
+    FAVORITE_REMOVED,
+    HISTORY_CLEARED
+  }
+}
@@ -0,0 +1,186 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.AppUser;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-process cache of what {@link UserService} reads serve: each user's favorites and
+ * browse history, without the rest of the user document.
+ *
+ * <p>Entries are evicted least recently used beyond {@code app.user-cache.size} and expire {@code
+ * app.user-cache.ttl-ms} after the whole user was last loaded or written. The TTL bounds how stale
+ * an entry can get from writes this instance does not see, such as writes by other instances, so
+ * patching in history keeps the entry's load time rather than restarting it. Writes made
+ * here go through {@link #put}, and history written by {@link HistoryIngestService} goes through
+ * {@link #historyWritten}. {@link #lockFor} serializes one user's write-and-cache cycles, so
+ * write-through updates reach the cache in the order they were saved.
+ *
+ * <p>A read miss loads the user outside the lock, so a write can land between its read and its
+ * {@link #load}. Every write bumps a counter per lock stripe, and a load is only cached if the
+ * counter still matches the {@link #stamp} taken before the read.
+ */
+@Component
+public class UserCache {
+
+  private static final int LOCK_STRIPES = 64;
+
+  /**
+   * A user's read model. The lists are immutable.
+   *
+   * @param favorites favorite restaurant IDs, in the order they were added
+   * @param history browse history, most recent first
+   */
+  public record CachedUser(List<String> favorites, List<AppUser.HistoryEntry> history) {}
+
+  private record Entry(CachedUser user, long loadedAt) {}
+
+  private final long ttlMs;
+  private final Map<String, Entry> entries;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+  /** Writes per lock stripe, guarded by the stripe's lock. */
+  private final long[] writes = new long[LOCK_STRIPES];
+
+  public UserCache(
+      @Value("${app.user-cache.ttl-ms:60000}") long ttlMs,
+      @Value("${app.user-cache.size:10000}") int size) {
+    this.ttlMs = ttlMs;
+    this.entries =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > size;
+              }
+            });
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * The cached read model for a user.
+   *
+   * @return the entry, or null if the user is not cached or the entry has expired
+   */
+  public CachedUser get(String userId) {
+    Entry entry = live(userId);
+    return entry != null ? entry.user() : null;
+  }
+
+  /** The user's entry, or null if it is missing or has expired. */
+  private Entry live(String userId) {
+    Entry entry = entries.get(userId);
+    if (entry == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - entry.loadedAt() >= ttlMs) {
+      entries.remove(userId, entry);
+      return null;
+    }
+    return entry;
+  }
+
+  /** The stamp to pass to {@link #load}; take it before reading the user from the database. */
+  public long stamp(String userId) {
+    int stripe = stripe(userId);
+    synchronized (locks[stripe]) {
+      return writes[stripe];
+    }
+  }
+
+  /**
+   * Caches a user just read from the database, unless a write has landed since {@code stamp} was
+   * taken, in which case the read may be stale and is returned without being cached.
+   *
+   * @return the cached read model, or the loaded one
+   */
+  public CachedUser load(AppUser user, long stamp) {
+    CachedUser loaded = readModel(user);
+    int stripe = stripe(user.getId());
+    synchronized (locks[stripe]) {
+      CachedUser current = get(user.getId());
+      if (current != null) {
+        return current;
+      }
+      if (writes[stripe] == stamp) {
+        entries.put(user.getId(), new Entry(loaded, System.currentTimeMillis()));
+      }
+      return loaded;
+    }
+  }
+
+  /** Caches a user just written; call while holding {@link #lockFor} for the user. */
+  public void put(AppUser user) {
+    writes[stripe(user.getId())]++;
+    entries.put(user.getId(), new Entry(readModel(user), System.currentTimeMillis()));
+  }
+
+  public void evict(String userId) {
+    int stripe = stripe(userId);
+    synchronized (locks[stripe]) {
+      writes[stripe]++;
+      entries.remove(userId);
+    }
+  }
+
+  /**
+   * Applies history entries written directly to the database to a cached user, the same way the
+   * write does: older entries for the same restaurants are replaced, and the history stays newest
+   * first and capped at {@link UserService#MAX_HISTORY}. Users that are not cached are skipped.
+   */
+  public void historyWritten(String userId, Collection<AppUser.HistoryEntry> written) {
+    int stripe = stripe(userId);
+    synchronized (locks[stripe]) {
+      writes[stripe]++;
+      Entry entry = live(userId);
+      if (entry == null) {
+        return;
+      }
+      CachedUser cached = entry.user();
+      Set<String> restaurantIds = new HashSet<>();
+      written.forEach(e -> restaurantIds.add(e.getRestaurantId()));
+      List<AppUser.HistoryEntry> history = new ArrayList<>(written);
+      for (AppUser.HistoryEntry e : cached.history()) {
+        if (!restaurantIds.contains(e.getRestaurantId())) {
+          history.add(e);
+        }
+      }
+      history.sort(
+          Comparator.comparing(
+              AppUser.HistoryEntry::getViewedAt,
+              Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder())));
+      List<AppUser.HistoryEntry> capped =
+          List.copyOf(history.subList(0, Math.min(history.size(), UserService.MAX_HISTORY)));
+      // The favorites are only as fresh as the last full load, so keep its time
+      entries.put(userId, new Entry(new CachedUser(cached.favorites(), capped), entry.loadedAt()));
+    }
+  }
+
+  /** The monitor serializing writes for a user. */
+  public Object lockFor(String userId) {
+    return locks[stripe(userId)];
+  }
+
+  private static int stripe(String userId) {
+    return Math.floorMod(userId.hashCode(), LOCK_STRIPES);
+  }
+
+  private static CachedUser readModel(AppUser user) {
+    return new CachedUser(
+        user.getFavoriteRestaurantIds() != null
+            ? List.copyOf(user.getFavoriteRestaurantIds())
+            : List.of(),
+        user.getBrowseHistory() != null ? List.copyOf(user.getBrowseHistory()) : List.of());
+  }
+}
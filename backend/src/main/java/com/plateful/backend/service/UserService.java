@@ -2,98 +2,137 @@ package com.plateful.backend.service;
 
 import com.plateful.backend.model.AppUser;
 import com.plateful.backend.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Favorites and browse history of a user; views are recorded by {@link HistoryIngestService}.
+ * Reads are served from {@link UserCache} while the user is cached; every change is written and
+ * then written through to the cache.
+ *
+ * <p>Changes are targeted updates of the one array they touch ({@code $addToSet} and {@code $pull}
+ * on the favorites, {@code $set} of the history), never a save of the whole document, so they
+ * cannot overwrite history that {@link HistoryIngestService} writes concurrently.
+ */
 @Service
 public class UserService {
+    /** Number of browse history entries kept per user. */
+    public static final int MAX_HISTORY = 100;
+
     private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserCache userCache;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, MongoTemplate mongoTemplate,
+                       ApplicationEventPublisher eventPublisher, UserCache userCache) {
         this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.userCache = userCache;
     }
 
     /**
      * Add a restaurant to user's favorites
      */
     public AppUser addFavorite(String userId, String restaurantId) {
-        AppUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        if (!user.getFavoriteRestaurantIds().contains(restaurantId)) {
-            user.getFavoriteRestaurantIds().add(restaurantId);
-            return userRepository.save(user);
+        synchronized (userCache.lockFor(userId)) {
+            // only matches while the restaurant is not a favorite yet, so the event fires once
+            AppUser updated = update(
+                    Criteria.where("_id").is(userId).and("favoriteRestaurantIds").ne(restaurantId),
+                    new Update().addToSet("favoriteRestaurantIds", restaurantId));
+            if (updated != null) {
+                publish(userId, UserActivityEvent.Type.FAVORITE_ADDED, restaurantId);
+                return updated;
+            }
+            AppUser user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            userCache.put(user);
+            return user;
         }
-        return user;
     }
 
     /**
      * Remove a restaurant from user's favorites
      */
     public AppUser removeFavorite(String userId, String restaurantId) {
-        AppUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        user.getFavoriteRestaurantIds().remove(restaurantId);
-        return userRepository.save(user);
+        synchronized (userCache.lockFor(userId)) {
+            AppUser updated = update(Criteria.where("_id").is(userId),
+                    new Update().pull("favoriteRestaurantIds", restaurantId));
+            if (updated == null) {
+                throw new RuntimeException("User not found");
+            }
+            publish(userId, UserActivityEvent.Type.FAVORITE_REMOVED, restaurantId);
+            return updated;
+        }
     }
 
     /**
      * Get user's favorite restaurant IDs
      */
     public List<String> getFavorites(String userId) {
-        AppUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getFavoriteRestaurantIds();
+        return read(userId).favorites();
     }
 
     /**
-     * Add an entry to user's browse history
+     * Get user's browse history
      */
-    public AppUser addToHistory(String userId, String restaurantId, String restaurantName, String viewType) {
-        AppUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Remove any existing entry for this restaurant to avoid duplicates
-        user.getBrowseHistory().removeIf(entry -> entry.getRestaurantId().equals(restaurantId));
-
-        // Create new history entry with current timestamp
-        AppUser.HistoryEntry entry = new AppUser.HistoryEntry(
-                restaurantId,
-                restaurantName,
-                LocalDateTime.now(),
-                viewType != null ? viewType : "Details viewed"
-        );
-
-        // Add to beginning of list (most recent first)
-        user.getBrowseHistory().add(0, entry);
+    public List<AppUser.HistoryEntry> getHistory(String userId) {
+        return read(userId).history();
+    }
 
-        // Keep only last 100 entries to prevent unlimited growth
-        if (user.getBrowseHistory().size() > 100) {
-            user.setBrowseHistory(user.getBrowseHistory().subList(0, 100));
+    /**
+     * Clear user's browse history
+     */
+    public AppUser clearHistory(String userId) {
+        synchronized (userCache.lockFor(userId)) {
+            AppUser updated = update(Criteria.where("_id").is(userId),
+                    new Update().set("browseHistory", List.of()));
+            if (updated == null) {
+                throw new RuntimeException("User not found");
+            }
+            publish(userId, UserActivityEvent.Type.HISTORY_CLEARED, null);
+            return updated;
         }
-
-        return userRepository.save(user);
     }
 
     /**
-     * Get user's browse history
+     * The user's favorites and history, from the cache or loaded into it on a miss.
      */
-    public List<AppUser.HistoryEntry> getHistory(String userId) {
+    private UserCache.CachedUser read(String userId) {
+        UserCache.CachedUser cached = userCache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = userCache.stamp(userId);
         AppUser user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getBrowseHistory();
+        return userCache.load(user, stamp);
     }
 
     /**
-     * Clear user's browse history
+     * Applies a targeted update and writes the updated user through to the cache. Callers hold the
+     * user's lock.
+     *
+     * @return the updated user, or null if no user matched
      */
-    public AppUser clearHistory(String userId) {
-        AppUser user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        user.getBrowseHistory().clear();
-        return userRepository.save(user);
+    private AppUser update(Criteria criteria, Update update) {
+        AppUser updated = mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), AppUser.class);
+        if (updated != null) {
+            userCache.put(updated);
+        }
+        return updated;
+    }
+
+    private void publish(String userId, UserActivityEvent.Type type, String restaurantId) {
+        eventPublisher.publishEvent(new UserActivityEvent(userId, type, restaurantId));
     }
 }
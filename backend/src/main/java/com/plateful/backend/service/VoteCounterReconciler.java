@@ -0,0 +1,189 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.Vote;
+import com.plateful.backend.model.VoteDirection;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Repairs the denormalized vote counters ({@code upvote_count}, {@code downvote_count}, {@code
+ * net_votes}) against the 'votes' collection, which is the source of truth.
+ *
+ * <p>{@link VotingService} writes a vote document and then increments the counters, as two
+ * separate writes without a transaction (which would require a replica set). If the process dies
+ * or the second write fails in between, the counters drift from the votes. This job recounts the
+ * votes per restaurant shortly after startup and then every {@code
+ * app.votes.reconcile.interval-ms}, and corrects each drift with a relative {@code $inc}, so
+ * counters are eventually consistent with the votes within one interval.
+ *
+ * <p>A vote in flight between its two writes looks like drift for a few milliseconds. A drift is
+ * therefore only corrected if a second count, {@code app.votes.reconcile.confirm-delay-ms} later,
+ * finds exactly the same drift on that restaurant. Running the job again, or on several instances,
+ * finds nothing left to correct.
+ *
+ * <p>A drift means a vote changed without its counter update, so a repair also increments {@code
+ * vote_seq}, which makes cached voter sets reload.
+ */
+@Component
+@ConditionalOnProperty(
+    name = "app.votes.reconcile.enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class VoteCounterReconciler {
+
+  private static final Logger log = LoggerFactory.getLogger(VoteCounterReconciler.class);
+
+  /** Counted votes minus counters, per direction. */
+  record Drift(int up, int down) {}
+
+  private final MongoTemplate mongoTemplate;
+  private final LeaderboardService leaderboardService;
+  private final long confirmDelayMs;
+
+  public VoteCounterReconciler(
+      MongoTemplate mongoTemplate,
+      LeaderboardService leaderboardService,
+      @Value("${app.votes.reconcile.confirm-delay-ms:5000}") long confirmDelayMs) {
+    this.mongoTemplate = mongoTemplate;
+    this.leaderboardService = leaderboardService;
+    this.confirmDelayMs = confirmDelayMs;
+  }
+
+  @Scheduled(
+      initialDelayString = "${app.votes.reconcile.initial-delay-ms:60000}",
+      fixedDelayString = "${app.votes.reconcile.interval-ms:3600000}")
+  public void run() {
+    try {
+      int repaired = reconcile();
+      if (repaired > 0) {
+        log.warn("Repaired vote counters on {} restaurants", repaired);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Could not reconcile vote counters: {}", e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Recounts the votes of every restaurant and corrects the counters that have drifted.
+   *
+   * @return the number of restaurants corrected
+   */
+  public int reconcile() throws InterruptedException {
+    Map<String, Drift> suspects = drift(null);
+    if (suspects.isEmpty()) {
+      return 0;
+    }
+    Thread.sleep(confirmDelayMs);
+    Map<String, Drift> confirmed = drift(suspects.keySet());
+
+    int repaired = 0;
+    for (Map.Entry<String, Drift> entry : confirmed.entrySet()) {
+      if (entry.getValue().equals(suspects.get(entry.getKey()))) {
+        repair(entry.getKey(), entry.getValue());
+        repaired++;
+      }
+    }
+    return repaired;
+  }
+
+  /**
+   * Compares counted votes with the counters.
+   *
+   * @param restaurantIds restaurants to check, or null for all
+   * @return the non-zero drifts by restaurant ID
+   */
+  private Map<String, Drift> drift(Collection<String> restaurantIds) {
+    Map<String, int[]> counted = countVotes(restaurantIds);
+
+    Query query =
+        restaurantIds != null
+            ? new Query(Criteria.where("_id").in(restaurantIds))
+            : new Query();
+    query.fields().include("upvote_count", "downvote_count");
+    Map<String, Drift> drifts = new HashMap<>();
+    try (Stream<Restaurant> restaurants = mongoTemplate.stream(query, Restaurant.class)) {
+      Iterator<Restaurant> it = restaurants.iterator();
+      while (it.hasNext()) {
+        Restaurant r = it.next();
+        int[] votes = counted.getOrDefault(r.getId(), new int[2]);
+        Drift drift = new Drift(votes[0] - r.getUpvoteCount(), votes[1] - r.getDownvoteCount());
+        if (drift.up() != 0 || drift.down() != 0) {
+          drifts.put(r.getId(), drift);
+        }
+      }
+    }
+    return drifts;
+  }
+
+  /** Up and down votes per restaurant, counted server-side. */
+  private Map<String, int[]> countVotes(Collection<String> restaurantIds) {
+    AggregationOperation group = Aggregation.group("restaurantId", "direction").count().as("n");
+    Aggregation aggregation =
+        restaurantIds != null
+            ? Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("restaurantId").in(restaurantIds)), group)
+            : Aggregation.newAggregation(group);
+    aggregation =
+        aggregation.withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+    Map<String, int[]> counted = new HashMap<>();
+    for (Document row : mongoTemplate.aggregate(aggregation, Vote.class, Document.class)) {
+      Document id = row.get("_id", Document.class);
+      int[] votes = counted.computeIfAbsent(id.getString("restaurantId"), k -> new int[2]);
+      int n = ((Number) row.get("n")).intValue();
+      if (VoteDirection.UP.name().equals(id.getString("direction"))) {
+        votes[0] += n;
+      } else if (VoteDirection.DOWN.name().equals(id.getString("direction"))) {
+        votes[1] += n;
+      }
+    }
+    return counted;
+  }
+
+  private void repair(String restaurantId, Drift drift) {
+    Query query = new Query(Criteria.where("_id").is(restaurantId));
+    query
+        .fields()
+        .include(
+            "name",
+            "cuisine",
+            "address.city",
+            "upvote_count",
+            "downvote_count",
+            "net_votes",
+            "vote_seq");
+    Update update =
+        new Update()
+            .inc("upvote_count", drift.up())
+            .inc("downvote_count", drift.down())
+            .inc("net_votes", drift.up() - drift.down())
+            .inc("vote_seq", 1);
+    Restaurant updated =
+        mongoTemplate.findAndModify(
+            query, update, FindAndModifyOptions.options().returnNew(true), Restaurant.class);
+    if (updated != null) {
+      leaderboardService.update(updated);
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package com.plateful.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plateful.backend.model.Restaurant;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fan-out of live vote counts to Server-Sent Events subscribers.
+ *
+ * <p>{@link VotingService} reports every vote change here. Changes are coalesced per restaurant:
+ * only the latest counts are kept, and a scheduled flush broadcasts them once per window. Each
+ * update is serialized once and handed to every subscriber of that restaurant.
+ *
+ * <p>Subscriptions are servlet async {@link SseEmitter}s, so an open stream holds no thread. Sends
+ * run on a small shared dispatch pool. Each subscriber buffers at most one pending event (the
+ * latest counts), so a slow consumer skips intermediate updates instead of queueing them.
+ *
+ * <p>A send is a blocking servlet write, so a client that stops reading would hold a dispatch
+ * thread. A send still running after {@code app.votes.stream.send-timeout-ms} drops the
+ * subscriber: its thread is interrupted and, until the write gives up, the pool gets an extra
+ * thread in its place, so stalled clients cannot hold up everyone else's updates.
+ */
+@Service
+public class VoteStreamService {
+
+  private static final Logger log = LoggerFactory.getLogger(VoteStreamService.class);
+
+  static final String EVENT_NAME = "votes";
+
+  private final ObjectMapper objectMapper;
+  private final long emitterTimeoutMs;
+  private final long sendTimeoutMs;
+  private final ThreadPoolExecutor dispatcher;
+
+  private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, Object>> pending = new ConcurrentHashMap<>();
+
+  public VoteStreamService(
+      ObjectMapper objectMapper,
+      @Value("${app.votes.stream.timeout-ms:1800000}") long emitterTimeoutMs,
+      @Value("${app.votes.stream.dispatch-threads:2}") int dispatchThreads,
+      @Value("${app.votes.stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+    this.objectMapper = objectMapper;
+    this.emitterTimeoutMs = emitterTimeoutMs;
+    this.sendTimeoutMs = sendTimeoutMs;
+    AtomicInteger threadIds = new AtomicInteger();
+    this.dispatcher =
+        new ThreadPoolExecutor(
+            dispatchThreads,
+            dispatchThreads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+              Thread thread = new Thread(runnable, "vote-stream-" + threadIds.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * Opens a stream of vote counts for a restaurant. The initial counts are delivered straight
+   * away so clients do not need a separate status call.
+   *
+   * @param restaurantId the restaurant to follow
+   * @param initialCounts current counts to send as the first event
+   * @return the emitter to return from the controller
+   */
+  public SseEmitter subscribe(String restaurantId, Map<String, Object> initialCounts) {
+    SseEmitter emitter = newEmitter();
+    Subscriber subscriber = new Subscriber(restaurantId, emitter);
+
+    subscribers.computeIfAbsent(restaurantId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+    emitter.onCompletion(() -> unsubscribe(subscriber));
+    emitter.onTimeout(() -> unsubscribe(subscriber));
+    emitter.onError(error -> unsubscribe(subscriber));
+
+    String payload = serialize(restaurantId, initialCounts);
+    if (payload != null) {
+      subscriber.offer(payload);
+    }
+    return emitter;
+  }
+
+  /**
+   * Records the latest counts for a restaurant. Cheap and non-blocking; delivery happens on the
+   * next flush, and only if someone is subscribed.
+   *
+   * @param restaurant the restaurant after a vote change
+   */
+  public void publish(Restaurant restaurant) {
+    if (restaurant == null || !subscribers.containsKey(restaurant.getId())) {
+      return;
+    }
+    Map<String, Object> counts = new LinkedHashMap<>();
+    counts.put("upvoteCount", restaurant.getUpvoteCount());
+    counts.put("downvoteCount", restaurant.getDownvoteCount());
+    counts.put("voteCount", restaurant.getVoteCount());
+    pending.put(restaurant.getId(), counts);
+  }
+
+  /** Broadcasts the coalesced updates collected since the previous flush. */
+  @Scheduled(fixedDelayString = "${app.votes.stream.coalesce-ms:250}")
+  public void flush() {
+    Iterator<Map.Entry<String, Map<String, Object>>> it = pending.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, Map<String, Object>> entry = it.next();
+      it.remove();
+      Set<Subscriber> audience = subscribers.get(entry.getKey());
+      if (audience == null || audience.isEmpty()) {
+        continue;
+      }
+      String payload = serialize(entry.getKey(), entry.getValue());
+      if (payload == null) {
+        continue;
+      }
+      for (Subscriber subscriber : audience) {
+        subscriber.offer(payload);
+      }
+    }
+  }
+
+  /** Drops subscribers whose current send has been blocked for longer than the send timeout. */
+  @Scheduled(fixedDelayString = "${app.votes.stream.coalesce-ms:250}")
+  public void dropStalledSubscribers() {
+    long now = System.currentTimeMillis();
+    for (Set<Subscriber> audience : subscribers.values()) {
+      for (Subscriber subscriber : audience) {
+        if (subscriber.stalledAt(now)) {
+          log.debug(
+              "Dropping vote stream subscriber of {}: send timed out", subscriber.restaurantId);
+          unsubscribe(subscriber);
+          subscriber.abandon();
+        }
+      }
+    }
+  }
+
+  /** Creates the emitter for a new stream; overridden in tests. */
+  SseEmitter newEmitter() {
+    return new SseEmitter(emitterTimeoutMs);
+  }
+
+  /** Number of open streams, across all restaurants. */
+  public int subscriberCount() {
+    return subscribers.values().stream().mapToInt(Set::size).sum();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    dispatcher.shutdownNow();
+    subscribers.values().forEach(set -> set.forEach(s -> s.emitter.complete()));
+    subscribers.clear();
+  }
+
+  private void unsubscribe(Subscriber subscriber) {
+    subscribers.computeIfPresent(
+        subscriber.restaurantId, (id, set) -> set.remove(subscriber) && set.isEmpty() ? null : set);
+  }
+
+  /** Adds a dispatch thread to stand in for one held by a stalled send. */
+  private void borrowThread() {
+    synchronized (dispatcher) {
+      dispatcher.setMaximumPoolSize(dispatcher.getMaximumPoolSize() + 1);
+      dispatcher.setCorePoolSize(dispatcher.getCorePoolSize() + 1);
+    }
+  }
+
+  /** Gives back a thread added by {@link #borrowThread} once the stalled send has returned. */
+  private void returnThread() {
+    synchronized (dispatcher) {
+      dispatcher.setCorePoolSize(dispatcher.getCorePoolSize() - 1);
+      dispatcher.setMaximumPoolSize(dispatcher.getMaximumPoolSize() - 1);
+    }
+  }
+
+  private String serialize(String restaurantId, Map<String, Object> counts) {
+    Map<String, Object> body = new LinkedHashMap<>();
+    body.put("restaurantId", restaurantId);
+    body.putAll(counts);
+    try {
+      return objectMapper.writeValueAsString(body);
+    } catch (JsonProcessingException e) {
+      log.warn("Could not serialize vote update for {}: {}", restaurantId, e.getMessage());
+      return null;
+    }
+  }
+
+  /** One open stream with a single-slot buffer holding the latest undelivered payload. */
+  private final class Subscriber {
+    private final String restaurantId;
+    private final SseEmitter emitter;
+    private final AtomicReference<String> latest = new AtomicReference<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    /** The thread running a send and when it started, or null and 0; guarded by this. */
+    private Thread sender;
+
+    private long sendingSince;
+
+    /** Set once the subscriber was dropped for a stalled send; guarded by this. */
+    private boolean abandoned;
+
+    private Subscriber(String restaurantId, SseEmitter emitter) {
+      this.restaurantId = restaurantId;
+      this.emitter = emitter;
+    }
+
+    /** Replaces any undelivered payload and schedules a drain if none is running. */
+    void offer(String payload) {
+      latest.set(payload);
+      if (draining.compareAndSet(false, true)) {
+        try {
+          dispatcher.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+          draining.set(false);
+        }
+      }
+    }
+
+    /** Whether a send has been running for longer than the send timeout at {@code now}. */
+    synchronized boolean stalledAt(long now) {
+      return sender != null && !abandoned && now - sendingSince >= sendTimeoutMs;
+    }
+
+    /** Interrupts the stalled send and lends the pool a thread until it returns. */
+    synchronized void abandon() {
+      abandoned = true;
+      latest.set(null);
+      borrowThread();
+      sender.interrupt();
+    }
+
+    private void drain() {
+      boolean wasAbandoned;
+      boolean failed = false;
+      try {
+        String payload;
+        while ((payload = latest.getAndSet(null)) != null) {
+          synchronized (this) {
+            if (abandoned) {
+              break;
+            }
+            sender = Thread.currentThread();
+            sendingSince = System.currentTimeMillis();
+          }
+          emitter.send(SseEmitter.event().name(EVENT_NAME).data(payload));
+          synchronized (this) {
+            sender = null;
+          }
+        }
+      } catch (IOException | IllegalStateException e) {
+        // Client went away; the emitter callbacks remove the subscription.
+        emitter.completeWithError(e);
+        unsubscribe(this);
+        failed = true;
+      } finally {
+        synchronized (this) {
+          sender = null;
+          wasAbandoned = abandoned;
+          // An interrupt from abandon() must not leak into the next task on this thread
+          Thread.interrupted();
+        }
+        draining.set(false);
+      }
+      if (wasAbandoned) {
+        if (!failed) {
+          emitter.completeWithError(new IOException("Vote stream send timed out"));
+        }
+        returnThread();
+        return;
+      }
+      // A payload offered while we were finishing would otherwise wait for the next update.
+      if (latest.get() != null && draining.compareAndSet(false, true)) {
+        try {
+          dispatcher.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+          draining.set(false);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.VoterId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hands out dense {@link VoterId} numbers: 0, 1, 2, ... in the order users first vote. Numbers
+ * never change once assigned, so the most recently used ones are cached without expiry, up to
+ * {@code app.voters.id-cache-size} users.
+ */
+@Service
+public class VoterIdService {
+
+  private static final String COUNTERS = "counters";
+
+  private final MongoTemplate mongoTemplate;
+  private final Map<String, Integer> cache;
+
+  public VoterIdService(
+      MongoTemplate mongoTemplate, @Value("${app.voters.id-cache-size:100000}") int cacheSize) {
+    this.mongoTemplate = mongoTemplate;
+    this.cache =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > cacheSize;
+              }
+            });
+  }
+
+  /**
+   * A user's voter number, if they have one.
+   *
+   * @return the number, or empty if the user has never voted
+   */
+  public OptionalInt find(String userId) {
+    Integer cached = cache.get(userId);
+    if (cached != null) {
+      return OptionalInt.of(cached);
+    }
+    VoterId stored = mongoTemplate.findById(userId, VoterId.class);
+    if (stored == null) {
+      return OptionalInt.empty();
+    }
+    cache.put(userId, stored.getVoter());
+    return OptionalInt.of(stored.getVoter());
+  }
+
+  /**
+   * A user's voter number, assigning the next free one if they have none yet.
+   *
+   * @return the number
+   */
+  public int assign(String userId) {
+    OptionalInt existing = find(userId);
+    if (existing.isPresent()) {
+      return existing.getAsInt();
+    }
+    int next = nextNumber();
+    try {
+      mongoTemplate.insert(new VoterId(userId, next));
+      cache.put(userId, next);
+      return next;
+    } catch (DuplicateKeyException e) {
+      // A concurrent first vote by the same user assigned a number first; that one stands.
+      return find(userId).orElseThrow(() -> e);
+    }
+  }
+
+  private int nextNumber() {
+    Document counter =
+        mongoTemplate.findAndModify(
+            new Query(Criteria.where("_id").is(VoterId.SEQUENCE)),
+            new Update().inc("seq", 1),
+            FindAndModifyOptions.options().upsert(true).returnNew(true),
+            Document.class,
+            COUNTERS);
+    // seq counts assigned numbers, starting from 0
+    return ((Number) counter.get("seq")).intValue() - 1;
+  }
+}
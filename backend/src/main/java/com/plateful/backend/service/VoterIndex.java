@@ -0,0 +1,259 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.Vote;
+import com.plateful.backend.model.VoteDirection;
+import com.plateful.backend.voting.IntBitmap;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-process cache of who voted which way on a restaurant, as a pair of {@link IntBitmap}s
+ * of {@link com.plateful.backend.model.VoterId} numbers. Once a restaurant is loaded, "has this user
+ * voted" needs no database round trip, and even a restaurant with 100k voters costs kilobytes.
+ *
+ * <p>A restaurant is loaded from the (restaurantId, voter, direction) index of the 'votes'
+ * collection, which stays the stored form of the votes. Loading reads every vote on the
+ * restaurant, so it is only done once a restaurant is hot: read {@code app.voters.hot-reads} times
+ * within {@code app.voters.ttl-ms}. Until then callers answer from the votes collection with a
+ * point lookup. Entries are evicted least recently used beyond {@code app.voters.cache-size}
+ * restaurants and expire {@code app.voters.ttl-ms} after they were loaded.
+ *
+ * <p>Each entry carries the restaurant's {@code vote_seq} it reflects. Votes cast here are applied
+ * through {@link #recorded} with the sequence their counter update produced, and only if that is
+ * the next one; votes cast on other instances are not applied at all. Callers compare {@link
+ * Voters#sequence()} with the stored sequence and {@link #evict} the entry if they differ. A load
+ * that overlaps with a vote on the same restaurant is used but not cached, since it may have
+ * missed the vote.
+ */
+@Component
+public class VoterIndex {
+
+  private static final int LOCK_STRIPES = 64;
+
+  /** The voters of one restaurant. Thread-safe. */
+  public static final class Voters {
+    private final IntBitmap up = new IntBitmap();
+    private final IntBitmap down = new IntBitmap();
+    private long sequence;
+
+    /** The restaurant's {@code vote_seq} these voters reflect. */
+    public synchronized long sequence() {
+      return sequence;
+    }
+
+    /**
+     * How a voter voted.
+     *
+     * @return the direction, or null if they have not voted
+     */
+    public synchronized VoteDirection directionOf(int voter) {
+      if (up.contains(voter)) {
+        return VoteDirection.UP;
+      }
+      return down.contains(voter) ? VoteDirection.DOWN : null;
+    }
+
+    public synchronized int upvotes() {
+      return up.cardinality();
+    }
+
+    public synchronized int downvotes() {
+      return down.cardinality();
+    }
+
+    /** Approximate heap bytes held by both bitmaps. */
+    public synchronized long sizeInBytes() {
+      return up.sizeInBytes() + down.sizeInBytes();
+    }
+
+    synchronized void setSequence(long sequence) {
+      this.sequence = sequence;
+    }
+
+    synchronized void set(int voter, VoteDirection direction) {
+      up.remove(voter);
+      down.remove(voter);
+      if (direction == VoteDirection.UP) {
+        up.add(voter);
+      } else if (direction == VoteDirection.DOWN) {
+        down.add(voter);
+      }
+    }
+  }
+
+  private record Entry(Voters voters, long loadedAt) {}
+
+  /** Reads of an uncached restaurant since {@code since}. */
+  private record Reads(int count, long since) {}
+
+  private final MongoTemplate mongoTemplate;
+  private final long ttlMs;
+  private final int hotReads;
+  private final Map<String, Entry> entries;
+  private final Map<String, Reads> reads;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  /** Votes recorded per lock stripe, to detect loads that raced with a vote; guarded by locks. */
+  private final long[] writes = new long[LOCK_STRIPES];
+
+  public VoterIndex(
+      MongoTemplate mongoTemplate,
+      @Value("${app.voters.ttl-ms:60000}") long ttlMs,
+      @Value("${app.voters.cache-size:1000}") int size,
+      @Value("${app.voters.hot-reads:5}") int hotReads) {
+    this.mongoTemplate = mongoTemplate;
+    this.ttlMs = ttlMs;
+    this.hotReads = hotReads;
+    this.entries =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > size;
+              }
+            });
+    this.reads =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, Reads> eldest) {
+                return size() > size;
+              }
+            });
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * The cached voters of a restaurant.
+   *
+   * @return the voters, or null if the restaurant is not cached or the entry has expired
+   */
+  public Voters cached(String restaurantId) {
+    Entry entry = entries.get(restaurantId);
+    if (entry == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - entry.loadedAt() >= ttlMs) {
+      entries.remove(restaurantId, entry);
+      return null;
+    }
+    return entry.voters();
+  }
+
+  /**
+   * The voters of a restaurant, loading them if they are not cached and the restaurant is hot.
+   *
+   * @return the voters, or null if the restaurant is not cached and not hot yet, does not exist,
+   *     or some votes on it have no voter number yet
+   */
+  public Voters voters(String restaurantId) {
+    Voters cached = cached(restaurantId);
+    if (cached != null) {
+      return cached;
+    }
+    return hot(restaurantId) ? load(restaurantId) : null;
+  }
+
+  /** Drops the cached voters of a restaurant, e.g. once they are found to be stale. */
+  public void evict(String restaurantId) {
+    entries.remove(restaurantId);
+  }
+
+  /** Counts a read of an uncached restaurant and tells whether it has become hot. */
+  private boolean hot(String restaurantId) {
+    long now = System.currentTimeMillis();
+    Reads counted =
+        reads.compute(
+            restaurantId,
+            (id, previous) ->
+                previous == null || now - previous.since() >= ttlMs
+                    ? new Reads(1, now)
+                    : new Reads(previous.count() + 1, previous.since()));
+    if (counted.count() < hotReads) {
+      return false;
+    }
+    reads.remove(restaurantId);
+    return true;
+  }
+
+  /**
+   * Applies a vote change just saved to the cached voters of the restaurant. If the cached voters
+   * are not at the sequence just before this change, or do not show {@code previous} for the
+   * voter, another change was missed or applied out of order and the entry is dropped instead.
+   *
+   * @param previous the direction before the change, or null
+   * @param target the direction after the change, or null if the vote was removed
+   * @param sequence the restaurant's {@code vote_seq} after the change
+   */
+  public void recorded(
+      String restaurantId, int voter, VoteDirection previous, VoteDirection target, long sequence) {
+    int stripe = stripe(restaurantId);
+    synchronized (locks[stripe]) {
+      writes[stripe]++;
+      Voters voters = cached(restaurantId);
+      if (voters == null) {
+        return;
+      }
+      if (voters.sequence() != sequence - 1 || voters.directionOf(voter) != previous) {
+        entries.remove(restaurantId);
+        return;
+      }
+      voters.set(voter, target);
+      voters.setSequence(sequence);
+    }
+  }
+
+  private Voters load(String restaurantId) {
+    int stripe = stripe(restaurantId);
+    long before;
+    synchronized (locks[stripe]) {
+      before = writes[stripe];
+    }
+
+    // Read first: votes cast during the load can only make the sequence look too old
+    Query sequenceQuery = new Query(Criteria.where("_id").is(restaurantId));
+    sequenceQuery.fields().include("vote_seq");
+    Restaurant restaurant = mongoTemplate.findOne(sequenceQuery, Restaurant.class);
+    if (restaurant == null) {
+      return null;
+    }
+
+    // Covered by the restaurant_voter index
+    Query query = new Query(Criteria.where("restaurantId").is(restaurantId));
+    query.fields().include("voter", "direction").exclude("_id");
+    Voters voters = new Voters();
+    voters.setSequence(restaurant.getVoteSequence());
+    try (Stream<Vote> votes = mongoTemplate.stream(query, Vote.class)) {
+      Iterator<Vote> it = votes.iterator();
+      while (it.hasNext()) {
+        Vote vote = it.next();
+        if (vote.getVoter() == null) {
+          return null;
+        }
+        voters.set(vote.getVoter(), vote.getDirection());
+      }
+    }
+
+    synchronized (locks[stripe]) {
+      if (writes[stripe] == before && cached(restaurantId) == null) {
+        entries.put(restaurantId, new Entry(voters, System.currentTimeMillis()));
+      }
+    }
+    return voters;
+  }
+
+  private static int stripe(String restaurantId) {
+    return Math.floorMod(restaurantId.hashCode(), LOCK_STRIPES);
+  }
+}
@@ -1,105 +1,264 @@
 package com.plateful.backend.service;
 
 import com.plateful.backend.model.Restaurant;
-import com.plateful.backend.repository.RestaurantRepository;
+import com.plateful.backend.model.Vote;
+import com.plateful.backend.model.VoteDirection;
+import com.plateful.backend.repository.VoteRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-/** Service for handling restaurant voting operations. */
+/**
+ * Service for handling restaurant voting operations. Votes are stored one document per user and
+ * restaurant in the 'votes' collection; the restaurant document only carries the denormalized
+ * {@code upvote_count}, {@code downvote_count} and {@code net_votes} counters.
+ *
+ * <p>A vote change first swaps the user's vote document atomically (returning the previous
+ * direction), then applies the resulting delta to the counters with a single {@code $inc}. The
+ * unique (restaurantId, userId) index serializes concurrent votes by the same user, so each change
+ * is counted exactly once. The two writes are not in a transaction: if the second one is lost, the
+ * counters drift from the votes until {@link VoteCounterReconciler} recounts them, so the votes
+ * collection is exact and the counters are eventually consistent with it.
+ *
+ * <p>Each vote also carries the user's dense voter number from {@link VoterIdService}. Vote status
+ * reads answer "has this user voted" from the restaurant's voter bitmaps in {@link VoterIndex} when
+ * the restaurant is hot, and with an indexed point lookup on the votes collection otherwise. Every
+ * counter update also increments the restaurant's {@code vote_seq}, and the bitmaps are only
+ * trusted while they reflect the stored sequence, which the status read fetches with the counters
+ * anyway: a vote cast on another instance bumps it before its response is sent, so the caller
+ * reads their own vote even if this instance's bitmaps missed it.
+ */
 @Service
 public class VotingService {
 
-  @Autowired private RestaurantRepository restaurantRepository;
+  @Autowired private VoteRepository voteRepository;
+
+  @Autowired private MongoTemplate mongoTemplate;
+
+  @Autowired private LeaderboardService leaderboardService;
+
+  @Autowired private VoteStreamService voteStreamService;
+
+  @Autowired private VoterIdService voterIdService;
+
+  @Autowired private VoterIndex voterIndex;
 
   /**
    * Upvote a restaurant. If user has already downvoted, removes downvote first.
    *
    * @param restaurantId the restaurant ID
    * @param userId the user ID
-   * @return the updated restaurant
+   * @return the restaurant's vote counters after the change
    */
   public Restaurant upvote(String restaurantId, String userId) {
-    Restaurant restaurant =
-        restaurantRepository
-            .findById(restaurantId)
-            .orElseThrow(() -> new RuntimeException("Restaurant not found"));
-
-    // Initialize sets if null
-    if (restaurant.getUpvoteUserIds() == null) {
-      restaurant.setUpvoteUserIds(new HashSet<>());
-    }
-    if (restaurant.getDownvoteUserIds() == null) {
-      restaurant.setDownvoteUserIds(new HashSet<>());
-    }
+    return record(transition(restaurantId, userId, VoteDirection.UP));
+  }
 
-    // Remove from downvotes if exists (vote switching)
-    restaurant.getDownvoteUserIds().remove(userId);
+  /**
+   * Downvote a restaurant. If user has already upvoted, removes upvote first.
+   *
+   * @param restaurantId the restaurant ID
+   * @param userId the user ID
+   * @return the restaurant's vote counters after the change
+   */
+  public Restaurant downvote(String restaurantId, String userId) {
+    return record(transition(restaurantId, userId, VoteDirection.DOWN));
+  }
 
-    // Add to upvotes
-    restaurant.getUpvoteUserIds().add(userId);
+  /**
+   * Remove a user's vote (both upvote and downvote).
+   *
+   * @param restaurantId the restaurant ID
+   * @param userId the user ID
+   * @return the restaurant's vote counters after the change
+   */
+  public Restaurant removeVote(String restaurantId, String userId) {
+    return record(transition(restaurantId, userId, null));
+  }
 
-    return restaurantRepository.save(restaurant);
+  /**
+   * Check if a user has upvoted a restaurant, with a point lookup on the votes collection.
+   *
+   * @param restaurantId the restaurant ID
+   * @param userId the user ID
+   * @return true if the user has upvoted, false otherwise
+   */
+  public boolean hasUserUpvoted(String restaurantId, String userId) {
+    return lookUpVote(restaurantId, userId).orElse(null) == VoteDirection.UP;
   }
 
   /**
-   * Downvote a restaurant. If user has already upvoted, removes upvote first.
+   * Check if a user has downvoted a restaurant, with a point lookup on the votes collection.
    *
    * @param restaurantId the restaurant ID
    * @param userId the user ID
-   * @return the updated restaurant
+   * @return true if the user has downvoted, false otherwise
    */
-  public Restaurant downvote(String restaurantId, String userId) {
-    Restaurant restaurant =
-        restaurantRepository
-            .findById(restaurantId)
-            .orElseThrow(() -> new RuntimeException("Restaurant not found"));
+  public boolean hasUserDownvoted(String restaurantId, String userId) {
+    return lookUpVote(restaurantId, userId).orElse(null) == VoteDirection.DOWN;
+  }
 
-    // Initialize sets if null
-    if (restaurant.getUpvoteUserIds() == null) {
-      restaurant.setUpvoteUserIds(new HashSet<>());
+  /**
+   * Moves a user's vote to {@code target} ({@code null} removes it) and applies the change to the
+   * restaurant's counters.
+   */
+  private Restaurant transition(String restaurantId, String userId, VoteDirection target) {
+    if (!mongoTemplate.exists(byId(restaurantId), Restaurant.class)) {
+      throw new RuntimeException("Restaurant not found");
     }
-    if (restaurant.getDownvoteUserIds() == null) {
-      restaurant.setDownvoteUserIds(new HashSet<>());
+
+    int voter = voterIdService.assign(userId);
+    VoteDirection previous = swapVote(restaurantId, userId, voter, target);
+
+    int upDelta = (target == VoteDirection.UP ? 1 : 0) - (previous == VoteDirection.UP ? 1 : 0);
+    int downDelta =
+        (target == VoteDirection.DOWN ? 1 : 0) - (previous == VoteDirection.DOWN ? 1 : 0);
+    if (upDelta == 0 && downDelta == 0) {
+      return findCounters(restaurantId);
     }
 
-    // Remove from upvotes if exists (vote switching)
-    restaurant.getUpvoteUserIds().remove(userId);
+    Update update =
+        new Update()
+            .inc("upvote_count", upDelta)
+            .inc("downvote_count", downDelta)
+            .inc("net_votes", upDelta - downDelta)
+            .inc("vote_seq", 1);
+    Restaurant updated =
+        mongoTemplate.findAndModify(
+            countersQuery(restaurantId),
+            update,
+            FindAndModifyOptions.options().returnNew(true),
+            Restaurant.class);
+    if (updated == null) {
+      throw new RuntimeException("Restaurant not found");
+    }
+    voterIndex.recorded(restaurantId, voter, previous, target, updated.getVoteSequence());
+    return updated;
+  }
 
-    // Add to downvotes
-    restaurant.getDownvoteUserIds().add(userId);
+  /**
+   * Atomically replaces (or removes) the user's vote document.
+   *
+   * @return the direction the user held before the change, or null if they had not voted
+   */
+  private VoteDirection swapVote(
+      String restaurantId, String userId, int voter, VoteDirection target) {
+    Query query = voteQuery(restaurantId, userId);
+    if (target == null) {
+      Vote removed = mongoTemplate.findAndRemove(query, Vote.class);
+      return removed != null ? removed.getDirection() : null;
+    }
 
-    return restaurantRepository.save(restaurant);
+    // On insert, restaurantId and userId are taken from the equality query
+    Update update =
+        new Update().set("direction", target).set("voter", voter).set("at", Instant.now());
+    FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(false);
+    try {
+      Vote before = mongoTemplate.findAndModify(query, update, options, Vote.class);
+      return before != null ? before.getDirection() : null;
+    } catch (DuplicateKeyException e) {
+      // A concurrent first vote by the same user won the upsert; the document now exists.
+      Vote before = mongoTemplate.findAndModify(query, update, options, Vote.class);
+      return before != null ? before.getDirection() : null;
+    }
   }
 
   /**
-   * Remove a user's vote (both upvote and downvote).
+   * The user's vote on a restaurant, from its voter bitmaps if they are current, else from the
+   * votes collection.
    *
-   * @param restaurantId the restaurant ID
-   * @param userId the user ID
-   * @return the updated restaurant
+   * @param counters the restaurant's stored counters, to check the bitmaps against
    */
-  public Restaurant removeVote(String restaurantId, String userId) {
-    Restaurant restaurant =
-        restaurantRepository
-            .findById(restaurantId)
-            .orElseThrow(() -> new RuntimeException("Restaurant not found"));
+  private Optional<VoteDirection> findUserVote(
+      String restaurantId, Restaurant counters, String userId) {
+    if (userId == null) {
+      return Optional.empty();
+    }
+    OptionalInt voter = voterIdService.find(userId);
+    if (voter.isEmpty()) {
+      // Voter numbers are assigned on a user's first vote (and backfilled by VoterIdMigration)
+      return Optional.empty();
+    }
+    VoterIndex.Voters voters = voterIndex.voters(restaurantId);
+    if (voters != null && current(voters, counters, restaurantId)) {
+      return Optional.ofNullable(voters.directionOf(voter.getAsInt()));
+    }
+    return lookUpVote(restaurantId, userId);
+  }
+
+  private Optional<VoteDirection> lookUpVote(String restaurantId, String userId) {
+    if (userId == null) {
+      return Optional.empty();
+    }
+    return voteRepository.findByRestaurantIdAndUserId(restaurantId, userId).map(Vote::getDirection);
+  }
 
-    // Initialize sets if null
-    if (restaurant.getUpvoteUserIds() == null) {
-      restaurant.setUpvoteUserIds(new HashSet<>());
+  /**
+   * Whether cached voters reflect the restaurant's stored vote sequence. If not, they missed votes
+   * cast on another instance and are evicted.
+   */
+  private boolean current(VoterIndex.Voters voters, Restaurant counters, String restaurantId) {
+    if (voters.sequence() == counters.getVoteSequence()) {
+      return true;
     }
-    if (restaurant.getDownvoteUserIds() == null) {
-      restaurant.setDownvoteUserIds(new HashSet<>());
+    voterIndex.evict(restaurantId);
+    return false;
+  }
+
+  private Restaurant findCounters(String restaurantId) {
+    Restaurant restaurant = mongoTemplate.findOne(countersQuery(restaurantId), Restaurant.class);
+    if (restaurant == null) {
+      throw new RuntimeException("Restaurant not found");
     }
+    return restaurant;
+  }
 
-    // Remove from both sets
-    restaurant.getUpvoteUserIds().remove(userId);
-    restaurant.getDownvoteUserIds().remove(userId);
+  /** Projects only what vote responses and the leaderboard need from a restaurant. */
+  private static Query countersQuery(String restaurantId) {
+    Query query = byId(restaurantId);
+    query
+        .fields()
+        .include(
+            "name",
+            "cuisine",
+            "address.city",
+            "upvote_count",
+            "downvote_count",
+            "net_votes",
+            "vote_seq");
+    return query;
+  }
 
-    return restaurantRepository.save(restaurant);
+  private static Query byId(String restaurantId) {
+    return new Query(Criteria.where("_id").is(restaurantId));
+  }
+
+  private static Query voteQuery(String restaurantId, String userId) {
+    return new Query(Criteria.where("restaurantId").is(restaurantId).and("userId").is(userId));
+  }
+
+  /**
+   * Publishes the new vote counts to the leaderboard and live vote streams and returns the saved
+   * restaurant.
+   */
+  private Restaurant record(Restaurant saved) {
+    leaderboardService.update(saved);
+    voteStreamService.publish(saved);
+    return saved;
   }
 
   /**
@@ -111,27 +270,86 @@ public class VotingService {
    * @return a map containing vote status and counts
    */
   public Map<String, Object> getVoteStatus(String restaurantId, String userId) {
-    Restaurant restaurant =
-        restaurantRepository
-            .findById(restaurantId)
-            .orElseThrow(() -> new RuntimeException("Restaurant not found"));
-
-    // Initialize sets if null
-    if (restaurant.getUpvoteUserIds() == null) {
-      restaurant.setUpvoteUserIds(new HashSet<>());
-    }
-    if (restaurant.getDownvoteUserIds() == null) {
-      restaurant.setDownvoteUserIds(new HashSet<>());
-    }
+    Restaurant restaurant = findCounters(restaurantId);
+    // If userId is null (anonymous), user hasn't voted
+    VoteDirection vote = findUserVote(restaurantId, restaurant, userId).orElse(null);
 
     Map<String, Object> status = new HashMap<>();
-    // If userId is null (anonymous), user hasn't voted
-    status.put("hasUpvoted", userId != null && restaurant.hasUserUpvoted(userId));
-    status.put("hasDownvoted", userId != null && restaurant.hasUserDownvoted(userId));
+    status.put("hasUpvoted", vote == VoteDirection.UP);
+    status.put("hasDownvoted", vote == VoteDirection.DOWN);
     status.put("upvoteCount", restaurant.getUpvoteCount());
     status.put("downvoteCount", restaurant.getDownvoteCount());
     status.put("voteCount", restaurant.getVoteCount());
 
     return status;
   }
+
+  /**
+   * Get the vote status for many restaurants at once, for list and card views. Uses at most two
+   * queries: one projected query for the counters of all requested restaurants and, for
+   * authenticated users, one query for the caller's votes on those whose voters are not cached or
+   * no longer match the counters.
+   *
+   * @param restaurantIds the restaurant IDs; unknown IDs are omitted from the result
+   * @param userId the user ID (can be null for anonymous users)
+   * @return vote status per restaurant ID, in request order
+   */
+  public Map<String, Map<String, Object>> getVoteStatuses(
+      Collection<String> restaurantIds, String userId) {
+    Query countsQuery = new Query(Criteria.where("_id").in(restaurantIds));
+    countsQuery.fields().include("upvote_count", "downvote_count", "net_votes", "vote_seq");
+    Map<String, Restaurant> counters = new HashMap<>();
+    for (Restaurant restaurant : mongoTemplate.find(countsQuery, Restaurant.class)) {
+      counters.put(restaurant.getId(), restaurant);
+    }
+
+    Map<String, VoteDirection> userVotes = new HashMap<>();
+    OptionalInt voter = userId != null ? voterIdService.find(userId) : OptionalInt.empty();
+    if (voter.isPresent() && !counters.isEmpty()) {
+      List<String> uncached = new ArrayList<>();
+      for (String restaurantId : counters.keySet()) {
+        VoterIndex.Voters voters = voterIndex.cached(restaurantId);
+        if (voters == null || !current(voters, counters.get(restaurantId), restaurantId)) {
+          uncached.add(restaurantId);
+        } else {
+          VoteDirection direction = voters.directionOf(voter.getAsInt());
+          if (direction != null) {
+            userVotes.put(restaurantId, direction);
+          }
+        }
+      }
+      addUserVotes(uncached, userId, userVotes);
+    }
+
+    Map<String, Map<String, Object>> statuses = new LinkedHashMap<>();
+    for (String restaurantId : restaurantIds) {
+      Restaurant restaurant = counters.get(restaurantId);
+      if (restaurant == null || statuses.containsKey(restaurantId)) {
+        continue;
+      }
+      VoteDirection vote = userVotes.get(restaurantId);
+      Map<String, Object> status = new HashMap<>();
+      status.put("hasUpvoted", vote == VoteDirection.UP);
+      status.put("hasDownvoted", vote == VoteDirection.DOWN);
+      status.put("upvoteCount", restaurant.getUpvoteCount());
+      status.put("downvoteCount", restaurant.getDownvoteCount());
+      status.put("voteCount", restaurant.getVoteCount());
+      statuses.put(restaurantId, status);
+    }
+    return statuses;
+  }
+
+  /** Adds the user's votes on the given restaurants, read with one query. */
+  private void addUserVotes(
+      List<String> restaurantIds, String userId, Map<String, VoteDirection> userVotes) {
+    if (restaurantIds.isEmpty()) {
+      return;
+    }
+    Query votesQuery =
+        new Query(Criteria.where("restaurantId").in(restaurantIds).and("userId").is(userId));
+    votesQuery.fields().include("restaurantId", "direction");
+    for (Vote vote : mongoTemplate.find(votesQuery, Vote.class)) {
+      userVotes.put(vote.getRestaurantId(), vote.getDirection());
+    }
+  }
 }
@@ -0,0 +1,101 @@
+package com.plateful.backend.trending;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch: approximate per-key counts in fixed memory, however many distinct keys are
+ * seen. Each key increments one counter in each of {@code depth} rows, and its estimate is the
+ * smallest of those counters. Estimates never undercount, and overcount by at most about {@code
+ * e * total / width} with probability {@code 1 - e^-depth}.
+ *
+ * <p>Counters are atomic, so {@link #add} is lock-free and safe from any thread. Sketches with the
+ * same dimensions merge by adding their counter arrays element-wise, which is how windows and
+ * other instances are combined (see {@link #estimate(int[], int, int, String)}).
+ */
+public final class CountMinSketch {
+
+  /** Largest supported depth. */
+  public static final int MAX_DEPTH = 8;
+
+  private static final int[] SEEDS = {
+    0x9e3779b9, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f, 0x165667b1, 0xd3a2646c, 0xfd7046c5, 0xb55a4f09
+  };
+
+  private final int depth;
+  private final int width;
+  private final AtomicIntegerArray counters;
+
+  /**
+   * @param depth number of rows (independent hashes), at most {@value #MAX_DEPTH}
+   * @param width counters per row
+   */
+  public CountMinSketch(int depth, int width) {
+    if (depth < 1 || depth > MAX_DEPTH || width < 1) {
+      throw new IllegalArgumentException("invalid sketch dimensions " + depth + "x" + width);
+    }
+    this.depth = depth;
+    this.width = width;
+    this.counters = new AtomicIntegerArray(depth * width);
+  }
+
+  public int depth() {
+    return depth;
+  }
+
+  public int width() {
+    return width;
+  }
+
+  /** Counts one occurrence of {@code key}. */
+  public void add(String key) {
+    int hash = key.hashCode();
+    for (int row = 0; row < depth; row++) {
+      counters.incrementAndGet(row * width + column(hash, row, width));
+    }
+  }
+
+  /** Estimated number of occurrences of {@code key}. */
+  public int estimate(String key) {
+    return estimate(toArray(), depth, width, key);
+  }
+
+  /** Resets every counter to zero. */
+  public void clear() {
+    for (int i = 0; i < counters.length(); i++) {
+      counters.set(i, 0);
+    }
+  }
+
+  /** Copy of the counters, row by row, for merging or persisting. */
+  public int[] toArray() {
+    int[] copy = new int[counters.length()];
+    for (int i = 0; i < copy.length; i++) {
+      copy[i] = counters.get(i);
+    }
+    return copy;
+  }
+
+  /**
+   * Estimate of {@code key} in a counter array produced by {@link #toArray()}, or in the
+   * element-wise sum of several such arrays.
+   */
+  public static int estimate(int[] counters, int depth, int width, String key) {
+    int hash = key.hashCode();
+    int min = Integer.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      min = Math.min(min, counters[row * width + column(hash, row, width)]);
+    }
+    return min;
+  }
+
+  private static int column(int hash, int row, int width) {
+    // MurmurHash3 finalizer over the seeded hash, so each row hashes independently
+    int h = hash ^ SEEDS[row];
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return Math.floorMod(h, width);
+  }
+}
@@ -0,0 +1,151 @@
+package com.plateful.backend.trending;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts events per key over a sliding window made of a ring of fixed-length time buckets (for
+ * example 60 one-minute buckets). Each bucket holds a {@link CountMinSketch} for the counts and a
+ * bounded set of keys seen in it, which are the candidates when ranking. Once a bucket's key set is
+ * full, further new keys are still counted in the sketch but are not ranked from that bucket. This
+ * is how the long tail stays in fixed memory.
+ *
+ * <p>Recording is lock-free: a few atomic increments plus a concurrent set insert. A bucket whose
+ * period has passed is cleared by the first writer of its next period. That is the only time a lock
+ * is taken, and a concurrent increment landing during the clear can be lost.
+ */
+public final class TimeBucketedCounter {
+
+  /**
+   * The contents of one bucket.
+   *
+   * @param bucket the bucket's period, as {@code epochMillis / bucketMillis}
+   * @param counters the sketch counters, see {@link CountMinSketch#toArray()}
+   * @param keys candidate keys seen in the bucket
+   */
+  public record Snapshot(long bucket, int[] counters, Set<String> keys) {}
+
+  private final long bucketMillis;
+  private final int depth;
+  private final int width;
+  private final int maxKeysPerBucket;
+  private final Bucket[] ring;
+
+  /**
+   * @param buckets number of buckets in the ring, i.e. the longest window
+   * @param bucketMillis length of each bucket
+   * @param depth sketch depth
+   * @param width sketch width
+   * @param maxKeysPerBucket candidate keys remembered per bucket
+   */
+  public TimeBucketedCounter(
+      int buckets, long bucketMillis, int depth, int width, int maxKeysPerBucket) {
+    this.bucketMillis = bucketMillis;
+    this.depth = depth;
+    this.width = width;
+    this.maxKeysPerBucket = maxKeysPerBucket;
+    this.ring = new Bucket[buckets];
+    for (int i = 0; i < buckets; i++) {
+      ring[i] = new Bucket(new CountMinSketch(depth, width));
+    }
+  }
+
+  public int depth() {
+    return depth;
+  }
+
+  public int width() {
+    return width;
+  }
+
+  /** Number of buckets, i.e. the longest window that can be answered. */
+  public int capacity() {
+    return ring.length;
+  }
+
+  /** The bucket period containing {@code epochMillis}. */
+  public long bucketOf(long epochMillis) {
+    return Math.floorDiv(epochMillis, bucketMillis);
+  }
+
+  /** Counts one event for {@code key} at {@code epochMillis}. */
+  public void record(String key, long epochMillis) {
+    long bucket = bucketOf(epochMillis);
+    Bucket b = ring[(int) Math.floorMod(bucket, (long) ring.length)];
+    if (b.period != bucket && !b.rotate(bucket)) {
+      return; // a writer from a period that has already been recycled
+    }
+    b.sketch.add(key);
+    if (b.keyCount.get() < maxKeysPerBucket && b.keys.add(key)) {
+      b.keyCount.incrementAndGet();
+    }
+    b.dirty = true;
+  }
+
+  /**
+   * Snapshots the most recent buckets, including the current, partly filled one.
+   *
+   * @param epochMillis the current time
+   * @param buckets how many buckets back to include, at most {@link #capacity()}
+   * @return non-empty buckets in the window
+   */
+  public List<Snapshot> window(long epochMillis, int buckets) {
+    long current = bucketOf(epochMillis);
+    long oldest = current - Math.min(buckets, ring.length) + 1;
+    List<Snapshot> snapshots = new ArrayList<>();
+    for (Bucket b : ring) {
+      long period = b.period;
+      if (period >= oldest && period <= current) {
+        snapshots.add(new Snapshot(period, b.sketch.toArray(), Set.copyOf(b.keys)));
+      }
+    }
+    return snapshots;
+  }
+
+  /**
+   * Snapshots buckets written since the previous call, for persisting, and marks them clean.
+   *
+   * @param epochMillis the current time; buckets that have left the ring's window are skipped
+   */
+  public List<Snapshot> drainDirty(long epochMillis) {
+    long oldest = bucketOf(epochMillis) - ring.length + 1;
+    List<Snapshot> snapshots = new ArrayList<>();
+    for (Bucket b : ring) {
+      if (b.dirty && b.period >= oldest) {
+        b.dirty = false;
+        snapshots.add(new Snapshot(b.period, b.sketch.toArray(), Set.copyOf(b.keys)));
+      }
+    }
+    return snapshots;
+  }
+
+  private static final class Bucket {
+    final CountMinSketch sketch;
+    final Set<String> keys = ConcurrentHashMap.newKeySet();
+    final AtomicInteger keyCount = new AtomicInteger();
+    volatile long period = Long.MIN_VALUE;
+    volatile boolean dirty;
+
+    Bucket(CountMinSketch sketch) {
+      this.sketch = sketch;
+    }
+
+    /** Moves the bucket to a newer period; false if {@code next} is older than the current one. */
+    synchronized boolean rotate(long next) {
+      if (period == next) {
+        return true;
+      }
+      if (period > next) {
+        return false;
+      }
+      sketch.clear();
+      keys.clear();
+      keyCount.set(0);
+      period = next;
+      return true;
+    }
+  }
+}
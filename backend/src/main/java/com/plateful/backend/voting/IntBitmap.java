@@ -0,0 +1,192 @@
+package com.plateful.backend.voting;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of {@code int} values in the style of a Roaring bitmap, used for the voters of a
+ * restaurant.
+ *
+ * <p>Values are split by their high 16 bits into chunks of 65536. Each chunk holds its low 16 bits
+ * either as a sorted {@code char[]} while it has at most {@value #ARRAY_MAX} values (2 bytes per
+ * value) or as a fixed 8 KB {@code long[]} bitmap beyond that (under 2 bytes per value). Chunks are
+ * found by binary search over the sorted high parts, so membership costs a search over at most a
+ * few chunks and then either a bit test or a search over at most {@value #ARRAY_MAX} values,
+ * independent of how many values the set holds. With dense voter IDs below one million, any
+ * number of voters fits in 16 chunks, at most 128 KB, where 100k IDs as strings in a hash set
+ * take around 10 MB.
+ *
+ * <p>Not thread-safe.
+ */
+public final class IntBitmap {
+
+  /** Values a chunk holds as a sorted array before switching to a bitmap. */
+  static final int ARRAY_MAX = 4096;
+
+  private static final int BITMAP_WORDS = 1 << 10;
+
+  private char[] keys = new char[0];
+  private Object[] chunks = new Object[0];
+  private int[] counts = new int[0];
+  private int chunkCount;
+  private int cardinality;
+
+  /**
+   * Adds a value.
+   *
+   * @return true if the value was not present
+   */
+  public boolean add(int value) {
+    char high = (char) (value >>> 16);
+    char low = (char) value;
+    int i = Arrays.binarySearch(keys, 0, chunkCount, high);
+    if (i < 0) {
+      i = -i - 1;
+      insertChunk(i, high);
+    }
+    boolean added;
+    if (chunks[i] instanceof long[] bits) {
+      long mask = 1L << low;
+      added = (bits[low >>> 6] & mask) == 0;
+      bits[low >>> 6] |= mask;
+    } else {
+      added = addToArray(i, low);
+    }
+    if (added) {
+      counts[i]++;
+      cardinality++;
+    }
+    return added;
+  }
+
+  /**
+   * Removes a value.
+   *
+   * @return true if the value was present
+   */
+  public boolean remove(int value) {
+    char high = (char) (value >>> 16);
+    char low = (char) value;
+    int i = Arrays.binarySearch(keys, 0, chunkCount, high);
+    if (i < 0) {
+      return false;
+    }
+    if (chunks[i] instanceof long[] bits) {
+      long mask = 1L << low;
+      if ((bits[low >>> 6] & mask) == 0) {
+        return false;
+      }
+      bits[low >>> 6] &= ~mask;
+    } else {
+      char[] values = (char[]) chunks[i];
+      int at = Arrays.binarySearch(values, 0, counts[i], low);
+      if (at < 0) {
+        return false;
+      }
+      System.arraycopy(values, at + 1, values, at, counts[i] - at - 1);
+    }
+    counts[i]--;
+    cardinality--;
+    if (counts[i] == 0) {
+      removeChunk(i);
+    } else if (counts[i] == ARRAY_MAX && chunks[i] instanceof long[] bits) {
+      chunks[i] = toArray(bits);
+    }
+    return true;
+  }
+
+  public boolean contains(int value) {
+    int i = Arrays.binarySearch(keys, 0, chunkCount, (char) (value >>> 16));
+    if (i < 0) {
+      return false;
+    }
+    char low = (char) value;
+    if (chunks[i] instanceof long[] bits) {
+      return (bits[low >>> 6] & (1L << low)) != 0;
+    }
+    return Arrays.binarySearch((char[]) chunks[i], 0, counts[i], low) >= 0;
+  }
+
+  /** Number of values in the set. */
+  public int cardinality() {
+    return cardinality;
+  }
+
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  /** Approximate heap bytes held by the chunks and their index, excluding object headers. */
+  public long sizeInBytes() {
+    long bytes = keys.length * 2L + counts.length * 4L + chunks.length * 8L;
+    for (int i = 0; i < chunkCount; i++) {
+      bytes += chunks[i] instanceof long[] bits ? bits.length * 8L : ((char[]) chunks[i]).length * 2L;
+    }
+    return bytes;
+  }
+
+  private boolean addToArray(int i, char low) {
+    char[] values = (char[]) chunks[i];
+    int count = counts[i];
+    int at = Arrays.binarySearch(values, 0, count, low);
+    if (at >= 0) {
+      return false;
+    }
+    if (count == ARRAY_MAX) {
+      long[] bits = toBitmap(values, count);
+      bits[low >>> 6] |= 1L << low;
+      chunks[i] = bits;
+      return true;
+    }
+    at = -at - 1;
+    if (count == values.length) {
+      values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, count * 2)));
+      chunks[i] = values;
+    }
+    System.arraycopy(values, at, values, at + 1, count - at);
+    values[at] = low;
+    return true;
+  }
+
+  private void insertChunk(int i, char high) {
+    if (chunkCount == keys.length) {
+      int capacity = Math.max(4, chunkCount * 2);
+      keys = Arrays.copyOf(keys, capacity);
+      chunks = Arrays.copyOf(chunks, capacity);
+      counts = Arrays.copyOf(counts, capacity);
+    }
+    System.arraycopy(keys, i, keys, i + 1, chunkCount - i);
+    System.arraycopy(chunks, i, chunks, i + 1, chunkCount - i);
+    System.arraycopy(counts, i, counts, i + 1, chunkCount - i);
+    keys[i] = high;
+    chunks[i] = new char[4];
+    counts[i] = 0;
+    chunkCount++;
+  }
+
+  private void removeChunk(int i) {
+    System.arraycopy(keys, i + 1, keys, i, chunkCount - i - 1);
+    System.arraycopy(chunks, i + 1, chunks, i, chunkCount - i - 1);
+    System.arraycopy(counts, i + 1, counts, i, chunkCount - i - 1);
+    chunkCount--;
+    chunks[chunkCount] = null;
+  }
+
+  private static long[] toBitmap(char[] values, int count) {
+    long[] bits = new long[BITMAP_WORDS];
+    for (int j = 0; j < count; j++) {
+      bits[values[j] >>> 6] |= 1L << values[j];
+    }
+    return bits;
+  }
+
+  private static char[] toArray(long[] bits) {
+    char[] values = new char[ARRAY_MAX];
+    int n = 0;
+    for (int w = 0; w < bits.length; w++) {
+      for (long word = bits[w]; word != 0; word &= word - 1) {
+        values[n++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+      }
+    }
+    return values;
+  }
+}
@@ -7,19 +7,35 @@ package com.plateful.backend;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.plateful.backend.auth.RevocationService;
 import com.plateful.backend.controller.RestaurantController;
 import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.search.SuggestionTrie;
+import com.plateful.backend.service.PersonalizationService;
+import com.plateful.backend.service.RankedSearchService;
+import com.plateful.backend.service.RankedSearchService.RankedRestaurant;
+import com.plateful.backend.service.RestaurantFilter;
 import com.plateful.backend.service.RestaurantSearchService;
 import com.plateful.backend.service.RestaurantService;
+import com.plateful.backend.service.SimilarityService;
+import com.plateful.backend.service.SimilarityService.SimilarRestaurant;
+import com.plateful.backend.service.SuggestionService;
+import com.plateful.backend.service.TrendingService;
+import com.plateful.backend.service.TrendingService.TrendingRestaurant;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -39,6 +55,21 @@ class RestaurantControllerTest {
 
   @MockBean private RestaurantSearchService searchService;
 
+  @MockBean private SuggestionService suggestionService;
+
+  @MockBean private RankedSearchService rankedSearchService;
+
+  @MockBean private SimilarityService similarityService;
+
+  @MockBean private PersonalizationService personalizationService;
+
+  @MockBean private TrendingService trendingService;
+
+  @MockBean private RevocationService revocationService;
+
+  @Value("${jwt.secret}")
+  private String jwtSecret;
+
   // Helper method for quickly creating Restaurant objects
   /**
    * Helper method to create a Restaurant instance for testing.
@@ -58,6 +89,16 @@ class RestaurantControllerTest {
     return x;
   }
 
+  /**
+   * Helper method to create the filter criteria the controller is expected to pass on, for the
+   * parameters these tests vary. All other criteria are unset.
+   */
+  private static RestaurantFilter filterOf(
+      String query, boolean fuzzy, Boolean openNow, Integer minVotes, String sort) {
+    return new RestaurantFilter(
+        query, fuzzy, null, null, null, null, openNow, null, null, null, minVotes, sort);
+  }
+
   /**
    * Tests the GET /api/restaurants endpoint. Verifies that the endpoint returns a list of
    * restaurants in JSON format and that the response contains the expected restaurant data.
@@ -123,10 +164,7 @@ class RestaurantControllerTest {
   @Test
   void filter_withCuisineAndPriceAndReservation_passesParamsToService() throws Exception {
 
-    when(searchService.filter(any(), any(), any(), any(), any(), any()))
-        .thenReturn(List.of(r("x", "X", "d", "Italian")));
-    when(searchService.filterByTextQuery(any(), any()))
-        .thenReturn(List.of(r("x", "X", "d", "Italian")));
+    when(searchService.filter(any())).thenReturn(List.of(r("x", "X", "d", "Italian")));
 
     mockMvc
         .perform(
@@ -139,30 +177,22 @@ class RestaurantControllerTest {
         .andExpect(content().contentTypeCompatibleWith("application/json"))
         .andExpect(jsonPath("$[0].cuisine").value("Italian"));
 
-    ArgumentCaptor<String> cuisine = ArgumentCaptor.forClass(String.class);
-    ArgumentCaptor<Integer> priceMin = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<Integer> priceMax = ArgumentCaptor.forClass(Integer.class);
-    ArgumentCaptor<Boolean> reservation = ArgumentCaptor.forClass(Boolean.class);
-    ArgumentCaptor<Boolean> openNow = ArgumentCaptor.forClass(Boolean.class);
-    @SuppressWarnings("unchecked")
-    ArgumentCaptor<java.util.List<String>> cities =
-        ArgumentCaptor.forClass((Class) java.util.List.class);
-
-    verify(searchService)
-        .filter(
-            cuisine.capture(),
-            priceMin.capture(),
-            priceMax.capture(),
-            reservation.capture(),
-            openNow.capture(),
-            cities.capture());
-
-    org.junit.jupiter.api.Assertions.assertEquals("Italian", cuisine.getValue());
-    org.junit.jupiter.api.Assertions.assertEquals(Integer.valueOf(2), priceMin.getValue());
-    org.junit.jupiter.api.Assertions.assertEquals(Integer.valueOf(4), priceMax.getValue());
-    org.junit.jupiter.api.Assertions.assertEquals(Boolean.TRUE, reservation.getValue());
-    org.junit.jupiter.api.Assertions.assertNull(openNow.getValue()); // not provided
-    org.junit.jupiter.api.Assertions.assertNull(cities.getValue()); // no ?city= -> null list
+    ArgumentCaptor<RestaurantFilter> captor = ArgumentCaptor.forClass(RestaurantFilter.class);
+    verify(searchService).filter(captor.capture());
+    RestaurantFilter filter = captor.getValue();
+
+    org.junit.jupiter.api.Assertions.assertEquals("Italian", filter.cuisine());
+    org.junit.jupiter.api.Assertions.assertEquals(Integer.valueOf(2), filter.priceMin());
+    org.junit.jupiter.api.Assertions.assertEquals(Integer.valueOf(4), filter.priceMax());
+    org.junit.jupiter.api.Assertions.assertEquals(Boolean.TRUE, filter.reservation());
+    org.junit.jupiter.api.Assertions.assertNull(filter.openNow()); // not provided
+    org.junit.jupiter.api.Assertions.assertNull(filter.openAt());
+    org.junit.jupiter.api.Assertions.assertNull(filter.cities()); // no ?city= -> null list
+    org.junit.jupiter.api.Assertions.assertNull(filter.tags());
+    org.junit.jupiter.api.Assertions.assertNull(filter.minVotes());
+    org.junit.jupiter.api.Assertions.assertNull(filter.sort());
+    org.junit.jupiter.api.Assertions.assertNull(filter.query());
+    org.junit.jupiter.api.Assertions.assertFalse(filter.fuzzy());
   }
 
   /**
@@ -172,34 +202,47 @@ class RestaurantControllerTest {
    */
   @Test
   void filter_withOpenNow_true_passesToService() throws Exception {
-    when(searchService.filter(any(), any(), any(), any(), any(), any()))
-        .thenReturn(List.of(r("o", "Open", "d", "Cafe")));
-    when(searchService.filterByTextQuery(any(), any()))
-        .thenReturn(List.of(r("o", "Open", "d", "Cafe")));
+    when(searchService.filter(any())).thenReturn(List.of(r("o", "Open", "d", "Cafe")));
 
     mockMvc
         .perform(get("/api/restaurants/filter").param("openNow", "true"))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$[0].name").value("Open"));
 
-    verify(searchService).filter(null, null, null, null, true, null);
+    verify(searchService).filter(filterOf(null, false, true, null, null));
+  }
+
+  /**
+   * Tests the GET /api/restaurants/filter endpoint with openAt parameter. Verifies that an ISO
+   * local date-time is parsed and passed to the service, and that a malformed value is rejected.
+   */
+  @Test
+  void filter_withOpenAt_parsesDateTime() throws Exception {
+    when(searchService.filter(any())).thenReturn(List.of(r("o", "Open", "d", "Cafe")));
+
+    mockMvc
+        .perform(get("/api/restaurants/filter").param("openAt", "2025-06-06T19:30"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].name").value("Open"));
+
+    ArgumentCaptor<RestaurantFilter> captor = ArgumentCaptor.forClass(RestaurantFilter.class);
+    verify(searchService).filter(captor.capture());
+    org.junit.jupiter.api.Assertions.assertEquals(
+        java.time.LocalDateTime.of(2025, 6, 6, 19, 30), captor.getValue().openAt());
+
+    mockMvc
+        .perform(get("/api/restaurants/filter").param("openAt", "friday evening"))
+        .andExpect(status().isBadRequest());
   }
 
   /**
-   * Tests the GET /api/restaurants/filter endpoint with query parameter. Verifies that the endpoint
-   * correctly filters restaurants by keyword matching against name, description, and cuisine
-   * fields.
+   * Tests the GET /api/restaurants/filter endpoint with query parameter. Verifies that the keyword
+   * is handed to the service together with the other criteria, so it can be matched in the same
+   * database query, and that no further filtering happens in the controller.
    */
   @Test
-  void filter_withQuery_appliesInMemoryKeywordFilter() throws Exception {
-    // Service returns a base list; controller should then apply keyword filtering on
-    // name/desc/cuisine
-    List<Restaurant> svc =
-        List.of(
-            r("1", "Sushi Place", "Fresh nigiri and rolls", "Japanese"),
-            r("2", "Burger Town", "Burgers & fries", "American"));
-    when(searchService.filter(null, null, null, null, null, null)).thenReturn(svc);
-    when(searchService.filterByTextQuery(svc, "sushi"))
+  void filter_withQuery_passesQueryToService() throws Exception {
+    when(searchService.filter(filterOf("sushi", false, null, null, null)))
         .thenReturn(List.of(r("1", "Sushi Place", "Fresh nigiri and rolls", "Japanese")));
 
     mockMvc
@@ -218,12 +261,169 @@ class RestaurantControllerTest {
   @Test
   void filter_withBlankQuery_returnsUnfilteredServiceList() throws Exception {
     List<Restaurant> svc = List.of(r("1", "A", "d", "X"), r("2", "B", "d", "Y"));
-    when(searchService.filter(null, null, null, null, null, null)).thenReturn(svc);
-    when(searchService.filterByTextQuery(svc, "   ")).thenReturn(svc);
+    when(searchService.filter(filterOf("   ", false, null, null, null))).thenReturn(svc);
 
     mockMvc
         .perform(get("/api/restaurants/filter").param("query", "   "))
         .andExpect(status().isOk())
         .andExpect(jsonPath("$", hasSize(2)));
   }
+
+  /**
+   * Tests the GET /api/restaurants/filter endpoint with minVotes and sort parameters. Verifies that
+   * both are passed through to the service so they can be pushed down to MongoDB.
+   */
+  @Test
+  void filter_withMinVotesAndSortByVotes_passesToService() throws Exception {
+    when(searchService.filter(any())).thenReturn(List.of(r("v", "Voted", "d", "Thai")));
+
+    mockMvc
+        .perform(get("/api/restaurants/filter").param("minVotes", "5").param("sort", "votes"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].name").value("Voted"));
+
+    verify(searchService).filter(filterOf(null, false, null, 5, "votes"));
+  }
+
+  /**
+   * Tests the GET /api/restaurants/filter endpoint with fuzzy=true. Verifies that the fuzzy flag
+   * reaches the service together with the query.
+   */
+  @Test
+  void filter_withFuzzyQuery_passesFuzzyFlagToService() throws Exception {
+    when(searchService.filter(any()))
+        .thenReturn(List.of(r("1", "Sushi Place", "Fresh nigiri and rolls", "Japanese")));
+
+    mockMvc
+        .perform(get("/api/restaurants/filter").param("query", "sushu").param("fuzzy", "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].name").value("Sushi Place"));
+
+    verify(searchService).filter(filterOf("sushu", true, null, null, null));
+  }
+
+  /**
+   * Tests the GET /api/restaurants/search endpoint with ranked=true. Verifies that results come
+   * from the ranked search service with their scores, and that the basic search is not used.
+   */
+  @Test
+  void search_ranked_returnsScoredResults() throws Exception {
+    when(rankedSearchService.search("sushi", 20))
+        .thenReturn(List.of(new RankedRestaurant(r("1", "Sushi Place", "d", "Japanese"), 4.2)));
+
+    mockMvc
+        .perform(get("/api/restaurants/search").param("query", "sushi").param("ranked", "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].restaurant.name").value("Sushi Place"))
+        .andExpect(jsonPath("$[0].score").value(4.2));
+
+    verify(restaurantService, never()).searchRestaurants(any());
+  }
+
+  /**
+   * Tests the GET /api/restaurants/suggest endpoint. Verifies that suggestions from the in-memory
+   * index are returned as JSON and that out-of-range limits are rejected.
+   */
+  @Test
+  void suggest_returnsSuggestionsAndValidatesLimit() throws Exception {
+    when(suggestionService.getTopK()).thenReturn(10);
+    when(suggestionService.suggest("sus", 5))
+        .thenReturn(List.of(new SuggestionTrie.Suggestion("Sushi Den", "restaurant", "r2", 9)));
+
+    mockMvc
+        .perform(get("/api/restaurants/suggest").param("prefix", "sus").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].text").value("Sushi Den"))
+        .andExpect(jsonPath("$[0].type").value("restaurant"))
+        .andExpect(jsonPath("$[0].restaurantId").value("r2"));
+
+    mockMvc
+        .perform(get("/api/restaurants/suggest").param("prefix", "sus").param("limit", "50"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * Tests the GET /api/restaurants/{id}/similar endpoint. Verifies that precomputed neighbours are
+   * returned with their scores and that out-of-range limits are rejected.
+   */
+  @Test
+  void similar_returnsNeighboursAndValidatesLimit() throws Exception {
+    when(similarityService.similar("1", 10))
+        .thenReturn(List.of(new SimilarRestaurant(r("2", "Sushi Den", "d", "Japanese"), 0.8)));
+
+    mockMvc
+        .perform(get("/api/restaurants/1/similar"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].restaurant.id").value("2"))
+        .andExpect(jsonPath("$[0].score").value(0.8));
+
+    mockMvc
+        .perform(get("/api/restaurants/1/similar").param("limit", "0"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * Tests the GET /api/restaurants/trending endpoint. Verifies that the window, city and limit are
+   * passed through, and that an invalid window or limit is rejected.
+   */
+  @Test
+  void trending_returnsRankingAndValidatesParameters() throws Exception {
+    when(trendingService.trending("15m", "Auckland", 5))
+        .thenReturn(
+            List.of(new TrendingRestaurant("2", "Sushi Den", "Japanese", "Auckland", 42)));
+    when(trendingService.trending("2d", null, 10))
+        .thenThrow(new IllegalArgumentException("window must be between 1m and 24h: 2d"));
+
+    mockMvc
+        .perform(
+            get("/api/restaurants/trending")
+                .param("window", "15m")
+                .param("city", "Auckland")
+                .param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].restaurantId").value("2"))
+        .andExpect(jsonPath("$[0].views").value(42));
+
+    mockMvc
+        .perform(get("/api/restaurants/trending").param("window", "2d"))
+        .andExpect(status().isBadRequest());
+
+    mockMvc
+        .perform(get("/api/restaurants/trending").param("limit", "51"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /**
+   * Tests the GET /api/restaurants/filter endpoint with personalize=true. Verifies that results
+   * are re-ranked for a signed-in user and returned unchanged for anonymous requests.
+   */
+  @Test
+  void filter_personalize_reranksOnlyForSignedInUsers() throws Exception {
+    Restaurant a = r("1", "Pasta Place", "d", "Italian");
+    Restaurant b = r("2", "Sushi Den", "d", "Japanese");
+    when(searchService.filter(filterOf(null, false, null, null, null))).thenReturn(List.of(a, b));
+    when(personalizationService.rerank("u1", List.of(a, b))).thenReturn(List.of(b, a));
+    String token =
+        Jwts.builder()
+            .subject("u1")
+            .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+
+    mockMvc
+        .perform(
+            get("/api/restaurants/filter")
+                .param("personalize", "true")
+                .header("Authorization", "Bearer " + token))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value("2"))
+        .andExpect(jsonPath("$[1].id").value("1"));
+
+    mockMvc
+        .perform(get("/api/restaurants/filter").param("personalize", "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value("1"));
+
+    verify(personalizationService).rerank("u1", List.of(a, b));
+  }
 }
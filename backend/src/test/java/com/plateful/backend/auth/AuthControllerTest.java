@@ -0,0 +1,212 @@
+package com.plateful.backend.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plateful.backend.config.SecurityConfig;
+import com.plateful.backend.model.AppUser;
+import com.plateful.backend.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AuthController.class)
+@Import({SecurityConfig.class, JwtService.class})
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private RevocationService revocationService;
+
+    @Value("${jwt.secret}")
+    private String jwtSecret;
+
+    @BeforeEach
+    void setUp() {
+        when(revocationService.claimToken(any(), any())).thenReturn(true);
+    }
+
+    private static AppUser user() {
+        AppUser user = new AppUser();
+        user.setId("user-1");
+        user.setEmail("alice@example.com");
+        user.setRoles(Set.of("USER"));
+        return user;
+    }
+
+    private ResultActions refresh(String token) throws Exception {
+        return mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", token))));
+    }
+
+    @Test
+    void refresh_ShouldMintTokensWithoutTouchingTheDatabase() throws Exception {
+        String token = jwtService.generateRefreshToken(user());
+
+        String body = refresh(token)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiresIn").value(jwtService.getAccessTtlSec()))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode json = objectMapper.readTree(body);
+        JwtService.RefreshToken rotated = jwtService.parseRefreshToken(json.get("refreshToken").asText());
+        assertEquals("user-1", rotated.subject());
+        assertNotEquals(jwtService.parseRefreshToken(token).tokenId(), rotated.tokenId());
+        Claims access = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(json.get("accessToken").asText())
+                .getPayload();
+        assertEquals("user-1", access.getSubject());
+        assertEquals(List.of("USER"), access.get("roles"));
+        assertNull(access.get("type"));
+        verifyNoInteractions(userRepository, passwordEncoder);
+        verify(revocationService).claimToken(eq(jwtService.parseRefreshToken(token).tokenId()), any());
+    }
+
+    @Test
+    void refresh_ShouldRejectTokensOfARevokedUserFromTheDatabase() throws Exception {
+        String token = jwtService.generateRefreshToken(user());
+        when(revocationService.isSubjectRevokedInDatabase(eq("user-1"), any())).thenReturn(true);
+
+        refresh(token).andExpect(status().isUnauthorized());
+
+        verify(revocationService, never()).claimToken(any(), any());
+        verify(revocationService, never()).isRevoked(any(), any(), any());
+    }
+
+    @Test
+    void refresh_SameTokenTwice_ShouldRejectTheReuseAndRevokeTheUser() throws Exception {
+        String token = jwtService.generateRefreshToken(user());
+        String tokenId = jwtService.parseRefreshToken(token).tokenId();
+        when(revocationService.claimToken(eq(tokenId), any())).thenReturn(true).thenReturn(false);
+
+        refresh(token).andExpect(status().isOk());
+        verify(revocationService, never()).revokeSubject(any());
+
+        refresh(token)
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.accessToken").doesNotExist());
+        verify(revocationService, times(2)).claimToken(eq(tokenId), any());
+        verify(revocationService).revokeSubject("user-1");
+    }
+
+    @Test
+    void logout_ShouldRevokeTheAccessAndRefreshTokens() throws Exception {
+        String access = jwtService.generateAccessToken(user());
+        String refreshToken = jwtService.generateRefreshToken(user());
+
+        mockMvc.perform(post("/auth/logout")
+                        .header("Authorization", "Bearer " + access)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))))
+                .andExpect(status().isNoContent());
+
+        verify(revocationService).revokeToken(eq(jwtService.parseClaims(access).getId()), any());
+        verify(revocationService).revokeToken(eq(jwtService.parseRefreshToken(refreshToken).tokenId()), any());
+        verify(revocationService, never()).revokeSubject(any());
+    }
+
+    @Test
+    void logout_All_ShouldRevokeEveryTokenOfTheUser() throws Exception {
+        mockMvc.perform(post("/auth/logout").param("all", "true")
+                        .header("Authorization", "Bearer " + jwtService.generateAccessToken(user())))
+                .andExpect(status().isNoContent());
+
+        verify(revocationService).revokeSubject("user-1");
+    }
+
+    @Test
+    void revokedAccessTokens_ShouldNotAuthenticateApiRequests() throws Exception {
+        when(revocationService.isRevoked(any(), eq("user-1"), any())).thenReturn(true);
+
+        mockMvc.perform(get("/api/anything")
+                        .header("Authorization", "Bearer " + jwtService.generateAccessToken(user())))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refresh_LegacyTokenWithoutJti_ShouldBeRejectedEveryTime() throws Exception {
+        // issued before refresh tokens had a jti, so it could never be claimed or revoked
+        String legacy = Jwts.builder()
+                .subject("alice@example.com")
+                .claim("type", "refresh")
+                .expiration(Date.from(Instant.now().plusSeconds(3600)))
+                .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(user()));
+
+        refresh(legacy)
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.accessToken").doesNotExist());
+        refresh(legacy).andExpect(status().isUnauthorized());
+
+        verify(revocationService, never()).claimToken(any(), any());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void refresh_ShouldRecheckTheAccountPeriodically() throws Exception {
+        AppUser disabled = user();
+        disabled.setEnabled(false);
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(disabled));
+        String stale = jwtService.generateRefreshToken(
+                "user-1", "alice@example.com", List.of("USER"), Instant.now().minusSeconds(2 * 86400));
+
+        refresh(stale).andExpect(status().isUnauthorized());
+
+        verify(userRepository).findById("user-1");
+    }
+
+    @Test
+    void refresh_ShouldRejectAccessTokensAndGarbage() throws Exception {
+        refresh(jwtService.generateAccessToken(user())).andExpect(status().isUnauthorized());
+        refresh("not-a-token").andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refreshTokens_ShouldNotAuthenticateApiRequests() throws Exception {
+        mockMvc.perform(get("/api/anything")
+                .header("Authorization", "Bearer " + jwtService.generateRefreshToken(user())))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,50 @@
+package com.plateful.backend.auth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_ShouldNeverMissAddedKeys() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("jti:" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("jti:" + i));
+        }
+    }
+
+    @Test
+    void mightContain_ShouldStayNearTheTargetFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("jti:" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other:" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void emptyFilter_ShouldContainNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.001);
+
+        assertFalse(filter.mightContain("jti:anything"));
+        assertTrue(filter.hashes() > 1);
+    }
+
+    @Test
+    void constructor_ShouldRejectInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+}
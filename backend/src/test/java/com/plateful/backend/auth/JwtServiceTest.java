@@ -0,0 +1,66 @@
+package com.plateful.backend.auth;
+
+import com.plateful.backend.model.AppUser;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "d9f84b8a5e8748b1f84ce1f82ddf48a5d9f84b8a5e8748b1f84ce1f82ddf48a5";
+
+    private final JwtService jwtService = new JwtService(SECRET, 900, 2592000);
+
+    private static AppUser user() {
+        AppUser user = new AppUser();
+        user.setId("user-1");
+        user.setEmail("alice@example.com");
+        user.setRoles(Set.of("ADMIN"));
+        return user;
+    }
+
+    @Test
+    void parseRefreshToken_ShouldReturnIdentityAndRoles() {
+        String token = jwtService.generateRefreshToken(user());
+
+        JwtService.RefreshToken parsed = jwtService.parseRefreshToken(token);
+
+        assertEquals("user-1", parsed.subject());
+        assertEquals("alice@example.com", parsed.email());
+        assertEquals(List.of("ADMIN"), parsed.roles());
+        assertNotNull(parsed.tokenId());
+        assertNotNull(parsed.authTime());
+        assertTrue(parsed.isSelfContained());
+        assertTrue(parsed.expiresAt().isAfter(Instant.now().plusSeconds(2591000)));
+    }
+
+    @Test
+    void generateRefreshToken_ShouldGiveEachTokenItsOwnId() {
+        String first = jwtService.generateRefreshToken(user());
+        String second = jwtService.generateRefreshToken(user());
+
+        assertNotEquals(
+            jwtService.parseRefreshToken(first).tokenId(),
+            jwtService.parseRefreshToken(second).tokenId());
+    }
+
+    @Test
+    void parseRefreshToken_ShouldRejectAccessTokens() {
+        String access = jwtService.generateAccessToken(user());
+
+        assertThrows(JwtException.class, () -> jwtService.parseRefreshToken(access));
+    }
+
+    @Test
+    void parseRefreshToken_ShouldRejectTokensSignedWithAnotherKey() {
+        JwtService other = new JwtService(SECRET.replace('d', 'e'), 900, 2592000);
+        String token = other.generateRefreshToken(user());
+
+        assertThrows(JwtException.class, () -> jwtService.parseRefreshToken(token));
+    }
+}
@@ -0,0 +1,141 @@
+package com.plateful.backend.auth;
+
+import com.plateful.backend.model.TokenRevocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RevocationServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private RevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RevocationService(mongoTemplate, 1000, 0.001, 100, 2592000);
+    }
+
+    @Test
+    void isRevoked_ShouldNotQueryTheDatabaseForUnrevokedTokens() {
+        assertFalse(service.isRevoked("jti-1", "user-1", Instant.now()));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void revokeToken_ShouldPersistAndRevokeImmediately() {
+        Instant expiresAt = Instant.now().plusSeconds(900);
+
+        service.revokeToken("jti-1", expiresAt);
+
+        verify(mongoTemplate).save(any(TokenRevocation.class));
+        assertTrue(service.isRevoked("jti-1", "user-1", Instant.now()));
+        assertFalse(service.isRevoked("jti-2", "user-1", Instant.now()));
+    }
+
+    @Test
+    void claimToken_ShouldSucceedOnlyOnce() {
+        Instant expiresAt = Instant.now().plusSeconds(900);
+        when(mongoTemplate.insert(any(TokenRevocation.class)))
+            .thenAnswer(inv -> inv.getArgument(0))
+            .thenThrow(new DuplicateKeyException("E11000 duplicate key error"));
+
+        assertTrue(service.claimToken("jti-1", expiresAt));
+        assertFalse(service.claimToken("jti-1", expiresAt));
+        assertFalse(service.claimToken(null, expiresAt));
+
+        assertTrue(service.isRevoked("jti-1", "user-1", Instant.now()));
+        verify(mongoTemplate, never()).save(any(TokenRevocation.class));
+    }
+
+    @Test
+    void isSubjectRevokedInDatabase_ShouldReadTheDatabaseNotTheFilter() {
+        Instant cutOff = Instant.now().minusSeconds(60);
+        // revoked by another instance: not in this instance's filter yet
+        when(mongoTemplate.findById(TokenRevocation.subjectKey("user-1"), TokenRevocation.class))
+            .thenReturn(new TokenRevocation(
+                TokenRevocation.subjectKey("user-1"), cutOff, Instant.now().plusSeconds(3600)));
+
+        assertFalse(service.isRevoked(null, "user-1", cutOff));
+        assertTrue(service.isSubjectRevokedInDatabase("user-1", cutOff));
+        assertFalse(service.isSubjectRevokedInDatabase("user-1", cutOff.plusSeconds(1)));
+        assertFalse(service.isSubjectRevokedInDatabase("user-2", cutOff));
+    }
+
+    @Test
+    void isSubjectRevokedInDatabase_ShouldTreatAFailedReadAsRevoked() {
+        when(mongoTemplate.findById(anyString(), eq(TokenRevocation.class)))
+            .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertTrue(service.isSubjectRevokedInDatabase("user-1", Instant.now()));
+    }
+
+    @Test
+    void isRevoked_ShouldOnlyRevokeSubjectTokensIssuedBeforeTheCutOff() {
+        Instant cutOff = Instant.now().minusSeconds(60);
+        service.revokeSubject("user-1");
+        when(mongoTemplate.findById(TokenRevocation.subjectKey("user-1"), TokenRevocation.class))
+            .thenReturn(new TokenRevocation(
+                TokenRevocation.subjectKey("user-1"), cutOff, Instant.now().plusSeconds(3600)));
+
+        assertTrue(service.isRevoked("jti-1", "user-1", cutOff.minusSeconds(1)));
+        assertTrue(service.isRevoked("jti-2", "user-1", cutOff));
+        assertFalse(service.isRevoked("jti-3", "user-1", cutOff.plusSeconds(1)));
+        assertFalse(service.isRevoked("jti-4", "user-2", cutOff.minusSeconds(1)));
+        // the confirmed revocation is cached
+        verify(mongoTemplate, times(1)).findById(anyString(), eq(TokenRevocation.class));
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(TokenRevocation.class));
+    }
+
+    @Test
+    void isRevoked_ShouldTreatFailedLookupsAsRevoked() {
+        service.revokeSubject("user-1");
+        when(mongoTemplate.findById(anyString(), eq(TokenRevocation.class)))
+            .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertTrue(service.isRevoked("jti-1", "user-1", Instant.now()));
+    }
+
+    @Test
+    void rebuild_ShouldLoadRevocationsMadeElsewhere() {
+        when(mongoTemplate.stream(any(Query.class), eq(TokenRevocation.class))).thenReturn(Stream.of(
+            new TokenRevocation(TokenRevocation.tokenKey("jti-9"), null, Instant.now().plusSeconds(900))));
+        when(mongoTemplate.findById(TokenRevocation.tokenKey("jti-9"), TokenRevocation.class))
+            .thenReturn(new TokenRevocation(
+                TokenRevocation.tokenKey("jti-9"), null, Instant.now().plusSeconds(900)));
+
+        service.rebuild();
+
+        assertTrue(service.isRevoked("jti-9", "user-1", Instant.now()));
+    }
+
+    @Test
+    void rebuild_ShouldKeepTheFilterWhenTheDatabaseFails() {
+        service.revokeToken("jti-1", Instant.now().plusSeconds(900));
+        when(mongoTemplate.stream(any(Query.class), eq(TokenRevocation.class)))
+            .thenThrow(new DataAccessResourceFailureException("down"));
+
+        service.rebuild();
+
+        assertTrue(service.isRevoked("jti-1", "user-1", Instant.now()));
+    }
+}
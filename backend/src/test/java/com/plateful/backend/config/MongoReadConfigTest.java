@@ -0,0 +1,33 @@
+package com.plateful.backend.config;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.TaggableReadPreference;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoReadConfigTest {
+
+    @Test
+    void catalogReadPreference_ShouldBoundStalenessOfSecondaryReads() {
+        ReadPreference pref = MongoReadConfig.catalogReadPreference("secondaryPreferred", 120);
+
+        assertEquals("secondaryPreferred", pref.getName());
+        assertEquals(120L, ((TaggableReadPreference) pref).getMaxStaleness(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void catalogReadPreference_ShouldAllowRoutingEverythingToThePrimary() {
+        assertEquals(ReadPreference.primary(), MongoReadConfig.catalogReadPreference("primary", 0));
+    }
+
+    @Test
+    void catalogReadPreference_ShouldRejectBoundsTheServerRefuses() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MongoReadConfig.catalogReadPreference("nearest", 30));
+        assertThrows(IllegalArgumentException.class,
+                () -> MongoReadConfig.catalogReadPreference("secondaryish", 90));
+    }
+}
@@ -1,9 +1,13 @@
 package com.plateful.backend.controller;
 
+import com.plateful.backend.auth.RevocationService;
 import com.plateful.backend.model.AppUser;
+import com.plateful.backend.service.HistoryIngestService;
+import com.plateful.backend.service.HistoryIngestService.HistoryEvent;
 import com.plateful.backend.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -17,6 +21,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -35,6 +40,12 @@ class UserControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private HistoryIngestService historyIngestService;
+
+    @MockitoBean
+    private RevocationService revocationService;
+
     private final String userId = "test-user-123";
     private final String restaurantId = "restaurant-1";
 
@@ -142,12 +153,9 @@ class UserControllerTest {
     }
 
     @Test
-    void addToHistory_ShouldReturnSuccessMessage() throws Exception {
+    void addToHistory_ShouldQueueViewAndReturnAccepted() throws Exception {
         // Arrange
-        AppUser mockUser = new AppUser();
-        mockUser.setId(userId);
-        when(userService.addToHistory(eq(userId), eq(restaurantId), eq("Test Restaurant"), anyString()))
-            .thenReturn(mockUser);
+        when(historyIngestService.enqueue(any(HistoryEvent.class))).thenReturn(true);
 
         Map<String, String> requestBody = new HashMap<>();
         requestBody.put("userId", userId);
@@ -159,10 +167,81 @@ class UserControllerTest {
         mockMvc.perform(post("/api/user/history")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(requestBody)))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").value("Added to history"));
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.message").value("Added to history"))
+                .andExpect(jsonPath("$.accepted").value(1));
+
+        ArgumentCaptor<HistoryEvent> event = ArgumentCaptor.forClass(HistoryEvent.class);
+        verify(historyIngestService, times(1)).enqueue(event.capture());
+        assertEquals(userId, event.getValue().userId());
+        assertEquals(restaurantId, event.getValue().restaurantId());
+        assertEquals("Test Restaurant", event.getValue().restaurantName());
+        assertEquals("Details viewed", event.getValue().viewType());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void addToHistory_ShouldAcceptBufferedEventsWithTheirOwnTimes() throws Exception {
+        // Arrange
+        when(historyIngestService.enqueue(any(HistoryEvent.class))).thenReturn(true, false);
+
+        Map<String, Object> requestBody = Map.of(
+            "userId", userId,
+            "events", List.of(
+                Map.of("restaurantId", "restaurant-1", "restaurantName", "Restaurant 1",
+                    "viewedAt", "2025-01-31T18:30:00"),
+                Map.of("restaurantId", "restaurant-2", "restaurantName", "Restaurant 2")));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/user/history")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.dropped").value(1));
+
+        ArgumentCaptor<HistoryEvent> events = ArgumentCaptor.forClass(HistoryEvent.class);
+        verify(historyIngestService, times(2)).enqueue(events.capture());
+        assertEquals(LocalDateTime.of(2025, 1, 31, 18, 30), events.getAllValues().get(0).viewedAt());
+        assertEquals("Details viewed", events.getAllValues().get(1).viewType());
+    }
+
+    @Test
+    void addToHistory_ShouldReturnServiceUnavailableWhenQueueIsFull() throws Exception {
+        // Arrange
+        when(historyIngestService.enqueue(any(HistoryEvent.class))).thenReturn(false);
+
+        Map<String, String> requestBody = Map.of(
+            "userId", userId, "restaurantId", restaurantId, "restaurantName", "Test Restaurant");
+
+        // Act & Assert
+        mockMvc.perform(post("/api/user/history")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void addToHistory_ShouldRejectInvalidEvents() throws Exception {
+        Map<String, Object> missingName = Map.of(
+            "userId", userId, "events", List.of(Map.of("restaurantId", restaurantId)));
+        Map<String, Object> badTime = Map.of(
+            "userId", userId, "events", List.of(Map.of(
+                "restaurantId", restaurantId, "restaurantName", "Test Restaurant",
+                "viewedAt", "yesterday")));
+
+        mockMvc.perform(post("/api/user/history")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(missingName)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("restaurantName is required"));
+        mockMvc.perform(post("/api/user/history")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(badTime)))
+                .andExpect(status().isBadRequest());
 
-        verify(userService, times(1)).addToHistory(userId, restaurantId, "Test Restaurant", "Details viewed");
+        verifyNoInteractions(historyIngestService);
     }
 
     @Test
@@ -0,0 +1,78 @@
+package com.plateful.backend.importer;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportRecordReaderTest {
+
+    private static ImportRecordReader reader(ImportRecordReader.Format format, String feed) {
+        return new ImportRecordReader(format, new StringReader(feed), new ObjectMapper());
+    }
+
+    @Test
+    void ndjson_ShouldReadRecordsSkipBlankLinesAndReportBadJson() {
+        ImportRecordReader reader = reader(ImportRecordReader.Format.NDJSON,
+                "{\"name\":\"Cafe\",\"priceLevel\":2,\"hours\":{\"monday\":\"08:00-12:00\"},\"extra\":1}\n"
+                        + "\n"
+                        + "{not json\n");
+
+        ImportRecordReader.Entry first = reader.next();
+        assertEquals(1, first.line());
+        assertEquals("Cafe", first.record().name());
+        assertEquals(2, first.record().priceLevel());
+        assertEquals(Map.of("monday", "08:00-12:00"), first.record().hours());
+
+        ImportRecordReader.Entry second = reader.next();
+        assertEquals(3, second.line());
+        assertNull(second.record());
+        assertNotNull(second.error());
+
+        assertNull(reader.next());
+    }
+
+    @Test
+    void csv_ShouldMapColumnsListsAndDayHours() {
+        ImportRecordReader reader = reader(ImportRecordReader.Format.CSV,
+                "Name,City,tags,monday,lat,lng,reservation_required,unknown\n"
+                        + "\"Smith, Sons\",auckland,vegan|brunch,08:00-12:00,-36.8,174.7,yes,x\n");
+
+        ImportRecord record = reader.next().record();
+        assertEquals("Smith, Sons", record.name());
+        assertEquals("auckland", record.city());
+        assertEquals(List.of("vegan", "brunch"), record.tags());
+        assertEquals(Map.of("monday", "08:00-12:00"), record.hours());
+        assertEquals(-36.8, record.lat());
+        assertEquals(true, record.reservationRequired());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void csv_ShouldFollowQuotedNewlinesAndReportBadCells() {
+        ImportRecordReader reader = reader(ImportRecordReader.Format.CSV,
+                "name,description,price_level\n"
+                        + "Cafe,\"Two\nlines, \"\"quoted\"\"\",1\n"
+                        + "Diner,,cheap\n");
+
+        ImportRecordReader.Entry first = reader.next();
+        assertEquals(2, first.line());
+        assertEquals("Two\nlines, \"quoted\"", first.record().description());
+
+        ImportRecordReader.Entry second = reader.next();
+        assertEquals(4, second.line());
+        assertEquals("Invalid price_level: cheap", second.error());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void format_ShouldRejectUnknownNames() {
+        assertEquals(ImportRecordReader.Format.CSV, ImportRecordReader.Format.from(" csv "));
+        assertThrows(IllegalArgumentException.class, () -> ImportRecordReader.Format.from("xml"));
+    }
+}
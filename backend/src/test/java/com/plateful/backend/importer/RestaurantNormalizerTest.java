@@ -0,0 +1,87 @@
+package com.plateful.backend.importer;
+
+import org.junit.jupiter.api.Test;
+
+import com.plateful.backend.model.Restaurant;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantNormalizerTest {
+
+    private final RestaurantNormalizer normalizer = new RestaurantNormalizer();
+
+    private static ImportRecord record(String name, String city, String cuisine, Integer price,
+                                       Double lat, Double lng, List<String> tags,
+                                       Map<String, String> hours) {
+        return new ImportRecord(null, name, null, cuisine, price, null, city, null, null,
+                null, null, lat, lng, tags, null, hours, null);
+    }
+
+    @Test
+    void normalize_ShouldCleanTextAndTitleCaseUniformCityAndCuisine() {
+        Restaurant r = normalizer.normalize(record("  Sushi   Bar ", "AUCKLAND", "japanese",
+                2, null, null, null, null));
+
+        assertEquals("Sushi Bar", r.getName());
+        assertEquals("Auckland", r.getAddress().getCity());
+        assertEquals("Japanese", r.getCuisine());
+        assertNull(r.getLocation());
+    }
+
+    @Test
+    void normalize_ShouldKeepMixedCaseValues() {
+        Restaurant r = normalizer.normalize(record("Smoke", "New Plymouth", "BBQ Fusion",
+                null, null, null, null, null));
+
+        assertEquals("New Plymouth", r.getAddress().getCity());
+        assertEquals("BBQ Fusion", r.getCuisine());
+    }
+
+    @Test
+    void normalize_ShouldDeriveOpenRangesAndSkipClosedDays() {
+        Restaurant r = normalizer.normalize(record("Cafe", null, null, null, null, null, null,
+                Map.of("Monday", "08:00 - 12:00", "tuesday", "closed")));
+
+        assertEquals(Map.of("monday", "08:00-12:00"), r.getHours());
+        assertEquals(1, r.getOpenRanges().size());
+        assertEquals(480, r.getOpenRanges().get(0).getOpen());
+    }
+
+    @Test
+    void normalize_ShouldStoreLocationAsLongitudeLatitude() {
+        Restaurant r = normalizer.normalize(record("Cafe", null, null, null,
+                -36.85, 174.76, null, null));
+
+        assertEquals(174.76, r.getLocation().getX());
+        assertEquals(-36.85, r.getLocation().getY());
+    }
+
+    @Test
+    void normalize_ShouldDeduplicateTagsIgnoringCase() {
+        Restaurant r = normalizer.normalize(record("Cafe", null, null, null, null, null,
+                List.of("Vegan", " vegan", "", "Brunch"), null));
+
+        assertEquals(List.of("Vegan", "Brunch"), r.getTags());
+    }
+
+    @Test
+    void normalize_ShouldRejectInvalidRecords() {
+        assertThrows(IllegalArgumentException.class, () -> normalizer.normalize(
+                record("  ", null, null, null, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> normalizer.normalize(
+                record("Cafe", null, null, 5, null, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> normalizer.normalize(
+                record("Cafe", null, null, null, 0.0, 0.0, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> normalizer.normalize(
+                record("Cafe", null, null, null, 95.0, 10.0, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> normalizer.normalize(
+                record("Cafe", null, null, null, -36.8, null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> normalizer.normalize(
+                record("Cafe", null, null, null, null, null, null, Map.of("funday", "09:00-10:00"))));
+        assertThrows(IllegalArgumentException.class, () -> normalizer.normalize(
+                record("Cafe", null, null, null, null, null, null, Map.of("monday", "9-5"))));
+    }
+}
@@ -0,0 +1,58 @@
+package com.plateful.backend.migration;
+
+import com.plateful.backend.model.Restaurant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexInitializerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private IndexOperations restaurantIndexes;
+
+    @Mock
+    private IndexOperations otherIndexes;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mongoTemplate.indexOps(any(Class.class))).thenReturn(otherIndexes);
+        when(mongoTemplate.indexOps(Restaurant.class)).thenReturn(restaurantIndexes);
+        when(restaurantIndexes.createIndex(any(IndexDefinition.class))).thenAnswer(inv -> {
+            if (inv.getArgument(0) instanceof TextIndexDefinition) {
+                throw new IllegalStateException("Index with name: restaurant_text already exists");
+            }
+            return "ok";
+        });
+    }
+
+    @Test
+    void run_TextIndexConflictWithTextBackend_ShouldFailStartup() {
+        MongoIndexInitializer initializer = new MongoIndexInitializer(mongoTemplate, "text");
+
+        IllegalStateException e =
+                assertThrows(IllegalStateException.class, () -> initializer.run(null));
+        assertTrue(e.getMessage().contains("app.search.backend=regex"));
+    }
+
+    @Test
+    void run_TextIndexConflictWithRegexBackend_ShouldCreateTheOtherIndexes() {
+        MongoIndexInitializer initializer = new MongoIndexInitializer(mongoTemplate, "regex");
+
+        assertDoesNotThrow(() -> initializer.run(null));
+        verify(otherIndexes, atLeastOnce()).createIndex(any(IndexDefinition.class));
+    }
+}
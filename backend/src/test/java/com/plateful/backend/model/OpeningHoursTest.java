@@ -0,0 +1,61 @@
+package com.plateful.backend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningHoursTest {
+
+    @Test
+    void toRanges_ShouldConvertDaySpansToMinuteOfWeek() {
+        List<Restaurant.OpenRange> ranges = OpeningHours.toRanges(Map.of(
+                "tuesday", "09:00-17:30",
+                "monday", "08:00-12:00"));
+
+        assertEquals(2, ranges.size());
+        assertEquals(480, ranges.get(0).getOpen());
+        assertEquals(720, ranges.get(0).getClose());
+        assertEquals(1440 + 540, ranges.get(1).getOpen());
+        assertEquals(1440 + 1050, ranges.get(1).getClose());
+    }
+
+    @Test
+    void toRanges_ShouldSplitOvernightSpansAndWrapSundayIntoMonday() {
+        List<Restaurant.OpenRange> ranges = OpeningHours.toRanges(Map.of("sunday", "22:00-02:00"));
+
+        assertEquals(2, ranges.size());
+        assertEquals(0, ranges.get(0).getOpen());
+        assertEquals(120, ranges.get(0).getClose());
+        assertEquals(6 * 1440 + 1320, ranges.get(1).getOpen());
+        assertEquals(7 * 1440 - 1, ranges.get(1).getClose());
+    }
+
+    @Test
+    void toRanges_ShouldSkipBlankAndMalformedEntries() {
+        assertTrue(OpeningHours.toRanges(Map.of("monday", "closed", "tuesday", " ", "friday", "9-5")).isEmpty());
+        assertTrue(OpeningHours.toRanges(null).isEmpty());
+    }
+
+    @Test
+    void setHours_ShouldKeepOpenRangesInStep() {
+        Restaurant r = new Restaurant();
+        r.setHours(Map.of("wednesday", "10:00-11:00"));
+
+        assertEquals(1, r.getOpenRanges().size());
+        assertEquals(2 * 1440 + 600, r.getOpenRanges().get(0).getOpen());
+    }
+
+    @Test
+    void minuteOfWeek_ShouldCountFromMondayMidnight() {
+        ZoneId nz = ZoneId.of("Pacific/Auckland");
+
+        assertEquals(0, OpeningHours.minuteOfWeek(ZonedDateTime.of(2025, 6, 2, 0, 0, 0, 0, nz)));
+        assertEquals(4 * 1440 + 19 * 60 + 30,
+                OpeningHours.minuteOfWeek(ZonedDateTime.of(2025, 6, 6, 19, 30, 45, 0, nz)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.plateful.backend.model;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestaurantInternerTest {
+
+    private final RestaurantInterner interner = new RestaurantInterner(100);
+
+    /** A restaurant with every string a fresh copy, as read from a document. */
+    private Restaurant loaded(String cuisine, String city) {
+        Restaurant r = new Restaurant();
+        r.setCuisine(new String(cuisine));
+        Restaurant.Address address = new Restaurant.Address();
+        address.setCity(new String(city));
+        address.setCountry(new String("New Zealand"));
+        r.setAddress(address);
+        r.setTags(new ArrayList<>(List.of(new String("Vegan"), new String("Takeaway"))));
+        Map<String, String> hours = new LinkedHashMap<>();
+        hours.put(new String("monday"), new String("09:00-17:00"));
+        r.setHours(hours);
+        return interner.onAfterConvert(r, new Document(), "restaurants");
+    }
+
+    @Test
+    void onAfterConvert_ShouldShareRepeatedStrings() {
+        Restaurant a = loaded("Thai", "Auckland");
+        Restaurant b = loaded("Thai", "Auckland");
+
+        assertSame(a.getCuisine(), b.getCuisine());
+        assertSame(a.getAddress().getCity(), b.getAddress().getCity());
+        assertSame(a.getAddress().getCountry(), b.getAddress().getCountry());
+        assertSame(a.getTags().get(0), b.getTags().get(0));
+        assertSame(a.getHours().get("monday"), b.getHours().get("monday"));
+        assertInstanceOf(WeeklyHours.class, a.getHours());
+        assertEquals(Map.of("monday", "09:00-17:00"), a.getHours());
+    }
+
+    @Test
+    void onAfterConvert_ShouldCompactHoursReadByTheConverter() {
+        MappingMongoConverter converter =
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        Restaurant read = converter.read(Restaurant.class, new Document("cuisine", "Thai")
+                .append("hours", new Document("monday", "09:00-17:00").append("friday", "09:00-17:00")));
+        assertFalse(read.getHours() instanceof WeeklyHours);
+
+        interner.onAfterConvert(read, new Document(), "restaurants");
+
+        assertInstanceOf(WeeklyHours.class, read.getHours());
+        assertSame(read.getHours().get("monday"), read.getHours().get("friday"));
+        assertSame(read.getCuisine(), loaded("Thai", "Auckland").getCuisine());
+    }
+
+    @Test
+    void onAfterConvert_ShouldKeepStoredOpeningRanges() {
+        Restaurant r = new Restaurant();
+        r.setHours(Map.of("monday", "09:00-17:00"));
+        List<Restaurant.OpenRange> ranges = r.getOpenRanges();
+
+        interner.onAfterConvert(r, new Document(), "restaurants");
+
+        assertSame(ranges, r.getOpenRanges());
+    }
+
+    @Test
+    void dictionary_ShouldStopGrowingAtItsBound() {
+        StringDictionary dictionary = new StringDictionary(2);
+        dictionary.canonical("a");
+        dictionary.canonical("b");
+        String c = new String("c");
+
+        assertSame(c, dictionary.canonical(c));
+        assertEquals(2, dictionary.size());
+        assertNull(dictionary.canonical(null));
+    }
+}
@@ -0,0 +1,81 @@
+package com.plateful.backend.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeeklyHoursTest {
+
+    private static Map<String, String> hours() {
+        Map<String, String> hours = new LinkedHashMap<>();
+        hours.put("sunday", "10:00-14:00");
+        hours.put("monday", "09:00-17:00");
+        hours.put("friday", "18:00-02:00");
+        return hours;
+    }
+
+    @Test
+    void compact_ShouldBeAnEqualMapInDayOrder() {
+        Map<String, String> compact = WeeklyHours.compact(hours());
+
+        assertInstanceOf(WeeklyHours.class, compact);
+        assertEquals(hours(), compact);
+        assertEquals(hours().hashCode(), compact.hashCode());
+        assertEquals(List.of("monday", "friday", "sunday"), List.copyOf(compact.keySet()));
+        assertEquals("09:00-17:00", compact.get("monday"));
+        assertNull(compact.get("tuesday"));
+        assertFalse(compact.containsKey("Monday"));
+    }
+
+    @Test
+    void compact_ShouldKeepMapsItCannotRepresent() {
+        Map<String, String> holiday = new HashMap<>(hours());
+        holiday.put("public_holiday", "closed");
+        Map<String, String> nullSpan = new HashMap<>(hours());
+        nullSpan.put("tuesday", null);
+
+        assertSame(holiday, WeeklyHours.compact(holiday));
+        assertSame(nullSpan, WeeklyHours.compact(nullSpan));
+        assertNull(WeeklyHours.compact(null));
+    }
+
+    @Test
+    void putAndRemove_ShouldOnlyAcceptDays() {
+        Map<String, String> compact = WeeklyHours.compact(hours());
+
+        assertNull(compact.put("tuesday", "09:00-17:00"));
+        assertEquals("09:00-17:00", compact.remove("monday"));
+        assertEquals(3, compact.size());
+        assertThrows(IllegalArgumentException.class, () -> compact.put("holiday", "closed"));
+        compact.entrySet().removeIf(e -> e.getKey().equals("sunday"));
+        assertEquals(Map.of("tuesday", "09:00-17:00", "friday", "18:00-02:00"), compact);
+    }
+
+    @Test
+    void serialization_ShouldMatchAPlainMap() throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        assertEquals(json.readTree(json.writeValueAsString(hours())),
+                json.readTree(json.writeValueAsString(WeeklyHours.compact(hours()))));
+
+        MappingMongoConverter converter =
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        Restaurant r = new Restaurant();
+        r.setHours(hours());
+        Document stored = new Document();
+        converter.write(r, stored);
+
+        assertEquals(new Document(hours()), stored.get("hours", Document.class));
+        assertEquals(hours(), converter.read(Restaurant.class, stored).getHours());
+    }
+}
@@ -0,0 +1,83 @@
+package com.plateful.backend.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemSimilarityTest {
+
+    private static final int[] NO_TAGS = {};
+
+    @Test
+    void compute_ShouldRankItemsFavoritedTogetherFirst() {
+        // 0 and 1 are always favorited together; 2 only once with 0
+        List<int[]> baskets = List.of(
+                new int[] {0, 1}, new int[] {1, 0}, new int[] {0, 1, 2}, new int[] {2, 3});
+
+        List<List<ItemSimilarity.Neighbor>> result = new ItemSimilarity(5, 1.0)
+                .compute(new int[] {-1, -1, -1, -1}, new int[][] {NO_TAGS, NO_TAGS, NO_TAGS, NO_TAGS}, baskets);
+
+        assertEquals(1, result.get(0).get(0).item());
+        assertEquals(2, result.get(0).get(1).item());
+        assertEquals(1.0, result.get(0).get(0).score(), 1e-9);
+        assertTrue(result.get(0).stream().noneMatch(n -> n.item() == 3));
+        assertTrue(result.get(0).stream().noneMatch(n -> n.item() == 0));
+    }
+
+    @Test
+    void compute_ShouldFallBackToCuisineAndTagsWithoutFavorites() {
+        int[] cuisines = {0, 0, 1};
+        int[][] tags = {{0, 1}, {1}, {0, 1}};
+
+        List<List<ItemSimilarity.Neighbor>> result =
+                new ItemSimilarity(5, 0.7).compute(cuisines, tags, List.of());
+
+        // same cuisine + half the tags beats different cuisine + identical tags
+        assertEquals(1, result.get(0).get(0).item());
+        assertEquals(0.3 * (0.5 + 0.25), result.get(0).get(0).score(), 1e-9);
+        assertEquals(2, result.get(0).get(1).item());
+        assertEquals(0.3 * 0.5, result.get(0).get(1).score(), 1e-9);
+    }
+
+    @Test
+    void compute_ShouldKeepOnlyTopK() {
+        int n = 50;
+        int[] cuisines = new int[n];
+        int[][] tags = new int[n][0];
+        List<int[]> baskets = new ArrayList<>();
+        for (int i = 1; i < n; i++) {
+            for (int repeat = 0; repeat < i; repeat++) {
+                baskets.add(new int[] {0, i});
+            }
+        }
+
+        List<ItemSimilarity.Neighbor> top = new ItemSimilarity(3, 0.5)
+                .compute(cuisines, tags, baskets).get(0);
+
+        assertEquals(3, top.size());
+        assertEquals(List.of(49, 48, 47), top.stream().map(ItemSimilarity.Neighbor::item).toList());
+    }
+
+    @Test
+    void countPairs_ShouldMergeCountsAcrossParallelChunks() {
+        List<int[]> baskets = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            baskets.add(new int[] {i % 7, 7 + i % 3});
+        }
+
+        LongIntHashMap counts = ItemSimilarity.countPairs(baskets);
+
+        assertEquals(21, counts.size());
+        int total = 0;
+        for (int a = 0; a < 7; a++) {
+            for (int b = 7; b < 10; b++) {
+                total += counts.get(ItemSimilarity.pairKey(a, b));
+            }
+        }
+        assertEquals(10_000, total);
+        assertEquals(counts.get(ItemSimilarity.pairKey(3, 8)), counts.get(ItemSimilarity.pairKey(8, 3)));
+    }
+}
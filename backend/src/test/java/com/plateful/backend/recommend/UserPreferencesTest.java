@@ -0,0 +1,67 @@
+package com.plateful.backend.recommend;
+
+import org.junit.jupiter.api.Test;
+
+import com.plateful.backend.recommend.UserPreferences.Attributes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPreferencesTest {
+
+    private static final Attributes SUSHI = new Attributes("Japanese", "Auckland", 2);
+    private static final Attributes RAMEN = new Attributes("japanese", "Wellington", 1);
+    private static final Attributes PASTA = new Attributes("Italian", "Auckland", 3);
+
+    @Test
+    void score_ShouldFavourRestaurantsLikeTheFavorites() {
+        UserPreferences prefs = new UserPreferences(100);
+        assertTrue(prefs.isEmpty());
+        assertEquals(0, prefs.score(SUSHI));
+
+        prefs.favoriteAdded("r1", SUSHI);
+
+        assertEquals(1.0, prefs.score(SUSHI), 1e-9);
+        // same cuisine (case-insensitive), other city and price
+        assertEquals(UserPreferences.CUISINE_SHARE, prefs.score(RAMEN), 1e-9);
+        // same city only
+        assertEquals(UserPreferences.CITY_SHARE, prefs.score(PASTA), 1e-9);
+    }
+
+    @Test
+    void favoritesShouldWeighMoreThanViews() {
+        UserPreferences prefs = new UserPreferences(100);
+        prefs.favoriteAdded("r1", SUSHI);
+        prefs.viewed("r3", PASTA);
+
+        assertTrue(prefs.score(RAMEN) > prefs.score(new Attributes("Italian", "Hamilton", 4)));
+        assertEquals(0.75 * UserPreferences.CUISINE_SHARE, prefs.score(RAMEN), 1e-9);
+    }
+
+    @Test
+    void updates_ShouldBeReversible() {
+        UserPreferences prefs = new UserPreferences(100);
+        prefs.favoriteAdded("r1", SUSHI);
+        prefs.favoriteAdded("r1", SUSHI);
+        prefs.viewed("r3", PASTA);
+        prefs.viewed("r3", PASTA);
+
+        prefs.favoriteRemoved("r1");
+        assertEquals(1.0, prefs.score(PASTA), 1e-9);
+
+        prefs.historyCleared();
+        assertTrue(prefs.isEmpty());
+        assertEquals(0, prefs.score(PASTA));
+    }
+
+    @Test
+    void viewed_ShouldOnlyCountTheMostRecentViews() {
+        UserPreferences prefs = new UserPreferences(2);
+        prefs.viewed("r1", SUSHI);
+        prefs.viewed("r2", PASTA);
+        prefs.viewed("r1", SUSHI); // r1 becomes the most recent
+        prefs.viewed("r3", PASTA); // pushes r2 out
+
+        assertEquals(0.5 * UserPreferences.CUISINE_SHARE + 1.0 * UserPreferences.CITY_SHARE
+                + 0.5 * UserPreferences.PRICE_SHARE, prefs.score(SUSHI), 1e-9);
+    }
+}
@@ -0,0 +1,52 @@
+package com.plateful.backend.search;
+
+import com.plateful.backend.search.Bm25Index.Hit;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Bm25IndexTest {
+
+    // Fields: name (boost 3), description (boost 1)
+    private final Bm25Index index = new Bm25Index.Builder(3.0, 1.0)
+            .add("r1", "Burger Town", "We also serve a small sushi platter")
+            .add("r2", "Sushi Den", "Nigiri and rolls")
+            .add("r3", "Pasta House", "Fresh pasta daily")
+            .add("r4", "Noodle Bar", "Ramen and noodles")
+            .add("r5", "Sushi Ramen Bar", "Japanese classics")
+            .build();
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        List<String> ids = index.search("sushi", 10).stream().map(Hit::docId).toList();
+
+        assertEquals("r1", ids.get(ids.size() - 1));
+        assertTrue(ids.containsAll(List.of("r2", "r5")));
+    }
+
+    @Test
+    void search_ShouldFavourDocumentsMatchingMoreQueryWords() {
+        List<Hit> hits = index.search("sushi ramen", 10);
+
+        assertEquals("r5", hits.get(0).docId());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void search_ShouldReturnOnlyTopKInDescendingOrder() {
+        List<Hit> hits = index.search("sushi ramen bar noodles pasta", 2);
+
+        assertEquals(2, hits.size());
+        assertTrue(hits.get(0).score() >= hits.get(1).score());
+        assertTrue(index.search("tacos", 5).isEmpty());
+        assertTrue(index.search("sushi", 0).isEmpty());
+    }
+
+    @Test
+    void builder_ShouldRejectWrongNumberOfFields() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Bm25Index.Builder(1.0, 1.0).add("x", "only one"));
+    }
+}
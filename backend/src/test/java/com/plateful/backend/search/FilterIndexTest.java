@@ -0,0 +1,79 @@
+package com.plateful.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterIndexTest {
+
+    // Monday 09:00-17:00 and Friday 18:00-23:00, in minutes of the week
+    private static final int[] WEEKDAY = {540, 1020, 4 * 1440 + 1080, 4 * 1440 + 1380};
+
+    private final FilterIndex index = new FilterIndex.Builder()
+            .add("r1", "Japanese", "Auckland", List.of("Sushi", "Vegan"), 3, true, WEEKDAY)
+            .add("r2", "Thai", "Wellington", List.of("Vegan"), 1, false, new int[] {0, 10079})
+            .add("r3", "Japanese Fusion", "auckland", List.of(), 2, null, null)
+            .add("r4", "Italian", null, null, null, false, WEEKDAY)
+            .build();
+
+    private List<String> match(String cuisine, Integer priceMin, Integer priceMax, Boolean reservation,
+                               List<String> cities, List<String> tags, Integer minute) {
+        return index.match(cuisine, priceMin, priceMax, reservation, cities, tags, minute);
+    }
+
+    @Test
+    void match_ShouldIntersectCriteriaAndUnionValuesWithinOne() {
+        assertEquals(List.of("r1", "r3"), match("japan", null, null, null, null, null, null));
+        assertEquals(List.of("r1", "r2", "r3"),
+                match(null, null, null, null, List.of(" AUCKLAND ", "wellington"), null, null));
+        assertEquals(List.of("r3"), match("JAPANESE", 1, 2, null, List.of("Auckland"), null, null));
+        assertEquals(List.of("r1"), match(null, null, null, null, null, List.of("vegan", "sushi"), null));
+        assertEquals(List.of("r1", "r2", "r3", "r4"), match(null, null, null, null, null, null, null));
+    }
+
+    @Test
+    void match_ShouldTreatMissingValuesLikeMongo() {
+        // null price and reservation never match a bound on them
+        assertEquals(List.of("r2", "r3"), match(null, 2, 1, null, null, null, null));
+        assertEquals(List.of("r2", "r4"), match(null, null, null, false, null, null, null));
+        assertTrue(match(null, null, null, null, List.of("Hamilton"), null, null).isEmpty());
+        assertTrue(match(null, null, null, null, null, List.of("vegan", "halal"), null).isEmpty());
+    }
+
+    @Test
+    void match_ShouldAcceptRegexCuisinePatterns() {
+        assertEquals(List.of("r2", "r4"), match("^(thai|italian)$", null, null, null, null, null, null));
+    }
+
+    @Test
+    void match_ShouldCheckOpeningHoursOfRemainingRows() {
+        assertEquals(List.of("r1", "r2", "r4"), match(null, null, null, null, null, null, 600));
+        assertEquals(List.of("r2"), match(null, null, null, null, null, null, 2000));
+        assertEquals(List.of("r4"), match("italian", null, null, null, null, null, 4 * 1440 + 1380));
+    }
+
+    @Test
+    void match_ShouldGiveTheSameResultsWhenEvaluatedInParallel() {
+        FilterIndex.Builder builder = new FilterIndex.Builder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < FilterIndex.PARALLEL_MIN_ROWS + 100; i++) {
+            boolean japanese = i % 7 == 0;
+            builder.add("r" + i, japanese ? "Japanese" : "Thai", i % 2 == 0 ? "Auckland" : "Wellington",
+                    null, i % 4 + 1, null, null);
+            if (japanese && i % 2 == 0 && i % 4 + 1 >= 3) {
+                expected.add("r" + i);
+            }
+        }
+
+        assertEquals(expected, builder.build().match("japanese", 3, 4, null, List.of("auckland"), null, null));
+    }
+
+    @Test
+    void empty_ShouldMatchNothing() {
+        assertEquals(0, FilterIndex.empty().size());
+        assertTrue(FilterIndex.empty().match(null, null, null, null, null, null, null).isEmpty());
+    }
+}
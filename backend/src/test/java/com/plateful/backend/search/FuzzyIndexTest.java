@@ -0,0 +1,54 @@
+package com.plateful.backend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzyIndexTest {
+
+    private final FuzzyIndex index = new FuzzyIndex.Builder()
+            .add("r1", "Tokyo Sushi Bar", "Japanese")
+            .add("r2", "Bangkok Street", "Thai")
+            .add("r3", "Sushi Den", "Japanese")
+            .add("r4", "Pizza Roma", "Italian")
+            .add("r5", "Sushi Dan", "Japanese")
+            .build();
+
+    @Test
+    void search_ShouldTolerateSubstitutionsAndTranspositions() {
+        assertEquals(List.of("r1", "r3", "r5"), index.search("sushu", 10));
+        assertEquals(List.of("r2"), index.search("thia", 10));
+        assertEquals(List.of("r4"), index.search("itallian", 10));
+    }
+
+    @Test
+    void search_ShouldRankExactMatchesFirstAndRequireEveryWord() {
+        assertEquals(List.of("r3", "r5"), index.search("sushi den", 10));
+        assertEquals(List.of("r1"), index.search("tokio sushi bar", 10));
+        assertTrue(index.search("sushi pizza", 10).isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnOnlyTheClosestMatchesUpToTheLimit() {
+        assertEquals(List.of("r3", "r5"), index.search("sushi den", 2));
+        assertEquals(List.of("r3"), index.search("sushi den", 1));
+        assertEquals(List.of("r1", "r3"), index.search("sushu", 2));
+        assertTrue(index.search("sushu", 0).isEmpty());
+    }
+
+    @Test
+    void search_ShouldNotAllowEditsOnVeryShortWordsOrBeyondTheBound() {
+        assertTrue(index.search("xx", 10).isEmpty());
+        assertTrue(index.search("burger", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    void boundedDistance_ShouldStopOnceTheBoundIsExceeded() {
+        assertEquals(1, FuzzyIndex.boundedDistance("thia", "thai", 1));
+        assertEquals(2, FuzzyIndex.boundedDistance("sushi", "pizza", 1));
+        assertEquals(0, FuzzyIndex.boundedDistance("roma", "roma", 2));
+    }
+}
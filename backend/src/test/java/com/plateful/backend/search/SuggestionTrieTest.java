@@ -0,0 +1,47 @@
+package com.plateful.backend.search;
+
+import com.plateful.backend.search.SuggestionTrie.Suggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest {
+
+    private final SuggestionTrie trie = new SuggestionTrie.Builder(3)
+            .add(new Suggestion("Tokyo Sushi Bar", "restaurant", "r1", 5), List.of("Tokyo Sushi Bar", "Sushi Bar", "Bar"))
+            .add(new Suggestion("Sushi Den", "restaurant", "r2", 9), List.of("Sushi Den", "Den"))
+            .add(new Suggestion("Café Sud", "restaurant", "r3", 1), List.of("Café Sud", "Sud"))
+            .add(new Suggestion("Japanese", "cuisine", null, 20), List.of("Japanese"))
+            .add(new Suggestion("Surf Shack", "restaurant", "r4", 2), List.of("Surf Shack", "Shack"))
+            .build();
+
+    @Test
+    void suggest_ShouldReturnMatchesMostPopularFirst() {
+        List<Suggestion> result = trie.suggest("su", 10);
+
+        assertEquals(List.of("Sushi Den", "Tokyo Sushi Bar", "Surf Shack"),
+                result.stream().map(Suggestion::text).toList());
+    }
+
+    @Test
+    void suggest_ShouldBeCaseAndAccentInsensitive() {
+        assertEquals("r3", trie.suggest("CAFE", 1).get(0).restaurantId());
+        assertEquals("Japanese", trie.suggest("jap", 1).get(0).text());
+    }
+
+    @Test
+    void suggest_ShouldHonourLimitAndMissingPrefixes() {
+        assertEquals(1, trie.suggest("s", 1).size());
+        assertTrue(trie.suggest("xyz", 5).isEmpty());
+        assertTrue(trie.suggest("   ", 5).isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldNotRepeatSuggestionReachableUnderSeveralKeys() {
+        List<Suggestion> result = trie.suggest("b", 10);
+
+        assertEquals(List.of("Tokyo Sushi Bar"), result.stream().map(Suggestion::text).toList());
+    }
+}
@@ -0,0 +1,123 @@
+package com.plateful.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FilterResultCacheTest {
+
+    private static final ZonedDateTime NOON = ZonedDateTime.of(2025, 6, 6, 12, 7, 42, 0,
+            ZoneId.of("Pacific/Auckland"));
+
+    @Test
+    void key_ShouldCanonicalizeEquivalentFilters() {
+        RestaurantFilter a = new RestaurantFilter(" Sushi", false, " Japanese ", 3, 1, true, null, null,
+                List.of("Wellington", " auckland", "AUCKLAND"), List.of("Vegan", " "), 10, "votes");
+        RestaurantFilter b = new RestaurantFilter("sushi", false, "japanese", 1, 3, true, null, null,
+                List.of("auckland", "wellington"), List.of("vegan"), null, null);
+
+        RestaurantFilter key = FilterResultCache.key(a, NOON, 5);
+
+        assertEquals(FilterResultCache.key(b, NOON, 5), key);
+        assertEquals("sushi", key.query());
+        assertEquals("japanese", key.cuisine());
+        assertEquals(1, key.priceMin());
+        assertEquals(3, key.priceMax());
+        assertEquals(List.of("auckland", "wellington"), key.cities());
+        assertEquals(List.of("vegan"), key.tags());
+        assertNull(key.minVotes());
+        assertNull(key.sort());
+    }
+
+    @Test
+    void key_ShouldDropBlankValuesAndKeepRegexEscapes() {
+        RestaurantFilter key = FilterResultCache.key(new RestaurantFilter(" ", true, "\\WThai", null, null, null,
+                false, null, Arrays.asList(" ", null), List.of(), null, null), NOON, 5);
+
+        assertNull(key.query());
+        assertFalse(key.fuzzy());
+        assertEquals("\\WThai", key.cuisine());
+        assertNull(key.openAt());
+        assertNull(key.cities());
+        assertNull(key.tags());
+    }
+
+    @Test
+    void key_ShouldResolveOpenNowToTheStartOfItsBucket() {
+        RestaurantFilter openNow = new RestaurantFilter(null, false, null, null, null, null, true, null,
+                null, null, null, null);
+
+        RestaurantFilter key = FilterResultCache.key(openNow, NOON, 5);
+
+        assertNull(key.openNow());
+        assertEquals(LocalDateTime.of(2025, 6, 6, 12, 5), key.openAt());
+        assertEquals(key, FilterResultCache.key(openNow, NOON.plusMinutes(2), 5));
+        assertNotEquals(key, FilterResultCache.key(openNow, NOON.plusMinutes(3), 5));
+    }
+
+    @Test
+    void put_ShouldIgnoreResultsLoadedBeforeACatalogChange() {
+        FilterResultCache cache = new FilterResultCache(true, 10, 100, 5, 120000);
+        RestaurantFilter key = FilterResultCache.key(filter("thai"), NOON, 5);
+
+        long version = cache.version();
+        cache.onCatalogChanged();
+        cache.put(key, version, new FilterResultCache.Cached(List.of("r1")), 1_000_000);
+
+        assertNull(cache.get(key));
+        cache.put(key, cache.version(), new FilterResultCache.Cached(List.of("r1")), 3_000_000);
+        assertEquals(List.of("r1"), cache.get(key).ids());
+
+        FilterResultCache.Stats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.hitRate());
+        assertEquals(2.0, stats.averageLoadMillis());
+    }
+
+    @Test
+    void put_ShouldEvictLeastRecentlyUsedBeyondTheSize() {
+        FilterResultCache cache = new FilterResultCache(true, 2, 100, 5, 120000);
+        RestaurantFilter thai = filter("thai");
+        RestaurantFilter sushi = filter("sushi");
+        RestaurantFilter pizza = filter("pizza");
+
+        cache.put(thai, 0, new FilterResultCache.Cached(List.of()), 0);
+        cache.put(sushi, 0, new FilterResultCache.Cached(List.of()), 0);
+        cache.get(thai);
+        cache.put(pizza, 0, new FilterResultCache.Cached(List.of()), 0);
+
+        assertNotNull(cache.get(thai));
+        assertNull(cache.get(sushi));
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.stats().size());
+    }
+
+    @Test
+    void get_ShouldTreatExpiredEntriesAsMisses() {
+        // e.g. loaded from a lagging secondary just after an import on another instance
+        FilterResultCache cache = new FilterResultCache(true, 10, 100, 5, 0);
+        RestaurantFilter key = filter("thai");
+
+        cache.put(key, cache.version(), new FilterResultCache.Cached(List.of("r1")), 0);
+
+        assertNull(cache.get(key));
+        assertEquals(0, cache.stats().size());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void constructor_ShouldRejectBucketsThatDoNotDivideAnHour() {
+        assertThrows(IllegalArgumentException.class, () -> new FilterResultCache(true, 10, 100, 7, 120000));
+    }
+
+    private static RestaurantFilter filter(String cuisine) {
+        return new RestaurantFilter(null, false, cuisine, null, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,154 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.AppUser;
+import com.plateful.backend.service.HistoryIngestService.HistoryEvent;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryIngestServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 1, 31, 18, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BulkOperations bulk;
+
+    @Mock
+    private UserCache userCache;
+
+    private HistoryIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HistoryIngestService(mongoTemplate, eventPublisher, userCache, 3, 100, 10, 5000);
+    }
+
+    private static HistoryEvent view(String userId, String restaurantId, LocalDateTime at) {
+        return new HistoryEvent(userId, restaurantId, "Restaurant " + restaurantId, "Details viewed", at);
+    }
+
+    private static List<String> pushedRestaurantIds(Update push) {
+        Update.Modifiers modifiers = (Update.Modifiers)
+            push.getUpdateObject().get("$push", Document.class).get("browseHistory");
+        for (Update.Modifier modifier : modifiers.getModifiers()) {
+            if (modifier.getKey().equals("$each")) {
+                return Arrays.stream((Object[]) modifier.getValue())
+                    .map(entry -> ((AppUser.HistoryEntry) entry).getRestaurantId())
+                    .toList();
+            }
+        }
+        return fail("no $each in " + push);
+    }
+
+    @Test
+    void write_ShouldCoalesceRepeatViewsAndUpdateEachUserOnce() {
+        // Arrange
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, AppUser.class)).thenReturn(bulk);
+
+        // Act
+        service.write(List.of(
+            view("u1", "r1", T0),
+            view("u1", "r2", T0.plusMinutes(1)),
+            view("u1", "r1", T0.plusMinutes(2)),
+            view("u2", "r1", T0)));
+
+        // Assert: a $pull and a $push per user, in one bulk write
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(4)).updateOne(any(Query.class), updates.capture());
+        verify(bulk, times(1)).execute();
+
+        assertTrue(updates.getAllValues().get(0).getUpdateObject().containsKey("$pull"));
+        List<String> pushed = pushedRestaurantIds(updates.getAllValues().get(1));
+        // newest first: the repeat view of r1 replaced the earlier one
+        assertEquals(List.of("r1", "r2"), pushed);
+
+        HistoryIngestService.Stats stats = service.stats();
+        assertEquals(1, stats.coalesced());
+        assertEquals(3, stats.written());
+        assertEquals(1, stats.batches());
+        verify(userCache).historyWritten(eq("u1"), argThat(entries -> entries.size() == 2));
+        verify(userCache).historyWritten(eq("u2"), argThat(entries -> entries.size() == 1));
+        // one event for the batch, views oldest first
+        verify(eventPublisher).publishEvent(new HistoryWrittenEvent(Map.of(
+            "u1", List.of("r2", "r1"),
+            "u2", List.of("r1"))));
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void enqueue_ShouldDropViewsWhenTheQueueIsFull() {
+        // the writer is not started, so nothing leaves the queue
+        assertTrue(service.enqueue(view("u1", "r1", T0)));
+        assertTrue(service.enqueue(view("u1", "r2", T0)));
+        assertTrue(service.enqueue(view("u1", "r3", T0)));
+        assertFalse(service.enqueue(view("u1", "r4", T0)));
+
+        HistoryIngestService.Stats stats = service.stats();
+        assertEquals(3, stats.queued());
+        assertEquals(3, stats.accepted());
+        assertEquals(1, stats.dropped());
+    }
+
+    @Test
+    void shutdown_ShouldDrainQueuedViewsAndStopAccepting() {
+        // Arrange
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, AppUser.class)).thenReturn(bulk);
+        service.enqueue(view("u1", "r1", T0));
+        service.enqueue(view("u2", "r1", T0));
+
+        // Act
+        service.start();
+        service.shutdown();
+
+        // Assert
+        HistoryIngestService.Stats stats = service.stats();
+        assertEquals(0, stats.queued());
+        assertEquals(2, stats.written());
+        assertFalse(service.enqueue(view("u1", "r2", T0)));
+        verify(bulk, atLeastOnce()).execute();
+    }
+
+    @Test
+    void writer_ShouldCountFailedWritesAndKeepRunning() {
+        // Arrange
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, AppUser.class)).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(new RuntimeException("primary stepped down"));
+        service.enqueue(view("u1", "r1", T0));
+
+        // Act
+        service.start();
+        service.shutdown();
+
+        // Assert
+        assertEquals(1, service.stats().failed());
+        assertEquals(0, service.stats().written());
+        verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,161 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private LeaderboardService leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        leaderboardService.update(restaurant("a", "Auckland", "Japanese", 5, 1));
+        leaderboardService.update(restaurant("b", "Auckland", "Italian", 40, 2));
+        leaderboardService.update(restaurant("c", "Wellington", "Japanese", 3, 0));
+    }
+
+    @Test
+    void top_ShouldRankOverallByNetVotes() {
+        List<LeaderboardService.Standing> top =
+                leaderboardService.top(null, null, 10, LeaderboardService.Ranking.VOTES);
+
+        assertEquals(List.of("b", "a", "c"), ids(top));
+        assertEquals(38, top.get(0).voteCount());
+    }
+
+    @Test
+    void top_ShouldRespectCityAndCuisinePartitions() {
+        assertEquals(List.of("b", "a"),
+                ids(leaderboardService.top("auckland", null, 10, LeaderboardService.Ranking.VOTES)));
+        assertEquals(List.of("a", "c"),
+                ids(leaderboardService.top(null, " JAPANESE ", 10, LeaderboardService.Ranking.VOTES)));
+        assertEquals(List.of("c"),
+                ids(leaderboardService.top("Wellington", "Japanese", 10, LeaderboardService.Ranking.VOTES)));
+        assertTrue(leaderboardService.top("Hamilton", null, 10, LeaderboardService.Ranking.VOTES).isEmpty());
+    }
+
+    @Test
+    void top_ShouldHonourLimit() {
+        assertEquals(List.of("b"),
+                ids(leaderboardService.top(null, null, 1, LeaderboardService.Ranking.VOTES)));
+    }
+
+    @Test
+    void update_ShouldMoveRestaurantWhenVotesChange() {
+        leaderboardService.update(restaurant("c", "Wellington", "Japanese", 100, 0));
+
+        assertEquals(List.of("c", "b", "a"),
+                ids(leaderboardService.top(null, null, 10, LeaderboardService.Ranking.VOTES)));
+        assertEquals(List.of("c", "a"),
+                ids(leaderboardService.top(null, "Japanese", 10, LeaderboardService.Ranking.VOTES)));
+    }
+
+    @Test
+    void top_DuringConcurrentUpdates_ShouldAlwaysSeeEveryRestaurant() throws Exception {
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                leaderboardService.update(restaurant("c", "Wellington", "Japanese", i % 100, 0));
+            }
+        });
+        writer.start();
+        try {
+            while (writer.isAlive()) {
+                assertEquals(3, leaderboardService.top(null, null, 10, LeaderboardService.Ranking.VOTES).size());
+            }
+        } finally {
+            writer.join();
+        }
+    }
+
+    @Test
+    void top_WithWilsonRanking_ShouldPreferConfidentRatios() {
+        leaderboardService.update(restaurant("d", "Auckland", "Thai", 4, 0));
+        leaderboardService.update(restaurant("e", "Auckland", "Thai", 60, 20));
+
+        List<LeaderboardService.Standing> top =
+                leaderboardService.top(null, "Thai", 10, LeaderboardService.Ranking.WILSON);
+
+        // 60/80 has a tighter interval than 4/4, so it ranks higher despite the lower ratio
+        assertEquals(List.of("e", "d"), ids(top));
+        assertTrue(top.get(0).wilsonScore() > 0 && top.get(0).wilsonScore() < 0.75);
+    }
+
+    @Test
+    void update_OutOfOrder_ShouldKeepTheNewerCounts() {
+        leaderboardService.update(restaurant("c", "Wellington", "Japanese", 100, 0, 5));
+        leaderboardService.update(restaurant("c", "Wellington", "Japanese", 4, 0, 4));
+
+        assertEquals(100, leaderboardService.top("Wellington", null, 1, LeaderboardService.Ranking.VOTES)
+                .get(0).upvoteCount());
+    }
+
+    @Test
+    void rebuild_ShouldReplayVotesReceivedWhileReading() {
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenAnswer(inv -> {
+            // votes landing after the query read a and b
+            leaderboardService.update(restaurant("a", "Auckland", "Japanese", 90, 1, 7));
+            leaderboardService.update(restaurant("b", "Auckland", "Italian", 1, 2, 1));
+            return List.of(restaurant("a", "Auckland", "Japanese", 6, 1, 6),
+                    restaurant("b", "Auckland", "Italian", 41, 2, 2));
+        });
+
+        leaderboardService.rebuild();
+
+        List<LeaderboardService.Standing> top =
+                leaderboardService.top(null, null, 10, LeaderboardService.Ranking.VOTES);
+        assertEquals(List.of("a", "b"), ids(top));
+        assertEquals(90, top.get(0).upvoteCount());
+        assertEquals(41, top.get(1).upvoteCount());
+    }
+
+    @Test
+    void rankingFrom_ShouldRejectUnknownValues() {
+        assertEquals(LeaderboardService.Ranking.VOTES, LeaderboardService.Ranking.from(null));
+        assertEquals(LeaderboardService.Ranking.WILSON, LeaderboardService.Ranking.from("wilson"));
+        assertThrows(IllegalArgumentException.class, () -> LeaderboardService.Ranking.from("likes"));
+    }
+
+    private static List<String> ids(List<LeaderboardService.Standing> standings) {
+        return standings.stream().map(LeaderboardService.Standing::restaurantId).toList();
+    }
+
+    private static Restaurant restaurant(String id, String city, String cuisine, int up, int down,
+                                         long sequence) {
+        Restaurant r = restaurant(id, city, cuisine, up, down);
+        r.setVoteSequence(sequence);
+        return r;
+    }
+
+    private static Restaurant restaurant(String id, String city, String cuisine, int up, int down) {
+        Restaurant r = new Restaurant();
+        r.setId(id);
+        r.setName("Restaurant " + id);
+        r.setCuisine(cuisine);
+        Restaurant.Address address = new Restaurant.Address();
+        address.setCity(city);
+        r.setAddress(address);
+        r.setUpvoteCount(up);
+        r.setDownvoteCount(down);
+        r.setVoteCount(up - down);
+        return r;
+    }
+}
@@ -0,0 +1,123 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.AppUser;
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersonalizationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private PersonalizationService service;
+
+    private final Restaurant pasta = restaurant("r1", "Italian", "Auckland", 3);
+    private final Restaurant sushi = restaurant("r2", "Japanese", "Auckland", 2);
+    private final Restaurant ramen = restaurant("r3", "Japanese", "Wellington", 1);
+
+    @BeforeEach
+    void setUp() {
+        service = new PersonalizationService(userRepository, mongoTemplate, 0.5, 100);
+    }
+
+    private static Restaurant restaurant(String id, String cuisine, String city, int price) {
+        Restaurant r = new Restaurant();
+        r.setId(id);
+        r.setCuisine(cuisine);
+        Restaurant.Address address = new Restaurant.Address();
+        address.setCity(city);
+        r.setAddress(address);
+        r.setPriceLevel(price);
+        return r;
+    }
+
+    private AppUser userWithFavorites(String... ids) {
+        AppUser user = new AppUser();
+        user.setId("u1");
+        user.setFavoriteRestaurantIds(new ArrayList<>(List.of(ids)));
+        user.setBrowseHistory(new ArrayList<>());
+        return user;
+    }
+
+    @Test
+    void rerank_ShouldMoveRestaurantsMatchingFavoritesUp() {
+        when(userRepository.findById("u1")).thenReturn(Optional.of(userWithFavorites("r2")));
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(sushi));
+
+        List<Restaurant> result = service.rerank("u1", List.of(pasta, ramen, sushi));
+
+        // sushi matches everything; pasta keeps its lead over ramen (shared city plus original position)
+        assertEquals(List.of(sushi, pasta, ramen), result);
+    }
+
+    @Test
+    void rerank_ShouldKeepOrderForUsersWithoutActivity() {
+        when(userRepository.findById("u2")).thenReturn(Optional.empty());
+
+        assertEquals(List.of(pasta, sushi), service.rerank("u2", List.of(pasta, sushi)));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void onUserActivity_ShouldUpdateCachedPreferencesWithoutReloadingTheUser() {
+        when(userRepository.findById("u1")).thenReturn(Optional.of(userWithFavorites()));
+        service.rerank("u1", List.of(pasta, sushi));
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(pasta));
+
+        service.onUserActivity(new UserActivityEvent("u1", UserActivityEvent.Type.FAVORITE_ADDED, "r1"));
+        List<Restaurant> result = service.rerank("u1", List.of(ramen, pasta));
+
+        assertEquals(List.of(pasta, ramen), result);
+        verify(userRepository, times(1)).findById("u1");
+    }
+
+    @Test
+    void onUserActivity_ShouldIgnoreUsersNotInTheCache() {
+        service.onUserActivity(new UserActivityEvent("u9", UserActivityEvent.Type.FAVORITE_ADDED, "r1"));
+        service.onHistoryWritten(new HistoryWrittenEvent(Map.of("u9", List.of("r1"))));
+
+        verifyNoInteractions(mongoTemplate, userRepository);
+    }
+
+    @Test
+    void onHistoryWritten_ShouldLookUpTheWholeBatchWithOneQuery() {
+        AppUser other = userWithFavorites();
+        other.setId("u2");
+        when(userRepository.findById("u1")).thenReturn(Optional.of(userWithFavorites()));
+        when(userRepository.findById("u2")).thenReturn(Optional.of(other));
+        service.rerank("u1", List.of(pasta, sushi));
+        service.rerank("u2", List.of(pasta, sushi));
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(pasta, ramen));
+
+        service.onHistoryWritten(new HistoryWrittenEvent(Map.of(
+                "u1", List.of("r1"),
+                "u2", List.of("r3"),
+                "u9", List.of("r2"))));
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Restaurant.class));
+        assertEquals(List.of(pasta, sushi), service.rerank("u1", List.of(sushi, pasta)));
+        assertEquals(List.of(ramen, pasta), service.rerank("u2", List.of(pasta, ramen)));
+        verify(userRepository, times(1)).findById("u1");
+    }
+}
@@ -0,0 +1,124 @@
+package com.plateful.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plateful.backend.model.Restaurant;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantExportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private FuzzySearchService fuzzySearchService;
+
+    @Mock
+    private FilterIndexService filterIndexService;
+
+    private final FilterResultCache noCache = new FilterResultCache(false, 10, 100, 5, 120000);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RestaurantExportService service;
+
+    @BeforeEach
+    void setUp() {
+        RestaurantSearchService searchService =
+                new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, noCache, "regex", 100);
+        service = new RestaurantExportService(mongoTemplate, searchService, objectMapper);
+    }
+
+    private static Restaurant restaurant(String id, String name, String cuisine) {
+        Restaurant r = new Restaurant();
+        r.setId(id);
+        r.setName(name);
+        r.setCuisine(cuisine);
+        return r;
+    }
+
+    private static RestaurantFilter cuisineFilter(String cuisine) {
+        return new RestaurantFilter(null, false, cuisine, null, null, null, null, null, null, null, null, null);
+    }
+
+    private static List<String> gunzipLines(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return List.of(new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n"));
+        }
+    }
+
+    @Test
+    void export_ShouldWriteOneJsonLinePerRestaurant() throws IOException {
+        when(mongoTemplate.stream(any(Query.class), eq(Restaurant.class))).thenReturn(Stream.of(
+                restaurant("a1", "Sushi Bar", "Japanese"),
+                restaurant("b2", "Taco Stand", "Mexican")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = service.prepare(cuisineFilter(null), null, null).writeTo(out);
+
+        assertEquals(2, written);
+        List<String> lines = gunzipLines(out.toByteArray());
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("a1", first.get("id").asText());
+        assertEquals("Sushi Bar", first.get("name").asText());
+        assertTrue(first.has("voteCount"));
+    }
+
+    @Test
+    void export_ShouldResumeAfterIdInIdOrderAndProjectFields() throws IOException {
+        when(mongoTemplate.stream(any(Query.class), eq(Restaurant.class)))
+                .thenReturn(Stream.of(restaurant("b2", "Taco Stand", "Mexican")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.prepare(cuisineFilter("Mexican"), "a1", List.of("name", "voteCount")).writeTo(out);
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(captor.capture(), eq(Restaurant.class));
+        Query query = captor.getValue();
+        assertEquals("a1", query.getQueryObject().get("id", Document.class).get("$gt"));
+        assertTrue(query.getQueryObject().toJson().contains("Mexican"));
+        assertEquals(1, query.getSortObject().get("id"));
+        assertTrue(query.getFieldsObject().containsKey("netVotes"));
+
+        JsonNode line = objectMapper.readTree(gunzipLines(out.toByteArray()).get(0));
+        assertEquals(List.of("id", "name", "voteCount"), iterableToList(line.fieldNames()));
+    }
+
+    @Test
+    void prepare_ShouldRejectUnknownFieldsBeforeQuerying() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.prepare(cuisineFilter(null), null, List.of("name", "passwordHash")));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    private static List<String> iterableToList(Iterator<String> it) {
+        List<String> list = new ArrayList<>();
+        it.forEachRemaining(list::add);
+        return list;
+    }
+}
@@ -0,0 +1,131 @@
+package com.plateful.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.plateful.backend.importer.ImportRecordReader;
+import com.plateful.backend.importer.ImportReport;
+import com.plateful.backend.model.Restaurant;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantImportServiceTest {
+
+    private static final String FEED = """
+            {"name":"Sushi Den","city":"Auckland"}
+            {"name":"Sushi Dan","city":"Auckland"}
+            {"name":"Thai Palace","city":"Wellington"}
+            """;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private BulkOperations bulk;
+
+    private RestaurantImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RestaurantImportService(mongoTemplate, new ObjectMapper(), eventPublisher, 1000, 3, 0);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Restaurant.class)).thenReturn(bulk);
+    }
+
+    @Test
+    void importFeed_DuplicateKey_ShouldFailTheLineWithoutRetrying() {
+        // line 2 hits a duplicate key, line 3 a primary stepping down
+        when(bulk.execute())
+                .thenThrow(bulkFailure(List.of(upsert(0)),
+                        new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1),
+                        new BulkWriteError(189, "primary stepped down", new BsonDocument(), 2)))
+                .thenReturn(result(upsert(0)));
+
+        ImportReport report = importFeed();
+
+        assertEquals(3, report.read());
+        assertEquals(2, report.inserted());
+        assertEquals(1, report.failed());
+        assertEquals(List.of("line 2: write failed: E11000 duplicate key error"), report.errors());
+        // three restaurants, then the one retried
+        verify(bulk, times(4)).upsert(any(Query.class), any(Update.class));
+        verify(bulk, times(2)).execute();
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void importFeed_RetryableWriteErrorLabel_ShouldRetryEveryFailedWrite() {
+        MongoBulkWriteException source = new MongoBulkWriteException(result(upsert(1), upsert(2)),
+                List.of(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 0)),
+                null, new ServerAddress(), Set.of("RetryableWriteError"));
+        when(bulk.execute())
+                .thenThrow(new BulkOperationException("bulk write failed", source))
+                .thenReturn(result(upsert(0)));
+
+        ImportReport report = importFeed();
+
+        assertEquals(3, report.inserted() + report.updated());
+        assertEquals(0, report.failed());
+        verify(bulk, times(2)).execute();
+    }
+
+    @Test
+    void importFeed_TransientErrorOutlastingRetries_ShouldFailAfterTheLastAttempt() {
+        when(bulk.execute())
+                .thenThrow(bulkFailure(List.of(upsert(0), upsert(1)),
+                        new BulkWriteError(91, "shutdown in progress", new BsonDocument(), 2)))
+                .thenThrow(bulkFailure(List.of(),
+                        new BulkWriteError(91, "shutdown in progress", new BsonDocument(), 0)));
+
+        ImportReport report = importFeed();
+
+        assertEquals(1, report.failed());
+        assertEquals(List.of("line 3: write failed: shutdown in progress"), report.errors());
+        verify(bulk, times(4)).execute();
+    }
+
+    private ImportReport importFeed() {
+        return service.importFeed(new ByteArrayInputStream(FEED.getBytes(StandardCharsets.UTF_8)),
+                ImportRecordReader.Format.NDJSON, null);
+    }
+
+    private static BulkOperationException bulkFailure(List<BulkWriteUpsert> upserts, BulkWriteError... errors) {
+        BulkWriteResult result = result(upserts.toArray(BulkWriteUpsert[]::new));
+        return new BulkOperationException("bulk write failed",
+                new MongoBulkWriteException(result, List.of(errors), null, new ServerAddress(), Set.of()));
+    }
+
+    private static BulkWriteResult result(BulkWriteUpsert... upserts) {
+        return BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(upserts), List.of());
+    }
+
+    private static BulkWriteUpsert upsert(int index) {
+        return new BulkWriteUpsert(index, new BsonString("id" + index));
+    }
+}
@@ -0,0 +1,225 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantSearchServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private FuzzySearchService fuzzySearchService;
+
+    @Mock
+    private FilterIndexService filterIndexService;
+
+    private final FilterResultCache noCache = new FilterResultCache(false, 10, 100, 5, 120000);
+
+    @Test
+    void filter_RegexBackend_ShouldMatchKeywordInsideTheSameQuery() {
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, noCache, "regex", 100);
+
+        service.filter(filter("sushi (bar)", false, "Japanese"));
+
+        String json = capturedQuery().getQueryObject().toJson();
+        assertTrue(json.contains("\"name\""));
+        assertTrue(json.contains("\"description\""));
+        assertTrue(json.contains("\\\\Qsushi (bar)\\\\E"), json);
+        assertTrue(json.contains("\"cuisine\""));
+    }
+
+    @Test
+    void filter_TextBackend_ShouldUseTextSearchSortedByScore() {
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, noCache, "text", 100);
+
+        service.filter(filter("sushi", false, "Japanese"));
+
+        Query query = capturedQuery();
+        Document text = query.getQueryObject().get("$text", Document.class);
+        assertEquals("sushi", text.get("$search"));
+        assertTrue(query.getSortObject().containsKey("score"));
+    }
+
+    @Test
+    void filter_Fuzzy_ShouldRestrictToMatchedIdsOrSkipTheDatabase() {
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, noCache, "regex", 100);
+        when(fuzzySearchService.search("sushu", 100)).thenReturn(List.of("r1", "r2"));
+        when(fuzzySearchService.search("zzzz", 100)).thenReturn(List.of());
+
+        service.filter(filter("sushu", true, null));
+        assertTrue(capturedQuery().getQueryObject().toJson().contains("\"$in\""));
+
+        assertTrue(service.filter(filter("zzzz", true, null)).isEmpty());
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Restaurant.class));
+    }
+
+    @Test
+    void filter_Fuzzy_ShouldAskForTheLimitAndKeepTheFuzzyOrder() {
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, noCache, "text", 2);
+        Restaurant r1 = restaurant("r1");
+        Restaurant r2 = restaurant("r2");
+        when(fuzzySearchService.search("sushu", 2)).thenReturn(List.of("r2", "r1"));
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(r1, r2));
+
+        assertEquals(List.of(r2, r1), service.filter(filter("sushu", true, null)));
+        RestaurantFilter byVotes = new RestaurantFilter("sushu", true, null, null, null, null, null, null, null,
+                null, null, "votes");
+        assertEquals(List.of(r1, r2), service.filter(byVotes));
+    }
+
+    @Test
+    void filter_FuzzyCached_ShouldCacheIdsInTheFuzzyOrder() {
+        FilterResultCache cache = new FilterResultCache(true, 10, 100, 5, 120000);
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, cache, "text", 100);
+        Restaurant r1 = restaurant("r1");
+        Restaurant r2 = restaurant("r2");
+        when(fuzzySearchService.search("sushu", 100)).thenReturn(List.of("r2", "r1"));
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(r1, r2));
+
+        assertEquals(List.of(r2, r1), service.filter(filter("sushu", true, null)));
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Restaurant.class));
+        String byId = queries.getAllValues().get(1).getQueryObject().toJson();
+        assertTrue(byId.contains("\"_id\": {\"$in\": [\"r2\", \"r1\"]}"), byId);
+    }
+
+    @Test
+    void filter_OpenAt_ShouldMatchMinuteOfWeekRange() {
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, noCache, "regex", 100);
+        // Friday 19:30 -> 4 * 1440 + 19 * 60 + 30
+        RestaurantFilter friday = new RestaurantFilter(null, false, null, null, null, null, null,
+                LocalDateTime.of(2025, 6, 6, 19, 30), null, null, null, null);
+
+        service.filter(friday);
+
+        String json = capturedQuery().getQueryObject().toJson();
+        assertTrue(json.contains("\"$elemMatch\""), json);
+        assertTrue(json.contains("\"$lte\": 6930"), json);
+        assertTrue(json.contains("\"$gte\": 6930"), json);
+    }
+
+    @Test
+    void filter_Indexed_ShouldSelectMatchedIdsInsteadOfRepeatingCriteria() {
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, noCache, "regex", 100);
+        RestaurantFilter filter = filter("sushi", false, "Japanese");
+        when(filterIndexService.match(filter)).thenReturn(Optional.of(List.of("r1", "r2")));
+
+        service.filter(filter);
+
+        String json = capturedQuery().getQueryObject().toJson();
+        assertTrue(json.contains("\"_id\": {\"$in\": [\"r1\", \"r2\"]}"), json);
+        assertTrue(json.contains("\"name\""), json);
+        assertFalse(json.contains("Japanese"), json);
+    }
+
+    @Test
+    void filter_IndexedWithoutMatches_ShouldSkipTheDatabase() {
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, noCache, "regex", 100);
+        when(filterIndexService.match(any())).thenReturn(Optional.of(List.of()));
+
+        assertTrue(service.filter(filter(null, false, "Klingon")).isEmpty());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void filter_Tags_ShouldRequireEveryTagWhenNotIndexed() {
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, noCache, "regex", 100);
+
+        service.filter(new RestaurantFilter(null, false, null, null, null, null, null, null, null,
+                List.of("Vegan", "late night"), null, null));
+
+        String json = capturedQuery().getQueryObject().toJson();
+        assertTrue(json.contains("\\\\QVegan\\\\E"), json);
+        assertTrue(json.contains("\\\\Qlate night\\\\E"), json);
+    }
+
+    @Test
+    void filter_Cached_ShouldServeEquivalentFiltersFromOneQueryById() {
+        FilterResultCache cache = new FilterResultCache(true, 10, 100, 5, 120000);
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, cache, "regex", 100);
+        Restaurant r1 = restaurant("r1");
+        Restaurant r2 = restaurant("r2");
+        // the ID query, then every read by ID
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class)))
+                .thenReturn(List.of(r2, r1))
+                .thenReturn(List.of(r1, r2));
+
+        assertEquals(List.of(r2, r1), service.filter(filter("sushi", false, " Japanese ")));
+        RestaurantFilter equivalent = new RestaurantFilter("SUSHI ", false, "japanese", null, null, null, null, null,
+                null, null, 5, null);
+        assertEquals(List.of(r2, r1), service.filter(equivalent));
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).find(queries.capture(), eq(Restaurant.class));
+        String byId = queries.getAllValues().get(2).getQueryObject().toJson();
+        assertTrue(byId.contains("\"_id\": {\"$in\": [\"r2\", \"r1\"]}"), byId);
+        assertTrue(byId.contains("\"net_votes\": {\"$gte\": 5}"), byId);
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void filter_CatalogChanged_ShouldReloadCachedIds() {
+        FilterResultCache cache = new FilterResultCache(true, 10, 100, 5, 120000);
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, cache, "regex", 100);
+        when(filterIndexService.match(any())).thenReturn(Optional.of(List.of()));
+
+        service.filter(filter(null, false, "Klingon"));
+        cache.onCatalogChanged();
+        service.filter(filter(null, false, "Klingon"));
+
+        verify(filterIndexService, times(2)).match(any());
+        assertEquals(0, cache.stats().hits());
+        assertEquals(1, cache.stats().invalidations());
+    }
+
+    @Test
+    void filter_TooManyMatches_ShouldRememberToQueryUncached() {
+        FilterResultCache cache = new FilterResultCache(true, 10, 1, 5, 120000);
+        RestaurantSearchService service = new RestaurantSearchService(mongoTemplate, fuzzySearchService, filterIndexService, cache, "regex", 100);
+        when(filterIndexService.match(any())).thenReturn(Optional.of(List.of("r1", "r2")));
+
+        service.filter(filter(null, false, "Thai"));
+        service.filter(filter(null, false, "Thai"));
+
+        // the index answered the first lookup; both requests then ran the full query
+        verify(filterIndexService, times(3)).match(any());
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Restaurant.class));
+        assertEquals(1, cache.stats().hits());
+    }
+
+    private static Restaurant restaurant(String id) {
+        Restaurant r = new Restaurant();
+        r.setId(id);
+        return r;
+    }
+
+    private Query capturedQuery() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Restaurant.class));
+        return query.getValue();
+    }
+
+    private static RestaurantFilter filter(String query, boolean fuzzy, String cuisine) {
+        return new RestaurantFilter(query, fuzzy, cuisine, null, null, null, null, null, null, null, null, null);
+    }
+}
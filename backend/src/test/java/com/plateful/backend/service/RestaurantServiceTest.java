@@ -0,0 +1,104 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RestaurantServiceTest {
+
+    @Mock
+    private FuzzySearchService fuzzySearchService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void searchRestaurants_RegexBackend_ShouldUseSubstringQuery() {
+        RestaurantService service = new RestaurantService(fuzzySearchService, mongoTemplate, "regex", 100);
+        Restaurant sushi = new Restaurant();
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(sushi));
+
+        assertEquals(List.of(sushi), service.searchRestaurants("sushi (bar)"));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Restaurant.class));
+        assertFalse(query.getValue() instanceof TextQuery);
+        String json = query.getValue().getQueryObject().toJson();
+        assertTrue(json.contains("\"description\""), json);
+        assertTrue(json.contains("\\\\Qsushi (bar)\\\\E"), json);
+    }
+
+    @Test
+    void getAllCuisines_ShouldProjectCuisinesAndDropBlanks() {
+        RestaurantService service = new RestaurantService(fuzzySearchService, mongoTemplate, "regex", 100);
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(
+                cuisine("Thai"), cuisine(" "), cuisine("Italian"), cuisine("Thai"), cuisine(null)));
+
+        assertEquals(List.of("Italian", "Thai"), service.getAllCuisines());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Restaurant.class));
+        assertEquals(new Document("cuisine", 1).append("_id", 0), query.getValue().getFieldsObject());
+    }
+
+    private static Restaurant cuisine(String cuisine) {
+        Restaurant r = new Restaurant();
+        r.setCuisine(cuisine);
+        return r;
+    }
+
+    @Test
+    void searchRestaurants_TextBackend_ShouldIssueTextQuerySortedByScore() {
+        RestaurantService service = new RestaurantService(fuzzySearchService, mongoTemplate, "text", 100);
+        Restaurant sushi = new Restaurant();
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(sushi));
+
+        assertEquals(List.of(sushi), service.searchRestaurants(" sushi bar "));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Restaurant.class));
+        assertInstanceOf(TextQuery.class, query.getValue());
+        Document text = query.getValue().getQueryObject().get("$text", Document.class);
+        assertEquals("sushi bar", text.get("$search"));
+        assertEquals("english", text.get("$language"));
+        assertTrue(query.getValue().getSortObject().containsKey("score"));
+    }
+
+    @Test
+    void fuzzySearchRestaurants_ShouldAskForTheLimitAndKeepTheFuzzyOrder() {
+        RestaurantService service = new RestaurantService(fuzzySearchService, mongoTemplate, "regex", 2);
+        Restaurant r1 = restaurant("r1");
+        Restaurant r2 = restaurant("r2");
+        when(fuzzySearchService.search("sushu", 2)).thenReturn(List.of("r2", "r1"));
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(r1, r2));
+
+        assertEquals(List.of(r2, r1), service.fuzzySearchRestaurants("sushu"));
+    }
+
+    private static Restaurant restaurant(String id) {
+        Restaurant r = new Restaurant();
+        r.setId(id);
+        return r;
+    }
+
+    @Test
+    void constructor_ShouldRejectUnknownBackend() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RestaurantService(fuzzySearchService, mongoTemplate, "elastic", 100));
+    }
+}
@@ -0,0 +1,134 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.AppUser;
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.RestaurantSimilarity;
+import com.plateful.backend.repository.RestaurantRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimilarityServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private RestaurantRepository repository;
+
+    @Mock
+    private BulkOperations bulk;
+
+    @Test
+    void recompute_ShouldRankCoFavoritedRestaurantsAndExcludeTheRestaurantItself() {
+        // co-occurrence only, so cuisine and tags do not blur the ranking
+        SimilarityService service = new SimilarityService(mongoTemplate, repository, 20, 1.0);
+        when(mongoTemplate.stream(any(Query.class), eq(Restaurant.class)))
+                .thenAnswer(inv -> Stream.of(restaurant("r1"), restaurant("r2"), restaurant("r3"),
+                        restaurant("r4")));
+        when(mongoTemplate.stream(any(Query.class), eq(AppUser.class)))
+                .thenAnswer(inv -> Stream.of(
+                        user("r1", "r2"),
+                        user("r2", "r1", "r1"),
+                        user("r1", "r3"),
+                        user("r4", "gone")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RestaurantSimilarity.class)).thenReturn(bulk);
+
+        assertEquals(3, service.recompute());
+
+        Map<String, List<RestaurantSimilarity.Neighbor>> stored = storedNeighbors();
+        assertEquals(List.of("r2", "r3"), ids(stored.get("r1")));
+        // r1 and r2 share 2 of r1's 3 favorites and both of r2's: 2 / sqrt(3 * 2)
+        assertEquals(2 / Math.sqrt(6), stored.get("r1").get(0).getScore(), 1e-6);
+        assertEquals(1 / Math.sqrt(3), stored.get("r1").get(1).getScore(), 1e-6);
+        assertEquals(List.of("r1"), ids(stored.get("r2")));
+        assertEquals(List.of("r1"), ids(stored.get("r3")));
+        // r4 was only ever favorited alone and an unknown restaurant does not count
+        assertFalse(stored.containsKey("r4"));
+        stored.forEach((id, neighbors) -> assertFalse(ids(neighbors).contains(id), id));
+        verify(bulk).execute();
+        verify(mongoTemplate).remove(any(Query.class), eq(RestaurantSimilarity.class));
+    }
+
+    @Test
+    void recompute_ShouldGiveContentNeighboursToRestaurantsNobodyFavorited() {
+        SimilarityService service = new SimilarityService(mongoTemplate, repository, 20, 0.7);
+        Restaurant thai = restaurant("r1");
+        thai.setCuisine("Thai");
+        thai.setTags(List.of("Spicy"));
+        Restaurant otherThai = restaurant("r2");
+        otherThai.setCuisine(" thai ");
+        otherThai.setTags(List.of("spicy", "Vegan"));
+        when(mongoTemplate.stream(any(Query.class), eq(Restaurant.class)))
+                .thenAnswer(inv -> Stream.of(thai, otherThai, restaurant("r3")));
+        when(mongoTemplate.stream(any(Query.class), eq(AppUser.class))).thenAnswer(inv -> Stream.empty());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RestaurantSimilarity.class)).thenReturn(bulk);
+
+        assertEquals(2, service.recompute());
+
+        Map<String, List<RestaurantSimilarity.Neighbor>> stored = storedNeighbors();
+        assertEquals(List.of("r2"), ids(stored.get("r1")));
+        // (1 - 0.7) * (0.5 for the cuisine + 0.5 * tag Jaccard 1/2)
+        assertEquals(0.3 * 0.75, stored.get("r1").get(0).getScore(), 1e-6);
+    }
+
+    @Test
+    void similar_ShouldKeepTheStoredOrderAndSkipRemovedRestaurants() {
+        SimilarityService service = new SimilarityService(mongoTemplate, repository, 20, 0.7);
+        when(mongoTemplate.findById("r1", RestaurantSimilarity.class)).thenReturn(new RestaurantSimilarity("r1",
+                List.of(new RestaurantSimilarity.Neighbor("r3", 0.9),
+                        new RestaurantSimilarity.Neighbor("gone", 0.8),
+                        new RestaurantSimilarity.Neighbor("r2", 0.7),
+                        new RestaurantSimilarity.Neighbor("r4", 0.6)),
+                null));
+        when(repository.findAllById(List.of("r3", "gone", "r2")))
+                .thenReturn(List.of(restaurant("r2"), restaurant("r3")));
+
+        List<SimilarityService.SimilarRestaurant> similar = service.similar("r1", 3);
+
+        assertEquals(List.of("r3", "r2"), similar.stream().map(s -> s.restaurant().getId()).toList());
+        assertEquals(0.9, similar.get(0).score());
+    }
+
+    /** Neighbours written by the last recompute, by restaurant ID. */
+    private Map<String, List<RestaurantSimilarity.Neighbor>> storedNeighbors() {
+        ArgumentCaptor<RestaurantSimilarity> replaced = ArgumentCaptor.forClass(RestaurantSimilarity.class);
+        verify(bulk, atLeastOnce()).replaceOne(any(Query.class), replaced.capture(), any(FindAndReplaceOptions.class));
+        return replaced.getAllValues().stream()
+                .collect(Collectors.toMap(RestaurantSimilarity::getRestaurantId,
+                        RestaurantSimilarity::getNeighbors));
+    }
+
+    private static List<String> ids(List<RestaurantSimilarity.Neighbor> neighbors) {
+        return neighbors.stream().map(RestaurantSimilarity.Neighbor::getRestaurantId).toList();
+    }
+
+    private static Restaurant restaurant(String id) {
+        Restaurant r = new Restaurant();
+        r.setId(id);
+        return r;
+    }
+
+    private static AppUser user(String... favorites) {
+        AppUser user = new AppUser();
+        user.setFavoriteRestaurantIds(List.of(favorites));
+        return user;
+    }
+}
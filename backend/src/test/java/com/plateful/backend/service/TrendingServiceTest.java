@@ -0,0 +1,153 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.TrendingSnapshot;
+import com.plateful.backend.trending.CountMinSketch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingServiceTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long NOW = 1_000_000 * MINUTE;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private TrendingService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TrendingService(mongoTemplate, "local", 5000);
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(
+            restaurant("r1", "Sushi Den", "Auckland"),
+            restaurant("r2", "Pasta Place", "Auckland"),
+            restaurant("r3", "Ramen Bar", "Wellington")));
+        service.onCatalogChanged();
+    }
+
+    private static Restaurant restaurant(String id, String name, String city) {
+        Restaurant r = new Restaurant();
+        r.setId(id);
+        r.setName(name);
+        r.setCuisine("Any");
+        Restaurant.Address address = new Restaurant.Address();
+        address.setCity(city);
+        r.setAddress(address);
+        return r;
+    }
+
+    private void views(String restaurantId, int count, long at) {
+        for (int i = 0; i < count; i++) {
+            service.record(restaurantId, at);
+        }
+    }
+
+    private static List<String> ids(List<TrendingService.TrendingRestaurant> trending) {
+        return trending.stream().map(TrendingService.TrendingRestaurant::restaurantId).toList();
+    }
+
+    @Test
+    void trending_ShouldRankByViewsWithinTheWindow() {
+        views("r1", 2, NOW);
+        views("r2", 5, NOW - 2 * MINUTE);
+        views("r3", 9, NOW - 30 * MINUTE);
+
+        List<TrendingService.TrendingRestaurant> lastHour = service.trending(60, null, 10, NOW);
+        assertEquals(List.of("r3", "r2", "r1"), ids(lastHour));
+        assertEquals(9, lastHour.get(0).views());
+        assertEquals("Ramen Bar", lastHour.get(0).name());
+
+        assertEquals(List.of("r2", "r1"), ids(service.trending(5, null, 10, NOW + 1)));
+    }
+
+    @Test
+    void trending_ShouldFilterByCityAndLimit() {
+        views("r1", 2, NOW);
+        views("r2", 5, NOW);
+        views("r3", 9, NOW);
+
+        assertEquals(List.of("r2", "r1"), ids(service.trending(60, "auckland", 10, NOW)));
+        assertEquals(List.of("r3"), ids(service.trending(60, null, 1, NOW)));
+    }
+
+    @Test
+    void trending_ShouldUseHourBucketsForLongWindows() {
+        views("r1", 4, NOW - 3 * 60 * MINUTE);
+        views("r2", 1, NOW);
+
+        assertEquals(List.of("r1", "r2"), ids(service.trending(24 * 60, null, 10, NOW)));
+        assertEquals(List.of("r2"), ids(service.trending(60, null, 10, NOW)));
+    }
+
+    @Test
+    void trending_ShouldServeCachedRankingUntilRefresh() {
+        views("r1", 1, NOW);
+        assertEquals(List.of("r1"), ids(service.trending(60, null, 10, NOW)));
+
+        views("r2", 3, NOW);
+        assertEquals(List.of("r1"), ids(service.trending(60, null, 10, NOW + 1000)));
+        assertEquals(List.of("r2", "r1"), ids(service.trending(60, null, 10, NOW + 5000)));
+    }
+
+    @Test
+    void trending_ShouldAddViewsFromOtherInstances() {
+        views("r1", 2, NOW);
+        CountMinSketch remote = new CountMinSketch(4, 2048);
+        for (int i = 0; i < 3; i++) {
+            remote.add("r2");
+        }
+        remote.add("r1");
+        long bucket = Math.floorDiv(NOW, MINUTE);
+        TrendingSnapshot snapshot = new TrendingSnapshot("other", "minute", bucket, 4, 2048,
+            remote.toArray(), List.of("r1", "r2"), Instant.ofEpochMilli(NOW + 60 * MINUTE));
+        when(mongoTemplate.find(any(Query.class), eq(TrendingSnapshot.class)))
+            .thenReturn(List.of(snapshot));
+
+        service.syncSnapshots(NOW);
+
+        List<TrendingService.TrendingRestaurant> trending = service.trending(60, null, 10, NOW);
+        assertEquals(List.of("r1", "r2"), ids(trending));
+        assertEquals(3, trending.get(0).views());
+        assertEquals(3, trending.get(1).views());
+        // this instance's buckets were persisted for the others
+        verify(mongoTemplate, atLeastOnce()).save(any(TrendingSnapshot.class));
+    }
+
+    @Test
+    void onHistoryWritten_ShouldCountEveryViewInTheBatch() {
+        service.onHistoryWritten(new HistoryWrittenEvent(Map.of(
+            "u1", List.of("r2", "r1"),
+            "u2", List.of("r1"))));
+
+        List<TrendingService.TrendingRestaurant> trending = service.trending("1h", null, 10);
+        assertEquals(List.of("r1", "r2"), ids(trending));
+        assertEquals(2, trending.get(0).views());
+    }
+
+    @Test
+    void parseWindow_ShouldAcceptMinutesAndHoursUpToADay() {
+        assertEquals(15, TrendingService.parseWindow("15m"));
+        assertEquals(60, TrendingService.parseWindow("1h"));
+        assertEquals(24 * 60, TrendingService.parseWindow("24H"));
+        assertThrows(IllegalArgumentException.class, () -> TrendingService.parseWindow("0m"));
+        assertThrows(IllegalArgumentException.class, () -> TrendingService.parseWindow("25h"));
+        assertThrows(IllegalArgumentException.class, () -> TrendingService.parseWindow("1d"));
+        assertThrows(IllegalArgumentException.class, () -> TrendingService.parseWindow(null));
+    }
+}
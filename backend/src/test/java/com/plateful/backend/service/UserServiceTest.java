@@ -2,19 +2,34 @@ package com.plateful.backend.service;
 
 import com.plateful.backend.model.AppUser;
 import com.plateful.backend.repository.UserRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +38,15 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private UserCache userCache = new UserCache(60_000, 100);
+
     @InjectMocks
     private UserService userService;
 
@@ -45,8 +69,8 @@ class UserServiceTest {
     @Test
     void addFavorite_ShouldAddRestaurantToFavorites() {
         // Arrange
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(AppUser.class))).thenReturn(testUser);
+        testUser.getFavoriteRestaurantIds().add(restaurantId1);
+        whenUpdated().thenReturn(testUser);
 
         // Act
         AppUser result = userService.addFavorite(userId, restaurantId1);
@@ -54,14 +78,19 @@ class UserServiceTest {
         // Assert
         assertNotNull(result);
         assertTrue(result.getFavoriteRestaurantIds().contains(restaurantId1));
-        verify(userRepository, times(1)).findById(userId);
-        verify(userRepository, times(1)).save(testUser);
+        Document update = capturedUpdate().getUpdateObject();
+        assertEquals(new Document("favoriteRestaurantIds", restaurantId1), update.get("$addToSet"));
+        assertEquals(1, update.size());
+        verify(userRepository, never()).findById(userId);
+        verify(userRepository, never()).save(any(AppUser.class));
     }
 
     @Test
     void addFavorite_ShouldNotAddDuplicateFavorite() {
         // Arrange
         testUser.getFavoriteRestaurantIds().add(restaurantId1);
+        // the update only matches users without the favorite
+        whenUpdated().thenReturn(null);
         when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
 
         // Act
@@ -72,11 +101,26 @@ class UserServiceTest {
         assertEquals(1, result.getFavoriteRestaurantIds().size());
         verify(userRepository, times(1)).findById(userId);
         verify(userRepository, never()).save(any(AppUser.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void addFavorite_ShouldPublishActivityEventAfterSaving() {
+        // Arrange
+        whenUpdated().thenReturn(testUser);
+
+        // Act
+        userService.addFavorite(userId, restaurantId1);
+
+        // Assert
+        verify(eventPublisher).publishEvent(
+            new UserActivityEvent(userId, UserActivityEvent.Type.FAVORITE_ADDED, restaurantId1));
     }
 
     @Test
     void addFavorite_ShouldThrowExceptionWhenUserNotFound() {
         // Arrange
+        whenUpdated().thenReturn(null);
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         // Act & Assert
@@ -90,10 +134,8 @@ class UserServiceTest {
     @Test
     void removeFavorite_ShouldRemoveRestaurantFromFavorites() {
         // Arrange
-        testUser.getFavoriteRestaurantIds().add(restaurantId1);
         testUser.getFavoriteRestaurantIds().add(restaurantId2);
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(AppUser.class))).thenReturn(testUser);
+        whenUpdated().thenReturn(testUser);
 
         // Act
         AppUser result = userService.removeFavorite(userId, restaurantId1);
@@ -103,7 +145,9 @@ class UserServiceTest {
         assertFalse(result.getFavoriteRestaurantIds().contains(restaurantId1));
         assertTrue(result.getFavoriteRestaurantIds().contains(restaurantId2));
         assertEquals(1, result.getFavoriteRestaurantIds().size());
-        verify(userRepository, times(1)).save(testUser);
+        assertEquals(new Document("favoriteRestaurantIds", restaurantId1),
+            capturedUpdate().getUpdateObject().get("$pull"));
+        verify(userRepository, never()).save(any(AppUser.class));
     }
 
     @Test
@@ -136,87 +180,76 @@ class UserServiceTest {
         assertTrue(favorites.isEmpty());
     }
 
-    // ========== Browse History Tests ==========
-
     @Test
-    void addToHistory_ShouldAddNewHistoryEntry() {
+    void getFavorites_ShouldServeRepeatReadsFromCache() {
         // Arrange
+        testUser.getFavoriteRestaurantIds().add(restaurantId1);
         when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(AppUser.class))).thenReturn(testUser);
 
         // Act
-        AppUser result = userService.addToHistory(userId, restaurantId1, "Test Restaurant", "Details viewed");
+        userService.getFavorites(userId);
+        List<String> favorites = userService.getFavorites(userId);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.getBrowseHistory().size());
-        AppUser.HistoryEntry entry = result.getBrowseHistory().get(0);
-        assertEquals(restaurantId1, entry.getRestaurantId());
-        assertEquals("Test Restaurant", entry.getRestaurantName());
-        assertEquals("Details viewed", entry.getViewType());
-        assertNotNull(entry.getViewedAt());
-        verify(userRepository, times(1)).save(testUser);
+        assertEquals(List.of(restaurantId1), favorites);
+        verify(userRepository, times(1)).findById(userId);
     }
 
     @Test
-    void addToHistory_ShouldRemoveDuplicateAndAddNewEntry() {
+    void addFavorite_ShouldWriteThroughToCache() {
         // Arrange
-        AppUser.HistoryEntry oldEntry = new AppUser.HistoryEntry(
-            restaurantId1, "Test Restaurant", null, "Details viewed"
-        );
-        testUser.getBrowseHistory().add(oldEntry);
-        testUser.getBrowseHistory().add(new AppUser.HistoryEntry(
-            restaurantId2, "Another Restaurant", null, "Details viewed"
-        ));
-        
         when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(AppUser.class))).thenReturn(testUser);
+        userService.getFavorites(userId);
+        AppUser updated = new AppUser();
+        updated.setId(userId);
+        updated.setFavoriteRestaurantIds(new ArrayList<>(List.of(restaurantId2)));
+        whenUpdated().thenReturn(updated);
 
         // Act
-        AppUser result = userService.addToHistory(userId, restaurantId1, "Test Restaurant", "Details viewed");
+        userService.addFavorite(userId, restaurantId2);
+        List<String> favorites = userService.getFavorites(userId);
 
-        // Assert
-        assertNotNull(result);
-        assertEquals(2, result.getBrowseHistory().size());
-        // The newest entry should be at index 0
-        assertEquals(restaurantId1, result.getBrowseHistory().get(0).getRestaurantId());
-        assertEquals(restaurantId2, result.getBrowseHistory().get(1).getRestaurantId());
+        // Assert: the read after the write is served from the updated cache
+        assertEquals(List.of(restaurantId2), favorites);
+        verify(userRepository, times(1)).findById(userId);
     }
 
     @Test
-    void addToHistory_ShouldLimitHistoryTo100Entries() {
+    void getFavorites_ShouldReloadAfterCacheEntryExpires() {
         // Arrange
-        for (int i = 0; i < 100; i++) {
-            testUser.getBrowseHistory().add(new AppUser.HistoryEntry(
-                "restaurant-" + i, "Restaurant " + i, null, "Details viewed"
-            ));
-        }
+        userService = new UserService(userRepository, mongoTemplate, eventPublisher, new UserCache(0, 100));
         when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(AppUser.class))).thenReturn(testUser);
 
         // Act
-        AppUser result = userService.addToHistory(userId, "new-restaurant", "New Restaurant", "Details viewed");
+        userService.getFavorites(userId);
+        userService.getFavorites(userId);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(100, result.getBrowseHistory().size());
-        assertEquals("new-restaurant", result.getBrowseHistory().get(0).getRestaurantId());
+        verify(userRepository, times(2)).findById(userId);
     }
 
     @Test
-    void addToHistory_ShouldUseDefaultViewTypeWhenNull() {
+    void getFavorites_BackgroundHistoryWrites_ShouldNotKeepTheEntryAlive() {
         // Arrange
+        UserCache shortLived = new UserCache(200, 100);
+        userService = new UserService(userRepository, mongoTemplate, eventPublisher, shortLived);
         when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(AppUser.class))).thenReturn(testUser);
-
-        // Act
-        AppUser result = userService.addToHistory(userId, restaurantId1, "Test Restaurant", null);
-
-        // Assert
-        assertNotNull(result);
-        assertEquals("Details viewed", result.getBrowseHistory().get(0).getViewType());
+        userService.getFavorites(userId);
+
+        // Act: a user who keeps browsing gets a history batch on every poll
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> {
+            shortLived.historyWritten(userId, List.of(new AppUser.HistoryEntry(
+                restaurantId1, "Restaurant 1", LocalDateTime.now(), "Details viewed"
+            )));
+            userService.getFavorites(userId);
+
+            // Assert: favorites are still reloaded once the TTL has passed
+            verify(userRepository, times(2)).findById(userId);
+        });
     }
 
+    // ========== Browse History Tests ==========
+
     @Test
     void getHistory_ShouldReturnHistoryList() {
         // Arrange
@@ -252,14 +285,7 @@ class UserServiceTest {
     @Test
     void clearHistory_ShouldRemoveAllHistoryEntries() {
         // Arrange
-        testUser.getBrowseHistory().add(new AppUser.HistoryEntry(
-            restaurantId1, "Restaurant 1", null, "Details viewed"
-        ));
-        testUser.getBrowseHistory().add(new AppUser.HistoryEntry(
-            restaurantId2, "Restaurant 2", null, "Details viewed"
-        ));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(AppUser.class))).thenReturn(testUser);
+        whenUpdated().thenReturn(testUser);
 
         // Act
         AppUser result = userService.clearHistory(userId);
@@ -267,17 +293,114 @@ class UserServiceTest {
         // Assert
         assertNotNull(result);
         assertTrue(result.getBrowseHistory().isEmpty());
-        verify(userRepository, times(1)).save(testUser);
+        assertEquals(new Document("browseHistory", List.of()), capturedUpdate().getUpdateObject().get("$set"));
+        verify(userRepository, never()).save(any(AppUser.class));
+        verify(eventPublisher).publishEvent(
+            new UserActivityEvent(userId, UserActivityEvent.Type.HISTORY_CLEARED, null));
+    }
+
+    @Test
+    void getHistory_ShouldIncludeHistoryWrittenInBackground() {
+        // Arrange
+        testUser.getBrowseHistory().add(new AppUser.HistoryEntry(
+            restaurantId1, "Restaurant 1", LocalDateTime.now().minusHours(1), "Details viewed"
+        ));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+        userService.getHistory(userId);
+
+        // Act
+        userCache.historyWritten(userId, List.of(new AppUser.HistoryEntry(
+            restaurantId2, "Restaurant 2", LocalDateTime.now(), "Details viewed"
+        )));
+        List<AppUser.HistoryEntry> history = userService.getHistory(userId);
+
+        // Assert
+        assertEquals(2, history.size());
+        assertEquals(restaurantId2, history.get(0).getRestaurantId());
+        verify(userRepository, times(1)).findById(userId);
+    }
+
+    @Test
+    void historyWrite_WithConcurrentFavoriteChange_ShouldKeepBoth() {
+        // Arrange: testUser stands in for the stored document, which both writers update in place
+        LocalDateTime viewedAt = LocalDateTime.now();
+        HistoryIngestService ingest = new HistoryIngestService(mongoTemplate, eventPublisher, userCache,
+            10, 10, 0, 1000);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, AppUser.class)).thenReturn(bulk);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(testUser));
+        userService.getHistory(userId);
+        // the favorite is added after the history lands but before the writer patches the cache
+        when(bulk.execute()).thenAnswer(inv -> {
+            testUser.getBrowseHistory().add(0,
+                new AppUser.HistoryEntry(restaurantId1, "Restaurant 1", viewedAt, "Details viewed"));
+            userService.addFavorite(userId, restaurantId2);
+            return null;
+        });
+        whenUpdated().thenAnswer(inv -> {
+            Update update = inv.getArgument(1);
+            assertEquals(Set.of("$addToSet"), update.getUpdateObject().keySet());
+            testUser.getFavoriteRestaurantIds().add(restaurantId2);
+            return testUser;
+        });
+
+        // Act
+        ingest.write(List.of(new HistoryIngestService.HistoryEvent(
+            userId, restaurantId1, "Restaurant 1", "Details viewed", viewedAt)));
+
+        // Assert: both changes are stored and cached, and nothing was saved over them
+        assertEquals(List.of(restaurantId2), testUser.getFavoriteRestaurantIds());
+        assertEquals(1, testUser.getBrowseHistory().size());
+        assertEquals(List.of(restaurantId2), userService.getFavorites(userId));
+        assertEquals(List.of(restaurantId1),
+            userService.getHistory(userId).stream().map(AppUser.HistoryEntry::getRestaurantId).toList());
+        verify(userRepository, times(1)).findById(userId);
+        verify(userRepository, never()).save(any(AppUser.class));
     }
 
     @Test
     void clearHistory_ShouldThrowExceptionWhenUserNotFound() {
         // Arrange
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        whenUpdated().thenReturn(null);
 
         // Act & Assert
         assertThrows(RuntimeException.class, () -> 
             userService.clearHistory(userId)
         );
     }
+
+    @Test
+    void getHistory_ShouldNotCacheAReadOverlappingABackgroundWrite() {
+        // Arrange: the history writer lands between the database read and caching it
+        AppUser.HistoryEntry written = new AppUser.HistoryEntry(
+            restaurantId1, "Restaurant 1", LocalDateTime.now(), "Details viewed");
+        when(userRepository.findById(userId)).thenAnswer(inv -> {
+            AppUser before = new AppUser();
+            before.setId(userId);
+            userCache.historyWritten(userId, List.of(written));
+            return Optional.of(before);
+        }).thenReturn(Optional.of(testUser));
+        testUser.getBrowseHistory().add(written);
+
+        // Act
+        List<AppUser.HistoryEntry> first = userService.getHistory(userId);
+        List<AppUser.HistoryEntry> second = userService.getHistory(userId);
+
+        // Assert: the stale read was served once but not cached
+        assertTrue(first.isEmpty());
+        assertEquals(List.of(written), second);
+        verify(userRepository, times(2)).findById(userId);
+    }
+
+    private OngoingStubbing<AppUser> whenUpdated() {
+        return when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+            any(FindAndModifyOptions.class), eq(AppUser.class)));
+    }
+
+    private Update capturedUpdate() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+            any(FindAndModifyOptions.class), eq(AppUser.class));
+        return update.getValue();
+    }
 }
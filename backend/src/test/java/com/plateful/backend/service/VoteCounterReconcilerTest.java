@@ -0,0 +1,111 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.Vote;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoteCounterReconcilerTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    private VoteCounterReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new VoteCounterReconciler(mongoTemplate, leaderboardService, 0);
+    }
+
+    @Test
+    void reconcile_ShouldIncrementCountersByAConfirmedDrift() throws Exception {
+        // r1 has 3 up and 1 down votes but counters of 2 and 1; r2 is in sync
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Vote.class), eq(Document.class)))
+                .thenReturn(counts(count("r1", "UP", 3), count("r1", "DOWN", 1), count("r2", "UP", 1)));
+        when(mongoTemplate.stream(any(Query.class), eq(Restaurant.class)))
+                .thenAnswer(inv -> Stream.of(restaurant("r1", 2, 1), restaurant("r2", 1, 0)));
+        Restaurant updated = restaurant("r1", 3, 1);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Restaurant.class))).thenReturn(updated);
+
+        assertEquals(1, reconciler.reconcile());
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                any(FindAndModifyOptions.class), eq(Restaurant.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(1, inc.get("upvote_count"));
+        assertEquals(0, inc.get("downvote_count"));
+        assertEquals(1, inc.get("net_votes"));
+        assertEquals(1, inc.get("vote_seq"));
+        verify(leaderboardService).update(updated);
+    }
+
+    @Test
+    void reconcile_ShouldLeaveDriftThatDoesNotPersist() throws Exception {
+        // a vote in flight: counted, but its counter increment only lands before the second count
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Vote.class), eq(Document.class)))
+                .thenReturn(counts(count("r1", "UP", 3)));
+        when(mongoTemplate.stream(any(Query.class), eq(Restaurant.class)))
+                .thenAnswer(inv -> Stream.of(restaurant("r1", 2, 0)))
+                .thenAnswer(inv -> Stream.of(restaurant("r1", 3, 0)));
+
+        assertEquals(0, reconciler.reconcile());
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Restaurant.class));
+    }
+
+    @Test
+    void reconcile_CountersInSync_ShouldOnlyCountOnce() throws Exception {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Vote.class), eq(Document.class)))
+                .thenReturn(counts());
+        when(mongoTemplate.stream(any(Query.class), eq(Restaurant.class)))
+                .thenAnswer(inv -> Stream.of(restaurant("r1", 0, 0)));
+
+        assertEquals(0, reconciler.reconcile());
+
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(Vote.class), eq(Document.class));
+    }
+
+    private static AggregationResults<Document> counts(Document... rows) {
+        return new AggregationResults<>(List.of(rows), new Document());
+    }
+
+    private static Document count(String restaurantId, String direction, int n) {
+        return new Document("_id", new Document("restaurantId", restaurantId).append("direction", direction))
+                .append("n", n);
+    }
+
+    private static Restaurant restaurant(String id, int up, int down) {
+        Restaurant r = new Restaurant();
+        r.setId(id);
+        r.setUpvoteCount(up);
+        r.setDownvoteCount(down);
+        r.setVoteCount(up - down);
+        return r;
+    }
+}
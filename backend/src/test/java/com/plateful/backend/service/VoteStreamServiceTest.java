@@ -0,0 +1,182 @@
+package com.plateful.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.plateful.backend.model.Restaurant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class VoteStreamServiceTest {
+
+    private final SseEmitter emitter = mock(SseEmitter.class);
+
+    private final VoteStreamService service = new VoteStreamService(new ObjectMapper(), 60000, 1, 5000) {
+        @Override
+        SseEmitter newEmitter() {
+            return emitter;
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void flush_ShouldCoalesceABurstIntoTheLatestCounts() throws Exception {
+        service.subscribe("r1", Map.of("voteCount", 0));
+        verify(emitter, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+
+        service.publish(restaurant("r1", 1));
+        service.publish(restaurant("r1", 2));
+        service.publish(restaurant("r1", 3));
+        service.flush();
+
+        List<String> sent = sentPayloads(2);
+        assertTrue(sent.get(1).contains("\"voteCount\":3"), sent.get(1));
+        service.flush();
+        verify(emitter, after(100).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void publish_WithoutSubscribers_ShouldNotBeDelivered() throws Exception {
+        service.publish(restaurant("r1", 1));
+        service.subscribe("r1", Map.of("voteCount", 0));
+        service.flush();
+
+        verify(emitter, after(100).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void slowConsumer_ShouldSkipIntermediateUpdates() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            blocked.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).doNothing().when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        service.subscribe("r1", Map.of("voteCount", 0));
+        assertTrue(blocked.await(1, TimeUnit.SECONDS));
+        for (int votes = 1; votes <= 5; votes++) {
+            service.publish(restaurant("r1", votes));
+            service.flush();
+        }
+        release.countDown();
+
+        List<String> sent = sentPayloads(2);
+        assertTrue(sent.get(1).contains("\"voteCount\":5"), sent.get(1));
+        verify(emitter, after(100).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void failedSend_ShouldDisconnectTheSubscriber() throws Exception {
+        doThrow(new IOException("broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+
+        service.subscribe("r1", Map.of("voteCount", 0));
+
+        await().atMost(1, TimeUnit.SECONDS).until(() -> service.subscriberCount() == 0);
+    }
+
+    @Test
+    void emitterCallbacks_ShouldRemoveTheSubscription() {
+        ArgumentCaptor<Runnable> completion = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<Throwable>> error = ArgumentCaptor.forClass(Consumer.class);
+
+        service.subscribe("r1", Map.of());
+        service.subscribe("r1", Map.of());
+        service.subscribe("r2", Map.of());
+        verify(emitter, times(3)).onCompletion(completion.capture());
+        verify(emitter, times(3)).onTimeout(timeout.capture());
+        verify(emitter, times(3)).onError(error.capture());
+        assertEquals(3, service.subscriberCount());
+
+        completion.getAllValues().get(0).run();
+        assertEquals(2, service.subscriberCount());
+        timeout.getAllValues().get(1).run();
+        assertEquals(1, service.subscriberCount());
+        error.getAllValues().get(2).accept(new IOException("reset"));
+        assertEquals(0, service.subscriberCount());
+    }
+
+    @Test
+    void stalledSend_ShouldBeDroppedWithoutHoldingUpOtherSubscribers() throws Exception {
+        SseEmitter stalled = mock(SseEmitter.class);
+        SseEmitter healthy = mock(SseEmitter.class);
+        Deque<SseEmitter> emitters = new ArrayDeque<>(List.of(stalled, healthy));
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            // a client that stopped reading: the write only gives up when interrupted
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException("write interrupted", e);
+            }
+            return null;
+        }).when(stalled).send(any(SseEmitter.SseEventBuilder.class));
+        // one dispatch thread, so the stalled send holds all of them
+        VoteStreamService oneThread = new VoteStreamService(new ObjectMapper(), 60000, 1, 100) {
+            @Override
+            SseEmitter newEmitter() {
+                return emitters.poll();
+            }
+        };
+        try {
+            oneThread.subscribe("r1", Map.of("voteCount", 0));
+            verify(stalled, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+            oneThread.subscribe("r1", Map.of("voteCount", 0));
+
+            await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> {
+                oneThread.dropStalledSubscribers();
+                verify(healthy).send(any(SseEmitter.SseEventBuilder.class));
+            });
+            assertEquals(1, oneThread.subscriberCount());
+            verify(stalled, timeout(1000)).completeWithError(any(IOException.class));
+
+            oneThread.publish(restaurant("r1", 1));
+            oneThread.flush();
+            verify(healthy, timeout(1000).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+            verify(stalled, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        } finally {
+            release.countDown();
+            oneThread.shutdown();
+        }
+    }
+
+    /** Waits for {@code count} sends and returns their payloads in order. */
+    private List<String> sentPayloads(int count) throws IOException {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(1000).times(count)).send(events.capture());
+        return events.getAllValues().stream()
+                .map(event -> event.build().stream()
+                        .map(part -> String.valueOf(part.getData()))
+                        .reduce("", String::concat))
+                .toList();
+    }
+
+    private static Restaurant restaurant(String id, int up) {
+        Restaurant r = new Restaurant();
+        r.setId(id);
+        r.setUpvoteCount(up);
+        r.setVoteCount(up);
+        return r;
+    }
+}
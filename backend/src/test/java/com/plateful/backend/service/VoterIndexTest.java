@@ -0,0 +1,181 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.Vote;
+import com.plateful.backend.model.VoteDirection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VoterIndexTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private VoterIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new VoterIndex(mongoTemplate, 60000, 10, 1);
+    }
+
+    @Test
+    void voters_ShouldLoadOnceAndAnswerFromBitmaps() {
+        givenSequence(3);
+        when(mongoTemplate.stream(any(Query.class), eq(Vote.class)))
+                .thenAnswer(inv -> Stream.of(vote(1, VoteDirection.UP), vote(2, VoteDirection.DOWN)));
+
+        VoterIndex.Voters voters = index.voters("r1");
+
+        assertEquals(3, voters.sequence());
+        assertEquals(VoteDirection.UP, voters.directionOf(1));
+        assertEquals(VoteDirection.DOWN, voters.directionOf(2));
+        assertNull(voters.directionOf(3));
+        assertSame(voters, index.voters("r1"));
+        assertSame(voters, index.cached("r1"));
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Vote.class));
+    }
+
+    @Test
+    void voters_ShouldOnlyLoadOnceTheRestaurantIsHot() {
+        index = new VoterIndex(mongoTemplate, 60000, 10, 3);
+        givenSequence(0);
+        when(mongoTemplate.stream(any(Query.class), eq(Vote.class)))
+                .thenAnswer(inv -> Stream.of(vote(1, VoteDirection.UP)));
+
+        assertNull(index.voters("r1"));
+        assertNull(index.voters("r1"));
+        verifyNoInteractions(mongoTemplate);
+
+        assertEquals(VoteDirection.UP, index.voters("r1").directionOf(1));
+        assertNotNull(index.cached("r1"));
+        assertNull(index.voters("r2"));
+    }
+
+    @Test
+    void voters_ReadsSpreadOverMoreThanTheTtl_ShouldNotMakeARestaurantHot() {
+        index = new VoterIndex(mongoTemplate, 0, 10, 2);
+
+        assertNull(index.voters("r1"));
+        assertNull(index.voters("r1"));
+
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void evict_ShouldDropTheEntry() {
+        givenSequence(0);
+        when(mongoTemplate.stream(any(Query.class), eq(Vote.class))).thenAnswer(inv -> Stream.of());
+        index.voters("r1");
+
+        index.evict("r1");
+
+        assertNull(index.cached("r1"));
+    }
+
+    @Test
+    void recorded_ShouldApplyVotesToCachedVoters() {
+        givenSequence(0);
+        when(mongoTemplate.stream(any(Query.class), eq(Vote.class)))
+                .thenAnswer(inv -> Stream.of(vote(1, VoteDirection.UP)));
+        VoterIndex.Voters voters = index.voters("r1");
+
+        index.recorded("r1", 1, VoteDirection.UP, VoteDirection.DOWN, 1);
+        index.recorded("r1", 5, null, VoteDirection.UP, 2);
+
+        assertEquals(VoteDirection.DOWN, voters.directionOf(1));
+        assertEquals(VoteDirection.UP, voters.directionOf(5));
+        assertEquals(1, voters.upvotes());
+        assertEquals(1, voters.downvotes());
+
+        index.recorded("r1", 5, VoteDirection.UP, null, 3);
+
+        assertNull(voters.directionOf(5));
+        assertEquals(3, voters.sequence());
+        assertSame(voters, index.cached("r1"));
+    }
+
+    @Test
+    void recorded_AfterAVoteFromAnotherInstance_ShouldDropTheEntry() {
+        givenSequence(4);
+        when(mongoTemplate.stream(any(Query.class), eq(Vote.class)))
+                .thenAnswer(inv -> Stream.of(vote(1, VoteDirection.UP)));
+        index.voters("r1");
+
+        // sequence 5 went to a vote on another instance
+        index.recorded("r1", 2, null, VoteDirection.UP, 6);
+
+        assertNull(index.cached("r1"));
+    }
+
+    @Test
+    void recorded_OutOfOrder_ShouldDropTheEntry() {
+        givenSequence(0);
+        when(mongoTemplate.stream(any(Query.class), eq(Vote.class)))
+                .thenAnswer(inv -> Stream.of(vote(1, VoteDirection.UP)));
+        index.voters("r1");
+
+        // the cache shows UP for voter 1, so this change must have raced with another
+        index.recorded("r1", 1, VoteDirection.DOWN, null, 1);
+
+        assertNull(index.cached("r1"));
+    }
+
+    @Test
+    void voters_LoadRacingWithAVote_ShouldNotBeCached() {
+        givenSequence(0);
+        when(mongoTemplate.stream(any(Query.class), eq(Vote.class))).thenAnswer(inv -> {
+            index.recorded("r1", 9, null, VoteDirection.UP, 1);
+            return Stream.of(vote(1, VoteDirection.UP));
+        });
+
+        assertEquals(VoteDirection.UP, index.voters("r1").directionOf(1));
+        assertNull(index.cached("r1"));
+    }
+
+    @Test
+    void voters_VotesWithoutVoterNumbers_ShouldNotBeAnswered() {
+        givenSequence(0);
+        when(mongoTemplate.stream(any(Query.class), eq(Vote.class)))
+                .thenAnswer(inv -> Stream.of(vote(1, VoteDirection.UP), new Vote()));
+
+        assertNull(index.voters("r1"));
+        assertNull(index.cached("r1"));
+    }
+
+    @Test
+    void cached_ShouldExpireAfterTheTtl() {
+        index = new VoterIndex(mongoTemplate, 0, 10, 1);
+        givenSequence(0);
+        when(mongoTemplate.stream(any(Query.class), eq(Vote.class))).thenAnswer(inv -> Stream.of());
+
+        assertNotNull(index.voters("r1"));
+
+        assertNull(index.cached("r1"));
+    }
+
+    private void givenSequence(long sequence) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setVoteSequence(sequence);
+        when(mongoTemplate.findOne(any(Query.class), eq(Restaurant.class))).thenReturn(restaurant);
+    }
+
+    private static Vote vote(int voter, VoteDirection direction) {
+        Vote vote = new Vote();
+        vote.setVoter(voter);
+        vote.setDirection(direction);
+        return vote;
+    }
+}
@@ -0,0 +1,330 @@
+package com.plateful.backend.service;
+
+import com.plateful.backend.model.Restaurant;
+import com.plateful.backend.model.Vote;
+import com.plateful.backend.model.VoteDirection;
+import com.plateful.backend.repository.VoteRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VotingServiceTest {
+
+    @Mock
+    private VoteRepository voteRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private VoteStreamService voteStreamService;
+
+    @Mock
+    private VoterIdService voterIdService;
+
+    @Mock
+    private VoterIndex voterIndex;
+
+    @InjectMocks
+    private VotingService votingService;
+
+    private final String restaurantId = "restaurant-1";
+    private final String userId = "user-1";
+
+    @Test
+    void upvote_FirstVote_ShouldIncrementUpvoteAndNetCounters() {
+        Restaurant updated = restaurant(1, 0);
+        when(mongoTemplate.exists(any(Query.class), eq(Restaurant.class))).thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Vote.class))).thenReturn(null);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Restaurant.class))).thenReturn(updated);
+
+        Restaurant result = votingService.upvote(restaurantId, userId);
+
+        assertSame(updated, result);
+        Document inc = capturedCounterUpdate().getUpdateObject().get("$inc", Document.class);
+        assertEquals(1, inc.get("upvote_count"));
+        assertEquals(0, inc.get("downvote_count"));
+        assertEquals(1, inc.get("net_votes"));
+        verify(leaderboardService).update(updated);
+        verify(voteStreamService).publish(updated);
+    }
+
+    @Test
+    void upvote_ShouldStoreVoterNumberAndUpdateVoterBitmaps() {
+        when(voterIdService.assign(userId)).thenReturn(42);
+        when(mongoTemplate.exists(any(Query.class), eq(Restaurant.class))).thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Vote.class))).thenReturn(vote(VoteDirection.DOWN));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Restaurant.class))).thenReturn(restaurant(1, 0, 8));
+
+        votingService.upvote(restaurantId, userId);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                any(FindAndModifyOptions.class), eq(Vote.class));
+        assertEquals(42, update.getValue().getUpdateObject().get("$set", Document.class).get("voter"));
+        assertEquals(1, capturedCounterUpdate().getUpdateObject().get("$inc", Document.class).get("vote_seq"));
+        verify(voterIndex).recorded(restaurantId, 42, VoteDirection.DOWN, VoteDirection.UP, 8);
+    }
+
+    @Test
+    void upvote_SwitchingFromDownvote_ShouldMoveCountsAcross() {
+        when(mongoTemplate.exists(any(Query.class), eq(Restaurant.class))).thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Vote.class))).thenReturn(vote(VoteDirection.DOWN));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Restaurant.class))).thenReturn(restaurant(1, 0));
+
+        votingService.upvote(restaurantId, userId);
+
+        Document inc = capturedCounterUpdate().getUpdateObject().get("$inc", Document.class);
+        assertEquals(1, inc.get("upvote_count"));
+        assertEquals(-1, inc.get("downvote_count"));
+        assertEquals(2, inc.get("net_votes"));
+    }
+
+    @Test
+    void upvote_Repeated_ShouldNotChangeCounters() {
+        when(mongoTemplate.exists(any(Query.class), eq(Restaurant.class))).thenReturn(true);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Vote.class))).thenReturn(vote(VoteDirection.UP));
+        when(mongoTemplate.findOne(any(Query.class), eq(Restaurant.class))).thenReturn(restaurant(1, 0));
+
+        Restaurant result = votingService.upvote(restaurantId, userId);
+
+        assertEquals(1, result.getUpvoteCount());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Restaurant.class));
+    }
+
+    @Test
+    void removeVote_ShouldDecrementPreviousDirection() {
+        when(mongoTemplate.exists(any(Query.class), eq(Restaurant.class))).thenReturn(true);
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Vote.class))).thenReturn(vote(VoteDirection.DOWN));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Restaurant.class))).thenReturn(restaurant(0, 0));
+
+        votingService.removeVote(restaurantId, userId);
+
+        Document inc = capturedCounterUpdate().getUpdateObject().get("$inc", Document.class);
+        assertEquals(0, inc.get("upvote_count"));
+        assertEquals(-1, inc.get("downvote_count"));
+        assertEquals(1, inc.get("net_votes"));
+    }
+
+    @Test
+    void upvote_ShouldThrowWhenRestaurantNotFound() {
+        when(mongoTemplate.exists(any(Query.class), eq(Restaurant.class))).thenReturn(false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> votingService.upvote(restaurantId, userId));
+        assertEquals("Restaurant not found", exception.getMessage());
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Vote.class));
+    }
+
+    @Test
+    void getVoteStatus_ShouldCombineCountersWithUsersVote() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Restaurant.class))).thenReturn(restaurant(3, 1, 7));
+        when(voterIdService.find(userId)).thenReturn(OptionalInt.of(4));
+        when(voterIndex.voters(restaurantId)).thenReturn(voters(4, VoteDirection.DOWN, 7));
+
+        Map<String, Object> status = votingService.getVoteStatus(restaurantId, userId);
+
+        assertEquals(false, status.get("hasUpvoted"));
+        assertEquals(true, status.get("hasDownvoted"));
+        assertEquals(3, status.get("upvoteCount"));
+        assertEquals(1, status.get("downvoteCount"));
+        assertEquals(2, status.get("voteCount"));
+        verifyNoInteractions(voteRepository);
+    }
+
+    @Test
+    void getVoteStatus_VotersBehindTheSequence_ShouldEvictAndLookUpTheVote() {
+        // on other instances the user removed their upvote and someone else upvoted: same totals,
+        // but two vote changes this instance's bitmaps never saw
+        when(mongoTemplate.findOne(any(Query.class), eq(Restaurant.class))).thenReturn(restaurant(3, 1, 9));
+        when(voterIdService.find(userId)).thenReturn(OptionalInt.of(4));
+        when(voterIndex.voters(restaurantId)).thenReturn(voters(4, VoteDirection.UP, 7));
+        when(voteRepository.findByRestaurantIdAndUserId(restaurantId, userId)).thenReturn(Optional.empty());
+
+        Map<String, Object> status = votingService.getVoteStatus(restaurantId, userId);
+
+        assertEquals(false, status.get("hasUpvoted"));
+        assertEquals(false, status.get("hasDownvoted"));
+        verify(voterIndex).evict(restaurantId);
+    }
+
+    @Test
+    void getVoteStatus_VotersNotLoaded_ShouldFallBackToPointLookup() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Restaurant.class))).thenReturn(restaurant(3, 1));
+        when(voterIdService.find(userId)).thenReturn(OptionalInt.of(4));
+        when(voterIndex.voters(restaurantId)).thenReturn(null);
+        when(voteRepository.findByRestaurantIdAndUserId(restaurantId, userId))
+                .thenReturn(Optional.of(vote(VoteDirection.UP)));
+
+        Map<String, Object> status = votingService.getVoteStatus(restaurantId, userId);
+
+        assertEquals(true, status.get("hasUpvoted"));
+    }
+
+    @Test
+    void getVoteStatus_UserWithoutVoterNumber_ShouldSkipVoteLookup() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Restaurant.class))).thenReturn(restaurant(3, 1));
+        when(voterIdService.find(userId)).thenReturn(OptionalInt.empty());
+
+        Map<String, Object> status = votingService.getVoteStatus(restaurantId, userId);
+
+        assertEquals(false, status.get("hasUpvoted"));
+        assertEquals(false, status.get("hasDownvoted"));
+        verifyNoInteractions(voteRepository, voterIndex);
+    }
+
+    @Test
+    void getVoteStatus_AnonymousUser_ShouldSkipVoteLookup() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Restaurant.class))).thenReturn(restaurant(3, 1));
+
+        Map<String, Object> status = votingService.getVoteStatus(restaurantId, null);
+
+        assertEquals(false, status.get("hasUpvoted"));
+        assertEquals(false, status.get("hasDownvoted"));
+        verifyNoInteractions(voteRepository);
+    }
+
+    @Test
+    void getVoteStatuses_ShouldUseOneQueryForCountsAndOneForUserVotes() {
+        Restaurant first = restaurant(2, 0);
+        first.setId("r1");
+        Restaurant second = restaurant(0, 1);
+        second.setId("r2");
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(second, first));
+        when(voterIdService.find(userId)).thenReturn(OptionalInt.of(4));
+        Vote vote = new Vote("r2", userId, VoteDirection.DOWN, java.time.Instant.now());
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of(vote));
+
+        Map<String, Map<String, Object>> statuses =
+                votingService.getVoteStatuses(List.of("r1", "r2", "missing"), userId);
+
+        assertEquals(List.of("r1", "r2"), List.copyOf(statuses.keySet()));
+        assertEquals(2, statuses.get("r1").get("voteCount"));
+        assertEquals(false, statuses.get("r1").get("hasUpvoted"));
+        assertEquals(true, statuses.get("r2").get("hasDownvoted"));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Restaurant.class));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Vote.class));
+        verifyNoInteractions(voteRepository);
+    }
+
+    @Test
+    void getVoteStatuses_ShouldOnlyQueryVotesOnRestaurantsWithoutCachedVoters() {
+        Restaurant first = restaurant(2, 0, 5);
+        first.setId("r1");
+        Restaurant second = restaurant(0, 1, 1);
+        second.setId("r2");
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(first, second));
+        when(voterIdService.find(userId)).thenReturn(OptionalInt.of(4));
+        when(voterIndex.cached("r1")).thenReturn(voters(4, VoteDirection.UP, 5));
+        when(voterIndex.cached("r2")).thenReturn(voters(4, VoteDirection.DOWN, 1));
+
+        Map<String, Map<String, Object>> statuses =
+                votingService.getVoteStatuses(List.of("r1", "r2"), userId);
+
+        assertEquals(true, statuses.get("r1").get("hasUpvoted"));
+        assertEquals(true, statuses.get("r2").get("hasDownvoted"));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Vote.class));
+    }
+
+    @Test
+    void getVoteStatuses_StaleCachedVoters_ShouldBeQueried() {
+        Restaurant first = restaurant(1, 0, 3);
+        first.setId("r1");
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(first));
+        when(voterIdService.find(userId)).thenReturn(OptionalInt.of(4));
+        when(voterIndex.cached("r1")).thenReturn(voters(4, VoteDirection.UP, 1));
+        when(mongoTemplate.find(any(Query.class), eq(Vote.class))).thenReturn(List.of());
+
+        Map<String, Map<String, Object>> statuses =
+                votingService.getVoteStatuses(List.of("r1"), userId);
+
+        assertEquals(false, statuses.get("r1").get("hasUpvoted"));
+        verify(voterIndex).evict("r1");
+    }
+
+    @Test
+    void hasUserUpvoted_ShouldUseAPointLookup() {
+        when(voteRepository.findByRestaurantIdAndUserId(restaurantId, userId))
+                .thenReturn(Optional.of(vote(VoteDirection.UP)));
+
+        assertTrue(votingService.hasUserUpvoted(restaurantId, userId));
+        assertFalse(votingService.hasUserDownvoted(restaurantId, userId));
+        verifyNoInteractions(voterIndex);
+    }
+
+    @Test
+    void getVoteStatuses_AnonymousUser_ShouldOnlyQueryCounts() {
+        when(mongoTemplate.find(any(Query.class), eq(Restaurant.class))).thenReturn(List.of(restaurant(1, 0)));
+
+        Map<String, Map<String, Object>> statuses =
+                votingService.getVoteStatuses(List.of(restaurantId), null);
+
+        assertEquals(false, statuses.get(restaurantId).get("hasUpvoted"));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Vote.class));
+    }
+
+    private Update capturedCounterUpdate() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(),
+                any(FindAndModifyOptions.class), eq(Restaurant.class));
+        return update.getValue();
+    }
+
+    private static VoterIndex.Voters voters(int voter, VoteDirection direction, long sequence) {
+        VoterIndex.Voters voters = new VoterIndex.Voters();
+        voters.set(voter, direction);
+        voters.setSequence(sequence);
+        return voters;
+    }
+
+    private Vote vote(VoteDirection direction) {
+        return new Vote(restaurantId, userId, direction, java.time.Instant.now());
+    }
+
+    private Restaurant restaurant(int up, int down, long sequence) {
+        Restaurant r = restaurant(up, down);
+        r.setVoteSequence(sequence);
+        return r;
+    }
+
+    private Restaurant restaurant(int up, int down) {
+        Restaurant r = new Restaurant();
+        r.setId(restaurantId);
+        r.setUpvoteCount(up);
+        r.setDownvoteCount(down);
+        r.setVoteCount(up - down);
+        return r;
+    }
+}
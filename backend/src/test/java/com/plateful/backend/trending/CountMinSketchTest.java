@@ -0,0 +1,72 @@
+package com.plateful.backend.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimate_ShouldNeverUndercount() {
+        CountMinSketch sketch = new CountMinSketch(4, 64);
+        for (int i = 0; i < 500; i++) {
+            sketch.add("r" + (i % 50));
+        }
+        sketch.add("hot");
+        sketch.add("hot");
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(sketch.estimate("r" + i) >= 10);
+        }
+        assertTrue(sketch.estimate("hot") >= 2);
+    }
+
+    @Test
+    void estimate_ShouldBeExactWithoutCollisions() {
+        CountMinSketch sketch = new CountMinSketch(4, 4096);
+        IntStream.range(0, 7).forEach(i -> sketch.add("a"));
+        IntStream.range(0, 3).forEach(i -> sketch.add("b"));
+
+        assertEquals(7, sketch.estimate("a"));
+        assertEquals(3, sketch.estimate("b"));
+        assertEquals(0, sketch.estimate("missing"));
+    }
+
+    @Test
+    void sketchesShouldMergeByAddingCounters() {
+        CountMinSketch first = new CountMinSketch(4, 4096);
+        CountMinSketch second = new CountMinSketch(4, 4096);
+        first.add("a");
+        first.add("a");
+        second.add("a");
+        second.add("b");
+
+        int[] merged = first.toArray();
+        int[] other = second.toArray();
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] += other[i];
+        }
+
+        assertEquals(3, CountMinSketch.estimate(merged, 4, 4096, "a"));
+        assertEquals(1, CountMinSketch.estimate(merged, 4, 4096, "b"));
+    }
+
+    @Test
+    void clear_ShouldResetCounts() {
+        CountMinSketch sketch = new CountMinSketch(2, 16);
+        sketch.add("a");
+        sketch.clear();
+
+        assertEquals(0, sketch.estimate("a"));
+    }
+
+    @Test
+    void constructor_ShouldRejectInvalidDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 16));
+        assertThrows(IllegalArgumentException.class,
+            () -> new CountMinSketch(CountMinSketch.MAX_DEPTH + 1, 16));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(2, 0));
+    }
+}
@@ -0,0 +1,81 @@
+package com.plateful.backend.trending;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeBucketedCounterTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private static int count(List<TimeBucketedCounter.Snapshot> window, String key) {
+        int total = 0;
+        for (TimeBucketedCounter.Snapshot s : window) {
+            total += CountMinSketch.estimate(s.counters(), 4, 1024, key);
+        }
+        return total;
+    }
+
+    @Test
+    void window_ShouldOnlyIncludeRecentBuckets() {
+        TimeBucketedCounter counter = new TimeBucketedCounter(60, MINUTE, 4, 1024, 100);
+        long now = 1_000 * MINUTE;
+        counter.record("a", now - 30 * MINUTE);
+        counter.record("a", now - 5 * MINUTE);
+        counter.record("a", now);
+        counter.record("b", now);
+
+        assertEquals(1, count(counter.window(now, 1), "a"));
+        assertEquals(2, count(counter.window(now, 10), "a"));
+        assertEquals(3, count(counter.window(now, 60), "a"));
+        assertEquals(1, count(counter.window(now, 60), "b"));
+    }
+
+    @Test
+    void record_ShouldRecycleBucketsOnceTheRingWrapsAround() {
+        TimeBucketedCounter counter = new TimeBucketedCounter(5, MINUTE, 4, 1024, 100);
+        long start = 1_000 * MINUTE;
+        counter.record("old", start);
+        counter.record("new", start + 5 * MINUTE); // same ring slot, next lap
+
+        List<TimeBucketedCounter.Snapshot> window = counter.window(start + 5 * MINUTE, 5);
+        assertEquals(0, count(window, "old"));
+        assertEquals(1, count(window, "new"));
+
+        // a late write for the recycled period is dropped rather than counted in the new one
+        counter.record("old", start);
+        assertEquals(0, count(counter.window(start + 5 * MINUTE, 5), "old"));
+    }
+
+    @Test
+    void record_ShouldCapCandidateKeysButKeepCounting() {
+        TimeBucketedCounter counter = new TimeBucketedCounter(5, MINUTE, 4, 1024, 2);
+        long now = 1_000 * MINUTE;
+        counter.record("a", now);
+        counter.record("b", now);
+        counter.record("c", now);
+
+        List<TimeBucketedCounter.Snapshot> window = counter.window(now, 1);
+        assertEquals(Set.of("a", "b"), window.get(0).keys());
+        assertEquals(1, count(window, "c"));
+    }
+
+    @Test
+    void drainDirty_ShouldReturnEachChangedBucketOnce() {
+        TimeBucketedCounter counter = new TimeBucketedCounter(5, MINUTE, 4, 1024, 100);
+        long now = 1_000 * MINUTE;
+        counter.record("a", now - MINUTE);
+        counter.record("a", now);
+
+        assertEquals(2, counter.drainDirty(now).size());
+        assertTrue(counter.drainDirty(now).isEmpty());
+
+        counter.record("b", now);
+        List<TimeBucketedCounter.Snapshot> dirty = counter.drainDirty(now);
+        assertEquals(1, dirty.size());
+        assertEquals(counter.bucketOf(now), dirty.get(0).bucket());
+    }
+}
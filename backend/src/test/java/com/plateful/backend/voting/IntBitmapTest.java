@@ -0,0 +1,86 @@
+package com.plateful.backend.voting;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntBitmapTest {
+
+    @Test
+    void addRemoveContains_ShouldBehaveLikeASet() {
+        IntBitmap bitmap = new IntBitmap();
+
+        assertTrue(bitmap.add(7));
+        assertTrue(bitmap.add(70_000));
+        assertTrue(bitmap.add(-1));
+        assertFalse(bitmap.add(7));
+
+        assertTrue(bitmap.contains(7));
+        assertTrue(bitmap.contains(70_000));
+        assertTrue(bitmap.contains(-1));
+        assertFalse(bitmap.contains(8));
+        assertFalse(bitmap.contains(7 + 65536));
+        assertEquals(3, bitmap.cardinality());
+
+        assertTrue(bitmap.remove(70_000));
+        assertFalse(bitmap.remove(70_000));
+        assertFalse(bitmap.contains(70_000));
+        assertEquals(2, bitmap.cardinality());
+    }
+
+    @Test
+    void chunks_ShouldSwitchBetweenArrayAndBitmapAtTheThreshold() {
+        IntBitmap bitmap = new IntBitmap();
+        for (int i = 0; i <= IntBitmap.ARRAY_MAX; i++) {
+            bitmap.add(i * 3);
+        }
+        for (int i = 0; i <= IntBitmap.ARRAY_MAX; i++) {
+            assertTrue(bitmap.contains(i * 3));
+            assertFalse(bitmap.contains(i * 3 + 1));
+        }
+
+        bitmap.remove(0);
+        bitmap.remove(3);
+
+        assertEquals(IntBitmap.ARRAY_MAX - 1, bitmap.cardinality());
+        assertFalse(bitmap.contains(3));
+        assertTrue(bitmap.contains(6));
+        assertTrue(bitmap.contains(IntBitmap.ARRAY_MAX * 3));
+    }
+
+    @Test
+    void randomOperations_ShouldMatchAHashSet() {
+        Random random = new Random(42);
+        IntBitmap bitmap = new IntBitmap();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(300_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(value), bitmap.remove(value));
+            } else {
+                assertEquals(expected.add(value), bitmap.add(value));
+            }
+        }
+
+        assertEquals(expected.size(), bitmap.cardinality());
+        for (int value = 0; value < 300_000; value++) {
+            assertEquals(expected.contains(value), bitmap.contains(value));
+        }
+    }
+
+    @Test
+    void sizeInBytes_ShouldStayInKilobytesForOneHundredThousandDenseVoters() {
+        IntBitmap bitmap = new IntBitmap();
+        Random random = new Random(7);
+        // 100k voters out of 500k users
+        while (bitmap.cardinality() < 100_000) {
+            bitmap.add(random.nextInt(500_000));
+        }
+
+        assertTrue(bitmap.sizeInBytes() < 80 * 1024, "size was " + bitmap.sizeInBytes());
+    }
+}
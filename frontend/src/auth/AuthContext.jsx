@@ -1,6 +1,6 @@
 // src/auth/AuthContext.jsx
 import { createContext, useContext, useEffect, useMemo, useState, useCallback } from "react";
-import { api } from "../lib/api";
+import { api, setSessionExpiredHandler, tokens } from "../lib/api";
 
 const AuthCtx = createContext(null);
 
@@ -51,6 +51,12 @@ export function AuthProvider({ children }) {
     setReady(true);
   }, []);
 
+  // A request whose session could not be refreshed signs the user out
+  useEffect(() => {
+    setSessionExpiredHandler(() => persistUserState(null));
+    return () => setSessionExpiredHandler(null);
+  }, [persistUserState]);
+
   const value = useMemo(
     () => ({
       user,
@@ -65,9 +71,7 @@ export function AuthProvider({ children }) {
         const data = await api.login({ email: email.trim(), password });
 
         // Optional tokens if your backend returns them
-        const storage = getStorage();
-        if (data?.accessToken) storage.setItem("accessToken", data.accessToken);
-        if (data?.refreshToken) storage.setItem("refreshToken", data.refreshToken);
+        tokens.store(data);
 
         // Decode JWT to get user ID
         let userId = null;
@@ -99,12 +103,13 @@ export function AuthProvider({ children }) {
       },
 
       async signOut() {
-        const storage = getStorage();
         try {
-          await api.logout();
+          await api.logout({
+            accessToken: tokens.access(),
+            refreshToken: tokens.refresh(),
+          });
         } catch {}
-        storage.removeItem("accessToken");
-        storage.removeItem("refreshToken");
+        tokens.clear();
         persistUserState(null);
       },
     }),
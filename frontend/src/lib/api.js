@@ -1,7 +1,73 @@
 // src/lib/api.js
 import { buildApiUrl } from "./config";
 
-async function request(path, { method = "GET", body, headers = {} } = {}) {
+const memoryStorage = new Map();
+
+const getStorage = () =>
+  typeof window !== "undefined" && window.localStorage
+    ? window.localStorage
+    : {
+        getItem: (key) => (memoryStorage.has(key) ? memoryStorage.get(key) : null),
+        setItem: (key, value) => memoryStorage.set(key, value),
+        removeItem: (key) => memoryStorage.delete(key),
+      };
+
+// Access and refresh tokens, shared with AuthContext
+export const tokens = {
+  access: () => getStorage().getItem("accessToken"),
+  refresh: () => getStorage().getItem("refreshToken"),
+  store({ accessToken, refreshToken } = {}) {
+    const storage = getStorage();
+    if (accessToken) storage.setItem("accessToken", accessToken);
+    if (refreshToken) storage.setItem("refreshToken", refreshToken);
+  },
+  clear() {
+    const storage = getStorage();
+    storage.removeItem("accessToken");
+    storage.removeItem("refreshToken");
+  },
+};
+
+// Called when the session can no longer be refreshed; AuthContext signs the user out
+let onSessionExpired = () => {};
+export const setSessionExpiredHandler = (handler) => {
+  onSessionExpired = handler ?? (() => {});
+};
+
+// Refresh tokens rotate, so concurrent 401s must share one refresh: sending the
+// same refresh token twice is treated as replay and revokes the session.
+let refreshing = null;
+
+function refreshSession() {
+  if (!refreshing) {
+    refreshing = (async () => {
+      const refreshToken = tokens.refresh();
+      if (!refreshToken) return false;
+      try {
+        const data = await send("/auth/refresh", {
+          method: "POST",
+          body: { refreshToken },
+        });
+        tokens.store(data);
+        return !!data?.accessToken;
+      } catch {
+        return false;
+      }
+    })().finally(() => {
+      refreshing = null;
+    });
+  }
+  return refreshing;
+}
+
+class ApiError extends Error {
+  constructor(message, status) {
+    super(message);
+    this.status = status;
+  }
+}
+
+async function send(path, { method = "GET", body, headers = {} } = {}) {
   const res = await fetch(buildApiUrl(path), {
     method,
     headers: { "Content-Type": "application/json", ...headers },
@@ -22,11 +88,38 @@ async function request(path, { method = "GET", body, headers = {} } = {}) {
       json?.message ||
       (json?.errors && Object.values(json.errors)[0]) ||
       `Request failed (${res.status})`;
-    throw new Error(msg);
+    throw new ApiError(msg, res.status);
   }
   return json;
 }
 
+// With auth, sends the stored access token. On a 401 the session is refreshed
+// once and the request retried with the new token; if the refresh fails the
+// user is signed out.
+async function request(path, { auth = false, headers = {}, ...options } = {}) {
+  if (!auth) return send(path, { ...options, headers });
+
+  const withToken = () => {
+    const accessToken = tokens.access();
+    return send(path, {
+      ...options,
+      headers: accessToken ? { ...headers, Authorization: `Bearer ${accessToken}` } : headers,
+    });
+  };
+
+  try {
+    return await withToken();
+  } catch (err) {
+    if (err.status !== 401) throw err;
+    if (!(await refreshSession())) {
+      tokens.clear();
+      onSessionExpired();
+      throw err;
+    }
+    return withToken();
+  }
+}
+
 export const api = {
   signup: ({ email, password }) =>
     request("/auth/signup", { method: "POST", body: { email, password } }),
@@ -34,6 +127,13 @@ export const api = {
   login: ({ email, password }) =>
     request("/auth/login", { method: "POST", body: { email, password } }),
 
-  me: () => request("/auth/me"),
-  logout: () => request("/auth/logout", { method: "POST" }),
+  refresh: refreshSession,
+
+  me: () => request("/auth/me", { auth: true }),
+  logout: ({ accessToken, refreshToken } = {}) =>
+    request("/auth/logout", {
+      method: "POST",
+      body: { refreshToken },
+      headers: accessToken ? { Authorization: `Bearer ${accessToken}` } : {},
+    }),
 };
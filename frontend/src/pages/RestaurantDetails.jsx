@@ -31,6 +31,7 @@ export default function RestaurantDetails() {
     voteCount: 0
   });
   const [voteLoading, setVoteLoading] = useState(false);
+  const [similar, setSimilar] = useState([]);
 
   useEffect(() => {
     fetch(buildApiUrl(`/api/restaurants/${id}`))
@@ -62,6 +63,14 @@ export default function RestaurantDetails() {
       });
   }, [id, user]);
 
+  // "People also liked" (precomputed on the server; empty until the first run)
+  useEffect(() => {
+    fetch(buildApiUrl(`/api/restaurants/${id}/similar?limit=6`))
+      .then((res) => (res.ok ? res.json() : []))
+      .then((data) => setSimilar(Array.isArray(data) ? data : []))
+      .catch(() => setSimilar([]));
+  }, [id]);
+
   // Check if restaurant is in favorites
   useEffect(() => {
     if (user?.id && id) {
@@ -95,6 +104,28 @@ export default function RestaurantDetails() {
     }
   }, [user, id]);
 
+  // Live vote counts pushed by the server (SSE); keeps this user's own vote flags
+  useEffect(() => {
+    if (!id || typeof EventSource === 'undefined') return undefined;
+
+    const source = new EventSource(buildApiUrl(`/api/restaurants/${id}/votes/stream`));
+    source.addEventListener('votes', (event) => {
+      try {
+        const data = JSON.parse(event.data);
+        setVoteStatus(prev => ({
+          ...prev,
+          upvoteCount: data.upvoteCount || 0,
+          downvoteCount: data.downvoteCount || 0,
+          voteCount: data.voteCount || 0
+        }));
+      } catch (err) {
+        console.error('Failed to parse vote update:', err);
+      }
+    });
+
+    return () => source.close();
+  }, [id]);
+
   // Share URL for this restaurant - use canonical frontend URL
   const shareUrl = buildFrontendUrl(`/restaurant/${id}`);
 
@@ -498,6 +529,25 @@ export default function RestaurantDetails() {
               />
             </div>
           </div>
+
+          {/* People also liked */}
+          {similar.length > 0 && (
+            <div className="mt-8">
+              <h4 className="text-lg font-semibold mb-2">People also liked</h4>
+              <div className="flex flex-wrap gap-3">
+                {similar.map(({ restaurant: other }) => (
+                  <button
+                    key={other.id}
+                    onClick={() => navigate(`/restaurant/${other.id}`)}
+                    className="px-4 py-2 rounded-full text-sm font-medium border border-gray-300 bg-white text-gray-800 hover:bg-gray-100"
+                  >
+                    {other.name}
+                    {other.cuisine ? ` · ${other.cuisine}` : ""}
+                  </button>
+                ))}
+              </div>
+            </div>
+          )}
         </div>
       </div>
 